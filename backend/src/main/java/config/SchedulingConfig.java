@@ -0,0 +1,14 @@
+package config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuración de tareas programadas
+ * - Habilita @Scheduled para tareas de mantenimiento en segundo plano
+ *   (limpieza de tokens revocados expirados, etc.)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -2,20 +2,39 @@ package controller;
 
 import model.AuditLog;
 import model.User;
+import model.UserRole;
 import service.AuditLogService;
 import service.UserService;
+import service.LatencyMetrics;
+import service.AccessCounterBuffer;
+import service.TrendingService;
+import service.SearchIndexService;
+import service.SearchService;
+import service.SearchResultCache;
+import service.SuggestionService;
+import service.PageCursor;
+import security.JwtTokenProvider;
+import security.PasswordHashingService;
+import security.RateLimiter;
+import security.PrincipalCache;
+import security.TokenBlacklistService;
 import dto.response.UserResponse;
 import dto.response.AuditLogResponse;
+import dto.response.CursorPageResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Controlador Administrativo
@@ -36,6 +55,42 @@ public class AdminController {
     @Autowired
     private AuditLogService auditLogService;
 
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenBlacklistService tokenBlacklistService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private LatencyMetrics latencyMetrics;
+
+    @Autowired
+    private AccessCounterBuffer accessCounterBuffer;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
     // ============================================================================
     // GESTIÓN DE USUARIOS
     // ============================================================================
@@ -155,6 +210,41 @@ public class AdminController {
         return ResponseEntity.ok(userService.convertToResponse(user));
     }
 
+    /**
+     * PUT /api/admin/users/{id}/role
+     * Cambiar el rol de un usuario
+     *
+     * El usuario deberá volver a autenticarse: sus tokens con el rol anterior dejan de ser válidos.
+     *
+     * @param id id del usuario
+     * @param roleRequest con campo "role" (USER/ADMIN)
+     * @return Usuario actualizado (200 OK) o error (400, 404)
+     */
+    @Secured("ROLE_ADMIN")
+    @PutMapping("/users/{id}/role")
+    public ResponseEntity<UserResponse> changeUserRole(
+            @PathVariable Long id,
+            @RequestBody Map<String, String> roleRequest) {
+        User user = userService.changeUserRole(id, parseRole(roleRequest.get("role")));
+        return ResponseEntity.ok(userService.convertToResponse(user));
+    }
+
+    /**
+     * Validar el rol recibido
+     * @throws IllegalArgumentException (400) si falta o no es un rol existente, con los valores permitidos
+     */
+    private static UserRole parseRole(String role) {
+        String allowed = Arrays.stream(UserRole.values()).map(Enum::name).collect(Collectors.joining(", "));
+        if (role == null || role.isBlank()) {
+            throw new IllegalArgumentException("El campo role es obligatorio. Valores permitidos: " + allowed);
+        }
+        try {
+            return UserRole.valueOf(role.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Rol no válido: " + role + ". Valores permitidos: " + allowed);
+        }
+    }
+
     /**
      * GET /api/admin/users/count/total
      * Obtener total de usuarios registrados
@@ -227,6 +317,23 @@ public class AdminController {
         return ResponseEntity.ok(logs);
     }
 
+    /**
+     * GET /api/admin/audit-logs?cursor=
+     * Obtener los logs de auditoría por cursor, más recientes primero
+     *
+     * @param cursor nextCursor de la página anterior (vacío para la primera)
+     * @param size tamaño de página (default: 20, como mucho 100)
+     * @return Logs y cursor de la página siguiente (200 OK) o cursor no válido (400)
+     */
+    @Secured("ROLE_ADMIN")
+    @GetMapping(value = "/audit-logs", params = "cursor")
+    public ResponseEntity<CursorPageResponse<AuditLogResponse>> listAuditLogsByCursor(
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        Slice<AuditLogResponse> logs = auditLogService.listLogsAfter(PageCursor.decodeKeyed(cursor), PageCursor.size(size));
+        return ResponseEntity.ok(PageCursor.page(logs, log -> new PageCursor(log.getTimestamp(), log.getId())));
+    }
+
     /**
      * GET /api/admin/audit-logs/search
      * Buscar logs de auditoría por filtros
@@ -419,4 +526,79 @@ public class AdminController {
 
         return ResponseEntity.ok(summary);
     }
-}
\ No newline at end of file
+
+    // ============================================================================
+    // MÉTRICAS
+    // ============================================================================
+
+    /**
+     * GET /api/admin/metrics/security
+     * Obtener métricas de las cachés de autenticación, la blacklist y el límite de peticiones
+     *
+     * @return Aciertos, fallos y tamaño de cada caché (200 OK)
+     */
+    @Secured("ROLE_ADMIN")
+    @GetMapping("/metrics/security")
+    public ResponseEntity<Map<String, Object>> getSecurityMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("verifiedTokenCache", jwtTokenProvider.getVerifiedCacheStatistics());
+        metrics.put("principalCache", principalCache.getStatistics());
+        metrics.put("tokenBlacklist", tokenBlacklistService.getStatistics());
+        metrics.put("passwordHashing", passwordHashingService.getStatistics());
+        metrics.put("rateLimit", rateLimiter.getStatistics());
+        return ResponseEntity.ok(metrics);
+    }
+
+    /**
+     * GET /api/admin/metrics/latency
+     * Obtener latencias por etapa (cola y cálculo de hash, base de datos...)
+     *
+     * @return Contador, media, máximo y percentiles aproximados por etapa (200 OK)
+     */
+    @Secured("ROLE_ADMIN")
+    @GetMapping("/metrics/latency")
+    public ResponseEntity<Map<String, Object>> getLatencyMetrics() {
+        return ResponseEntity.ok(latencyMetrics.getSnapshot());
+    }
+
+    /**
+     * GET /api/admin/metrics/access-counters
+     * Obtener el estado de los contadores de acceso pendientes de volcar
+     *
+     * @return Contadores en memoria, accesos registrados y filas volcadas (200 OK)
+     */
+    @Secured("ROLE_ADMIN")
+    @GetMapping("/metrics/access-counters")
+    public ResponseEntity<Map<String, Object>> getAccessCounterMetrics() {
+        return ResponseEntity.ok(accessCounterBuffer.getStatistics());
+    }
+
+    /**
+     * GET /api/admin/metrics/trending
+     * Obtener el estado del motor de lecciones trending
+     *
+     * @return Lecciones seguidas, categorías y configuración del decaimiento (200 OK)
+     */
+    @Secured("ROLE_ADMIN")
+    @GetMapping("/metrics/trending")
+    public ResponseEntity<Map<String, Object>> getTrendingMetrics() {
+        return ResponseEntity.ok(trendingService.getStatistics());
+    }
+
+    /**
+     * GET /api/admin/metrics/search
+     * Obtener el estado del índice de búsqueda, las sugerencias y el buscador unificado
+     *
+     * @return Documentos indexados, títulos sugeribles, fuentes omitidas y aciertos de la caché (200 OK)
+     */
+    @Secured("ROLE_ADMIN")
+    @GetMapping("/metrics/search")
+    public ResponseEntity<Map<String, Object>> getSearchMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("index", searchIndexService.getStatistics());
+        metrics.put("suggestions", suggestionService.getStatistics());
+        metrics.put("unified", searchService.getStatistics());
+        metrics.put("resultCache", searchResultCache.getStatistics());
+        return ResponseEntity.ok(metrics);
+    }
+}
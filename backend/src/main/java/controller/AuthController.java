@@ -3,10 +3,16 @@ package controller;
 import model.User;
 import service.UserService;
 import security.JwtTokenProvider;
+import security.RefreshTokenService;
+import security.TokenRevocationLog;
+import security.VerifiedToken;
 import dto.request.RegisterRequest;
 import dto.response.UserResponse;
 import dto.response.AuthResponse;
 import exception.DuplicateResourceException;
+import exception.ServiceUnavailableException;
+import exception.UnauthorizedException;
+import service.LatencyMetrics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +27,9 @@ import java.util.Map;
  *
  * Maneja registro, login, logout y renovación de tokens JWT.
  * Endpoints públicos (sin autenticación requerida).
+ *
+ * Los tokens de acceso son de vida corta; la sesión se mantiene con un
+ * refresh token rotatorio que se renueva en POST /api/auth/refresh.
  */
 @RestController
 @RequestMapping("/api/auth")
@@ -33,32 +42,38 @@ public class AuthController {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private TokenRevocationLog tokenRevocationLog;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private LatencyMetrics latencyMetrics;
+
     /**
      * POST /api/auth/register
      * Registrar nuevo usuario
      *
      * @param registerRequest datos del usuario (username, email, password)
-     * @return Usuario creado con token JWT (201 Created) o error (400, 409)
+     * @return Usuario creado con token JWT (201 Created) o error (400, 409, 503)
      */
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest registerRequest) {
         try {
             User user = userService.registerUser(registerRequest);
 
-            // Generar token JWT
-            String token = jwtTokenProvider.generateToken(user);
-
-            // Preparar respuesta
-            AuthResponse response = new AuthResponse();
-            response.setToken(token);
-            response.setTokenType("Bearer");
-            response.setUser(userService.convertToResponse(user));
+            // Preparar respuesta con token de acceso y refresh token
+            AuthResponse response = createAuthResponse(user, refreshTokenService.issue(user));
             response.setMessage("Usuario registrado exitosamente");
 
             return ResponseEntity.status(HttpStatus.CREATED).body(response);
         } catch (DuplicateResourceException e) {
             return ResponseEntity.status(HttpStatus.CONFLICT)
                     .body(createErrorResponse("DUPLICATE_RESOURCE", e.getMessage()));
+        } catch (ServiceUnavailableException e) {
+            // Pool de cifrado saturado: 503 con Retry-After desde el manejador global
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(createErrorResponse("REGISTRATION_ERROR", e.getMessage()));
@@ -70,7 +85,7 @@ public class AuthController {
      * Iniciar sesión (obtener token JWT)
      *
      * @param loginRequest con fields: username, password
-     * @return Token JWT y datos del usuario (200 OK) o error (400, 401)
+     * @return Token JWT y datos del usuario (200 OK) o error (400, 401, 503)
      */
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody Map<String, String> loginRequest) {
@@ -84,28 +99,24 @@ public class AuthController {
         }
 
         // Búsqueda de usuario
+        long dbStart = System.nanoTime();
         User user = userService.findByUsername(username)
                 .orElse(null);
+        latencyMetrics.record("auth.login.db", System.nanoTime() - dbStart);
 
         if (user == null || !user.getIsActive()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("INVALID_CREDENTIALS", "Usuario o contraseña inválidos"));
         }
 
-        // Validar contraseña con BCrypt (comparar con hash)
+        // Validar contraseña con BCrypt en el pool acotado (503 si está saturado)
         if (!userService.validatePassword(password, user.getPassword())) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("INVALID_CREDENTIALS", "Usuario o contraseña inválidos"));
         }
 
-        // Generar token JWT
-        String token = jwtTokenProvider.generateToken(user);
-
-        // Preparar respuesta
-        AuthResponse response = new AuthResponse();
-        response.setToken(token);
-        response.setTokenType("Bearer");
-        response.setUser(userService.convertToResponse(user));
+        // Preparar respuesta con token de acceso y refresh token
+        AuthResponse response = createAuthResponse(user, refreshTokenService.issue(user));
         response.setMessage("Login exitoso");
 
         return ResponseEntity.ok(response);
@@ -150,31 +161,42 @@ public class AuthController {
      * POST /api/auth/logout
      * Cerrar sesión (invalida el token actual mediante blacklist)
      *
+     * Si se envía el refresh token en el body, también se revoca la sesión completa,
+     * aunque el token de acceso ya haya expirado
+     *
      * @param authHeader header Authorization con el token
-     * @return Confirmación de logout (200 OK) o error (401)
+     * @param logoutRequest body opcional con field: refreshToken
+     * @return Confirmación de logout (200 OK) o error (400, 401, 503 si no se pudo registrar la revocación)
      */
     @PostMapping("/logout")
     public ResponseEntity<?> logout(
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestBody(required = false) Map<String, String> logoutRequest) {
 
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        String refreshToken = logoutRequest != null ? logoutRequest.get("refreshToken") : null;
+        boolean hasRefreshToken = refreshToken != null && !refreshToken.isEmpty();
+        boolean hasAccessToken = authHeader != null && authHeader.startsWith("Bearer ");
+
+        if (!hasAccessToken && !hasRefreshToken) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(createErrorResponse("INVALID_REQUEST", "Token no proporcionado en header Authorization"));
         }
 
-        String token = authHeader.substring(7);
+        // Revocar la sesión (familia de refresh tokens) si se proporciona, sea cual sea el estado del token de acceso
+        if (hasRefreshToken) {
+            refreshTokenService.revoke(refreshToken);
+        }
 
-        // Validar que el token sea válido antes de añadirlo a la blacklist
-        if (!jwtTokenProvider.validateToken(token)) {
+        // Solo un token de acceso válido necesita entrar en la blacklist; uno expirado ya no sirve
+        VerifiedToken verifiedToken = hasAccessToken ? jwtTokenProvider.verify(authHeader.substring(7)) : null;
+        if (verifiedToken != null) {
+            // Añadir el token a la blacklist y al log de revocaciones compartido
+            tokenRevocationLog.revoke(verifiedToken.jti(), verifiedToken.expiration());
+        } else if (!hasRefreshToken) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("INVALID_TOKEN", "Token inválido o expirado"));
         }
 
-        // Añadir el token a la blacklist
-        String jti = jwtTokenProvider.getJtiFromToken(token);
-        long expirationTime = jwtTokenProvider.getExpirationFromToken(token);
-        userService.getTokenBlacklistService().addToBlacklist(jti, expirationTime);
-
         Map<String, String> response = new HashMap<>();
         response.put("message", "Logout exitoso");
         response.put("timestamp", System.currentTimeMillis() + "");
@@ -186,44 +208,32 @@ public class AuthController {
      * POST /api/auth/refresh
      * Renovar token JWT
      *
-     * Permite renovar un token JWT válido para extender la sesión del usuario
+     * Rota el refresh token: el token presentado queda revocado y se devuelve
+     * uno nuevo junto con un token de acceso nuevo. Reutilizar un refresh token
+     * ya rotado revoca la sesión completa.
      *
-     * @param refreshRequest con el token actual
-     * @return Nuevo token JWT (200 OK) o error (401)
+     * @param refreshRequest con field: refreshToken
+     * @return Nuevo token de acceso y refresh token (200 OK) o error (400, 401)
      */
     @PostMapping("/refresh")
     public ResponseEntity<?> refreshToken(@RequestBody Map<String, String> refreshRequest) {
-        String oldToken = refreshRequest.get("token");
+        String refreshToken = refreshRequest.get("refreshToken");
 
-        if (oldToken == null || oldToken.isEmpty()) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(createErrorResponse("INVALID_REQUEST", "El token es requerido"));
+                    .body(createErrorResponse("INVALID_REQUEST", "El refresh token es requerido"));
         }
 
-        // Validar token
-        if (!jwtTokenProvider.validateToken(oldToken)) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(createErrorResponse("INVALID_TOKEN", "El token es inválido o ha expirado"));
-        }
-
-        // Extraer username del token
-        String username = jwtTokenProvider.getUsernameFromToken(oldToken);
-        User user = userService.findByUsername(username)
-                .orElse(null);
-
-        if (user == null || !user.getIsActive()) {
+        RefreshTokenService.Rotation rotation;
+        try {
+            rotation = refreshTokenService.rotate(refreshToken);
+        } catch (UnauthorizedException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                    .body(createErrorResponse("USER_NOT_FOUND", "El usuario no existe o está inactivo"));
+                    .body(createErrorResponse("INVALID_TOKEN", e.getMessage()));
         }
 
-        // Generar nuevo token
-        String newToken = jwtTokenProvider.generateToken(user);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("token", newToken);
-        response.put("tokenType", "Bearer");
-        response.put("user", userService.convertToResponse(user));
-        response.put("message", "Token renovado exitosamente");
+        AuthResponse response = createAuthResponse(rotation.user(), rotation.refreshToken());
+        response.setMessage("Token renovado exitosamente");
 
         return ResponseEntity.ok(response);
     }
@@ -272,6 +282,19 @@ public class AuthController {
     // ============================================================================
 
 
+    /**
+     * Crear respuesta de autenticación con token de acceso y refresh token
+     */
+    private AuthResponse createAuthResponse(User user, String refreshToken) {
+        AuthResponse response = new AuthResponse();
+        response.setToken(jwtTokenProvider.generateToken(user));
+        response.setTokenType("Bearer");
+        response.setExpiresIn(jwtTokenProvider.getAccessTokenExpiration() / 1000);
+        response.setRefreshToken(refreshToken);
+        response.setUser(userService.convertToResponse(user));
+        return response;
+    }
+
     /**
      * Crear respuesta de error estándar
      */
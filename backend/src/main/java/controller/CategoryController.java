@@ -2,6 +2,7 @@ package controller;
 
 import model.Category;
 import service.CategoryService;
+import service.ResourceVersion;
 import dto.request.CreateCategoryRequest;
 import dto.response.CategoryResponse;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,10 +13,11 @@ import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 /**
  * Controlador de Categorías
@@ -38,19 +40,23 @@ public class CategoryController {
      *
      * @param page número de página
      * @param size tamaño de página
-     * @return Página de categorías (200 OK)
+     * @param webRequest petición, para la comprobación condicional (ETag del listado completo)
+     * @return Página de categorías (200 OK) o sin cambios (304)
      */
     @GetMapping
     public ResponseEntity<Page<CategoryResponse>> listCategories(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "name") String sort,
-            @RequestParam(defaultValue = "asc") String direction) {
+            @RequestParam(defaultValue = "asc") String direction,
+            WebRequest webRequest) {
+        Optional<ResourceVersion> version = categoryService.getCategoriesVersion();
+        if (version.isPresent() && webRequest.checkNotModified(version.get().etag())) {
+            return null;
+        }
         Sort sortObj = direction.equalsIgnoreCase("asc") ? Sort.by(sort).ascending() : Sort.by(sort).descending();
         Pageable pageable = PageRequest.of(page, size, sortObj);
-        Page<Category> categories = categoryService.listAllCategories(pageable);
-        Page<CategoryResponse> response = categories.map(categoryService::convertToResponse);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(categoryService.listCategoryResponses(pageable));
     }
 
     /**
@@ -62,8 +68,7 @@ public class CategoryController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<CategoryResponse> getCategoryById(@PathVariable Long id) {
-        Category category = categoryService.findById(id);
-        return ResponseEntity.ok(categoryService.convertToResponse(category));
+        return ResponseEntity.ok(categoryService.getCategoryResponse(id));
     }
 
     /**
@@ -74,11 +79,7 @@ public class CategoryController {
      */
     @GetMapping("/with-lessons")
     public ResponseEntity<List<CategoryResponse>> getCategoriesWithLessons() {
-        List<Category> categories = categoryService.getCategoriesWithLessons();
-        List<CategoryResponse> response = categories.stream()
-                .map(categoryService::convertToResponse)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(categoryService.getCategoryResponsesWithLessons());
     }
 
     /**
@@ -2,6 +2,7 @@ package controller;
 
 import model.FAQ;
 import service.FAQService;
+import service.ResourceVersion;
 import dto.request.CreateFAQRequest;
 import dto.response.FAQResponse;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,9 +12,11 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -37,16 +40,20 @@ public class FAQController {
      *
      * @param page número de página
      * @param size tamaño de página
-     * @return Página de FAQs (200 OK)
+     * @param webRequest petición, para la comprobación condicional (ETag del listado completo)
+     * @return Página de FAQs (200 OK) o sin cambios (304)
      */
     @GetMapping
     public ResponseEntity<Page<FAQResponse>> listFAQs(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest) {
+        Optional<ResourceVersion> version = faqService.getActiveFAQsVersion();
+        if (version.isPresent() && webRequest.checkNotModified(version.get().etag())) {
+            return null;
+        }
         Pageable pageable = PageRequest.of(page, size);
-        Page<FAQ> faqs = faqService.listActiveFAQs(pageable);
-        Page<FAQResponse> response = faqs.map(faqService::convertToResponse);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(faqService.listActiveFAQResponses(pageable));
     }
 
     /**
@@ -76,9 +83,25 @@ public class FAQController {
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<FAQ> faqs = faqService.getFAQsByTopic(topic, pageable);
-        Page<FAQResponse> response = faqs.map(faqService::convertToResponse);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(faqService.getFAQResponsesByTopic(topic, pageable));
+    }
+
+    /**
+     * GET /api/v1/faq/search
+     * Buscar FAQs activas por texto
+     *
+     * @param text texto a buscar en pregunta o respuesta
+     * @param page número de página
+     * @param size tamaño de página
+     * @return Página de FAQs que coincidan, por relevancia
+     */
+    @GetMapping("/search")
+    public ResponseEntity<Page<FAQResponse>> searchFAQs(
+            @RequestParam String text,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        Pageable pageable = PageRequest.of(page, size);
+        return ResponseEntity.ok(faqService.searchActiveFAQResponses(text, pageable));
     }
 
     /**
@@ -90,8 +113,7 @@ public class FAQController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<FAQResponse> getFAQById(@PathVariable Long id) {
-        FAQ faq = faqService.findById(id);
-        return ResponseEntity.ok(faqService.convertToResponse(faq));
+        return ResponseEntity.ok(faqService.getFAQResponse(id));
     }
 
     /**
@@ -2,20 +2,31 @@ package controller;
 
 import model.Lesson;
 import service.LessonService;
+import service.PageCursor;
+import service.PreSerializedBody;
+import service.ResourceVersion;
 import dto.request.CreateLessonRequest;
+import dto.response.CursorPageResponse;
 import dto.response.LessonResponse;
+import dto.response.LessonSummaryResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Controlador de Lecciones
@@ -37,41 +48,54 @@ public class LessonController {
      * Listar todas las lecciones publicadas
      *
      * @param page número de página
-     * @param size tamaño de página
-     * @return Página de lecciones (200 OK)
+     * @param size tamaño de página (como mucho 100)
+     * @return Página de lecciones resumidas, con el número de pasos en lugar de los pasos (200 OK)
      */
     @GetMapping
-    public ResponseEntity<Page<LessonResponse>> listLessons(
+    public ResponseEntity<Page<LessonSummaryResponse>> listLessons(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sort,
             @RequestParam(defaultValue = "desc") String direction) {
         Sort sortObj = direction.equalsIgnoreCase("asc") ? Sort.by(sort).ascending() : Sort.by(sort).descending();
         Pageable pageable = PageRequest.of(page, size, sortObj);
-        Page<Lesson> lessons = lessonService.getAllPublishedLessons(pageable);
-        Page<LessonResponse> response = lessons.map(lessonService::convertToResponse);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(lessonService.getPublishedLessonSummaries(pageable));
+    }
+
+    /**
+     * GET /api/v1/lessons?cursor=
+     * Listar las lecciones publicadas por cursor, más recientes primero
+     * (orden fijo: no admite sort ni direction)
+     *
+     * @param cursor nextCursor de la página anterior (vacío para la primera)
+     * @param size tamaño de página
+     * @return Lecciones resumidas y cursor de la página siguiente (200 OK) o cursor no válido (400)
+     */
+    @GetMapping(params = "cursor")
+    public ResponseEntity<CursorPageResponse<LessonSummaryResponse>> listLessonsByCursor(
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        Slice<LessonSummaryResponse> lessons = lessonService.getPublishedLessonSummariesAfter(
+                PageCursor.decodeKeyed(cursor), PageCursor.size(size));
+        return ResponseEntity.ok(PageCursor.page(lessons, LessonService::cursorOf));
     }
 
     /**
      * GET /api/v1/lessons/trending
-     * Obtener lecciones trending (más accedidas)
+     * Obtener lecciones trending (accesos recientes con decaimiento exponencial)
      *
      * @param page número de página
      * @param size tamaño de página
-     * @return Página de lecciones ordenadas por popularidad
+     * @param categoryId categoría (opcional, ranking global si se omite)
+     * @return Página de lecciones ordenadas por puntuación trending
      */
     @GetMapping("/trending")
-    public ResponseEntity<Page<LessonResponse>> getTrendingLessons(
+    public ResponseEntity<Page<LessonSummaryResponse>> getTrendingLessons(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "accessCount") String sort,
-            @RequestParam(defaultValue = "desc") String direction) {
-        Sort sortObj = direction.equalsIgnoreCase("asc") ? Sort.by(sort).ascending() : Sort.by(sort).descending();
-        Pageable pageable = PageRequest.of(page, size, sortObj);
-        Page<Lesson> lessons = lessonService.getTrendingLessons(pageable);
-        Page<LessonResponse> response = lessons.map(lessonService::convertToResponse);
-        return ResponseEntity.ok(response);
+            @RequestParam(required = false) Long categoryId) {
+        Pageable pageable = PageRequest.of(page, size);
+        return ResponseEntity.ok(lessonService.getTrendingLessons(categoryId, pageable));
     }
 
     /**
@@ -83,39 +107,37 @@ public class LessonController {
      * @return Página de lecciones con simulador
      */
     @GetMapping("/with-simulator")
-    public ResponseEntity<Page<LessonResponse>> getLessonsWithSimulator(
+    public ResponseEntity<Page<LessonSummaryResponse>> getLessonsWithSimulator(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             @RequestParam(defaultValue = "createdAt") String sort,
             @RequestParam(defaultValue = "desc") String direction) {
         Sort sortObj = direction.equalsIgnoreCase("asc") ? Sort.by(sort).ascending() : Sort.by(sort).descending();
         Pageable pageable = PageRequest.of(page, size, sortObj);
-        Page<Lesson> lessons = lessonService.getLessonsWithSimulator(pageable);
-        Page<LessonResponse> response = lessons.map(lessonService::convertToResponse);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(lessonService.getLessonSummariesWithSimulator(pageable));
     }
 
     /**
      * GET /api/v1/lessons/search
      * Buscar lecciones por texto
      *
-     * @param text texto a buscar en título o descripción
+     * @param text texto a buscar en título, descripción o pasos
      * @param page número de página
      * @param size tamaño de página
+     * @param sort campo de orden ("relevance" para ordenar por relevancia)
+     * @param direction dirección del orden (ignorada con "relevance")
      * @return Página de lecciones que coincidan
      */
     @GetMapping("/search")
-    public ResponseEntity<Page<LessonResponse>> searchLessons(
+    public ResponseEntity<Page<LessonSummaryResponse>> searchLessons(
             @RequestParam String text,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(defaultValue = "createdAt") String sort,
+            @RequestParam(defaultValue = "relevance") String sort,
             @RequestParam(defaultValue = "desc") String direction) {
         Sort sortObj = direction.equalsIgnoreCase("asc") ? Sort.by(sort).ascending() : Sort.by(sort).descending();
         Pageable pageable = PageRequest.of(page, size, sortObj);
-        Page<Lesson> lessons = lessonService.searchLessons(text, pageable);
-        Page<LessonResponse> response = lessons.map(lessonService::convertToResponse);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(lessonService.searchLessonSummaries(text, pageable));
     }
 
     /**
@@ -128,7 +150,7 @@ public class LessonController {
      * @return Página de lecciones de la categoría
      */
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<Page<LessonResponse>> getLessonsByCategory(
+    public ResponseEntity<Page<LessonSummaryResponse>> getLessonsByCategory(
             @PathVariable Long categoryId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
@@ -136,22 +158,55 @@ public class LessonController {
             @RequestParam(defaultValue = "asc") String direction) {
         Sort sortObj = direction.equalsIgnoreCase("asc") ? Sort.by(sort).ascending() : Sort.by(sort).descending();
         Pageable pageable = PageRequest.of(page, size, sortObj);
-        Page<Lesson> lessons = lessonService.getLessonsByCategory(categoryId, pageable);
-        Page<LessonResponse> response = lessons.map(lessonService::convertToResponse);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(lessonService.getLessonSummariesByCategory(categoryId, pageable));
     }
 
     /**
      * GET /api/v1/lessons/{id}
      * Obtener lección por ID
      *
+     * Las lecciones publicadas se devuelven ya serializadas y, si el cliente lo
+     * acepta, comprimidas con gzip. Responde con ETag y Last-Modified; si el
+     * cliente ya tiene la versión actual (If-None-Match / If-Modified-Since)
+     * devuelve 304 sin construir la respuesta. El ETag de la variante gzip solo
+     * se usa cuando se envían los bytes en gzip, y todas las respuestas llevan
+     * Vary: Accept-Encoding para que las cachés no mezclen variantes.
+     *
      * @param id id de la lección
-     * @return Lección con todos los pasos (200 OK) o error (404)
+     * @param acceptEncoding cabecera Accept-Encoding
+     * @param webRequest petición, para la comprobación condicional
+     * @param servletResponse respuesta, para la cabecera Vary también en los 304
+     * @return Lección con todos los pasos (200 OK), sin cambios (304) o error (404)
      */
     @GetMapping("/{id}")
-    public ResponseEntity<LessonResponse> getLessonById(@PathVariable Long id) {
-        Lesson lesson = lessonService.findById(id);
-        return ResponseEntity.ok(lessonService.convertToResponse(lesson));
+    public ResponseEntity<?> getLessonById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest,
+            HttpServletResponse servletResponse) {
+        // addHeader: conserva los Vary que ya haya puesto CORS
+        servletResponse.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        // Sin cuerpo preserializado la respuesta sale de Jackson sin comprimir: ETag de la variante JSON
+        Optional<PreSerializedBody> body = lessonService.getLessonBody(id);
+        boolean gzip = body.isPresent() && PreSerializedBody.acceptsGzip(acceptEncoding);
+        Optional<ResourceVersion> version = lessonService.getLessonVersion(id)
+                .map(v -> gzip ? v.gzipVariant() : v);
+        if (version.isPresent() && webRequest.checkNotModified(version.get().etag(), version.get().lastModifiedMillis())) {
+            return null;
+        }
+
+        if (body.isEmpty()) {
+            return ResponseEntity.ok(lessonService.getLessonResponse(id));
+        }
+
+        // Bytes ya serializados: ByteArrayHttpMessageConverter los escribe sin pasar por Jackson
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.get().gzip());
+        }
+        return response.body(body.get().json());
     }
 
     /**
@@ -192,6 +247,25 @@ public class LessonController {
         return ResponseEntity.ok(lessonService.convertToResponse(updated));
     }
 
+    /**
+     * PUT /api/v1/lessons/{id}/reorder
+     * Mover lección a otra posición dentro de su categoría (solo admin creador)
+     *
+     * @param id id de la lección
+     * @param position nueva posición en la categoría (1 = primera)
+     * @param adminId id del admin
+     * @return Lección con su nuevo orden (200 OK) o error (400, 403, 404)
+     */
+    @PutMapping("/{id}/reorder")
+    @org.springframework.security.access.prepost.PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<LessonResponse> reorderLesson(
+            @PathVariable Long id,
+            @RequestParam Integer position,
+            @RequestParam Long adminId) {
+        Lesson moved = lessonService.moveLesson(id, position, adminId);
+        return ResponseEntity.ok(lessonService.convertToResponse(moved));
+    }
+
     /**
      * POST /api/v1/lessons/{id}/publish
      * Publicar lección (solo admin creador)
@@ -254,7 +328,7 @@ public class LessonController {
      */
     @GetMapping("/{id}/count")
     public ResponseEntity<Map<String, Object>> getLessonCount(@PathVariable Long id) {
-        Lesson lesson = lessonService.findById(id);
+        LessonResponse lesson = lessonService.getLessonResponse(id);
         Map<String, Object> response = new HashMap<>();
         response.put("lessonId", lesson.getId());
         response.put("title", lesson.getTitle());
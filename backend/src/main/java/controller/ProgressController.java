@@ -1,12 +1,19 @@
 package controller;
 
 import model.UserLessonProgress;
+import service.PageCursor;
+import service.ProgressSyncService;
 import service.UserLessonProgressService;
+import dto.request.ProgressSyncRequest;
+import dto.response.CursorPageResponse;
 import dto.response.ProgressResponse;
+import dto.response.ProgressSyncResponse;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -30,13 +37,16 @@ public class ProgressController {
     @Autowired
     private UserLessonProgressService progressService;
 
+    @Autowired
+    private ProgressSyncService progressSyncService;
+
     /**
      * GET /api/v1/progress/user/{userId}
      * Obtener todo el progreso del usuario
      *
      * @param userId id del usuario
      * @param page número de página
-     * @param size tamaño de página
+     * @param size tamaño de página (como mucho 100)
      * @return Página de progreso (200 OK) o error (404)
      */
     @GetMapping("/user/{userId}")
@@ -50,6 +60,26 @@ public class ProgressController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * GET /api/v1/progress/user/{userId}?cursor=
+     * Obtener todo el progreso del usuario por cursor (orden por id)
+     *
+     * @param userId id del usuario
+     * @param cursor nextCursor de la página anterior (vacío para la primera)
+     * @param size tamaño de página
+     * @return Progreso y cursor de la página siguiente (200 OK) o cursor no válido (400)
+     */
+    @GetMapping(value = "/user/{userId}", params = "cursor")
+    public ResponseEntity<CursorPageResponse<ProgressResponse>> getUserProgressByCursor(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "") String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        Slice<ProgressResponse> progress = progressService
+                .getUserProgressAfter(userId, PageCursor.decode(cursor), PageCursor.size(size))
+                .map(progressService::convertToResponse);
+        return ResponseEntity.ok(PageCursor.page(progress, p -> new PageCursor(null, p.getId())));
+    }
+
     /**
      * GET /api/v1/progress/user/{userId}/completed
      * Obtener lecciones completadas por el usuario
@@ -110,6 +140,21 @@ public class ProgressController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * POST /api/v1/progress/user/{userId}/lessons/{lessonId}/access
+     * Registrar que el usuario ha abierto una lección
+     *
+     * @param userId id del usuario
+     * @param lessonId id de la lección
+     * @return Progreso con el contador de accesos actualizado (200 OK) o error (404)
+     */
+    @PostMapping("/user/{userId}/lessons/{lessonId}/access")
+    public ResponseEntity<ProgressResponse> registerAccess(
+            @PathVariable Long userId,
+            @PathVariable Long lessonId) {
+        return ResponseEntity.ok(progressService.registerAccess(userId, lessonId));
+    }
+
     /**
      * POST /api/v1/progress/user/{userId}/lessons/{lessonId}/complete
      * Marcar lección como completada
@@ -122,8 +167,7 @@ public class ProgressController {
     public ResponseEntity<ProgressResponse> markAsCompleted(
             @PathVariable Long userId,
             @PathVariable Long lessonId) {
-        UserLessonProgress progress = progressService.markAsCompleted(userId, lessonId);
-        return ResponseEntity.ok(progressService.convertToResponse(progress));
+        return ResponseEntity.ok(progressService.markAsCompleted(userId, lessonId));
     }
 
     /**
@@ -138,8 +182,7 @@ public class ProgressController {
     public ResponseEntity<ProgressResponse> markAsNotCompleted(
             @PathVariable Long userId,
             @PathVariable Long lessonId) {
-        UserLessonProgress progress = progressService.markAsNotCompleted(userId, lessonId);
-        return ResponseEntity.ok(progressService.convertToResponse(progress));
+        return ResponseEntity.ok(progressService.markAsNotCompleted(userId, lessonId));
     }
 
     /**
@@ -154,8 +197,7 @@ public class ProgressController {
     public ResponseEntity<ProgressResponse> addToFavorites(
             @PathVariable Long userId,
             @PathVariable Long lessonId) {
-        UserLessonProgress progress = progressService.addToFavorites(userId, lessonId);
-        return ResponseEntity.ok(progressService.convertToResponse(progress));
+        return ResponseEntity.ok(progressService.addToFavorites(userId, lessonId));
     }
 
     /**
@@ -170,8 +212,25 @@ public class ProgressController {
     public ResponseEntity<ProgressResponse> removeFromFavorites(
             @PathVariable Long userId,
             @PathVariable Long lessonId) {
-        UserLessonProgress progress = progressService.removeFromFavorites(userId, lessonId);
-        return ResponseEntity.ok(progressService.convertToResponse(progress));
+        return ResponseEntity.ok(progressService.removeFromFavorites(userId, lessonId));
+    }
+
+    /**
+     * POST /api/v1/progress/user/{userId}/sync
+     * Sincronizar en bloque los eventos de progreso registrados sin conexión
+     *
+     * Los eventos se aplican en una sola transacción; en cada campo gana el
+     * evento con la fecha más reciente.
+     *
+     * @param userId id del usuario
+     * @param request eventos ordenados con la fecha del cliente
+     * @return Resultado de cada evento (200 OK) o error (400, 404)
+     */
+    @PostMapping("/user/{userId}/sync")
+    public ResponseEntity<ProgressSyncResponse> syncProgress(
+            @PathVariable Long userId,
+            @Valid @RequestBody ProgressSyncRequest request) {
+        return ResponseEntity.ok(progressSyncService.sync(userId, request));
     }
 
     /**
@@ -0,0 +1,68 @@
+package controller;
+
+import search.SearchType;
+import service.SearchService;
+import service.SuggestionService;
+import dto.response.SearchResponse;
+import dto.response.SuggestionResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Controlador del Buscador
+ *
+ * Búsqueda sobre todo el contenido público (lecciones, FAQs y simuladores).
+ * Público: GET
+ */
+@RestController
+@RequestMapping("/api/search")
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    /**
+     * GET /api/v1/search
+     * Buscar a la vez en lecciones, FAQs y simuladores, por relevancia
+     *
+     * @param text texto a buscar
+     * @param types tipos en los que buscar, separados por comas (default: todos)
+     * @param categoryId categoría por la que filtrar los resultados (los recuentos no se filtran)
+     * @param page número de página
+     * @param size tamaño de página
+     * @return Página de resultados con recuentos por tipo y categoría, y los tipos omitidos por lentos
+     */
+    @GetMapping
+    public ResponseEntity<SearchResponse> search(
+            @RequestParam String text,
+            @RequestParam(required = false) Set<SearchType> types,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(searchService.search(text, types, categoryId, PageRequest.of(page, size)));
+    }
+
+    /**
+     * GET /api/v1/search/suggest
+     * Sugerir títulos mientras se escribe (sin tildes y con errores de tecleo)
+     *
+     * @param q texto escrito hasta ahora
+     * @param limit máximo de sugerencias (default: 8, máximo 20)
+     * @return Sugerencias ordenadas por coincidencia y popularidad
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "" + SuggestionService.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(suggestionService.suggest(q, limit));
+    }
+}
@@ -47,9 +47,7 @@ public class SimulatorController {
             @RequestParam(defaultValue = "desc") String direction) {
         Sort sortObj = direction.equalsIgnoreCase("asc") ? Sort.by(sort).ascending() : Sort.by(sort).descending();
         Pageable pageable = PageRequest.of(page, size, sortObj);
-        Page<Simulator> simulators = simulatorService.listActiveSimulators(pageable);
-        Page<SimulatorResponse> response = simulators.map(simulatorService::convertToResponse);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(simulatorService.listActiveSimulatorResponses(pageable));
     }
 
     /**
@@ -59,6 +57,8 @@ public class SimulatorController {
      * @param text texto a buscar en título o descripción
      * @param page número de página
      * @param size tamaño de página
+     * @param sort campo de orden ("relevance" para ordenar por relevancia)
+     * @param direction dirección del orden (ignorada con "relevance")
      * @return Página de simuladores que coincidan
      */
     @GetMapping("/search")
@@ -66,13 +66,11 @@ public class SimulatorController {
             @RequestParam String text,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(defaultValue = "createdAt") String sort,
+            @RequestParam(defaultValue = "relevance") String sort,
             @RequestParam(defaultValue = "desc") String direction) {
         Sort sortObj = direction.equalsIgnoreCase("asc") ? Sort.by(sort).ascending() : Sort.by(sort).descending();
         Pageable pageable = PageRequest.of(page, size, sortObj);
-        Page<Simulator> simulators = simulatorService.searchActiveSimulators(text, pageable);
-        Page<SimulatorResponse> response = simulators.map(simulatorService::convertToResponse);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(simulatorService.searchActiveSimulatorResponses(text, pageable));
     }
 
     /**
@@ -84,8 +82,7 @@ public class SimulatorController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<SimulatorResponse> getSimulatorById(@PathVariable Long id) {
-        Simulator simulator = simulatorService.findById(id);
-        return ResponseEntity.ok(simulatorService.convertToResponse(simulator));
+        return ResponseEntity.ok(simulatorService.getSimulatorResponse(id));
     }
 
     /**
@@ -1,16 +1,20 @@
 package controller;
 
 import model.Step;
+import service.ResourceVersion;
 import service.StepService;
 import dto.request.CreateStepRequest;
+import dto.request.ReorderStepsRequest;
 import dto.response.StepResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import jakarta.validation.Valid;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -32,11 +36,19 @@ public class StepController {
      * GET /api/v1/lessons/{lessonId}/steps
      * Obtener todos los pasos de una lección ordenados
      *
+     * Responde con ETag y Last-Modified; si el cliente ya tiene la versión
+     * actual devuelve 304 sin cargar los pasos.
+     *
      * @param lessonId id de la lección
-     * @return Lista de pasos ordenados secuencialmente (200 OK) o error (404)
+     * @param webRequest petición, para la comprobación condicional
+     * @return Lista de pasos ordenados secuencialmente (200 OK), sin cambios (304) o error (404)
      */
     @GetMapping
-    public ResponseEntity<List<StepResponse>> getStepsByLesson(@PathVariable Long lessonId) {
+    public ResponseEntity<List<StepResponse>> getStepsByLesson(@PathVariable Long lessonId, WebRequest webRequest) {
+        Optional<ResourceVersion> version = stepService.getStepsVersion(lessonId);
+        if (version.isPresent() && webRequest.checkNotModified(version.get().etag(), version.get().lastModifiedMillis())) {
+            return null;
+        }
         List<Step> steps = stepService.getStepsByLesson(lessonId);
         List<StepResponse> response = steps.stream()
             .map(stepService::convertToResponse)
@@ -123,6 +135,27 @@ public class StepController {
         return ResponseEntity.ok("Paso reordenado exitosamente");
     }
 
+    /**
+     * PUT /api/v1/lessons/{lessonId}/steps/order
+     * Reordenar todos los pasos de la lección en una sola llamada (solo admin creador)
+     *
+     * @param lessonId id de la lección
+     * @param reorderRequest ids de todos los pasos en el nuevo orden
+     * @param adminId id del admin
+     * @return Pasos en el nuevo orden (200 OK) o error (400, 403, 404)
+     */
+    @PutMapping("/order")
+    public ResponseEntity<List<StepResponse>> reorderSteps(
+            @PathVariable Long lessonId,
+            @Valid @RequestBody ReorderStepsRequest reorderRequest,
+            @RequestParam Long adminId) {
+        stepService.reorderSteps(lessonId, reorderRequest.getStepIds(), adminId);
+        List<StepResponse> response = stepService.getStepsByLesson(lessonId).stream()
+            .map(stepService::convertToResponse)
+            .collect(Collectors.toList());
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * DELETE /api/v1/lessons/{lessonId}/steps/{stepId}
      * Eliminar paso (solo admin creador)
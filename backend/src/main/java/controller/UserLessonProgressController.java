@@ -65,9 +65,8 @@ public class UserLessonProgressController {
     public ResponseEntity<ProgressResponse> addToHistory(
             @PathVariable Long userId,
             @PathVariable Long lessonId) {
-        UserLessonProgress progress = progressService.markAsCompleted(userId, lessonId);
         return ResponseEntity.status(HttpStatus.CREATED)
-            .body(progressService.convertToResponse(progress));
+            .body(progressService.markAsCompleted(userId, lessonId));
     }
 
     /**
@@ -166,9 +165,8 @@ public class UserLessonProgressController {
     public ResponseEntity<ProgressResponse> addToFavorites(
             @PathVariable Long userId,
             @PathVariable Long lessonId) {
-        UserLessonProgress progress = progressService.addToFavorites(userId, lessonId);
         return ResponseEntity.status(HttpStatus.CREATED)
-            .body(progressService.convertToResponse(progress));
+            .body(progressService.addToFavorites(userId, lessonId));
     }
 
     /**
@@ -0,0 +1,59 @@
+package dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * DTO para sincronizar en bloque los eventos de progreso registrados sin conexión
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProgressSyncRequest {
+
+    @NotEmpty(message = "Debe enviar al menos un evento")
+    @Size(max = 1000, message = "No se pueden sincronizar más de 1000 eventos por petición")
+    @Valid
+    private List<ProgressEvent> events;
+
+    /**
+     * Tipo de evento de progreso
+     */
+    public enum ProgressEventType {
+        COMPLETE,
+        UNCOMPLETE,
+        FAVORITE,
+        UNFAVORITE,
+        // Apertura de la lección: solo suma al contador de accesos
+        ACCESS
+    }
+
+    /**
+     * Evento de progreso registrado en el cliente
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ProgressEvent {
+
+        @NotNull(message = "La lección es requerida")
+        private Long lessonId;
+
+        @NotNull(message = "El tipo de evento es requerido")
+        private ProgressEventType type;
+
+        @NotNull(message = "La fecha del evento es requerida")
+        private LocalDateTime clientTimestamp;
+    }
+}
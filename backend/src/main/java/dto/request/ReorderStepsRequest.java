@@ -0,0 +1,26 @@
+package dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para reordenar de una vez todos los pasos de una lección
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReorderStepsRequest {
+
+    /**
+     * Ids de todos los pasos de la lección en el nuevo orden (el primero pasa a ser el paso 1)
+     */
+    @NotEmpty(message = "Debe enviar el orden de los pasos")
+    private List<@NotNull(message = "El id del paso es requerido") Long> stepIds;
+}
@@ -8,7 +8,8 @@ import lombok.NoArgsConstructor;
 /**
  * DTO de respuesta para autenticación
  *
- * Contiene el token JWT y la información del usuario autenticado
+ * Contiene el token JWT de acceso (vida corta), el refresh token rotatorio
+ * y la información del usuario autenticado
  */
 @Data
 @NoArgsConstructor
@@ -17,6 +18,8 @@ import lombok.NoArgsConstructor;
 public class AuthResponse {
     private String token;
     private String tokenType;
+    private Long expiresIn;
+    private String refreshToken;
     private UserResponse user;
     private String message;
 }
@@ -0,0 +1,19 @@
+package dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO reducido del autor de una lección, para listados
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class AuthorSummaryResponse {
+
+    private Long id;
+    private String username;
+}
@@ -0,0 +1,22 @@
+package dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para el progreso de un usuario en una categoría
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryProgressResponse {
+
+    private Long categoryId;
+    private String categoryName;
+    private Integer completedLessons;
+    private Integer totalLessons;
+    private Double progress;
+}
@@ -0,0 +1,59 @@
+package dto.response;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO reducido de lección para listados
+ *
+ * Sustituye los pasos por su número; los pasos completos solo se devuelven
+ * en el detalle de la lección. Se construye directamente en la consulta JPQL
+ * (ver LessonRepository) y los autores se rellenan después, una vez por página.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class LessonSummaryResponse {
+
+    private Long id;
+    private String title;
+    private String description;
+    private Long categoryId;
+    private String categoryName;
+    private Integer lessonOrder;
+    private Boolean isPublished;
+    private Long relatedSimulatorId;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private Long stepCount;
+    private Long createdById;
+    private Long updatedById;
+    private AuthorSummaryResponse createdBy;
+    private AuthorSummaryResponse updatedBy;
+
+    /**
+     * Constructor para la expresión SELECT new de las consultas de listado
+     */
+    public LessonSummaryResponse(Long id, String title, String description, Long categoryId, String categoryName,
+                                 Integer lessonOrder, Boolean isPublished, Long relatedSimulatorId,
+                                 LocalDateTime createdAt, LocalDateTime updatedAt, Long stepCount,
+                                 Long createdById, Long updatedById) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.lessonOrder = lessonOrder;
+        this.isPublished = isPublished;
+        this.relatedSimulatorId = relatedSimulatorId;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.stepCount = stepCount;
+        this.createdById = createdById;
+        this.updatedById = updatedById;
+    }
+}
@@ -0,0 +1,55 @@
+package dto.response;
+
+import dto.request.ProgressSyncRequest.ProgressEventType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO para el resultado de una sincronización de progreso
+ *
+ * Incluye el resultado de cada evento en el mismo orden en que se enviaron
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProgressSyncResponse {
+
+    private Long userId;
+    private Integer applied;
+    private Integer superseded;
+    private Integer rejected;
+    private List<EventResult> results;
+
+    /**
+     * Resultado de un evento
+     */
+    public enum EventStatus {
+        // El evento es el más reciente para su campo y se ha aplicado
+        APPLIED,
+        // Ya había un cambio posterior del mismo campo; el evento se ignora
+        SUPERSEDED,
+        // El evento no es válido (por ejemplo, la lección no existe)
+        REJECTED
+    }
+
+    /**
+     * Resultado de un evento concreto
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class EventResult {
+
+        private Integer index;
+        private Long lessonId;
+        private ProgressEventType type;
+        private EventStatus status;
+        private String message;
+    }
+}
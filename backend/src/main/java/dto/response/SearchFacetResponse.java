@@ -0,0 +1,20 @@
+package dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO para el número de resultados de una categoría en el buscador unificado
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class SearchFacetResponse {
+
+    private Long id;
+    private String name;
+    private Long count;
+}
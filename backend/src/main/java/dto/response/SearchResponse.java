@@ -0,0 +1,32 @@
+package dto.response;
+
+import java.util.List;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import search.SearchType;
+
+/**
+ * DTO para la respuesta del buscador unificado
+ *
+ * Los recuentos por tipo y por categoría son de todos los resultados, no
+ * solo de la página. Si alguna fuente no respondió a tiempo, aparece en
+ * skippedTypes y la respuesta está incompleta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class SearchResponse {
+
+    private List<SearchResultResponse> content;
+    private Integer page;
+    private Integer size;
+    private Long totalElements;
+    private Integer totalPages;
+    private Map<SearchType, Long> typeCounts;
+    private List<SearchFacetResponse> categoryCounts;
+    private List<SearchType> skippedTypes;
+}
@@ -0,0 +1,28 @@
+package dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import search.SearchType;
+
+/**
+ * DTO para un resultado del buscador unificado
+ *
+ * La puntuación está normalizada por fuente (1 para el mejor resultado de
+ * cada tipo), de modo que se pueden mezclar lecciones, FAQs y simuladores.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class SearchResultResponse {
+
+    private SearchType type;
+    private Long id;
+    private String title;
+    private String description;
+    private Long categoryId;
+    private String categoryName;
+    private Double score;
+}
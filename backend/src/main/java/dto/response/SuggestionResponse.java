@@ -0,0 +1,21 @@
+package dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import search.SearchType;
+
+/**
+ * DTO para una sugerencia del buscador
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SuggestionResponse {
+
+    private SearchType type;
+    private Long id;
+    private String title;
+}
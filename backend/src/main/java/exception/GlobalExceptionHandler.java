@@ -1,5 +1,6 @@
 package exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -28,6 +29,7 @@ import java.util.Map;
  * - 409 Conflict: Recurso duplicado
  * - 422 Unprocessable Entity: Validación de negocio fallida
  * - 500 Internal Server Error: Error no manejado en el servidor
+ * - 503 Service Unavailable: Recurso interno saturado (con Retry-After)
  */
 @ControllerAdvice
 public class GlobalExceptionHandler {
@@ -183,6 +185,32 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.UNPROCESSABLE_ENTITY);
     }
 
+    /**
+     * Maneja ServiceUnavailableException → 503 Service Unavailable
+     * Se lanza cuando un recurso interno limitado está saturado y la petición
+     * se rechaza de inmediato en lugar de quedar encolada
+     *
+     * Ejemplo: Pico de logins con la cola de cifrado de contraseñas llena
+     */
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(
+            ServiceUnavailableException ex, WebRequest request) {
+
+        logger.warn("Servicio no disponible temporalmente: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                ex.getErrorCode(),
+                ex.getMessage(),
+                503,
+                LocalDateTime.now(),
+                request.getDescription(false).replace("uri=", "")
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
     /**
      * Maneja validación de DTOs → 400 Bad Request
      * Se lanza cuando los parámetros de entrada no cumplen validaciones @Valid
@@ -0,0 +1,33 @@
+package exception;
+
+/**
+ * Excepción lanzada cuando un recurso interno está saturado
+ * Mapea a código HTTP 503 Service Unavailable con cabecera Retry-After
+ *
+ * Ejemplos:
+ * - Cola de cifrado de contraseñas llena durante un pico de logins
+ * - Límite de peticiones por cliente superado
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    private final String errorCode;
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String message, long retryAfterSeconds) {
+        this(message, "SERVICE_UNAVAILABLE", retryAfterSeconds);
+    }
+
+    public ServiceUnavailableException(String message, String errorCode, long retryAfterSeconds) {
+        super(message);
+        this.errorCode = errorCode;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public String getErrorCode() {
+        return errorCode;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
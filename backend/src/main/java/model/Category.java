@@ -33,6 +33,10 @@ public class Category {
     @Column(columnDefinition = "TEXT")
     private String description;
 
+    // Versión del contenido: se incrementa en cada modificación y respalda el ETag de las respuestas
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version = 0L;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -41,6 +45,11 @@ public class Category {
         createdAt = LocalDateTime.now();
     }
 
+    @PreUpdate
+    protected void onUpdate() {
+        version = (version != null ? version : 0L) + 1;
+    }
+
     // Relaciones
     @OneToMany(mappedBy = "category", cascade = CascadeType.REFRESH, fetch = FetchType.LAZY)
     private Set<Lesson> lessons = new HashSet<>();
@@ -40,6 +40,10 @@ public class FAQ {
     @Column(nullable = false)
     private Boolean isActive = true;
 
+    // Versión del contenido: se incrementa en cada modificación y respalda el ETag de las respuestas
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version = 0L;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -55,6 +59,7 @@ public class FAQ {
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        version = (version != null ? version : 0L) + 1;
     }
 
     // Relaciones
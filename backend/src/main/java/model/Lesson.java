@@ -15,7 +15,8 @@ import java.util.Set;
 @Entity
 @Table(name = "lessons", indexes = {
     @Index(name = "idx_category_order", columnList = "category_id, lesson_order"),
-    @Index(name = "idx_created_by", columnList = "created_by")
+    @Index(name = "idx_created_by", columnList = "created_by"),
+    @Index(name = "idx_published_created", columnList = "is_published, created_at, id")
 })
 @Getter
 @Setter
@@ -42,6 +43,14 @@ public class Lesson {
     @Column(nullable = false)
     private Boolean isPublished = false;
 
+    // Versión del contenido: se incrementa en cada modificación y respalda el ETag de las respuestas
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version = 0L;
+
+    // Versión del conjunto de pasos: la incrementa StepService al crear, editar, reordenar o eliminar pasos
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long stepsVersion = 0L;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -57,6 +66,7 @@ public class Lesson {
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        version = (version != null ? version : 0L) + 1;
     }
 
     // Relaciones
@@ -0,0 +1,39 @@
+package model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Punto de control de la puntuación trending de una lección
+ *
+ * La puntuación vive en memoria (ver service.TrendingService); esta tabla solo
+ * guarda periódicamente su valor para recuperarla al reiniciar. El valor es la
+ * puntuación ya decaída en el instante scoredAt.
+ */
+@Entity
+@Table(name = "lesson_trending_scores")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+public class LessonTrendingScore {
+
+    @Id
+    @EqualsAndHashCode.Include
+    private Long lessonId;
+
+    @Column(nullable = false)
+    private Double score = 0.0;
+
+    @Column(nullable = false)
+    private LocalDateTime scoredAt;
+}
@@ -0,0 +1,51 @@
+package model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Registro persistente de tokens revocados
+ *
+ * Log de solo inserción compartido por todos los nodos: cada nodo lo
+ * reproduce al arrancar y lo sigue incrementalmente en su blacklist en memoria.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_at", columnList = "revoked_at"),
+        @Index(name = "idx_revoked_expiration", columnList = "expiration_time")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String jti;
+
+    // Expiración del token en milisegundos (misma unidad que la blacklist)
+    @Column(nullable = false)
+    private Long expirationTime;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime revokedAt = LocalDateTime.now();
+
+    @PrePersist
+    protected void onCreate() {
+        revokedAt = LocalDateTime.now();
+    }
+}
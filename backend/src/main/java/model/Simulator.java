@@ -41,6 +41,10 @@ public class Simulator {
     @Column(nullable = false)
     private Boolean isActive = true;
 
+    // Versión del contenido: se incrementa en cada modificación y respalda el ETag de las respuestas
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version = 0L;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -56,6 +60,7 @@ public class Simulator {
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        version = (version != null ? version : 0L) + 1;
     }
 
     // Relaciones
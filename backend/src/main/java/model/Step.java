@@ -42,6 +42,10 @@ public class Step {
     @Column(length = 500)
     private String videoUrl;
 
+    // Versión del contenido: se incrementa en cada modificación y respalda el ETag de las respuestas
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version = 0L;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -57,6 +61,7 @@ public class Step {
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        version = (version != null ? version : 0L) + 1;
     }
 
     // Relaciones
@@ -46,6 +46,11 @@ public class User {
     @Column(nullable = false)
     private Boolean isActive = true;
 
+    // Versión de la cuenta: se incrementa al desactivarla, cambiar su rol o su contraseña
+    // e invalida los tokens emitidos con una versión anterior
+    @Column(nullable = false)
+    private Long accountVersion = 0L;
+
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "user_lesson_progress", indexes = {
     @Index(name = "idx_user_completed", columnList = "user_id, is_completed"),
-    @Index(name = "idx_lesson_completed", columnList = "lesson_id, is_completed")
+    @Index(name = "idx_lesson_completed", columnList = "lesson_id, is_completed"),
+    @Index(name = "idx_user_progress_id", columnList = "user_id, id")
 }, uniqueConstraints = {
     @UniqueConstraint(name = "uk_user_lesson", columnNames = {"user_id", "lesson_id"})
 })
@@ -42,6 +43,13 @@ public class UserLessonProgress {
     @Column(nullable = false)
     private Integer accessCount = 0;
 
+    // Instante del último cambio de cada flag, para resolver la sincronización (último en escribir gana)
+    @Column
+    private LocalDateTime completedUpdatedAt;
+
+    @Column
+    private LocalDateTime favoriteUpdatedAt;
+
     // Relaciones
     @ManyToOne(fetch = FetchType.EAGER)
     @JoinColumn(name = "user_id", nullable = false)
@@ -0,0 +1,47 @@
+package model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resumen de progreso de un usuario (modelo de lectura)
+ *
+ * Se mantiene de forma incremental en la misma transacción que cada cambio de
+ * completada o favorita, y se reconstruye por lotes cuando cambian las lecciones
+ * publicadas. El dashboard lo lee con una única búsqueda por clave primaria.
+ */
+@Entity
+@Table(name = "user_progress_summary")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@ToString
+public class UserProgressSummary {
+
+    @Id
+    @EqualsAndHashCode.Include
+    private Long userId;
+
+    // Lecciones publicadas completadas por el usuario
+    @Column(nullable = false)
+    private Integer completedCount = 0;
+
+    @Column(nullable = false)
+    private Integer favoritesCount = 0;
+
+    // Lecciones publicadas en la plataforma en la última reconstrucción
+    @Column(nullable = false)
+    private Integer publishedTotal = 0;
+
+    @Column
+    private LocalDateTime lastActivityAt;
+}
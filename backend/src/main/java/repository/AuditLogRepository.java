@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -26,6 +27,24 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
      */
     Page<AuditLog> findAllByOrderByTimestampDesc(Pageable pageable);
 
+    /**
+     * Primera página del listado por cursor: más recientes primero, sin COUNT
+     * @param pageable tamaño de página
+     * @return porción de logs
+     */
+    Slice<AuditLog> findAllByOrderByTimestampDescIdDesc(Pageable pageable);
+
+    /**
+     * Página siguiente del listado por cursor: los logs anteriores a una posición
+     * @param timestamp fecha del último log devuelto
+     * @param id id del último log devuelto
+     * @param pageable tamaño de página
+     * @return porción de logs
+     */
+    @Query("SELECT a FROM AuditLog a WHERE a.timestamp < :timestamp OR (a.timestamp = :timestamp AND a.id < :id) " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    Slice<AuditLog> findBefore(@Param("timestamp") LocalDateTime timestamp, @Param("id") Long id, Pageable pageable);
+
     /**
      * Obtener logs de auditoría de un usuario
      * @param userId id del usuario
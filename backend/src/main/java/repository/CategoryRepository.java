@@ -1,7 +1,11 @@
 package repository;
 
 import model.Category;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
@@ -21,6 +25,18 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
      */
     Optional<Category> findByName(String name);
 
+    /**
+     * Leer y bloquear una categoría (SELECT ... FOR UPDATE)
+     *
+     * Serializa las escrituras que calculan el orden de las lecciones de la
+     * categoría, también entre varias instancias de la aplicación.
+     * @param categoryId id de la categoría
+     * @return Optional con la categoría si existe
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Category c WHERE c.id = :categoryId")
+    Optional<Category> findByIdForUpdate(@Param("categoryId") Long categoryId);
+
     /**
      * Verificar si existe categoría con ese nombre
      * @param name nombre de la categoría
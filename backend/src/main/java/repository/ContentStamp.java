@@ -0,0 +1,14 @@
+package repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Versión de un contenido (lección, FAQ o simulador) sin cargar su texto
+ *
+ * Sirve para comprobar qué documentos del índice de búsqueda están al día.
+ */
+public interface ContentStamp {
+    Long getId();
+    Long getVersion();
+    LocalDateTime getUpdatedAt();
+}
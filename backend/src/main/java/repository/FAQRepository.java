@@ -36,6 +36,7 @@ public interface FAQRepository extends JpaRepository<FAQ, Long> {
      * Obtener todos los temas disponibles
      * @return lista de temas únicos
      */
+    @Query("SELECT DISTINCT f.topic FROM FAQ f WHERE f.topic IS NOT NULL ORDER BY f.topic")
     List<String> findDistinctTopicOrderByTopic();
 
     /**
@@ -92,5 +93,18 @@ public interface FAQRepository extends JpaRepository<FAQ, Long> {
      * @return true si existe y está activa
      */
     boolean existsByQuestionAndIsActiveTrue(String question);
-}
 
+    /**
+     * FAQs activas con sus autores, para el catálogo en memoria
+     * @return FAQs activas
+     */
+    @Query("SELECT f FROM FAQ f LEFT JOIN FETCH f.createdBy LEFT JOIN FETCH f.updatedBy WHERE f.isActive = true")
+    List<FAQ> findActiveForCatalog();
+
+    /**
+     * Versiones de las FAQs activas, para poner al día el índice de búsqueda
+     * @return id, versión y fecha de modificación de cada FAQ activa
+     */
+    @Query("SELECT f.id AS id, f.version AS version, f.updatedAt AS updatedAt FROM FAQ f WHERE f.isActive = true")
+    List<ContentStamp> findActiveStamps();
+}
@@ -2,13 +2,19 @@ package repository;
 
 import model.Lesson;
 import model.Category;
+import dto.response.LessonSummaryResponse;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +24,35 @@ import java.util.Optional;
 @Repository
 public interface LessonRepository extends JpaRepository<Lesson, Long> {
 
+    /**
+     * Proyección de listado: columnas de la lección, categoría y número de pasos,
+     * sin cargar pasos ni autores
+     */
+    String SUMMARY_SELECT = "SELECT new dto.response.LessonSummaryResponse(l.id, l.title, l.description, " +
+            "c.id, c.name, l.lessonOrder, l.isPublished, sim.id, l.createdAt, l.updatedAt, " +
+            "(SELECT COUNT(s) FROM Step s WHERE s.lesson = l), l.createdBy.id, l.updatedBy.id) " +
+            "FROM Lesson l JOIN l.category c LEFT JOIN l.relatedSimulator sim ";
+
+    /**
+     * Leer y bloquear una lección (SELECT ... FOR UPDATE)
+     *
+     * Serializa las escrituras que recalculan el orden de sus pasos, para que
+     * dos administradores no dejen dos pasos con el mismo número.
+     * @param lessonId id de la lección
+     * @return Optional con la lección si existe
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT l FROM Lesson l WHERE l.id = :lessonId")
+    Optional<Lesson> findByIdForUpdate(@Param("lessonId") Long lessonId);
+
+    /**
+     * Leer solo el título de una lección, sin cargar la entidad
+     * @param lessonId id de la lección
+     * @return Optional con el título si la lección existe
+     */
+    @Query("SELECT l.title FROM Lesson l WHERE l.id = :lessonId")
+    Optional<String> findTitleById(@Param("lessonId") Long lessonId);
+
     /**
      * Buscar lecciones por categoría
      * @param category categoría
@@ -104,6 +139,23 @@ public interface LessonRepository extends JpaRepository<Lesson, Long> {
     @Query("SELECT COALESCE(MAX(l.lessonOrder), 0) FROM Lesson l WHERE l.category.id = :categoryId")
     Integer getMaxLessonOrderByCategory(@Param("categoryId") Long categoryId);
 
+    /**
+     * Posición de una lección dentro de su categoría
+     */
+    interface LessonPosition {
+        Long getId();
+        Integer getLessonOrder();
+    }
+
+    /**
+     * Obtener las posiciones de las lecciones de una categoría sin cargarlas
+     * @param categoryId id de la categoría
+     * @return posiciones ordenadas por lessonOrder
+     */
+    @Query("SELECT l.id AS id, l.lessonOrder AS lessonOrder FROM Lesson l " +
+           "WHERE l.category.id = :categoryId ORDER BY l.lessonOrder ASC, l.id ASC")
+    List<LessonPosition> findPositionsByCategory(@Param("categoryId") Long categoryId);
+
     /**
      * Buscar lección por categoría y orden
      * @param categoryId id de la categoría
@@ -112,16 +164,6 @@ public interface LessonRepository extends JpaRepository<Lesson, Long> {
      */
     Optional<Lesson> findByCategory_IdAndLessonOrder(Long categoryId, Integer lessonOrder);
 
-    /**
-     * Obtener lecciones más accedidas/populares (trending)
-     * Ordena por número de usuarios que las han accedido
-     * @param pageable paginación
-     * @return página de lecciones ordenadas por popularidad
-     */
-    @Query("SELECT l FROM Lesson l WHERE l.isPublished = true " +
-            "ORDER BY (SELECT COUNT(ulp) FROM UserLessonProgress ulp WHERE ulp.lesson.id = l.id) DESC")
-    Page<Lesson> findMostAccessedLessons(Pageable pageable);
-
     /**
      * Obtener lecciones que tienen simulador asociado
      * Útil para filtrar lecciones con práctica/ejercicio
@@ -130,4 +172,173 @@ public interface LessonRepository extends JpaRepository<Lesson, Long> {
      */
     @Query("SELECT l FROM Lesson l WHERE l.relatedSimulator IS NOT NULL AND l.isPublished = true ORDER BY l.createdAt DESC")
     Page<Lesson> findLessonsWithSimulator(Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Categoría y estado de publicación de una lección
+     */
+    interface LessonPublication {
+        Long getCategoryId();
+        Boolean getIsPublished();
+    }
+
+    /**
+     * Obtener la categoría y el estado de publicación sin cargar la lección
+     * @param lessonId id de la lección
+     * @return Optional con los datos si la lección existe
+     */
+    @Query("SELECT l.category.id AS categoryId, l.isPublished AS isPublished FROM Lesson l WHERE l.id = :lessonId")
+    Optional<LessonPublication> findPublicationById(@Param("lessonId") Long lessonId);
+
+    /**
+     * Versiones de una lección, de sus pasos y de su categoría
+     */
+    interface LessonVersion {
+        Long getId();
+        Long getVersion();
+        Long getStepsVersion();
+        Long getCategoryVersion();
+        LocalDateTime getUpdatedAt();
+    }
+
+    /**
+     * Obtener las versiones de una lección sin cargarla, para las peticiones condicionales
+     * @param lessonId id de la lección
+     * @return Optional con las versiones si la lección existe
+     */
+    @Query("SELECT l.id AS id, l.version AS version, l.stepsVersion AS stepsVersion, " +
+           "c.version AS categoryVersion, l.updatedAt AS updatedAt " +
+           "FROM Lesson l JOIN l.category c WHERE l.id = :lessonId")
+    Optional<LessonVersion> findVersionById(@Param("lessonId") Long lessonId);
+
+    /**
+     * Filtrar los ids de lecciones que existen
+     * @param lessonIds ids a comprobar
+     * @return ids existentes
+     */
+    @Query("SELECT l.id FROM Lesson l WHERE l.id IN :lessonIds")
+    List<Long> findExistingIds(@Param("lessonIds") Collection<Long> lessonIds);
+
+    /**
+     * Total de lecciones publicadas de una categoría
+     */
+    interface CategoryPublishedTotal {
+        Long getCategoryId();
+        String getCategoryName();
+        Long getPublishedLessons();
+    }
+
+    /**
+     * Contar las lecciones publicadas de todas las categorías en una sola consulta
+     *
+     * Incluye las categorías sin lecciones publicadas (total 0).
+     * @return totales por categoría ordenados por nombre
+     */
+    @Query("SELECT c.id AS categoryId, c.name AS categoryName, COUNT(l.id) AS publishedLessons " +
+           "FROM Category c LEFT JOIN Lesson l ON l.category = c AND l.isPublished = true " +
+           "GROUP BY c.id, c.name ORDER BY c.name ASC")
+    List<CategoryPublishedTotal> countPublishedByCategory();
+
+    /**
+     * Listado reducido de lecciones publicadas
+     * @param pageable paginación y orden
+     * @return página de resúmenes
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE l.isPublished = true",
+           countQuery = "SELECT COUNT(l) FROM Lesson l WHERE l.isPublished = true")
+    Page<LessonSummaryResponse> findPublishedSummaries(Pageable pageable);
+
+    /**
+     * Primera página del listado de lecciones publicadas por cursor, sin COUNT
+     *
+     * Mismo orden que el listado por defecto: más recientes primero y, a igual fecha, por id.
+     * @param pageable tamaño de página
+     * @return porción de resúmenes
+     */
+    @Query(SUMMARY_SELECT + "WHERE l.isPublished = true ORDER BY l.createdAt DESC, l.id ASC")
+    Slice<LessonSummaryResponse> findPublishedSummariesFirst(Pageable pageable);
+
+    /**
+     * Página siguiente del listado de lecciones publicadas por cursor
+     * @param createdAt fecha de creación de la última lección devuelta
+     * @param id id de la última lección devuelta
+     * @param pageable tamaño de página
+     * @return porción de resúmenes
+     */
+    @Query(SUMMARY_SELECT + "WHERE l.isPublished = true " +
+           "AND (l.createdAt < :createdAt OR (l.createdAt = :createdAt AND l.id > :id)) " +
+           "ORDER BY l.createdAt DESC, l.id ASC")
+    Slice<LessonSummaryResponse> findPublishedSummariesAfter(@Param("createdAt") LocalDateTime createdAt,
+                                                            @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Listado reducido de lecciones publicadas de una categoría
+     * @param categoryId id de la categoría
+     * @param pageable paginación y orden
+     * @return página de resúmenes
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE c.id = :categoryId AND l.isPublished = true",
+           countQuery = "SELECT COUNT(l) FROM Lesson l WHERE l.category.id = :categoryId AND l.isPublished = true")
+    Page<LessonSummaryResponse> findPublishedSummariesByCategory(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    /**
+     * Listado reducido de lecciones publicadas que coinciden con un texto
+     * @param searchText texto a buscar en título o descripción
+     * @param pageable paginación y orden
+     * @return página de resúmenes
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE (LOWER(l.title) LIKE LOWER(CONCAT('%', :searchText, '%')) " +
+            "OR LOWER(l.description) LIKE LOWER(CONCAT('%', :searchText, '%'))) AND l.isPublished = true",
+           countQuery = "SELECT COUNT(l) FROM Lesson l WHERE (LOWER(l.title) LIKE LOWER(CONCAT('%', :searchText, '%')) " +
+            "OR LOWER(l.description) LIKE LOWER(CONCAT('%', :searchText, '%'))) AND l.isPublished = true")
+    Page<LessonSummaryResponse> searchPublishedSummaries(@Param("searchText") String searchText, Pageable pageable);
+
+    /**
+     * Listado reducido de lecciones publicadas con simulador asociado
+     * @param pageable paginación y orden
+     * @return página de resúmenes
+     */
+    @Query(value = SUMMARY_SELECT + "WHERE sim.id IS NOT NULL AND l.isPublished = true",
+           countQuery = "SELECT COUNT(l) FROM Lesson l WHERE l.relatedSimulator IS NOT NULL AND l.isPublished = true")
+    Page<LessonSummaryResponse> findSummariesWithSimulator(Pageable pageable);
+
+    /**
+     * Resúmenes de un conjunto de lecciones, sin orden definido
+     * @param lessonIds ids de las lecciones
+     * @return resúmenes de las lecciones existentes
+     */
+    @Query(SUMMARY_SELECT + "WHERE l.id IN :lessonIds")
+    List<LessonSummaryResponse> findSummariesByIds(@Param("lessonIds") Collection<Long> lessonIds);
+
+    /**
+     * Lecciones publicadas con todo lo necesario para el catálogo en memoria
+     *
+     * Trae en una sola consulta la categoría, los autores y los pasos; el
+     * simulador asociado queda como proxy (solo se usa su id).
+     * @return lecciones publicadas
+     */
+    @Query("SELECT DISTINCT l FROM Lesson l JOIN FETCH l.category LEFT JOIN FETCH l.createdBy " +
+           "LEFT JOIN FETCH l.updatedBy LEFT JOIN FETCH l.steps WHERE l.isPublished = true")
+    List<Lesson> findPublishedForCatalog();
+
+    /**
+     * Ids de las categorías que tienen alguna lección (publicada o no)
+     * @return ids de categoría
+     */
+    @Query("SELECT DISTINCT l.category.id FROM Lesson l")
+    List<Long> findCategoryIdsWithLessons();
+
+    /**
+     * Versiones de las lecciones publicadas, para poner al día el índice de búsqueda
+     * @return id, versión y fecha de modificación de cada lección publicada
+     */
+    @Query("SELECT l.id AS id, l.version AS version, l.updatedAt AS updatedAt FROM Lesson l WHERE l.isPublished = true")
+    List<ContentStamp> findPublishedStamps();
+
+    /**
+     * Lecciones con sus pasos, para el índice de búsqueda
+     * @param lessonIds ids de las lecciones
+     * @return lecciones que existen (en cualquier estado)
+     */
+    @Query("SELECT DISTINCT l FROM Lesson l LEFT JOIN FETCH l.steps WHERE l.id IN :lessonIds")
+    List<Lesson> findWithStepsByIds(@Param("lessonIds") Collection<Long> lessonIds);
+}
@@ -0,0 +1,64 @@
+package repository;
+
+import model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repositorio JPA para la entidad RefreshToken
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Buscar refresh token por su hash
+     * @param tokenHash hash SHA-256 del token
+     * @return Optional con el token si existe
+     */
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Revocar un token solo si sigue activo (evita dos rotaciones concurrentes del mismo token)
+     * @param id id del token
+     * @param now instante de revocación
+     * @return 1 si se revocó, 0 si ya estaba revocado
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now WHERE r.id = :id AND r.revokedAt IS NULL")
+    int revokeIfActive(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    /**
+     * Revocar todos los tokens activos de una familia (reutilización detectada)
+     * @param familyId id de la familia
+     * @param now instante de revocación
+     * @return número de tokens revocados
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now WHERE r.familyId = :familyId AND r.revokedAt IS NULL")
+    int revokeFamily(@Param("familyId") String familyId, @Param("now") LocalDateTime now);
+
+    /**
+     * Revocar todos los tokens activos de un usuario
+     * @param userId id del usuario
+     * @param now instante de revocación
+     * @return número de tokens revocados
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revokedAt = :now WHERE r.user.id = :userId AND r.revokedAt IS NULL")
+    int revokeAllForUser(@Param("userId") Long userId, @Param("now") LocalDateTime now);
+
+    /**
+     * Eliminar tokens expirados
+     * @param now instante actual
+     * @return número de filas eliminadas
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
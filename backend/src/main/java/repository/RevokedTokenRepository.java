@@ -0,0 +1,43 @@
+package repository;
+
+import model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio JPA para la entidad RevokedToken
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    /**
+     * Obtener revocaciones aún vigentes (reproducción al arrancar)
+     * @param now instante actual en milisegundos
+     * @return revocaciones de tokens que todavía no han expirado
+     */
+    List<RevokedToken> findByExpirationTimeGreaterThan(Long now);
+
+    /**
+     * Obtener revocaciones registradas desde un instante (seguimiento incremental)
+     * @param since instante a partir del cual buscar
+     * @return revocaciones ordenadas por fecha de registro
+     */
+    List<RevokedToken> findByRevokedAtAfterOrderByRevokedAtAsc(LocalDateTime since);
+
+    /**
+     * Eliminar revocaciones de tokens ya expirados
+     * @param now instante actual en milisegundos
+     * @return número de filas eliminadas
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM RevokedToken r WHERE r.expirationTime < :now")
+    int deleteExpired(@Param("now") Long now);
+}
@@ -9,6 +9,7 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repositorio JPA para la entidad Simulator
@@ -68,5 +69,26 @@ public interface SimulatorRepository extends JpaRepository<Simulator, Long> {
            "OR LOWER(s.description) LIKE LOWER(CONCAT('%', :search, '%'))) " +
            "AND s.isActive = true ORDER BY s.title ASC")
     Page<Simulator> searchActiveSimulators(@Param("search") String search, Pageable pageable);
-}
 
+    /**
+     * Obtener solo el título de un simulador, sin cargar la entidad
+     * @param simulatorId id del simulador
+     * @return Optional con el título si el simulador existe
+     */
+    @Query("SELECT s.title FROM Simulator s WHERE s.id = :simulatorId")
+    Optional<String> findTitleById(@Param("simulatorId") Long simulatorId);
+
+    /**
+     * Simuladores activos con sus autores, para el catálogo en memoria
+     * @return simuladores activos
+     */
+    @Query("SELECT s FROM Simulator s LEFT JOIN FETCH s.createdBy LEFT JOIN FETCH s.updatedBy WHERE s.isActive = true")
+    List<Simulator> findActiveForCatalog();
+
+    /**
+     * Versiones de los simuladores activos, para poner al día el índice de búsqueda
+     * @return id, versión y fecha de modificación de cada simulador activo
+     */
+    @Query("SELECT s.id AS id, s.version AS version, s.updatedAt AS updatedAt FROM Simulator s WHERE s.isActive = true")
+    List<ContentStamp> findActiveStamps();
+}
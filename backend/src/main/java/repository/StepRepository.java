@@ -3,10 +3,12 @@ package repository;
 import model.Step;
 import model.Lesson;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -75,5 +77,73 @@ public interface StepRepository extends JpaRepository<Step, Long> {
      * @param lessonId id de la lección
      */
     void deleteByLesson_Id(Long lessonId);
+
+    /**
+     * Posición de un paso dentro de su lección
+     */
+    interface StepPosition {
+        Long getId();
+        Long getLessonId();
+        Integer getStepOrder();
+    }
+
+    /**
+     * Obtener la lección y el orden de un paso sin cargar su contenido
+     * @param stepId id del paso
+     * @return Optional con la posición si el paso existe
+     */
+    @Query("SELECT s.id AS id, s.lesson.id AS lessonId, s.stepOrder AS stepOrder FROM Step s WHERE s.id = :stepId")
+    Optional<StepPosition> findPositionById(@Param("stepId") Long stepId);
+
+    /**
+     * Obtener las posiciones de todos los pasos de una lección sin cargar su contenido
+     * @param lessonId id de la lección
+     * @return posiciones ordenadas por stepOrder
+     */
+    @Query("SELECT s.id AS id, s.lesson.id AS lessonId, s.stepOrder AS stepOrder FROM Step s " +
+           "WHERE s.lesson.id = :lessonId ORDER BY s.stepOrder ASC")
+    List<StepPosition> findPositionsByLesson(@Param("lessonId") Long lessonId);
+
+    /**
+     * Desplazar en una sola sentencia un rango de pasos de una lección
+     *
+     * Sentencia masiva: no pasa por @PreUpdate, así que actualiza a mano la
+     * versión y la fecha de cada paso desplazado. Las entidades Step ya cargadas
+     * en el contexto de persistencia quedan desactualizadas.
+     * @param lessonId id de la lección
+     * @param fromOrder primer orden del rango (incluido)
+     * @param toOrder último orden del rango (incluido)
+     * @param delta desplazamiento (+1 o -1)
+     * @param now fecha de modificación
+     * @return número de pasos desplazados
+     */
+    @Modifying
+    @Query("UPDATE Step s SET s.stepOrder = s.stepOrder + :delta, s.version = s.version + 1, s.updatedAt = :now " +
+           "WHERE s.lesson.id = :lessonId AND s.stepOrder BETWEEN :fromOrder AND :toOrder")
+    int shiftStepOrders(@Param("lessonId") Long lessonId, @Param("fromOrder") Integer fromOrder,
+                        @Param("toOrder") Integer toOrder, @Param("delta") Integer delta,
+                        @Param("now") LocalDateTime now);
+
+    /**
+     * Mover un paso a un orden concreto sin cargarlo
+     * @param stepId id del paso
+     * @param stepOrder nuevo orden
+     * @param now fecha de modificación
+     * @return 1 si el paso existe, 0 si no
+     */
+    @Modifying
+    @Query("UPDATE Step s SET s.stepOrder = :stepOrder, s.version = s.version + 1, s.updatedAt = :now " +
+           "WHERE s.id = :stepId")
+    int updateStepOrder(@Param("stepId") Long stepId, @Param("stepOrder") Integer stepOrder,
+                        @Param("now") LocalDateTime now);
+
+    /**
+     * Eliminar un paso sin cargarlo
+     * @param stepId id del paso
+     * @return 1 si el paso existía, 0 si no
+     */
+    @Modifying
+    @Query("DELETE FROM Step s WHERE s.id = :stepId")
+    int deleteStepById(@Param("stepId") Long stepId);
 }
 
@@ -1,11 +1,16 @@
 package repository;
 
 import model.UserLessonProgress;
+import dto.response.ProgressResponse;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -26,6 +31,88 @@ public interface UserLessonProgressRepository extends JpaRepository<UserLessonPr
      */
     Optional<UserLessonProgress> findByUser_IdAndLesson_Id(Long userId, Long lessonId);
 
+    /**
+     * Flags de completada y favorita de un progreso
+     */
+    interface ProgressFlags {
+        Boolean getIsCompleted();
+        Boolean getIsFavorite();
+    }
+
+    /**
+     * Leer y bloquear los flags actuales de un progreso (SELECT ... FOR UPDATE)
+     *
+     * Serializa las transiciones concurrentes sobre la misma fila para que cada
+     * una calcule su variación sobre el estado real anterior.
+     * @param userId id del usuario
+     * @param lessonId id de la lección
+     * @return Optional con los flags si la fila existe
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ulp.isCompleted AS isCompleted, ulp.isFavorite AS isFavorite FROM UserLessonProgress ulp " +
+           "WHERE ulp.user.id = :userId AND ulp.lesson.id = :lessonId")
+    Optional<ProgressFlags> lockFlags(@Param("userId") Long userId, @Param("lessonId") Long lessonId);
+
+    /**
+     * Registrar un acceso y aplicar los cambios de estado en una sola sentencia
+     *
+     * MERGE atómico sobre (user_id, lesson_id): si la fila existe incrementa
+     * access_count y aplica los flags indicados; si no existe la crea. La fuente
+     * del MERGE solo produce fila si el usuario y la lección existen, por lo que
+     * 0 filas afectadas significa que alguno de los dos no existe.
+     *
+     * @param userId id del usuario
+     * @param lessonId id de la lección
+     * @param setCompleted si hay que modificar el estado de completada
+     * @param completed nuevo estado de completada (ignorado si setCompleted es false)
+     * @param setFavorite si hay que modificar el estado de favorita
+     * @param favorite nuevo estado de favorita (ignorado si setFavorite es false)
+     * @param now instante de la operación
+     * @return número de filas afectadas (0 o 1)
+     */
+    @Modifying
+    @Query(value = "MERGE INTO user_lesson_progress p " +
+           "USING (SELECT u.id AS user_id, l.id AS lesson_id FROM users u, lessons l " +
+           "       WHERE u.id = :userId AND l.id = :lessonId) src " +
+           "ON p.user_id = src.user_id AND p.lesson_id = src.lesson_id " +
+           "WHEN MATCHED THEN UPDATE SET " +
+           "  access_count = p.access_count + 1, " +
+           "  is_completed = CASE WHEN :setCompleted THEN :completed ELSE p.is_completed END, " +
+           "  completed_at = CASE WHEN NOT :setCompleted THEN p.completed_at " +
+           "                      WHEN :completed THEN :now ELSE NULL END, " +
+           "  completed_updated_at = CASE WHEN :setCompleted THEN :now ELSE p.completed_updated_at END, " +
+           "  is_favorite = CASE WHEN :setFavorite THEN :favorite ELSE p.is_favorite END, " +
+           "  favorite_updated_at = CASE WHEN :setFavorite THEN :now ELSE p.favorite_updated_at END " +
+           "WHEN NOT MATCHED THEN INSERT (user_id, lesson_id, is_completed, is_favorite, completed_at, " +
+           "                             completed_updated_at, favorite_updated_at, access_count) " +
+           "  VALUES (src.user_id, src.lesson_id, " +
+           "          :setCompleted AND :completed, " +
+           "          :setFavorite AND :favorite, " +
+           "          CASE WHEN :setCompleted AND :completed THEN :now ELSE NULL END, " +
+           "          CASE WHEN :setCompleted THEN :now ELSE NULL END, " +
+           "          CASE WHEN :setFavorite THEN :now ELSE NULL END, " +
+           "          1)",
+           nativeQuery = true)
+    int upsertProgress(@Param("userId") Long userId,
+                       @Param("lessonId") Long lessonId,
+                       @Param("setCompleted") boolean setCompleted,
+                       @Param("completed") boolean completed,
+                       @Param("setFavorite") boolean setFavorite,
+                       @Param("favorite") boolean favorite,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Obtener el progreso de un usuario en una lección ya proyectado a DTO,
+     * sin cargar las entidades de usuario ni de lección
+     * @param userId id del usuario
+     * @param lessonId id de la lección
+     * @return Optional con el progreso si existe
+     */
+    @Query("SELECT new dto.response.ProgressResponse(ulp.id, ulp.user.id, ulp.lesson.id, ulp.lesson.title, " +
+           "ulp.isCompleted, ulp.isFavorite, ulp.completedAt, ulp.accessCount) " +
+           "FROM UserLessonProgress ulp WHERE ulp.user.id = :userId AND ulp.lesson.id = :lessonId")
+    Optional<ProgressResponse> findResponseByUserAndLesson(@Param("userId") Long userId, @Param("lessonId") Long lessonId);
+
     /**
      * Obtener todo el progreso de un usuario
      * @param userId id del usuario
@@ -34,6 +121,15 @@ public interface UserLessonProgressRepository extends JpaRepository<UserLessonPr
      */
     Page<UserLessonProgress> findByUser_Id(Long userId, Pageable pageable);
 
+    /**
+     * Progreso de un usuario por cursor: los registros posteriores a un id, sin COUNT
+     * @param userId id del usuario
+     * @param id id del último registro devuelto (0 para la primera página)
+     * @param pageable tamaño de página
+     * @return porción de progreso
+     */
+    Slice<UserLessonProgress> findByUser_IdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Pageable pageable);
+
     /**
      * Obtener lecciones completadas por un usuario
      * @param userId id del usuario
@@ -67,6 +163,13 @@ public interface UserLessonProgressRepository extends JpaRepository<UserLessonPr
      */
     List<UserLessonProgress> findByUser_IdAndIsFavoriteTrue(Long userId);
 
+    /**
+     * Contar lecciones favoritas de un usuario
+     * @param userId id del usuario
+     * @return número de favoritas
+     */
+    long countByUser_IdAndIsFavoriteTrue(Long userId);
+
     /**
      * Obtener lecciones favoritas con paginación
      * @param userId id del usuario
@@ -84,13 +187,25 @@ public interface UserLessonProgressRepository extends JpaRepository<UserLessonPr
     long countByUser_IdAndIsCompletedTrue(Long userId);
 
     /**
-     * Contar lecciones completadas por usuario en una categoría
+     * Contar lecciones publicadas completadas por usuario
+     *
+     * Misma definición que los resúmenes de progreso: las completadas de
+     * lecciones no publicadas no cuentan.
+     * @param userId id del usuario
+     * @return número de lecciones publicadas completadas
+     */
+    @Query("SELECT COUNT(ulp) FROM UserLessonProgress ulp WHERE ulp.user.id = :userId " +
+           "AND ulp.isCompleted = true AND ulp.lesson.isPublished = true")
+    long countCompletedPublishedByUser(@Param("userId") Long userId);
+
+    /**
+     * Contar lecciones publicadas completadas por usuario en una categoría
      * @param userId id del usuario
      * @param categoryId id de la categoría
-     * @return número de lecciones completadas en la categoría
+     * @return número de lecciones publicadas completadas en la categoría
      */
     @Query("SELECT COUNT(ulp) FROM UserLessonProgress ulp WHERE ulp.user.id = :userId " +
-           "AND ulp.lesson.category.id = :categoryId AND ulp.isCompleted = true")
+           "AND ulp.lesson.category.id = :categoryId AND ulp.isCompleted = true AND ulp.lesson.isPublished = true")
     long countCompletedInCategory(@Param("userId") Long userId, @Param("categoryId") Long categoryId);
 
     /**
@@ -101,6 +216,27 @@ public interface UserLessonProgressRepository extends JpaRepository<UserLessonPr
     @Query("SELECT COUNT(l) FROM Lesson l WHERE l.category.id = :categoryId AND l.isPublished = true")
     long countTotalInCategory(@Param("categoryId") Long categoryId);
 
+    /**
+     * Lecciones completadas de una categoría
+     */
+    interface CategoryCompletedCount {
+        Long getCategoryId();
+        Long getCompletedLessons();
+    }
+
+    /**
+     * Contar las lecciones publicadas completadas por un usuario en todas las categorías
+     *
+     * Una sola consulta agrupada; las categorías sin completadas no aparecen.
+     * @param userId id del usuario
+     * @return completadas por categoría
+     */
+    @Query("SELECT l.category.id AS categoryId, COUNT(ulp.id) AS completedLessons " +
+           "FROM UserLessonProgress ulp JOIN ulp.lesson l " +
+           "WHERE ulp.user.id = :userId AND ulp.isCompleted = true AND l.isPublished = true " +
+           "GROUP BY l.category.id")
+    List<CategoryCompletedCount> countCompletedByCategory(@Param("userId") Long userId);
+
 
     /**
      * Contar total de lecciones publicadas
@@ -0,0 +1,52 @@
+package repository;
+
+import model.UserProgressSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Repositorio JPA para la entidad UserProgressSummary
+ */
+@Repository
+public interface UserProgressSummaryRepository extends JpaRepository<UserProgressSummary, Long> {
+
+    /**
+     * Aplicar un cambio de completadas/favoritas al resumen del usuario
+     *
+     * Si el usuario aún no tiene resumen se crea con el total de publicadas actual.
+     * @param userId id del usuario
+     * @param completedDelta variación de lecciones publicadas completadas (-1, 0, 1)
+     * @param favoriteDelta variación de favoritas (-1, 0, 1)
+     * @param now instante de la actividad
+     * @return número de filas afectadas
+     */
+    @Modifying
+    @Query(value = "MERGE INTO user_progress_summary s " +
+           "USING (SELECT CAST(:userId AS BIGINT) AS user_id) src " +
+           "ON s.user_id = src.user_id " +
+           "WHEN MATCHED THEN UPDATE SET " +
+           "  completed_count = s.completed_count + :completedDelta, " +
+           "  favorites_count = s.favorites_count + :favoriteDelta, " +
+           "  last_activity_at = :now " +
+           "WHEN NOT MATCHED THEN INSERT (user_id, completed_count, favorites_count, published_total, last_activity_at) " +
+           "  VALUES (src.user_id, GREATEST(:completedDelta, 0), GREATEST(:favoriteDelta, 0), " +
+           "          (SELECT COUNT(*) FROM lessons l WHERE l.is_published = TRUE), :now)",
+           nativeQuery = true)
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("completedDelta") int completedDelta,
+                   @Param("favoriteDelta") int favoriteDelta,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * Eliminar el resumen de un usuario
+     * @param userId id del usuario
+     */
+    @Modifying
+    @Query("DELETE FROM UserProgressSummary s WHERE s.userId = :userId")
+    void deleteByUserId(@Param("userId") Long userId);
+}
@@ -1,12 +1,19 @@
 package repository;
 
 import model.User;
+import dto.response.AuthorSummaryResponse;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -71,6 +78,44 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return página de usuarios que coincidan
      */
     @Query("SELECT u FROM User u WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :search, '%')) AND u.isActive = true ORDER BY u.username ASC")
-    Page<User> searchActiveUsersByUsername(@org.springframework.data.repository.query.Param("search") String search, Pageable pageable);
-}
+    Page<User> searchActiveUsersByUsername(@Param("search") String search, Pageable pageable);
+
+    /**
+     * Obtener en una sola consulta el resumen de varios autores
+     * @param ids ids de los usuarios
+     * @return id y nombre de usuario de cada uno
+     */
+    @Query("SELECT new dto.response.AuthorSummaryResponse(u.id, u.username) FROM User u WHERE u.id IN :ids")
+    List<AuthorSummaryResponse> findAuthorSummaries(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Versión de cuenta de un usuario
+     */
+    interface AccountVersion {
+        Long getId();
+        String getUsername();
+        Long getAccountVersion();
+    }
 
+    /**
+     * Obtener las versiones de cuenta incrementadas de los usuarios modificados desde un instante
+     * (réplica de las versiones mínimas entre nodos)
+     * @param since instante a partir del cual buscar
+     * @return id, nombre de usuario y versión de cada cuenta
+     */
+    @Query("SELECT u.id AS id, u.username AS username, u.accountVersion AS accountVersion FROM User u " +
+           "WHERE u.accountVersion > 0 AND u.updatedAt > :since")
+    List<AccountVersion> findAccountVersionsUpdatedAfter(@Param("since") LocalDateTime since);
+
+    /**
+     * Bloquear la fila de un usuario (SELECT ... FOR UPDATE)
+     *
+     * Serializa la creación concurrente de filas de progreso del mismo usuario,
+     * que no se pueden bloquear antes de existir.
+     * @param userId id del usuario
+     * @return Optional con el id si el usuario existe
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u.id FROM User u WHERE u.id = :userId")
+    Optional<Long> lockById(@Param("userId") Long userId);
+}
@@ -80,6 +80,16 @@ public interface UserSimulatorInteractionRepository extends JpaRepository<UserSi
      */
     boolean existsByUser_IdAndSimulator_Id(Long userId, Long simulatorId);
 
+    /**
+     * Sumar los accesos persistidos de un usuario a un simulador
+     * @param userId id del usuario
+     * @param simulatorId id del simulador
+     * @return accesos registrados (0 si no hay interacción)
+     */
+    @Query("SELECT COALESCE(SUM(usi.accessCount), 0) FROM UserSimulatorInteraction usi " +
+           "WHERE usi.user.id = :userId AND usi.simulator.id = :simulatorId")
+    long sumAccessCount(@Param("userId") Long userId, @Param("simulatorId") Long simulatorId);
+
     /**
      * Eliminar interacciones de un usuario
      * @param userId id del usuario
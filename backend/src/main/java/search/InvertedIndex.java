@@ -0,0 +1,349 @@
+package search;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria con puntuación BM25
+ *
+ * Cada documento tiene un título y un cuerpo; los términos del título cuentan
+ * {@link #TITLE_WEIGHT} veces. Una consulta solo recorre las listas de sus
+ * términos, así que su coste depende de cuántos documentos los contienen y no
+ * del tamaño total del índice.
+ *
+ * La última palabra de la consulta se busca también como prefijo (el usuario
+ * puede estar escribiéndola), con un máximo de {@link #MAX_PREFIX_EXPANSIONS}
+ * términos.
+ *
+ * Cada documento guarda una marca de versión (stamp) elegida por quien lo
+ * indexa, para saber si está al día sin volver a analizar su texto.
+ *
+ * Seguro entre hilos: las consultas comparten un bloqueo de lectura y las
+ * altas y bajas toman el de escritura.
+ */
+public class InvertedIndex {
+
+    /**
+     * Peso de los términos del título frente a los del cuerpo
+     */
+    public static final float TITLE_WEIGHT = 3f;
+
+    /**
+     * Máximo de términos en que se expande la última palabra como prefijo
+     */
+    public static final int MAX_PREFIX_EXPANSIONS = 32;
+
+    // Parámetros BM25 habituales
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private static final int SNAPSHOT_MAGIC = 0x53524348;
+    private static final int SNAPSHOT_FORMAT = 1;
+
+    private static final Comparator<SearchHit> BEST_FIRST = Comparator.comparingDouble(SearchHit::score).reversed()
+            .thenComparing(SearchHit::type)
+            .thenComparing(SearchHit::id);
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Término → documentos que lo contienen, con su frecuencia ponderada
+    private final TreeMap<String, Map<Key, Float>> postings = new TreeMap<>();
+    private final Map<Key, Doc> docs = new HashMap<>();
+    private double totalLength;
+
+    private record Key(SearchType type, long id) {
+    }
+
+    private record Doc(String stamp, float length, Map<String, Float> terms) {
+    }
+
+    /**
+     * Indexar (o reindexar) un documento
+     * @param type tipo de contenido
+     * @param id id de la entidad
+     * @param stamp marca de versión del contenido indexado
+     * @param title título, con más peso
+     * @param body resto del texto
+     */
+    public void put(SearchType type, long id, String stamp, String title, String body) {
+        Map<String, Float> terms = new HashMap<>();
+        for (String term : SpanishAnalyzer.analyze(title)) {
+            terms.merge(term, TITLE_WEIGHT, Float::sum);
+        }
+        for (String term : SpanishAnalyzer.analyze(body)) {
+            terms.merge(term, 1f, Float::sum);
+        }
+        float length = 0;
+        for (float weight : terms.values()) {
+            length += weight;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Key key = new Key(type, id);
+            removeLocked(key);
+            addLocked(key, new Doc(stamp, length, terms));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Quitar un documento del índice
+     * @param type tipo de contenido
+     * @param id id de la entidad
+     * @return true si estaba indexado
+     */
+    public boolean remove(SearchType type, long id) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(new Key(type, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marcas de versión de los documentos indexados de un tipo
+     * @param type tipo de contenido
+     * @return id → marca de versión
+     */
+    public Map<Long, String> stamps(SearchType type) {
+        lock.readLock().lock();
+        try {
+            Map<Long, String> stamps = new HashMap<>();
+            docs.forEach((key, doc) -> {
+                if (key.type() == type) {
+                    stamps.put(key.id(), doc.stamp());
+                }
+            });
+            return stamps;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Número de documentos indexados
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Buscar los documentos más relevantes para una consulta
+     *
+     * Basta con que un documento contenga uno de los términos; los que
+     * contienen más términos, o términos más raros, puntúan más.
+     * @param query texto de la consulta
+     * @param types tipos de contenido en los que buscar
+     * @param limit máximo de resultados
+     * @return resultados de mayor a menor puntuación (vacío si la consulta no tiene términos)
+     */
+    public List<SearchHit> search(String query, Set<SearchType> types, int limit) {
+        List<String> tokens = SpanishAnalyzer.analyze(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        boolean lastIsPrefix = endsInPartialTerm(query);
+        Set<String> exactTerms = new LinkedHashSet<>(lastIsPrefix ? tokens.subList(0, tokens.size() - 1) : tokens);
+        String prefix = lastIsPrefix ? tokens.get(tokens.size() - 1) : null;
+
+        lock.readLock().lock();
+        try {
+            if (docs.isEmpty()) {
+                return List.of();
+            }
+            double averageLength = totalLength / docs.size();
+            Map<Key, Double> scores = new HashMap<>();
+            for (String term : exactTerms) {
+                Map<Key, Float> postingList = postings.get(term);
+                if (postingList != null) {
+                    addScores(postingList, types, averageLength, scores, false);
+                }
+            }
+            if (prefix != null && !exactTerms.contains(prefix)) {
+                // Por documento cuenta la mejor expansión, para no premiar a los que tienen muchas
+                Map<Key, Double> prefixScores = new HashMap<>();
+                int expansions = 0;
+                for (Map<Key, Float> postingList
+                        : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+                    if (expansions++ == MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    addScores(postingList, types, averageLength, prefixScores, true);
+                }
+                prefixScores.forEach((key, score) -> scores.merge(key, score, Double::sum));
+            }
+            return top(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Si la última palabra de la consulta puede estar a medias y es la que dio el último término
+     *
+     * Sin separador al final la palabra puede estar a medias, pero si es una
+     * palabra vacía ("banco de") no produce término: el último término es de
+     * una palabra ya completa.
+     */
+    private static boolean endsInPartialTerm(String query) {
+        int start = query.length();
+        while (start > 0 && Character.isLetterOrDigit(query.charAt(start - 1))) {
+            start--;
+        }
+        return start < query.length() && !SpanishAnalyzer.words(query.substring(start)).isEmpty();
+    }
+
+    /**
+     * Guardar el índice (sin volver a analizar nada al cargarlo)
+     * @param out destino; no se cierra
+     * @throws IOException si falla la escritura
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        lock.readLock().lock();
+        try {
+            data.writeInt(SNAPSHOT_MAGIC);
+            data.writeInt(SNAPSHOT_FORMAT);
+            data.writeInt(SpanishAnalyzer.VERSION);
+            data.writeInt(docs.size());
+            for (Map.Entry<Key, Doc> entry : docs.entrySet()) {
+                Doc doc = entry.getValue();
+                data.writeUTF(entry.getKey().type().name());
+                data.writeLong(entry.getKey().id());
+                data.writeUTF(doc.stamp());
+                data.writeInt(doc.terms().size());
+                for (Map.Entry<String, Float> term : doc.terms().entrySet()) {
+                    data.writeUTF(term.getKey());
+                    data.writeFloat(term.getValue());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        data.flush();
+    }
+
+    /**
+     * Cargar un índice guardado con {@link #writeTo(OutputStream)}
+     * @param in origen; no se cierra
+     * @return índice cargado
+     * @throws IOException si el fichero no es válido o es de otra versión del formato o del analizador
+     */
+    public static InvertedIndex readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("No es un índice de búsqueda");
+        }
+        int format = data.readInt();
+        int analyzer = data.readInt();
+        if (format != SNAPSHOT_FORMAT || analyzer != SpanishAnalyzer.VERSION) {
+            throw new IOException("Índice de búsqueda de otra versión (formato " + format
+                    + ", analizador " + analyzer + ")");
+        }
+
+        InvertedIndex index = new InvertedIndex();
+        int docCount = data.readInt();
+        for (int i = 0; i < docCount; i++) {
+            Key key;
+            try {
+                key = new Key(SearchType.valueOf(data.readUTF()), data.readLong());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Tipo de documento desconocido en el índice", e);
+            }
+            String stamp = data.readUTF();
+            int termCount = data.readInt();
+            Map<String, Float> terms = new HashMap<>(termCount * 2);
+            float length = 0;
+            for (int t = 0; t < termCount; t++) {
+                String term = data.readUTF();
+                float weight = data.readFloat();
+                terms.put(term, weight);
+                length += weight;
+            }
+            index.addLocked(key, new Doc(stamp, length, terms));
+        }
+        return index;
+    }
+
+    private void addLocked(Key key, Doc doc) {
+        docs.put(key, doc);
+        totalLength += doc.length();
+        doc.terms().forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(key, weight));
+    }
+
+    private boolean removeLocked(Key key) {
+        Doc doc = docs.remove(key);
+        if (doc == null) {
+            return false;
+        }
+        totalLength -= doc.length();
+        for (String term : doc.terms().keySet()) {
+            Map<Key, Float> postingList = postings.get(term);
+            if (postingList != null) {
+                postingList.remove(key);
+                if (postingList.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sumar (o quedarse con el máximo, para las expansiones de prefijo) la puntuación BM25 de un término
+     */
+    private void addScores(Map<Key, Float> postingList, Set<SearchType> types, double averageLength,
+                           Map<Key, Double> scores, boolean keepMax) {
+        double documentFrequency = postingList.size();
+        double idf = Math.log(1 + (docs.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        for (Map.Entry<Key, Float> posting : postingList.entrySet()) {
+            Key key = posting.getKey();
+            if (!types.contains(key.type())) {
+                continue;
+            }
+            double frequency = posting.getValue();
+            double norm = K1 * (1 - B + B * docs.get(key).length() / averageLength);
+            double score = idf * frequency * (K1 + 1) / (frequency + norm);
+            scores.merge(key, score, keepMax ? Math::max : Double::sum);
+        }
+    }
+
+    private static List<SearchHit> top(Map<Key, Double> scores, int limit) {
+        PriorityQueue<SearchHit> best = new PriorityQueue<>(Math.min(limit, Math.max(1, scores.size())),
+                BEST_FIRST.reversed());
+        scores.forEach((key, score) -> {
+            SearchHit hit = new SearchHit(key.type(), key.id(), score);
+            if (best.size() < limit) {
+                best.add(hit);
+            } else if (BEST_FIRST.compare(hit, best.peek()) < 0) {
+                best.poll();
+                best.add(hit);
+            }
+        });
+        List<SearchHit> hits = new ArrayList<>(best);
+        hits.sort(BEST_FIRST);
+        return hits;
+    }
+}
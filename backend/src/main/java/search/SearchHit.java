@@ -0,0 +1,11 @@
+package search;
+
+/**
+ * Documento encontrado por el índice de búsqueda
+ *
+ * @param type tipo de contenido
+ * @param id id de la entidad
+ * @param score puntuación BM25 (solo comparable dentro de la misma consulta)
+ */
+public record SearchHit(SearchType type, Long id, double score) {
+}
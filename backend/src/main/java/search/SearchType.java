@@ -0,0 +1,10 @@
+package search;
+
+/**
+ * Tipos de contenido del índice de búsqueda
+ */
+public enum SearchType {
+    LESSON,
+    FAQ,
+    SIMULATOR
+}
@@ -0,0 +1,137 @@
+package search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Analizador de texto en español para el índice de búsqueda
+ *
+ * Convierte un texto en la lista de términos que se indexan o se buscan:
+ * - Minúsculas y sin tildes ni diéresis (también ñ → n): "Cómo" y "como"
+ *   son el mismo término, igual que "contraseña" y "contrasena"
+ * - Tokens de letras y dígitos; el resto de caracteres separa palabras
+ * - Sin palabras vacías (artículos, preposiciones, pronombres...)
+ * - Stemming ligero: quita plurales y la terminación de género, de forma que
+ *   "tarjeta", "tarjetas" y "tarjeto" comparten raíz
+ *
+ * Las mismas reglas se aplican al indexar y al consultar. Si cambian, hay que
+ * subir {@link #VERSION} para descartar los índices guardados en disco.
+ */
+public final class SpanishAnalyzer {
+
+    /**
+     * Versión de las reglas de análisis, guardada con el índice en disco
+     */
+    public static final int VERSION = 1;
+
+    private static final int MAX_TOKEN_LENGTH = 40;
+
+    // Palabras vacías, ya sin tildes
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "al", "algo", "algunas", "algunos", "ante", "antes", "como", "con", "contra", "cual", "cuando",
+            "de", "del", "desde", "donde", "durante", "e", "el", "ella", "ellas", "ellos", "en", "entre", "era",
+            "es", "esa", "esas", "ese", "eso", "esos", "esta", "estan", "estar", "estas", "este", "esto", "estos",
+            "fue", "ha", "han", "hasta", "hay", "la", "las", "le", "les", "lo", "los", "mas", "me", "mi", "mis",
+            "mucho", "muy", "nada", "ni", "no", "nos", "o", "os", "otra", "otras", "otro", "otros", "para", "pero",
+            "poco", "por", "porque", "que", "quien", "se", "sea", "ser", "si", "sin", "sobre", "son", "su", "sus",
+            "tambien", "te", "ti", "tu", "tus", "u", "un", "una", "unas", "uno", "unos", "y", "ya", "yo");
+
+    private SpanishAnalyzer() {
+    }
+
+    /**
+     * Analizar un texto
+     * @param text texto libre, puede ser null
+     * @return términos en el orden en que aparecen (con repeticiones)
+     */
+    public static List<String> analyze(String text) {
+        List<String> terms = words(text);
+        terms.replaceAll(SpanishAnalyzer::stem);
+        return terms;
+    }
+
+    /**
+     * Palabras de un texto, normalizadas y sin palabras vacías, pero sin stemming
+     * @param text texto libre, puede ser null
+     * @return palabras en el orden en que aparecen (con repeticiones)
+     */
+    public static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return words;
+        }
+        String folded = fold(text);
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = folded.substring(start, Math.min(i, start + MAX_TOKEN_LENGTH));
+                if (!STOP_WORDS.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Pasar a minúsculas y quitar tildes, diéresis y la tilde de la ñ
+     * @param text texto libre
+     * @return texto normalizado
+     */
+    public static String fold(String text) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(Locale.ROOT), Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) {
+                folded.append(c);
+            }
+        }
+        return folded.toString();
+    }
+
+    /**
+     * Stemming ligero del español (plural y género)
+     *
+     * Primero el plural y después la vocal de género, sin dejar raíces de
+     * menos de 3 letras:
+     * - "-eses" → "-es" (meses → mes)
+     * - "-ces" → "-z" (luces → luz, veces → vez)
+     * - "-os", "-as", "-es" → sin la "s" (fotos → foto)
+     * - "-o", "-a", "-e" → se quitan (foto → fot)
+     * @param word palabra en minúsculas y sin tildes
+     * @return raíz
+     */
+    static String stem(String word) {
+        int length = word.length();
+        if (length < 4 || !Character.isLetter(word.charAt(length - 1))) {
+            return word;
+        }
+
+        String stem = word;
+        if (stem.endsWith("eses") && length >= 5) {
+            stem = stem.substring(0, length - 2);
+        } else if (stem.endsWith("ces") && length >= 5) {
+            stem = stem.substring(0, length - 3) + "z";
+        } else if (stem.charAt(length - 1) == 's' && isGenderVowel(stem.charAt(length - 2))) {
+            stem = stem.substring(0, length - 1);
+        }
+
+        length = stem.length();
+        if (length >= 4 && isGenderVowel(stem.charAt(length - 1))) {
+            stem = stem.substring(0, length - 1);
+        }
+        return stem;
+    }
+
+    private static boolean isGenderVowel(char c) {
+        return c == 'o' || c == 'a' || c == 'e';
+    }
+}
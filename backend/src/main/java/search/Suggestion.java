@@ -0,0 +1,30 @@
+package search;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Título que se puede sugerir mientras el usuario escribe
+ * @param type tipo de contenido
+ * @param id id de la entidad
+ * @param title título tal cual se muestra
+ * @param weight popularidad (más alta, antes se sugiere)
+ * @param words palabras del título normalizadas, sin repetir
+ */
+public record Suggestion(SearchType type, long id, String title, long weight, List<String> words) {
+
+    /**
+     * Crear una sugerencia calculando las palabras de su título
+     */
+    public static Suggestion of(SearchType type, long id, String title, long weight) {
+        String text = title != null ? title : "";
+        return new Suggestion(type, id, text, weight, List.copyOf(new LinkedHashSet<>(SpanishAnalyzer.words(text))));
+    }
+
+    /**
+     * Saber si es la misma entidad que otra sugerencia (aunque cambie el título o el peso)
+     */
+    public boolean sameEntity(Suggestion other) {
+        return type == other.type && id == other.id;
+    }
+}
@@ -0,0 +1,414 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Árbol de prefijos inmutable para sugerir títulos mientras se escribe
+ *
+ * Cada palabra normalizada de cada título es un camino en el árbol. Cada nodo
+ * guarda ya calculadas las {@link #TOP_K} sugerencias más populares de todo
+ * su subárbol, así que completar un prefijo no recorre el subárbol: basta con
+ * llegar al nodo.
+ *
+ * La última palabra de la consulta admite errores (distancia de edición de 1
+ * a partir de 4 letras y de 2 a partir de 7): se recorre el árbol calculando
+ * una fila de Levenshtein por nivel y se poda en cuanto la fila supera el
+ * máximo. Las palabras anteriores filtran los candidatos; como pueden
+ * descartar todas las precalculadas, en ese caso se recorre el subárbol.
+ *
+ * Las altas y bajas copian solo el camino de cada palabra (el resto de nodos
+ * se comparten), de modo que las lecturas usan siempre una versión completa
+ * sin bloqueos.
+ */
+public final class SuggestionTrie {
+
+    /**
+     * Sugerencias precalculadas por nodo
+     */
+    public static final int TOP_K = 16;
+
+    // Antes que EMPTY: la inicialización de Node lo usa
+    private static final Suggestion[] NONE = new Suggestion[0];
+
+    public static final SuggestionTrie EMPTY = new SuggestionTrie(Node.EMPTY, 0);
+
+    /**
+     * Más popular primero; a igualdad, el título más corto
+     */
+    static final Comparator<Suggestion> MOST_POPULAR = Comparator.comparingLong(Suggestion::weight).reversed()
+            .thenComparingInt(suggestion -> suggestion.title().length())
+            .thenComparing(Suggestion::type)
+            .thenComparingLong(Suggestion::id);
+
+    private final Node root;
+    private final int size;
+
+    private SuggestionTrie(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Construir el árbol de una vez (más rápido que añadir las sugerencias una a una)
+     * @param suggestions sugerencias, como mucho una por entidad
+     * @return árbol
+     */
+    public static SuggestionTrie build(Collection<Suggestion> suggestions) {
+        Builder root = new Builder();
+        for (Suggestion suggestion : suggestions) {
+            for (String word : suggestion.words()) {
+                Builder node = root;
+                for (int i = 0; i < word.length(); i++) {
+                    node = node.children.computeIfAbsent(word.charAt(i), c -> new Builder());
+                }
+                node.here.add(suggestion);
+            }
+        }
+        return new SuggestionTrie(root.freeze(), suggestions.size());
+    }
+
+    /**
+     * Número de sugerencias
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Árbol con una sugerencia más
+     *
+     * Si la entidad ya estaba, hay que quitarla antes con {@link #without}
+     * (sus palabras pueden haber cambiado).
+     * @param suggestion sugerencia nueva
+     * @return árbol nuevo; este no cambia
+     */
+    public SuggestionTrie with(Suggestion suggestion) {
+        Node updated = root;
+        for (String word : suggestion.words()) {
+            updated = insert(updated, word, 0, suggestion);
+        }
+        return new SuggestionTrie(updated, size + 1);
+    }
+
+    /**
+     * Árbol sin una sugerencia
+     * @param suggestion sugerencia tal como se añadió (con el mismo título)
+     * @return árbol nuevo; este no cambia
+     */
+    public SuggestionTrie without(Suggestion suggestion) {
+        Node updated = root;
+        for (String word : suggestion.words()) {
+            Node removed = remove(updated, word, 0, suggestion);
+            updated = removed != null ? removed : Node.EMPTY;
+        }
+        return new SuggestionTrie(updated, Math.max(0, size - 1));
+    }
+
+    /**
+     * Sugerir títulos para lo que se lleva escrito
+     * @param query texto escrito (la última palabra puede estar a medias)
+     * @param limit máximo de sugerencias
+     * @return sugerencias: primero las que coinciden con menos errores y, entre ellas, las más populares
+     */
+    public List<Suggestion> suggest(String query, int limit) {
+        List<String> words = SpanishAnalyzer.words(query);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String last = words.get(words.size() - 1);
+        List<String> previous = words.subList(0, words.size() - 1);
+        int maxDistance = maxDistance(last.length());
+
+        // Una fila de Levenshtein por nivel; más allá de longitud + máximo ninguna fila puede bajar del máximo
+        int columns = last.length() + 1;
+        int[][] rows = new int[columns + maxDistance][columns];
+        for (int j = 0; j < columns; j++) {
+            rows[0][j] = j;
+        }
+        Map<Suggestion, Integer> candidates = new HashMap<>();
+        collect(root, 0, last, maxDistance, rows, previous, candidates);
+
+        List<Map.Entry<Suggestion, Integer>> ranked = new ArrayList<>(candidates.entrySet());
+        ranked.sort(Map.Entry.<Suggestion, Integer>comparingByValue()
+                .thenComparing(Map.Entry.<Suggestion, Integer>comparingByKey(MOST_POPULAR)));
+        List<Suggestion> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && i < limit; i++) {
+            result.add(ranked.get(i).getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Errores admitidos en una palabra según su longitud
+     */
+    static int maxDistance(int length) {
+        if (length <= 3) {
+            return 0;
+        }
+        return length <= 6 ? 1 : 2;
+    }
+
+    /**
+     * Distancia de edición entre dos palabras, o max + 1 si la supera
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[b.length()], max + 1);
+    }
+
+    // ============================================================================
+    // BÚSQUEDA
+    // ============================================================================
+
+    private static void collect(Node node, int depth, String word, int maxDistance, int[][] rows,
+                                List<String> previous, Map<Suggestion, Integer> candidates) {
+        int[] parentRow = rows[depth];
+        int[] row = rows[depth + 1];
+        int columns = row.length;
+        for (int i = 0; i < node.labels.length; i++) {
+            char label = node.labels[i];
+            row[0] = parentRow[0] + 1;
+            int rowMin = row[0];
+            for (int j = 1; j < columns; j++) {
+                int substitution = parentRow[j - 1] + (word.charAt(j - 1) == label ? 0 : 1);
+                row[j] = Math.min(substitution, Math.min(parentRow[j], row[j - 1]) + 1);
+                rowMin = Math.min(rowMin, row[j]);
+            }
+            if (rowMin > maxDistance) {
+                continue;
+            }
+            Node child = node.children[i];
+            int distance = row[columns - 1];
+            if (distance <= maxDistance) {
+                // El camino hasta aquí es la palabra escrita (con errores): vale todo el subárbol
+                if (previous.isEmpty() || child.top.length < TOP_K) {
+                    // Las más populares bastan, o el subárbol entero cabe en ellas
+                    for (Suggestion suggestion : child.top) {
+                        if (matchesAll(suggestion, previous)) {
+                            candidates.merge(suggestion, distance, Math::min);
+                        }
+                    }
+                } else {
+                    // Las palabras anteriores pueden descartar todas las populares: hay que ver el resto
+                    collectSubtree(child, distance, previous, candidates);
+                }
+            }
+            if (depth + 2 < rows.length) {
+                collect(child, depth + 1, word, maxDistance, rows, previous, candidates);
+            }
+        }
+    }
+
+    /**
+     * Añadir todas las sugerencias del subárbol que coinciden con las palabras anteriores
+     */
+    private static void collectSubtree(Node node, int distance, List<String> previous,
+                                       Map<Suggestion, Integer> candidates) {
+        for (Suggestion suggestion : node.here) {
+            if (matchesAll(suggestion, previous)) {
+                candidates.merge(suggestion, distance, Math::min);
+            }
+        }
+        for (Node child : node.children) {
+            collectSubtree(child, distance, previous, candidates);
+        }
+    }
+
+    /**
+     * Saber si cada palabra completa de la consulta es el principio de alguna palabra del título (con errores)
+     */
+    private static boolean matchesAll(Suggestion suggestion, List<String> previous) {
+        for (String queryWord : previous) {
+            int max = maxDistance(queryWord.length());
+            boolean found = false;
+            for (String word : suggestion.words()) {
+                if (word.startsWith(queryWord) || editDistance(queryWord, word, max) <= max) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ============================================================================
+    // ALTAS Y BAJAS (COPIA DEL CAMINO)
+    // ============================================================================
+
+    private static Node insert(Node node, String word, int depth, Suggestion suggestion) {
+        if (depth == word.length()) {
+            Suggestion[] here = withoutEntity(node.here, suggestion);
+            here = Arrays.copyOf(here, here.length + 1);
+            here[here.length - 1] = suggestion;
+            return Node.of(node.labels, node.children, here);
+        }
+        char label = word.charAt(depth);
+        int index = Arrays.binarySearch(node.labels, label);
+        if (index >= 0) {
+            Node[] children = node.children.clone();
+            children[index] = insert(children[index], word, depth + 1, suggestion);
+            return Node.of(node.labels, children, node.here);
+        }
+        int at = -index - 1;
+        char[] labels = new char[node.labels.length + 1];
+        Node[] children = new Node[node.children.length + 1];
+        System.arraycopy(node.labels, 0, labels, 0, at);
+        System.arraycopy(node.children, 0, children, 0, at);
+        labels[at] = label;
+        children[at] = insert(Node.EMPTY, word, depth + 1, suggestion);
+        System.arraycopy(node.labels, at, labels, at + 1, node.labels.length - at);
+        System.arraycopy(node.children, at, children, at + 1, node.children.length - at);
+        return Node.of(labels, children, node.here);
+    }
+
+    /**
+     * Quitar una sugerencia del camino de una palabra
+     * @return nodo nuevo, el mismo si no estaba, o null si queda vacío
+     */
+    private static Node remove(Node node, String word, int depth, Suggestion suggestion) {
+        Node updated;
+        if (depth == word.length()) {
+            Suggestion[] here = withoutEntity(node.here, suggestion);
+            if (here.length == node.here.length) {
+                return node;
+            }
+            updated = Node.of(node.labels, node.children, here);
+        } else {
+            int index = Arrays.binarySearch(node.labels, word.charAt(depth));
+            if (index < 0) {
+                return node;
+            }
+            Node child = remove(node.children[index], word, depth + 1, suggestion);
+            if (child == node.children[index]) {
+                return node;
+            }
+            if (child != null) {
+                Node[] children = node.children.clone();
+                children[index] = child;
+                updated = Node.of(node.labels, children, node.here);
+            } else {
+                char[] labels = new char[node.labels.length - 1];
+                Node[] children = new Node[node.children.length - 1];
+                System.arraycopy(node.labels, 0, labels, 0, index);
+                System.arraycopy(node.children, 0, children, 0, index);
+                System.arraycopy(node.labels, index + 1, labels, index, labels.length - index);
+                System.arraycopy(node.children, index + 1, children, index, children.length - index);
+                updated = Node.of(labels, children, node.here);
+            }
+        }
+        return updated.labels.length == 0 && updated.here.length == 0 ? null : updated;
+    }
+
+    private static Suggestion[] withoutEntity(Suggestion[] suggestions, Suggestion entity) {
+        int count = 0;
+        for (Suggestion suggestion : suggestions) {
+            if (!suggestion.sameEntity(entity)) {
+                count++;
+            }
+        }
+        if (count == suggestions.length) {
+            return suggestions;
+        }
+        Suggestion[] kept = new Suggestion[count];
+        int i = 0;
+        for (Suggestion suggestion : suggestions) {
+            if (!suggestion.sameEntity(entity)) {
+                kept[i++] = suggestion;
+            }
+        }
+        return kept;
+    }
+
+    // ============================================================================
+    // NODOS
+    // ============================================================================
+
+    private static final class Node {
+
+        static final Node EMPTY = new Node(new char[0], new Node[0], NONE, NONE);
+
+        final char[] labels;      // ordenadas, para la búsqueda binaria
+        final Node[] children;
+        final Suggestion[] here;  // títulos con una palabra que acaba en este nodo
+        final Suggestion[] top;   // las TOP_K más populares del subárbol
+
+        private Node(char[] labels, Node[] children, Suggestion[] here, Suggestion[] top) {
+            this.labels = labels;
+            this.children = children;
+            this.here = here;
+            this.top = top;
+        }
+
+        static Node of(char[] labels, Node[] children, Suggestion[] here) {
+            List<Suggestion> candidates = new ArrayList<>(Arrays.asList(here));
+            for (Node child : children) {
+                candidates.addAll(Arrays.asList(child.top));
+            }
+            candidates.sort(MOST_POPULAR);
+            List<Suggestion> top = new ArrayList<>(Math.min(TOP_K, candidates.size()));
+            for (Suggestion candidate : candidates) {
+                if (top.size() == TOP_K) {
+                    break;
+                }
+                // Un título con varias palabras en el subárbol solo cuenta una vez
+                if (top.stream().noneMatch(candidate::sameEntity)) {
+                    top.add(candidate);
+                }
+            }
+            return new Node(labels, children, here, top.toArray(NONE));
+        }
+    }
+
+    /**
+     * Nodo mutable para {@link #build}
+     */
+    private static final class Builder {
+
+        final TreeMap<Character, Builder> children = new TreeMap<>();
+        final List<Suggestion> here = new ArrayList<>();
+
+        Node freeze() {
+            char[] labels = new char[children.size()];
+            Node[] frozen = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, Builder> child : children.entrySet()) {
+                labels[i] = child.getKey();
+                frozen[i] = child.getValue().freeze();
+                i++;
+            }
+            return Node.of(labels, frozen, here.toArray(NONE));
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registro de versiones mínimas de cuenta
+ *
+ * Los tokens de acceso llevan la versión de la cuenta y el filtro autoriza
+ * solo con sus claims. Cuando UserService incrementa la versión (desactivación,
+ * cambio de rol o de contraseña) se anota aquí, y los tokens de acceso con una
+ * versión anterior dejan de aceptarse:
+ * - En el nodo que hizo el cambio, de inmediato tras el commit
+ * - En el resto, al seguir la tabla de usuarios (la versión ya está en
+ *   users.account_version), igual que el log de revocaciones de tokens
+ * - Al arrancar se cargan los cambios recientes antes de aceptar tráfico
+ *
+ * Una entrada solo se conserva mientras pueda existir un token de acceso
+ * emitido antes del cambio.
+ */
+@Component
+public class AccountVersionRegistry implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountVersionRegistry.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Value("${jwt.expiration:900000}")
+    private long accessTokenLifetimeMs;
+
+    // Margen de solape entre lecturas para tolerar commits tardíos y desfase de reloj entre nodos
+    @Value("${account-versions.replication.overlap-ms:10000}")
+    private long overlapMs;
+
+    // userId -> versión mínima aceptada y momento del cambio
+    private final ConcurrentHashMap<Long, long[]> minimumVersions = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastPollStartedAt;
+
+    /**
+     * Anotar una nueva versión de cuenta (tras el commit si hay transacción activa)
+     *
+     * @param userId id del usuario
+     * @param version nueva versión de la cuenta
+     */
+    public void recordVersion(Long userId, long version) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(userId, version);
+                }
+            });
+        } else {
+            apply(userId, version);
+        }
+    }
+
+    /**
+     * @return true si la versión sube la mínima conocida del usuario
+     */
+    private boolean apply(Long userId, long version) {
+        long[] entry = {version, System.currentTimeMillis()};
+        return minimumVersions.merge(userId, entry, (current, updated) -> current[0] >= updated[0] ? current : updated) == entry;
+    }
+
+    /**
+     * Comprobar si la versión de un token sigue vigente
+     *
+     * @param userId id del usuario del token
+     * @param version versión de cuenta incluida en el token
+     * @return true si no hay una versión posterior registrada
+     */
+    public boolean isCurrent(Long userId, long version) {
+        long[] entry = minimumVersions.get(userId);
+        return entry == null || version >= entry[0];
+    }
+
+    /**
+     * Cargar los cambios de versión que aún pueden afectar a tokens vigentes,
+     * antes de iniciar el servidor web
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            int applied = applyUpdatedSince(startedAt.minusNanos((accessTokenLifetimeMs + overlapMs) * 1_000_000L));
+            logger.info("Cargadas {} versiones de cuenta recientes", applied);
+        } catch (Exception e) {
+            logger.error("No se pudieron cargar las versiones de cuenta: {}", e.getMessage());
+        }
+        lastPollStartedAt = startedAt;
+    }
+
+    /**
+     * Aplicar los cambios de versión hechos por otros nodos desde la última lectura
+     */
+    @Scheduled(fixedDelayString = "${account-versions.replication.poll-interval-ms:2000}")
+    public void pollVersions() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = (lastPollStartedAt != null ? lastPollStartedAt : startedAt)
+                .minusNanos(overlapMs * 1_000_000L);
+
+        try {
+            applyUpdatedSince(since);
+            lastPollStartedAt = startedAt;
+        } catch (Exception e) {
+            logger.error("Error leyendo las versiones de cuenta: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * @return número de cuentas cuya versión mínima ha subido
+     */
+    private int applyUpdatedSince(LocalDateTime since) {
+        List<UserRepository.AccountVersion> versions = userRepository.findAccountVersionsUpdatedAfter(since);
+        int applied = 0;
+        for (UserRepository.AccountVersion account : versions) {
+            if (apply(account.getId(), account.getAccountVersion())) {
+                // Los tokens sin versión se autorizan con la caché de principals: también está obsoleta
+                principalCache.invalidate(account.getUsername());
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    /**
+     * Olvidar cambios más antiguos que la vida de un token de acceso
+     */
+    @Scheduled(fixedDelayString = "${jwt.expiration:900000}")
+    public void purgeStale() {
+        long threshold = System.currentTimeMillis() - accessTokenLifetimeMs;
+        minimumVersions.values().removeIf(entry -> entry[1] < threshold);
+    }
+}
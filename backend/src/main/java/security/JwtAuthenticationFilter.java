@@ -6,8 +6,6 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
-import model.User;
-import service.UserService;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -20,6 +18,9 @@ import java.util.List;
 /**
  * Filtro JWT: Valida el token en cada request y construye el Authentication
  * Se ejecuta una vez por request (OncePerRequestFilter)
+ *
+ * Los tokens de acceso llevan rol y versión de cuenta y se autorizan solo con
+ * sus claims; los tokens antiguos sin esos claims usan la caché de principals.
  */
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
@@ -27,11 +28,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private JwtTokenProvider jwtTokenProvider;
 
     @Autowired
-    private UserService userService;
+    private PrincipalCache principalCache;
 
     @Autowired
     private TokenBlacklistService tokenBlacklistService;
 
+    @Autowired
+    private AccountVersionRegistry accountVersionRegistry;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -40,24 +44,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             // Extraer token del header Authorization: "Bearer <token>"
             String token = extractTokenFromRequest(request);
 
-            if (token != null && jwtTokenProvider.validateToken(token)) {
+            // Verificación única de firma y expiración (con caché por digest)
+            VerifiedToken verifiedToken = jwtTokenProvider.verify(token);
+
+            if (verifiedToken != null) {
 
                 // Verificar que el token no esté en blacklist
-                String jti = jwtTokenProvider.getJtiFromToken(token);
-                if (tokenBlacklistService.isBlacklisted(jti)) {
+                if (tokenBlacklistService.isBlacklisted(verifiedToken.jti())) {
                     // Token inválido, no hacer nada
                     filterChain.doFilter(request, response);
                     return;
                 }
 
                 // Extraer username del token
-                String username = jwtTokenProvider.getUsernameFromToken(token);
-                User user = userService.findByUsername(username).orElse(null);
+                String username = verifiedToken.username();
+                String role = resolveRole(verifiedToken);
 
-                if (user != null && user.getIsActive()) {
+                if (role != null) {
                     // Construir GrantedAuthority a partir del rol del usuario
                     List<GrantedAuthority> authorities = new ArrayList<>();
-                    authorities.add(new SimpleGrantedAuthority("ROLE_" + user.getRole().toString()));
+                    authorities.add(new SimpleGrantedAuthority("ROLE_" + role));
 
                     // Crear Authentication
                     UsernamePasswordAuthenticationToken authentication =
@@ -74,6 +80,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * Obtiene el rol con el que autorizar la petición
+     *
+     * @param verifiedToken Claims verificados del token
+     * @return Rol del usuario, o null si la cuenta cambió de versión o no está activa
+     */
+    private String resolveRole(VerifiedToken verifiedToken) {
+        if (verifiedToken.carriesAuthorization()) {
+            // Token de acceso: basta con los claims salvo que la cuenta haya cambiado de versión
+            return accountVersionRegistry.isCurrent(verifiedToken.userId(), verifiedToken.accountVersion())
+                    ? verifiedToken.role()
+                    : null;
+        }
+
+        // Token emitido sin rol ni versión: se consulta la caché de principals
+        PrincipalSnapshot principal = principalCache.get(verifiedToken.username());
+        return principal != null && principal.active() ? principal.role().toString() : null;
+    }
+
     /**
      * Extrae el token del header Authorization
      */
@@ -1,6 +1,7 @@
 package security;
 
 import model.User;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import io.jsonwebtoken.*;
@@ -18,6 +19,11 @@ import java.util.UUID;
  *
  * Responsable de generar, validar y extraer información de tokens JWT.
  * Utiliza algoritmo HS256 (HMAC-SHA256) para firmar los tokens con jjwt.
+ *
+ * La clave y el parser se construyen una sola vez. Cada token se verifica
+ * en una única pasada ({@link #verify(String)}) y el resultado se guarda en
+ * una caché acotada por digest, de modo que las peticiones repetidas con el
+ * mismo token no vuelven a ejecutar criptografía.
  */
 @Service
 public class JwtTokenProvider {
@@ -25,11 +31,33 @@ public class JwtTokenProvider {
     @Value("${jwt.secret:secret-key-for-jwt-token-generation-secure-key-12345678-extra-long-key}")
     private String jwtSecret;
 
-    @Value("${jwt.expiration:86400000}") // 24 horas por defecto
+    @Value("${jwt.expiration:900000}") // 15 minutos por defecto (token de acceso)
     private long jwtExpiration;
 
+    @Value("${jwt.cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+    private VerifiedTokenCache verifiedTokenCache;
+
+    /**
+     * Construir la clave de firma, el parser y la caché de tokens verificados
+     */
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        verifiedTokenCache = new VerifiedTokenCache(verifiedCacheMaxSize);
+    }
+
     /**
-     * Generar token JWT para un usuario
+     * Generar token JWT de acceso para un usuario
+     *
+     * Incluye el rol y la versión de la cuenta para que el filtro pueda
+     * autorizar sin consultar la base de datos.
      *
      * @param user Usuario para el que generar el token
      * @return Token JWT firmado
@@ -39,6 +67,8 @@ public class JwtTokenProvider {
         claims.put("userId", user.getId());
         claims.put("email", user.getEmail());
         claims.put("roles", new String[]{"ROLE_" + user.getRole().toString()});
+        claims.put("role", user.getRole().toString());
+        claims.put("ver", user.getAccountVersion());
         claims.put("jti", UUID.randomUUID().toString()); // JWT ID único
 
         return createToken(claims, user.getUsername());
@@ -55,17 +85,46 @@ public class JwtTokenProvider {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
-        SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(key, SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Verificar firma y expiración del token en una sola pasada
+     *
+     * Si el mismo token ya se verificó y no ha expirado, se devuelve desde
+     * caché sin volver a calcular el HMAC ni parsear el JSON.
+     *
+     * @param token Token JWT
+     * @return Claims verificados o null si el token no es válido
+     */
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        String key = verifiedTokenCache.digest(token);
+        VerifiedToken cached = verifiedTokenCache.get(key, now);
+        if (cached != null) {
+            return cached;
+        }
+
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            VerifiedToken verified = VerifiedToken.from(claims);
+            verifiedTokenCache.put(key, verified, now);
+            return verified;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     /**
      * Extraer el username del token
      *
@@ -73,7 +132,8 @@ public class JwtTokenProvider {
      * @return Username contenido en el token (sub claim)
      */
     public String getUsernameFromToken(String token) {
-        return extractClaim(token, Claims::getSubject);
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.username() : null;
     }
 
     /**
@@ -83,7 +143,8 @@ public class JwtTokenProvider {
      * @return JTI único del token
      */
     public String getJtiFromToken(String token) {
-        return extractClaim(token, claims -> claims.get("jti", String.class));
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.jti() : null;
     }
 
     /**
@@ -93,8 +154,8 @@ public class JwtTokenProvider {
      * @return Fecha de expiración en milisegundos
      */
     public long getExpirationFromToken(String token) {
-        Date expiration = extractClaim(token, Claims::getExpiration);
-        return expiration != null ? expiration.getTime() : 0;
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.expiration() : 0;
     }
 
     /**
@@ -104,45 +165,7 @@ public class JwtTokenProvider {
      * @return true si el token es válido, false en caso contrario
      */
     public Boolean validateToken(String token) {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (ExpiredJwtException e) {
-            return false;
-        } catch (UnsupportedJwtException e) {
-            return false;
-        } catch (MalformedJwtException e) {
-            return false;
-        } catch (SignatureException e) {
-            return false;
-        } catch (IllegalArgumentException e) {
-            return false;
-        }
-    }
-
-    /**
-     * Extraer un claim arbitrario del token
-     *
-     * @param token Token JWT
-     * @param claimsResolver Función para resolver el claim
-     * @return Valor del claim o null
-     */
-    private <T> T extractClaim(String token, java.util.function.Function<Claims, T> claimsResolver) {
-        try {
-            SecretKey key = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-            Claims claims = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            return claimsResolver.apply(claims);
-        } catch (Exception e) {
-            return null;
-        }
+        return verify(token) != null;
     }
 
     /**
@@ -152,7 +175,8 @@ public class JwtTokenProvider {
      * @return ID del usuario
      */
     public Long getUserIdFromToken(String token) {
-        return extractClaim(token, claims -> claims.get("userId", Long.class));
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.userId() : null;
     }
 
     /**
@@ -162,6 +186,34 @@ public class JwtTokenProvider {
      * @return Email del usuario
      */
     public String getEmailFromToken(String token) {
-        return extractClaim(token, claims -> claims.get("email", String.class));
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.email() : null;
+    }
+
+    /**
+     * Obtener la vida de un token de acceso
+     *
+     * @return Duración en milisegundos
+     */
+    public long getAccessTokenExpiration() {
+        return jwtExpiration;
+    }
+
+    // ============================================================================
+    // MÉTRICAS DE CACHÉ
+    // ============================================================================
+
+    /**
+     * Obtener estadísticas de la caché de tokens verificados
+     *
+     * @return Mapa con tamaño, aciertos y fallos
+     */
+    public Map<String, Object> getVerifiedCacheStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", verifiedTokenCache.size());
+        stats.put("maxSize", verifiedCacheMaxSize);
+        stats.put("hits", verifiedTokenCache.getHits());
+        stats.put("misses", verifiedTokenCache.getMisses());
+        return stats;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,170 @@
+package security;
+
+import exception.ServiceUnavailableException;
+import service.LatencyMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Servicio de cifrado de contraseñas
+ *
+ * Ejecuta BCrypt en un pool dedicado y acotado en lugar de en los hilos de Tomcat:
+ * - Tantos hilos como CPUs (BCrypt es puramente de cálculo)
+ * - Cola limitada; si está llena la petición se rechaza al momento con 503
+ * - Como mucho hilos + cola peticiones quedan esperando un hash, el resto del
+ *   pool de Tomcat sigue libre para peticiones baratas
+ * - Tiempos de espera en cola y de cálculo registrados por separado
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private LatencyMetrics latencyMetrics;
+
+    @Value("${security.hashing.threads:0}")
+    private int threads;
+
+    @Value("${security.hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${security.hashing.timeout-ms:10000}")
+    private long timeoutMs;
+
+    @Value("${security.hashing.retry-after-seconds:2}")
+    private long retryAfterSeconds;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Crear el pool de cifrado
+     */
+    @PostConstruct
+    void init() {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+
+        executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        logger.info("Pool de cifrado de contraseñas: {} hilos, cola de {}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Cifrar una contraseña con BCrypt
+     *
+     * @param rawPassword contraseña sin encriptar
+     * @return hash BCrypt
+     * @throws ServiceUnavailableException si el pool está saturado
+     */
+    public String encode(String rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Comprobar una contraseña contra su hash BCrypt
+     *
+     * @param rawPassword contraseña sin encriptar
+     * @param hashedPassword hash almacenado
+     * @return true si coincide
+     * @throws ServiceUnavailableException si el pool está saturado
+     */
+    public boolean matches(String rawPassword, String hashedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, hashedPassword));
+    }
+
+    private <T> T execute(Callable<T> hashing) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                latencyMetrics.record("auth.hash.queue", startedAt - submittedAt);
+                try {
+                    return hashing.call();
+                } finally {
+                    latencyMetrics.record("auth.hash.compute", System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceUnavailableException(
+                    "El servicio de autenticación está saturado. Inténtelo de nuevo en unos segundos",
+                    retryAfterSeconds);
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new ServiceUnavailableException(
+                    "El servicio de autenticación no respondió a tiempo. Inténtelo de nuevo en unos segundos",
+                    retryAfterSeconds);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Cifrado de contraseña interrumpido", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error cifrando la contraseña", cause);
+        }
+    }
+
+    /**
+     * Obtener el estado del pool de cifrado
+     *
+     * @return Mapa con hilos activos, tamaño de cola y peticiones rechazadas
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completed", executor.getCompletedTaskCount());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,169 @@
+package security;
+
+import model.User;
+import repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de principals autenticados
+ *
+ * Evita una consulta a la tabla de usuarios en cada petición autenticada:
+ * - Mapa username -> {@link PrincipalSnapshot} con tamaño máximo y TTL
+ * - Invalidación explícita desde UserService cuando cambia la cuenta
+ * - Contadores de aciertos, fallos e invalidaciones
+ *
+ * Cada invalidación incrementa una generación global. Una carga que empezó
+ * antes de una invalidación no llega a instalarse, así una cuenta recién
+ * desactivada no puede volver a la caché con datos antiguos.
+ */
+@Component
+public class PrincipalCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${security.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${security.principal-cache.ttl-ms:60000}")
+    private long ttlMs;
+
+    private final ConcurrentHashMap<String, PrincipalSnapshot> entries = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Obtener el principal de un usuario, cargándolo de base de datos si no está en caché
+     *
+     * @param username Nombre de usuario
+     * @return Instantánea del usuario o null si no existe
+     */
+    public PrincipalSnapshot get(String username) {
+        if (username == null) {
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        PrincipalSnapshot cached = entries.get(username);
+        if (cached != null && now - cached.loadedAt() < ttlMs) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        long loadGeneration = generation.get();
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user == null) {
+            entries.remove(username);
+            return null;
+        }
+
+        PrincipalSnapshot snapshot = PrincipalSnapshot.of(user, loadGeneration, now);
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(username, snapshot);
+
+        // Si hubo una invalidación durante la carga, la instantánea puede estar obsoleta
+        if (generation.get() != loadGeneration) {
+            entries.remove(username, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Invalidar el principal de un usuario
+     *
+     * Se invalida inmediatamente y, si hay una transacción activa, de nuevo
+     * tras el commit para descartar cargas que leyeran el estado previo.
+     *
+     * @param username Nombre de usuario
+     */
+    public void invalidate(String username) {
+        if (username == null) {
+            return;
+        }
+        evictNow(username);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(username);
+                }
+            });
+        }
+    }
+
+    private void evictNow(String username) {
+        generation.incrementAndGet();
+        entries.remove(username);
+        invalidations.increment();
+        logger.debug("Principal invalidado en caché: {}", username);
+    }
+
+    /**
+     * Liberar espacio: primero entradas caducadas y, si no basta, entradas arbitrarias
+     */
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.values().removeIf(entry -> now - entry.loadedAt() >= ttlMs);
+
+            int target = (int) (maxSize * 0.9);
+            Iterator<String> keys = entries.keySet().iterator();
+            while (entries.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    /**
+     * Obtener estadísticas de la caché
+     *
+     * @return Mapa con tamaño, aciertos, fallos e invalidaciones
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxSize", maxSize);
+        stats.put("ttlMs", ttlMs);
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("invalidations", invalidations.sum());
+        return stats;
+    }
+
+    /**
+     * Vaciar la caché (solo para testing)
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+}
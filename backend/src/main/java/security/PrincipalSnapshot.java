@@ -0,0 +1,44 @@
+package security;
+
+import model.User;
+import model.UserRole;
+
+/**
+ * Instantánea del principal autenticado
+ *
+ * Contiene solo lo que el filtro JWT necesita para autorizar una petición
+ * (id, rol y estado de la cuenta), sin mantener referencias a la entidad JPA.
+ *
+ * @param userId ID del usuario
+ * @param username Nombre de usuario
+ * @param role Rol del usuario
+ * @param active true si la cuenta está activa
+ * @param version Generación de la caché en la que se cargó la instantánea
+ * @param loadedAt Instante de carga en milisegundos
+ */
+public record PrincipalSnapshot(Long userId,
+                                String username,
+                                UserRole role,
+                                boolean active,
+                                long version,
+                                long loadedAt) {
+
+    /**
+     * Crear una instantánea a partir de la entidad User
+     *
+     * @param user Usuario cargado de base de datos
+     * @param version Generación de la caché
+     * @param loadedAt Instante de carga en milisegundos
+     * @return Instantánea inmutable del usuario
+     */
+    static PrincipalSnapshot of(User user, long version, long loadedAt) {
+        return new PrincipalSnapshot(
+                user.getId(),
+                user.getUsername(),
+                user.getRole(),
+                Boolean.TRUE.equals(user.getIsActive()),
+                version,
+                loadedAt
+        );
+    }
+}
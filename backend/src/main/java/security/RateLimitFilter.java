@@ -0,0 +1,88 @@
+package security;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filtro de límite de peticiones
+ * Se ejecuta justo después del filtro JWT para poder identificar al usuario
+ *
+ * Políticas por ruta:
+ * - POST /api/auth/login, /register y /refresh: por IP
+ * - POST /api/progress/**: por usuario autenticado (por IP si no lo hay)
+ *
+ * Si el cubo del cliente está vacío responde 429 con Retry-After sin llegar al controlador.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        RateLimiter.Policy policy = rateLimiter.isEnabled() ? resolvePolicy(request) : null;
+
+        if (policy != null) {
+            long waitNanos = policy.tryAcquire(resolveClientKey(request, policy));
+            if (waitNanos > 0) {
+                long retryAfterSeconds = Math.max(1, (TimeUnit.NANOSECONDS.toMillis(waitNanos) + 999) / 1000);
+                response.setStatus(429);
+                response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+                response.setContentType("application/json");
+                response.getWriter().write("{\"code\":\"TOO_MANY_REQUESTS\",\"message\":\"Demasiadas peticiones. Inténtelo de nuevo en "
+                        + retryAfterSeconds + " segundos\"}");
+                return;
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Elegir la política según método y ruta (sin el context-path)
+     */
+    private RateLimiter.Policy resolvePolicy(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return null;
+        }
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/progress/")) {
+            return rateLimiter.getProgressWritePolicy();
+        }
+        return switch (path) {
+            case "/api/auth/login" -> rateLimiter.getLoginPolicy();
+            case "/api/auth/register" -> rateLimiter.getRegisterPolicy();
+            case "/api/auth/refresh" -> rateLimiter.getRefreshPolicy();
+            default -> null;
+        };
+    }
+
+    /**
+     * Identificar al cliente: usuario autenticado para escrituras de progreso, IP en el resto
+     */
+    private String resolveClientKey(HttpServletRequest request, RateLimiter.Policy policy) {
+        if (policy == rateLimiter.getProgressWritePolicy()) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                return "user:" + authentication.getName();
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,224 @@
+package security;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitador de peticiones por cliente
+ *
+ * Cubo de tokens implementado como GCRA (Generic Cell Rate Algorithm):
+ * - Cada cliente guarda un único AtomicLong con el "instante teórico de llegada"
+ * - Consumir un token es un compareAndSet, sin bloqueos ni temporizadores
+ * - Un cubo cuyo instante teórico ya ha pasado está lleno y equivale a uno nuevo,
+ *   por lo que se puede eliminar sin perder información
+ *
+ * Las políticas (login, registro, refresh, escritura de progreso) se configuran
+ * con rate-limit.{politica}.capacity y rate-limit.{politica}.refill-per-minute.
+ */
+@Component
+public class RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+    @Value("${rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rate-limit.login.capacity:10}")
+    private int loginCapacity;
+
+    @Value("${rate-limit.login.refill-per-minute:10}")
+    private int loginRefillPerMinute;
+
+    @Value("${rate-limit.register.capacity:5}")
+    private int registerCapacity;
+
+    @Value("${rate-limit.register.refill-per-minute:5}")
+    private int registerRefillPerMinute;
+
+    @Value("${rate-limit.refresh.capacity:20}")
+    private int refreshCapacity;
+
+    @Value("${rate-limit.refresh.refill-per-minute:20}")
+    private int refreshRefillPerMinute;
+
+    @Value("${rate-limit.progress-write.capacity:60}")
+    private int progressWriteCapacity;
+
+    @Value("${rate-limit.progress-write.refill-per-minute:120}")
+    private int progressWriteRefillPerMinute;
+
+    private Policy login;
+    private Policy register;
+    private Policy refresh;
+    private Policy progressWrite;
+
+    /**
+     * Crear las políticas a partir de la configuración
+     */
+    @PostConstruct
+    void init() {
+        login = new Policy("login", loginCapacity, loginRefillPerMinute);
+        register = new Policy("register", registerCapacity, registerRefillPerMinute);
+        refresh = new Policy("refresh", refreshCapacity, refreshRefillPerMinute);
+        progressWrite = new Policy("progressWrite", progressWriteCapacity, progressWriteRefillPerMinute);
+        logger.info("Limitador de peticiones {}", enabled ? "activo" : "desactivado");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Policy getLoginPolicy() {
+        return login;
+    }
+
+    public Policy getRegisterPolicy() {
+        return register;
+    }
+
+    public Policy getRefreshPolicy() {
+        return refresh;
+    }
+
+    public Policy getProgressWritePolicy() {
+        return progressWrite;
+    }
+
+    /**
+     * Eliminar los cubos inactivos de todas las políticas
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        int evicted = login.evictIdle(now) + register.evictIdle(now)
+                + refresh.evictIdle(now) + progressWrite.evictIdle(now);
+        if (evicted > 0) {
+            logger.debug("Eliminados {} cubos de rate limit inactivos", evicted);
+        }
+    }
+
+    /**
+     * Obtener el estado de todas las políticas
+     *
+     * @return Mapa política -> {capacity, refillPerMinute, trackedClients, allowed, rejected}
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        for (Policy policy : new Policy[] {login, register, refresh, progressWrite}) {
+            stats.put(policy.getName(), policy.getStatistics());
+        }
+        return stats;
+    }
+
+    /**
+     * Política de límite: capacidad de ráfaga y ritmo de recarga, con un cubo por cliente
+     */
+    public static final class Policy {
+
+        private final String name;
+        private final int capacity;
+        private final int refillPerMinute;
+        private final long emissionIntervalNanos;
+        private final long burstToleranceNanos;
+
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        /**
+         * @param name Nombre de la política
+         * @param capacity Peticiones permitidas en ráfaga
+         * @param refillPerMinute Tokens recuperados por minuto
+         */
+        public Policy(String name, int capacity, int refillPerMinute) {
+            if (capacity <= 0 || refillPerMinute <= 0) {
+                throw new IllegalArgumentException("Configuración de rate limit inválida para " + name);
+            }
+            this.name = name;
+            this.capacity = capacity;
+            this.refillPerMinute = refillPerMinute;
+            this.emissionIntervalNanos = TimeUnit.MINUTES.toNanos(1) / refillPerMinute;
+            this.burstToleranceNanos = emissionIntervalNanos * capacity;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Intentar consumir un token del cubo del cliente
+         *
+         * @param clientKey Identificador del cliente (IP o usuario)
+         * @return 0 si se permite la petición, o nanosegundos hasta que haya un token disponible
+         */
+        public long tryAcquire(String clientKey) {
+            return tryAcquire(clientKey, System.nanoTime());
+        }
+
+        long tryAcquire(String clientKey, long now) {
+            AtomicLong theoreticalArrival = buckets.get(clientKey);
+            if (theoreticalArrival == null) {
+                theoreticalArrival = buckets.computeIfAbsent(clientKey, key -> new AtomicLong(now));
+            }
+
+            while (true) {
+                long current = theoreticalArrival.get();
+                long next = (current - now > 0 ? current : now) + emissionIntervalNanos;
+                long excess = next - now - burstToleranceNanos;
+                if (excess > 0) {
+                    rejected.increment();
+                    return excess;
+                }
+                if (theoreticalArrival.compareAndSet(current, next)) {
+                    allowed.increment();
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Eliminar los cubos que ya se han llenado de nuevo
+         *
+         * Una petición concurrente sobre un cubo que se está eliminando puede
+         * recuperar como mucho un token de más; se acepta a cambio de no bloquear.
+         *
+         * @param now Instante actual (System.nanoTime)
+         * @return Número de cubos eliminados
+         */
+        int evictIdle(long now) {
+            int evicted = 0;
+            for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+                if (entry.getValue().get() - now <= 0 && buckets.remove(entry.getKey(), entry.getValue())) {
+                    evicted++;
+                }
+            }
+            return evicted;
+        }
+
+        int trackedClients() {
+            return buckets.size();
+        }
+
+        Map<String, Object> getStatistics() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("capacity", capacity);
+            stats.put("refillPerMinute", refillPerMinute);
+            stats.put("trackedClients", buckets.size());
+            stats.put("allowed", allowed.sum());
+            stats.put("rejected", rejected.sum());
+            return stats;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package security;
+
+import model.RefreshToken;
+import model.User;
+import repository.RefreshTokenRepository;
+import exception.UnauthorizedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Servicio de refresh tokens rotatorios
+ *
+ * Gestiona la sesión larga del usuario mientras los tokens de acceso son de vida corta:
+ * - Tokens opacos aleatorios; en base de datos solo se guarda su hash
+ * - Cada renovación revoca el token usado y emite otro de la misma familia
+ * - Reutilizar un token ya rotado revoca toda la familia (posible robo)
+ * - Un cambio de versión de la cuenta invalida todos sus refresh tokens
+ */
+@Service
+@Transactional
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${jwt.refresh-expiration:1209600000}") // 14 días por defecto
+    private long refreshExpiration;
+
+    /**
+     * Resultado de una rotación: usuario y nuevo refresh token
+     *
+     * @param user Usuario propietario de la sesión
+     * @param refreshToken Nuevo refresh token en claro
+     */
+    public record Rotation(User user, String refreshToken) {
+    }
+
+    /**
+     * Emitir un refresh token para una sesión nueva (login o registro)
+     *
+     * @param user Usuario autenticado
+     * @return Refresh token en claro (solo se devuelve una vez)
+     */
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Rotar un refresh token
+     *
+     * @param rawToken Refresh token presentado por el cliente
+     * @return Usuario y nuevo refresh token
+     * @throws UnauthorizedException si el token es inválido, expiró, se reutilizó
+     *         o la cuenta cambió de versión
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new UnauthorizedException("Refresh token inválido"));
+
+        LocalDateTime now = LocalDateTime.now();
+
+        if (stored.getRevokedAt() != null) {
+            refreshTokenRepository.revokeFamily(stored.getFamilyId(), now);
+            logger.warn("Reutilización de refresh token detectada; familia {} revocada", stored.getFamilyId());
+            throw new UnauthorizedException("Refresh token ya utilizado. Inicie sesión de nuevo");
+        }
+
+        if (stored.getExpiresAt().isBefore(now)) {
+            throw new UnauthorizedException("Refresh token expirado. Inicie sesión de nuevo");
+        }
+
+        User user = stored.getUser();
+        if (!Boolean.TRUE.equals(user.getIsActive())
+                || !user.getAccountVersion().equals(stored.getAccountVersion())) {
+            refreshTokenRepository.revokeFamily(stored.getFamilyId(), now);
+            throw new UnauthorizedException("La cuenta ha cambiado. Inicie sesión de nuevo");
+        }
+
+        // Solo una de dos rotaciones concurrentes del mismo token puede ganar
+        if (refreshTokenRepository.revokeIfActive(stored.getId(), now) == 0) {
+            refreshTokenRepository.revokeFamily(stored.getFamilyId(), now);
+            logger.warn("Rotación concurrente de refresh token; familia {} revocada", stored.getFamilyId());
+            throw new UnauthorizedException("Refresh token ya utilizado. Inicie sesión de nuevo");
+        }
+
+        return new Rotation(user, issue(user, stored.getFamilyId()));
+    }
+
+    /**
+     * Revocar la sesión asociada a un refresh token (logout)
+     *
+     * @param rawToken Refresh token presentado por el cliente
+     */
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    /**
+     * Revocar todas las sesiones de un usuario
+     *
+     * @param userId id del usuario
+     */
+    public void revokeAllForUser(Long userId) {
+        int revoked = refreshTokenRepository.revokeAllForUser(userId, LocalDateTime.now());
+        logger.info("Revocados {} refresh tokens del usuario {}", revoked, userId);
+    }
+
+    /**
+     * Eliminar refresh tokens expirados
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Eliminados {} refresh tokens expirados", deleted);
+        }
+    }
+
+    /**
+     * Obtener la vida de un refresh token en milisegundos
+     */
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+
+    private String issue(User user, String familyId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken refreshToken = new RefreshToken();
+        refreshToken.setTokenHash(hash(rawToken));
+        refreshToken.setFamilyId(familyId);
+        refreshToken.setUser(user);
+        refreshToken.setAccountVersion(user.getAccountVersion());
+        refreshToken.setExpiresAt(LocalDateTime.now().plusNanos(refreshExpiration * 1_000_000L));
+        refreshTokenRepository.save(refreshToken);
+
+        return rawToken;
+    }
+
+    private static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
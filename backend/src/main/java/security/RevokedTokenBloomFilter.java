@@ -0,0 +1,233 @@
+package security;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom rotativo para tokens revocados
+ *
+ * Responde sin asignar memoria si un JTI "puede estar" revocado:
+ * - Un cubo por franja temporal de expiración; cada token va al cubo de su franja
+ * - Los cubos cuya franja ya ha pasado se ignoran y se reutilizan al insertar,
+ *   por lo que nunca hace falta reconstruir el filtro completo
+ * - Un resultado negativo es definitivo; uno positivo se confirma en el mapa exacto
+ *
+ * Las inserciones (logout) se serializan; las consultas no bloquean.
+ */
+class RevokedTokenBloomFilter {
+
+    private final Bucket[] buckets;
+    private final long bucketWidthMs;
+    private final int bitsPerBucket;
+    private final int hashFunctions;
+    private final int expectedInsertionsPerBucket;
+    private final double configuredFpp;
+
+    // Tokens que no caben en el horizonte de cubos: se consulta el mapa exacto hasta que expiren
+    private volatile long bypassUntil;
+
+    /**
+     * @param tokenLifetimeMs Vida máxima de un token en milisegundos
+     * @param bucketWidthMs Anchura de la franja temporal de cada cubo
+     * @param expectedInsertionsPerBucket Revocaciones esperadas por franja
+     * @param fpp Tasa de falsos positivos objetivo por cubo
+     */
+    RevokedTokenBloomFilter(long tokenLifetimeMs, long bucketWidthMs, int expectedInsertionsPerBucket, double fpp) {
+        if (bucketWidthMs <= 0 || expectedInsertionsPerBucket <= 0 || fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("Configuración del filtro de Bloom inválida");
+        }
+        this.bucketWidthMs = bucketWidthMs;
+        this.expectedInsertionsPerBucket = expectedInsertionsPerBucket;
+        this.configuredFpp = fpp;
+
+        // m = -n ln(p) / (ln 2)^2, redondeado a palabras de 64 bits; k = m/n ln 2
+        double ln2 = Math.log(2);
+        long bits = (long) Math.ceil(-expectedInsertionsPerBucket * Math.log(fpp) / (ln2 * ln2));
+        int words = (int) Math.max(1, (bits + 63) / 64);
+        this.bitsPerBucket = words * 64;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitsPerBucket / expectedInsertionsPerBucket * ln2));
+
+        int bucketCount = (int) ((tokenLifetimeMs + bucketWidthMs - 1) / bucketWidthMs) + 1;
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket(words);
+        }
+    }
+
+    /**
+     * Registrar un JTI revocado
+     *
+     * @param jti JWT ID
+     * @param expirationTime Expiración del token en milisegundos
+     * @param now Instante actual en milisegundos
+     */
+    synchronized void put(String jti, long expirationTime, long now) {
+        if (expirationTime <= now) {
+            return;
+        }
+
+        long epoch = expirationTime / bucketWidthMs;
+        long currentEpoch = now / bucketWidthMs;
+        if (epoch - currentEpoch >= buckets.length) {
+            bypassUntil = Math.max(bypassUntil, expirationTime);
+            return;
+        }
+
+        Bucket bucket = buckets[(int) Math.floorMod(epoch, (long) buckets.length)];
+        if (bucket.epoch != epoch) {
+            // El cubo pertenece a una franja ya pasada: todos sus tokens han expirado
+            bucket.reset();
+            bucket.epoch = epoch;
+        }
+
+        long h1 = hash(jti);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+        for (int i = 0; i < hashFunctions; i++) {
+            bucket.set(index(h1 + i * h2));
+        }
+        bucket.insertions.incrementAndGet();
+    }
+
+    /**
+     * Comprobar si un JTI puede estar revocado
+     *
+     * @param jti JWT ID
+     * @param now Instante actual en milisegundos
+     * @return false si seguro que no está revocado, true si hay que consultar el mapa exacto
+     */
+    boolean mightContain(String jti, long now) {
+        if (bypassUntil > now) {
+            return true;
+        }
+
+        long currentEpoch = now / bucketWidthMs;
+        long h1 = hash(jti);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1L;
+
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch < currentEpoch) {
+                continue;
+            }
+            boolean present = true;
+            for (int i = 0; i < hashFunctions && present; i++) {
+                present = bucket.get(index(h1 + i * h2));
+            }
+            if (present) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Vaciar todos los cubos
+     */
+    synchronized void clear() {
+        for (Bucket bucket : buckets) {
+            bucket.reset();
+            bucket.epoch = Long.MIN_VALUE;
+        }
+        bypassUntil = 0;
+    }
+
+    /**
+     * Obtener la configuración y el estado del filtro
+     *
+     * @param now Instante actual en milisegundos
+     * @return Mapa con tamaño, memoria y tasa de falsos positivos estimada
+     */
+    Map<String, Object> getStatistics(long now) {
+        long currentEpoch = now / bucketWidthMs;
+        int liveBuckets = 0;
+        long liveInsertions = 0;
+        double probabilityAllNegative = 1.0;
+
+        for (Bucket bucket : buckets) {
+            if (bucket.epoch < currentEpoch) {
+                continue;
+            }
+            int n = bucket.insertions.get();
+            liveBuckets++;
+            liveInsertions += n;
+            double bucketFpp = Math.pow(1 - Math.exp(-(double) hashFunctions * n / bitsPerBucket), hashFunctions);
+            probabilityAllNegative *= 1 - bucketFpp;
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("buckets", buckets.length);
+        stats.put("liveBuckets", liveBuckets);
+        stats.put("bucketWidthMs", bucketWidthMs);
+        stats.put("bitsPerBucket", bitsPerBucket);
+        stats.put("hashFunctions", hashFunctions);
+        stats.put("memoryBytes", (long) buckets.length * bitsPerBucket / 8);
+        stats.put("expectedInsertionsPerBucket", expectedInsertionsPerBucket);
+        stats.put("configuredFpp", configuredFpp);
+        stats.put("estimatedFpp", 1 - probabilityAllNegative);
+        stats.put("liveInsertions", liveInsertions);
+        return stats;
+    }
+
+    private int index(long combinedHash) {
+        return (int) ((combinedHash & Long.MAX_VALUE) % bitsPerBucket);
+    }
+
+    /**
+     * FNV-1a de 64 bits sobre los caracteres del JTI seguido de una mezcla final
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Cubo de una franja temporal
+     */
+    private static final class Bucket {
+
+        private final AtomicLongArray words;
+        private final AtomicInteger insertions = new AtomicInteger();
+        private volatile long epoch = Long.MIN_VALUE;
+
+        private Bucket(int wordCount) {
+            this.words = new AtomicLongArray(wordCount);
+        }
+
+        private void set(int bit) {
+            int word = bit >>> 6;
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    return;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+
+        private boolean get(int bit) {
+            return (words.get(bit >>> 6) & (1L << bit)) != 0;
+        }
+
+        private void reset() {
+            for (int i = 0; i < words.length(); i++) {
+                words.set(i, 0L);
+            }
+            insertions.set(0);
+        }
+    }
+}
@@ -14,6 +14,8 @@ import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import security.JwtAuthenticationFilter;
+import security.RateLimitFilter;
+import security.RateLimiter;
 
 import java.util.Arrays;
 
@@ -21,6 +23,7 @@ import java.util.Arrays;
  * Configuración de seguridad para la aplicación
  * - CORS centralizado
  * - Filtro JWT para validación de tokens
+ * - Límite de peticiones por cliente en login, registro y escrituras de progreso
  * - Estateless (sin sesiones)
  * - Endpoints públicos: login, register, documentación
  */
@@ -71,7 +74,7 @@ public class SecurityConfig {
      * SecurityFilterChain: Configuración de seguridad HTTP
      */
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, RateLimiter rateLimiter) throws Exception {
         http
             // CORS
             .cors(cors -> cors.configurationSource(corsConfigurationSource()))
@@ -85,7 +88,7 @@ public class SecurityConfig {
             // Autorización
             .authorizeHttpRequests(authz -> authz
                 // Públicos
-                .requestMatchers("/api/auth/login", "/api/auth/register", "/api/auth/validate").permitAll()
+                .requestMatchers("/api/auth/login", "/api/auth/register", "/api/auth/validate", "/api/auth/refresh").permitAll()
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**", "/swagger-ui.html").permitAll()
 
@@ -108,7 +111,10 @@ public class SecurityConfig {
             )
 
             // Añadir filtro JWT
-            .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class)
+
+            // Límite de peticiones (después del JWT para conocer al usuario)
+            .addFilterAfter(new RateLimitFilter(rateLimiter), JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,128 @@
+package security;
+
+import exception.ServiceUnavailableException;
+import model.RevokedToken;
+import repository.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Log persistente de revocaciones de tokens
+ *
+ * Hace que un logout sea efectivo en todos los nodos y sobreviva a reinicios:
+ * - Cada revocación se añade a la tabla revoked_tokens y a la blacklist local
+ * - Al arrancar se reproducen las revocaciones vigentes antes de aceptar tráfico
+ * - Cada nodo sigue la tabla periódicamente y aplica las revocaciones de otros nodos
+ *
+ * La consulta de la blacklist en cada petición sigue siendo solo en memoria.
+ */
+@Component
+public class TokenRevocationLog implements SmartInitializingSingleton {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationLog.class);
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private TokenBlacklistService tokenBlacklistService;
+
+    // Margen de solape entre lecturas para tolerar commits tardíos y desfase de reloj entre nodos
+    @Value("${blacklist.replication.overlap-ms:10000}")
+    private long overlapMs;
+
+    private volatile LocalDateTime lastPollStartedAt;
+
+    /**
+     * Revocar un token en este nodo y registrarlo para el resto
+     *
+     * Si no se puede registrar, el logout falla para que el cliente lo repita:
+     * solo con la blacklist local el token seguiría valiendo en los demás
+     * nodos y en este tras un reinicio.
+     *
+     * @param jti JWT ID del token
+     * @param expirationTime Expiración del token en milisegundos
+     * @throws ServiceUnavailableException si no se pudo registrar la revocación
+     */
+    public void revoke(String jti, long expirationTime) {
+        tokenBlacklistService.addToBlacklist(jti, expirationTime);
+
+        try {
+            RevokedToken revokedToken = new RevokedToken();
+            revokedToken.setJti(jti);
+            revokedToken.setExpirationTime(expirationTime);
+            revokedTokenRepository.save(revokedToken);
+        } catch (DataIntegrityViolationException e) {
+            // El token ya estaba registrado (logout repetido)
+            logger.debug("Revocación ya registrada para jti {}", jti);
+        } catch (Exception e) {
+            logger.error("No se pudo persistir la revocación del token {}: {}", jti, e.getMessage());
+            throw new ServiceUnavailableException(
+                    "No se pudo cerrar la sesión. Inténtelo de nuevo en unos segundos",
+                    "REVOCATION_FAILED", 1);
+        }
+    }
+
+    /**
+     * Reproducir las revocaciones vigentes al arrancar, antes de iniciar el servidor web
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        try {
+            List<RevokedToken> active = revokedTokenRepository.findByExpirationTimeGreaterThan(System.currentTimeMillis());
+            active.forEach(token -> tokenBlacklistService.addToBlacklist(token.getJti(), token.getExpirationTime()));
+            logger.info("Reproducidas {} revocaciones de tokens vigentes", active.size());
+        } catch (Exception e) {
+            logger.error("No se pudo reproducir el log de revocaciones: {}", e.getMessage());
+        }
+        lastPollStartedAt = startedAt;
+    }
+
+    /**
+     * Aplicar las revocaciones registradas por otros nodos desde la última lectura
+     */
+    @Scheduled(fixedDelayString = "${blacklist.replication.poll-interval-ms:2000}")
+    public void pollRevocations() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = (lastPollStartedAt != null ? lastPollStartedAt : startedAt)
+                .minusNanos(overlapMs * 1_000_000L);
+
+        try {
+            List<RevokedToken> revocations = revokedTokenRepository.findByRevokedAtAfterOrderByRevokedAtAsc(since);
+            long now = System.currentTimeMillis();
+            for (RevokedToken token : revocations) {
+                if (token.getExpirationTime() > now) {
+                    tokenBlacklistService.addToBlacklist(token.getJti(), token.getExpirationTime());
+                }
+            }
+            lastPollStartedAt = startedAt;
+        } catch (Exception e) {
+            logger.error("Error leyendo el log de revocaciones: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Purgar del log las revocaciones de tokens ya expirados
+     */
+    @Scheduled(fixedDelayString = "${blacklist.replication.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        try {
+            int deleted = revokedTokenRepository.deleteExpired(System.currentTimeMillis());
+            if (deleted > 0) {
+                logger.info("Purgadas {} revocaciones de tokens expirados", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("Error purgando el log de revocaciones: {}", e.getMessage());
+        }
+    }
+}
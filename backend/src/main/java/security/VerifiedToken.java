@@ -0,0 +1,83 @@
+package security;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Claims de un token JWT ya verificado
+ *
+ * Resultado inmutable de una única verificación de firma y parseo del token.
+ * Se comparte entre hilos a través de la caché de {@link JwtTokenProvider},
+ * por lo que no expone ninguna estructura mutable.
+ *
+ * @param username Asunto del token (sub claim)
+ * @param jti JWT ID único del token
+ * @param userId ID del usuario
+ * @param email Email del usuario
+ * @param roles Roles incluidos en el token
+ * @param role Rol del usuario (null en tokens sin autorización embebida)
+ * @param accountVersion Versión de la cuenta al emitir el token (null si no la incluye)
+ * @param issuedAt Fecha de emisión en milisegundos
+ * @param expiration Fecha de expiración en milisegundos
+ */
+public record VerifiedToken(String username,
+                            String jti,
+                            Long userId,
+                            String email,
+                            List<String> roles,
+                            String role,
+                            Long accountVersion,
+                            long issuedAt,
+                            long expiration) {
+
+    public VerifiedToken {
+        roles = roles != null ? List.copyOf(roles) : List.of();
+    }
+
+    /**
+     * Construir a partir de los claims devueltos por jjwt
+     *
+     * @param claims Claims verificados
+     * @return Claims inmutables del token
+     */
+    static VerifiedToken from(Claims claims) {
+        Object rawRoles = claims.get("roles");
+        List<String> roles = rawRoles instanceof Collection<?> collection
+                ? collection.stream().map(String::valueOf).toList()
+                : List.of();
+
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.get("jti", String.class),
+                claims.get("userId", Long.class),
+                claims.get("email", String.class),
+                roles,
+                claims.get("role", String.class),
+                claims.get("ver", Long.class),
+                claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0,
+                claims.getExpiration() != null ? claims.getExpiration().getTime() : 0
+        );
+    }
+
+    /**
+     * Comprobar si el token lleva rol y versión de cuenta,
+     * suficientes para autorizar sin consultar la base de datos
+     *
+     * @return true si el token incluye ambos claims
+     */
+    public boolean carriesAuthorization() {
+        return role != null && accountVersion != null && userId != null;
+    }
+
+    /**
+     * Comprobar si el token ya ha expirado
+     *
+     * @param now Instante actual en milisegundos
+     * @return true si el token ha expirado
+     */
+    public boolean isExpiredAt(long now) {
+        return expiration <= now;
+    }
+}
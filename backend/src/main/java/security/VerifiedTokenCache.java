@@ -0,0 +1,131 @@
+package security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de tokens JWT verificados
+ *
+ * Evita repetir la verificación HMAC y el parseo JSON para peticiones que
+ * reutilizan el mismo bearer token:
+ * - La clave es el SHA-256 del token, nunca se guarda el token en claro
+ * - Cada entrada caduca junto con el token al que pertenece
+ * - El tamaño está acotado; al llenarse se purgan primero las entradas expiradas
+ */
+class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    });
+
+    private final ConcurrentHashMap<String, VerifiedToken> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean(false);
+    private final int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    VerifiedTokenCache(int maxSize) {
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Calcular la clave de caché de un token
+     *
+     * @param token Token JWT en claro
+     * @return Digest SHA-256 codificado en Base64
+     */
+    String digest(String token) {
+        MessageDigest digest = SHA_256.get();
+        digest.reset();
+        byte[] hash = digest.digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    /**
+     * Obtener un token verificado si sigue vigente
+     *
+     * @param key Digest del token
+     * @param now Instante actual en milisegundos
+     * @return Token verificado o null si no está en caché o ha expirado
+     */
+    VerifiedToken get(String key, long now) {
+        VerifiedToken cached = entries.get(key);
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        if (cached.isExpiredAt(now)) {
+            entries.remove(key, cached);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached;
+    }
+
+    /**
+     * Guardar un token recién verificado
+     *
+     * @param key Digest del token
+     * @param token Claims verificados
+     * @param now Instante actual en milisegundos
+     */
+    void put(String key, VerifiedToken token, long now) {
+        if (token.isExpiredAt(now)) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            evict(now);
+        }
+        entries.put(key, token);
+    }
+
+    /**
+     * Liberar espacio: primero expirados y, si no basta, entradas arbitrarias
+     * hasta dejar la caché al 90% de su capacidad. Solo un hilo purga a la vez.
+     */
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.values().removeIf(entry -> entry.isExpiredAt(now));
+
+            int target = (int) (maxSize * 0.9);
+            Iterator<String> keys = entries.keySet().iterator();
+            while (entries.size() > target && keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long getHits() {
+        return hits.sum();
+    }
+
+    long getMisses() {
+        return misses.sum();
+    }
+
+    void clear() {
+        entries.clear();
+    }
+}
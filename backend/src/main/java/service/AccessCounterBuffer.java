@@ -0,0 +1,287 @@
+package service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de acceso con escritura diferida
+ *
+ * Los accesos a lecciones y simuladores se acumulan en memoria y se vuelcan
+ * a la base de datos por lotes:
+ * - Un contador atómico por (usuario, destino); los hilos que acceden a
+ *   destinos distintos nunca compiten entre sí
+ * - Cada volcado toma el delta pendiente y lo aplica con un MERGE por fila
+ *   en un único batch JDBC
+ * - El delta sigue contando como pendiente hasta que el volcado hace commit
+ * - Se vuelca periódicamente y al parar la aplicación de forma ordenada
+ * - Si un volcado falla, los deltas siguen pendientes para el siguiente
+ *
+ * Las lecturas suman {@link #pendingLessonAccesses} / {@link #pendingSimulatorAccesses}
+ * al valor persistido para que las respuestas no vayan por detrás.
+ */
+@Component
+public class AccessCounterBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessCounterBuffer.class);
+
+    // Contador retirado: ya no acepta incrementos y se ha quitado (o se va a quitar) del mapa
+    private static final long RETIRED = -1L;
+
+    private static final String LESSON_FLUSH_SQL =
+            "MERGE INTO user_lesson_progress p " +
+            "USING (SELECT u.id AS user_id, l.id AS lesson_id FROM users u, lessons l " +
+            "       WHERE u.id = ? AND l.id = ?) src " +
+            "ON p.user_id = src.user_id AND p.lesson_id = src.lesson_id " +
+            "WHEN MATCHED THEN UPDATE SET access_count = p.access_count + ? " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, lesson_id, is_completed, is_favorite, access_count) " +
+            "  VALUES (src.user_id, src.lesson_id, FALSE, FALSE, ?)";
+
+    private static final String SIMULATOR_FLUSH_SQL =
+            "MERGE INTO user_simulator_interaction i " +
+            "USING (SELECT u.id AS user_id, s.id AS simulator_id FROM users u, simulators s " +
+            "       WHERE u.id = ? AND s.id = ?) src " +
+            "ON i.user_id = src.user_id AND i.simulator_id = src.simulator_id " +
+            "WHEN MATCHED THEN UPDATE SET access_count = i.access_count + ?, " +
+            "  accessed_at = GREATEST(i.accessed_at, ?) " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, simulator_id, access_count, accessed_at) " +
+            "  VALUES (src.user_id, src.simulator_id, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LatencyMetrics latencyMetrics;
+
+    private TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<CounterKey, PendingCounter> lessonCounters = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<CounterKey, PendingCounter> simulatorCounters = new ConcurrentHashMap<>();
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder flushedRows = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Registrar un acceso de un usuario a una lección
+     * @param userId id del usuario
+     * @param lessonId id de la lección
+     */
+    public void recordLessonAccess(Long userId, Long lessonId) {
+        recorded.increment();
+        increment(lessonCounters, new CounterKey(userId, lessonId), 1, System.currentTimeMillis());
+    }
+
+    /**
+     * Registrar un acceso de un usuario a un simulador
+     * @param userId id del usuario
+     * @param simulatorId id del simulador
+     */
+    public void recordSimulatorAccess(Long userId, Long simulatorId) {
+        recorded.increment();
+        increment(simulatorCounters, new CounterKey(userId, simulatorId), 1, System.currentTimeMillis());
+    }
+
+    /**
+     * Accesos a una lección registrados y aún no volcados
+     * @param userId id del usuario
+     * @param lessonId id de la lección
+     * @return delta pendiente
+     */
+    public long pendingLessonAccesses(Long userId, Long lessonId) {
+        return pending(lessonCounters, new CounterKey(userId, lessonId));
+    }
+
+    /**
+     * Accesos a un simulador registrados y aún no volcados
+     * @param userId id del usuario
+     * @param simulatorId id del simulador
+     * @return delta pendiente
+     */
+    public long pendingSimulatorAccesses(Long userId, Long simulatorId) {
+        return pending(simulatorCounters, new CounterKey(userId, simulatorId));
+    }
+
+    /**
+     * Volcar los deltas pendientes a la base de datos
+     */
+    @Scheduled(fixedDelayString = "${access-counters.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        long start = System.nanoTime();
+        flush(lessonCounters, LESSON_FLUSH_SQL, false);
+        flush(simulatorCounters, SIMULATOR_FLUSH_SQL, true);
+        latencyMetrics.record("access-counters.flush", System.nanoTime() - start);
+    }
+
+    /**
+     * Volcar lo pendiente antes de cerrar el pool de conexiones
+     */
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+        logger.info("Contadores de acceso volcados al parar la aplicación");
+    }
+
+    /**
+     * Obtener el estado del buffer
+     *
+     * @return Mapa con contadores en memoria, accesos registrados y filas volcadas
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("lessonCounters", lessonCounters.size());
+        stats.put("simulatorCounters", simulatorCounters.size());
+        stats.put("recorded", recorded.sum());
+        stats.put("flushedRows", flushedRows.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        return stats;
+    }
+
+    private void increment(ConcurrentHashMap<CounterKey, PendingCounter> counters, CounterKey key,
+                           long delta, long accessMillis) {
+        while (true) {
+            PendingCounter counter = counters.get(key);
+            if (counter == null) {
+                counter = counters.computeIfAbsent(key, k -> new PendingCounter());
+            }
+            if (counter.add(delta, accessMillis)) {
+                return;
+            }
+            // El contador se acaba de retirar: quitarlo si sigue en el mapa y reintentar con uno nuevo
+            counters.remove(key, counter);
+        }
+    }
+
+    private long pending(ConcurrentHashMap<CounterKey, PendingCounter> counters, CounterKey key) {
+        PendingCounter counter = counters.get(key);
+        return counter != null ? counter.pending() : 0;
+    }
+
+    private void flush(ConcurrentHashMap<CounterKey, PendingCounter> counters, String sql, boolean withAccessedAt) {
+        List<Object[]> batch = new ArrayList<>();
+        List<PendingCounter> drained = new ArrayList<>();
+        List<Long> deltas = new ArrayList<>();
+
+        for (Map.Entry<CounterKey, PendingCounter> entry : counters.entrySet()) {
+            PendingCounter counter = entry.getValue();
+            long delta = counter.pending();
+            if (delta == 0) {
+                // Sin accesos desde el último volcado: retirarlo para no crecer sin límite
+                if (counter.retireIfFlushed()) {
+                    counters.remove(entry.getKey(), counter);
+                }
+                continue;
+            }
+
+            CounterKey key = entry.getKey();
+            Timestamp accessedAt = new Timestamp(counter.lastAccessMillis);
+            batch.add(withAccessedAt
+                    ? new Object[] {key.userId(), key.targetId(), delta, accessedAt, delta, accessedAt}
+                    : new Object[] {key.userId(), key.targetId(), delta, delta});
+            drained.add(counter);
+            deltas.add(delta);
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, batch));
+        } catch (Exception e) {
+            failedFlushes.increment();
+            logger.error("No se pudieron volcar {} contadores de acceso, se reintentará: {}", batch.size(), e.getMessage());
+            return;
+        }
+
+        // Ya son visibles en la base de datos: dejar de sumarlos como pendientes
+        for (int i = 0; i < drained.size(); i++) {
+            drained.get(i).markFlushed(deltas.get(i));
+        }
+        flushedRows.add(batch.size());
+    }
+
+    /**
+     * Clave (usuario, lección o simulador)
+     */
+    private record CounterKey(Long userId, Long targetId) {
+    }
+
+    /**
+     * Accesos de un (usuario, destino)
+     *
+     * Un AtomicLong en lugar de un LongAdder: la retirada necesita comparar y
+     * marcar de forma atómica, y cada contador solo lo comparten las peticiones
+     * de un mismo usuario sobre un mismo destino.
+     *
+     * El total registrado solo crece; lo pendiente es la diferencia con lo ya
+     * volcado, que solo escribe el volcado (synchronized) tras el commit.
+     */
+    private static final class PendingCounter {
+
+        private final AtomicLong count = new AtomicLong();
+        private volatile long flushed;
+        private volatile long lastAccessMillis;
+
+        /**
+         * @return false si el contador está retirado y hay que usar uno nuevo
+         */
+        private boolean add(long delta, long now) {
+            long current;
+            do {
+                current = count.get();
+                if (current == RETIRED) {
+                    return false;
+                }
+            } while (!count.compareAndSet(current, current + delta));
+            touch(now);
+            return true;
+        }
+
+        private void touch(long accessMillis) {
+            if (accessMillis > lastAccessMillis) {
+                lastAccessMillis = accessMillis;
+            }
+        }
+
+        /**
+         * Accesos registrados que aún no están en la base de datos (incluido el volcado en curso)
+         */
+        private long pending() {
+            long current = count.get();
+            return current == RETIRED ? 0 : Math.max(0, current - flushed);
+        }
+
+        private void markFlushed(long delta) {
+            flushed += delta;
+        }
+
+        private boolean retireIfFlushed() {
+            return count.compareAndSet(flushed, RETIRED);
+        }
+    }
+}
@@ -6,14 +6,19 @@ import model.AuditEntityType;
 import model.User;
 import repository.AuditLogRepository;
 import dto.response.AuditLogResponse;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -38,8 +43,8 @@ public class AuditLogService {
                 .action(action)
                 .entityType(entityType)
                 .entityId(entityId)
-                .previousValue(previousValue)
-                .newValue(newValue)
+                .previousValue(asJson(previousValue))
+                .newValue(asJson(newValue))
                 .timestamp(LocalDateTime.now())
                 .build();
 
@@ -55,6 +60,20 @@ public class AuditLogService {
                 .map(this::convertToResponse);
     }
 
+    /**
+     * Obtiene logs de auditoría por cursor, más recientes primero
+     *
+     * Cada página continúa donde acabó la anterior (fecha e id del último log),
+     * sin OFFSET ni COUNT.
+     */
+    public Slice<AuditLogResponse> listLogsAfter(Optional<PageCursor> after, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        return after
+                .map(cursor -> auditLogRepository.findBefore(cursor.key(), cursor.id(), pageable))
+                .orElseGet(() -> auditLogRepository.findAllByOrderByTimestampDescIdDesc(pageable))
+                .map(this::convertToResponse);
+    }
+
     /**
      * Obtiene logs de auditoría por usuario paginado
      */
@@ -140,6 +159,14 @@ public class AuditLogService {
         }
     }
 
+    /**
+     * Los valores son texto libre (toString de la entidad o del campo) y la
+     * columna es de tipo json: se guardan como cadena JSON para que sean válidos
+     */
+    private static JsonNode asJson(String value) {
+        return value != null ? TextNode.valueOf(value) : null;
+    }
+
     /**
      * Convierte AuditLog a AuditLogResponse
      */
@@ -0,0 +1,930 @@
+package service;
+
+import dto.response.AuthorSummaryResponse;
+import dto.response.CategoryResponse;
+import dto.response.FAQResponse;
+import dto.response.LessonResponse;
+import dto.response.LessonSummaryResponse;
+import dto.response.SimulatorResponse;
+import dto.response.StepResponse;
+import dto.response.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import model.Category;
+import model.FAQ;
+import model.Lesson;
+import model.Simulator;
+import model.Step;
+import model.User;
+import repository.CategoryRepository;
+import repository.FAQRepository;
+import repository.LessonRepository;
+import repository.SimulatorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Catálogo público en memoria
+ *
+ * Instantánea inmutable y versionada de las categorías, las lecciones
+ * publicadas con sus pasos, los simuladores activos y las FAQs activas:
+ * - Los DTOs de respuesta se construyen una sola vez, junto con los órdenes
+ *   por defecto de cada listado y los índices por id, por categoría (en orden
+ *   de lección) y por tema
+ * - Tras el commit de una escritura de administración que cambia el catálogo
+ *   público se construye una instantánea nueva y se sustituye de golpe
+ *   (copy-on-write); los lectores nunca ven un catálogo a medias ni toman
+ *   bloqueos. Los cambios que no se publican (p. ej. lecciones sin publicar)
+ *   no piden reconstrucción
+ * - Las reconstrucciones se hacen en un único hilo, fuera del commit, y se
+ *   agrupan: si llegan varios commits mientras se construye una, basta con
+ *   una reconstrucción más. Mientras hay una pendiente, las lecturas
+ *   devuelven vacío y responde la base de datos, para no servir datos ya
+ *   sobrescritos
+ * - Los DTOs guardados se comparten entre peticiones: cada lectura devuelve
+ *   copias (ResponseCopies)
+ * - El detalle de cada lección se guarda también ya serializado y en gzip la
+ *   primera vez que se pide; al reconstruir, las lecciones que no cambiaron
+ *   conservan su DTO y sus bytes, y las modificadas se vuelven a serializar
+ * - Cada instantánea guarda también las versiones (ETag) del detalle de cada
+ *   lección y las huellas de los listados de categorías y FAQs, para responder
+ *   304 a las peticiones condicionales sin construir la respuesta
+ *
+ * Cada lectura devuelve Optional vacío cuando no puede responder desde memoria
+ * (catálogo aún no cargado o pendiente de reconstruir, orden no soportado o elemento fuera del catálogo
+ * público, p. ej. una lección sin publicar); el servicio llamante consulta
+ * entonces la base de datos como antes.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private static final Sort CATEGORY_DEFAULT_SORT = Sort.by("name").ascending();
+    private static final Sort LESSON_DEFAULT_SORT = Sort.by("createdAt").descending();
+    private static final Sort LESSON_IN_CATEGORY_DEFAULT_SORT = Sort.by("lessonOrder").ascending();
+    private static final Sort SIMULATOR_DEFAULT_SORT = Sort.by("createdAt").descending();
+    private static final Sort FAQ_DEFAULT_SORT = Sort.by("createdAt").descending();
+
+    // Propiedades por las que se puede ordenar cada listado sin ir a la base de datos
+    private static final Map<String, Comparator<CategoryResponse>> CATEGORY_ORDERS = Map.of(
+            "id", nullsFirst(CategoryResponse::getId),
+            "name", nullsFirst(CategoryResponse::getName),
+            "createdAt", nullsFirst(CategoryResponse::getCreatedAt));
+
+    private static final Map<String, Comparator<LessonSummaryResponse>> LESSON_ORDERS = Map.of(
+            "id", nullsFirst(LessonSummaryResponse::getId),
+            "title", nullsFirst(LessonSummaryResponse::getTitle),
+            "lessonOrder", nullsFirst(LessonSummaryResponse::getLessonOrder),
+            "createdAt", nullsFirst(LessonSummaryResponse::getCreatedAt),
+            "updatedAt", nullsFirst(LessonSummaryResponse::getUpdatedAt));
+
+    private static final Map<String, Comparator<SimulatorResponse>> SIMULATOR_ORDERS = Map.of(
+            "id", nullsFirst(SimulatorResponse::getId),
+            "title", nullsFirst(SimulatorResponse::getTitle),
+            "createdAt", nullsFirst(SimulatorResponse::getCreatedAt),
+            "updatedAt", nullsFirst(SimulatorResponse::getUpdatedAt));
+
+    private static final Map<String, Comparator<FAQResponse>> FAQ_ORDERS = Map.of(
+            "id", nullsFirst(FAQResponse::getId),
+            "createdAt", nullsFirst(FAQResponse::getCreatedAt),
+            "updatedAt", nullsFirst(FAQResponse::getUpdatedAt));
+
+    private static final Comparator<CategoryResponse> CATEGORY_DEFAULT_ORDER =
+            CATEGORY_ORDERS.get("name").thenComparing(CATEGORY_ORDERS.get("id"));
+    private static final Comparator<LessonSummaryResponse> LESSON_DEFAULT_ORDER =
+            LESSON_ORDERS.get("createdAt").reversed().thenComparing(LESSON_ORDERS.get("id"));
+    private static final Comparator<LessonSummaryResponse> LESSON_IN_CATEGORY_DEFAULT_ORDER =
+            LESSON_ORDERS.get("lessonOrder").thenComparing(LESSON_ORDERS.get("id"));
+    private static final Comparator<SimulatorResponse> SIMULATOR_DEFAULT_ORDER =
+            SIMULATOR_ORDERS.get("createdAt").reversed().thenComparing(SIMULATOR_ORDERS.get("id"));
+    private static final Comparator<FAQResponse> FAQ_DEFAULT_ORDER =
+            FAQ_ORDERS.get("createdAt").reversed().thenComparing(FAQ_ORDERS.get("id"));
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private SimulatorRepository simulatorRepository;
+
+    @Autowired
+    private FAQRepository faqRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private LatencyMetrics latencyMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${catalog.response-cache.enabled:true}")
+    private boolean responseCacheEnabled;
+
+    private TransactionTemplate transactionTemplate;
+
+    private volatile CatalogSnapshot snapshot;
+
+    private ExecutorService rebuilder;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private final Object rebuildLock = new Object();
+    // Commits que han pedido reconstrucción y los ya incluidos en la instantánea servida
+    private final AtomicLong requestedGeneration = new AtomicLong();
+    private volatile long builtGeneration;
+    private long lastVersion;
+
+    @PostConstruct
+    void init() {
+        // Transacción propia de solo lectura, en el hilo de reconstrucción
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+
+        rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * Cargar el catálogo al arrancar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruir el catálogo tras el commit de la transacción actual
+     *
+     * La reconstrucción es asíncrona; desde el commit y hasta que termina, las
+     * lecturas responden desde la base de datos. Fuera de una transacción se
+     * pide inmediatamente.
+     */
+    public void refresh() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    requestRebuild();
+                }
+            });
+        } else {
+            requestRebuild();
+        }
+    }
+
+    /**
+     * Versión del catálogo servido
+     * @return versión, o 0 si aún no se ha cargado o hay una reconstrucción pendiente
+     */
+    public long version() {
+        CatalogSnapshot current = current();
+        return current != null ? current.version() : 0;
+    }
+
+    /**
+     * Instantánea que se puede servir: null si no hay o si no incluye todos los commits
+     */
+    private CatalogSnapshot current() {
+        CatalogSnapshot current = snapshot;
+        return current != null && builtGeneration >= requestedGeneration.get() ? current : null;
+    }
+
+    // ============================================================================
+    // CATEGORÍAS
+    // ============================================================================
+
+    public Optional<Page<CategoryResponse>> categories(Pageable pageable) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return sorted(current.categoriesByName(), CATEGORY_DEFAULT_SORT, CATEGORY_ORDERS, pageable.getSort())
+                .map(list -> page(list, pageable).map(ResponseCopies::copyCategory));
+    }
+
+    public Optional<CategoryResponse> category(Long categoryId) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.categoriesById().get(categoryId))
+                .map(ResponseCopies::copyCategory);
+    }
+
+    public Optional<List<CategoryResponse>> categoriesWithLessons() {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(current.categoriesWithLessons().stream()
+                .map(ResponseCopies::copyCategory)
+                .toList());
+    }
+
+    /**
+     * Versión del listado de categorías (huella de ids, versiones y número de lecciones publicadas)
+     */
+    public Optional<ResourceVersion> categoriesVersion() {
+        CatalogSnapshot current = current();
+        return current != null ? Optional.of(current.categoriesVersion()) : Optional.empty();
+    }
+
+    // ============================================================================
+    // LECCIONES PUBLICADAS
+    // ============================================================================
+
+    public Optional<Page<LessonSummaryResponse>> publishedLessons(Pageable pageable) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return sorted(current.lessonsByCreatedAt(), LESSON_DEFAULT_SORT, LESSON_ORDERS, pageable.getSort())
+                .map(list -> page(list, pageable).map(ResponseCopies::copyLessonSummary));
+    }
+
+    /**
+     * Porción de lecciones publicadas por cursor, en el orden por defecto
+     *
+     * La posición se busca por búsqueda binaria en la lista ya ordenada: el
+     * coste no depende de la profundidad.
+     * @param after posición de la última lección devuelta (vacío para la primera página)
+     */
+    public Optional<Slice<LessonSummaryResponse>> publishedLessonsAfter(Optional<PageCursor> after, int size) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        List<LessonSummaryResponse> lessons = current.lessonsByCreatedAt();
+        int from = after.map(cursor -> {
+            LessonSummaryResponse probe = LessonSummaryResponse.builder()
+                    .createdAt(cursor.key())
+                    .id(cursor.id())
+                    .build();
+            int found = Collections.binarySearch(lessons, probe, LESSON_DEFAULT_ORDER);
+            return found >= 0 ? found + 1 : -found - 1;
+        }).orElse(0);
+        int to = Math.min(from + size, lessons.size());
+        return Optional.of(new SliceImpl<>(lessons.subList(from, to), PageRequest.of(0, size), to < lessons.size())
+                .map(ResponseCopies::copyLessonSummary));
+    }
+
+    public Optional<Page<LessonSummaryResponse>> lessonsByCategory(Long categoryId, Pageable pageable) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        List<LessonSummaryResponse> lessons = current.lessonsByCategory().getOrDefault(categoryId, List.of());
+        return sorted(lessons, LESSON_IN_CATEGORY_DEFAULT_SORT, LESSON_ORDERS, pageable.getSort())
+                .map(list -> page(list, pageable).map(ResponseCopies::copyLessonSummary));
+    }
+
+    public Optional<Page<LessonSummaryResponse>> lessonsWithSimulator(Pageable pageable) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return sorted(current.lessonsWithSimulator(), LESSON_DEFAULT_SORT, LESSON_ORDERS, pageable.getSort())
+                .map(list -> page(list, pageable).map(ResponseCopies::copyLessonSummary));
+    }
+
+    /**
+     * Buscar lecciones publicadas por texto en título o descripción (sin distinguir mayúsculas)
+     */
+    public Optional<Page<LessonSummaryResponse>> searchLessons(String searchText, Pageable pageable) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        String needle = normalize(searchText);
+        return sorted(current.lessonsByCreatedAt(), LESSON_DEFAULT_SORT, LESSON_ORDERS, pageable.getSort())
+                .map(list -> page(list.stream()
+                        .filter(lesson -> current.lessonSearchKeys().get(lesson.getId()).matches(needle))
+                        .collect(Collectors.toList()), pageable).map(ResponseCopies::copyLessonSummary));
+    }
+
+    /**
+     * Página de lecciones publicadas a partir del ranking del índice de búsqueda
+     *
+     * Por relevancia (o sin orden) se respeta el orden del ranking; con otro
+     * orden se ordenan las coincidencias como el listado.
+     * @param lessonIds ids ordenados por relevancia
+     */
+    public Optional<Page<LessonSummaryResponse>> rankedLessons(List<Long> lessonIds, Pageable pageable) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return ranked(lessonIds, current.lessonSummariesById(), LESSON_ORDERS, pageable)
+                .map(page -> page.map(ResponseCopies::copyLessonSummary));
+    }
+
+    /**
+     * Resúmenes de un conjunto de lecciones publicadas, en el orden pedido
+     *
+     * Los ids que no están en el catálogo (no publicadas o inexistentes) se omiten.
+     */
+    public Optional<List<LessonSummaryResponse>> lessonSummaries(List<Long> lessonIds) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(lessonIds.stream()
+                .map(current.lessonSummariesById()::get)
+                .filter(Objects::nonNull)
+                .map(ResponseCopies::copyLessonSummary)
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Detalle de una lección publicada, con sus pasos en orden
+     */
+    public Optional<LessonResponse> lesson(Long lessonId) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.lessonsById().get(lessonId))
+                .map(ResponseCopies::copyLesson);
+    }
+
+    /**
+     * Versión del detalle de una lección publicada (lección, pasos y categoría)
+     */
+    public Optional<ResourceVersion> lessonVersion(Long lessonId) {
+        CatalogSnapshot current = current();
+        return current != null ? Optional.ofNullable(current.lessonVersions().get(lessonId)) : Optional.empty();
+    }
+
+    /**
+     * Detalle de una lección publicada ya serializado (JSON y gzip)
+     *
+     * Se serializa la primera vez que se pide en cada versión de la lección.
+     * @param lessonId id de la lección
+     * @return cuerpo de la respuesta, o vacío si la lección no está en el catálogo
+     */
+    public Optional<PreSerializedBody> lessonBody(Long lessonId) {
+        CatalogSnapshot current = current();
+        if (current == null || !responseCacheEnabled) {
+            return Optional.empty();
+        }
+        LessonResponse lesson = current.lessonsById().get(lessonId);
+        if (lesson == null) {
+            return Optional.empty();
+        }
+        return Optional.of(current.lessonBodies()
+                .computeIfAbsent(lessonId, id -> PreSerializedBody.of(objectMapper, lesson)));
+    }
+
+    // ============================================================================
+    // SIMULADORES ACTIVOS
+    // ============================================================================
+
+    public Optional<Page<SimulatorResponse>> activeSimulators(Pageable pageable) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return sorted(current.simulatorsByCreatedAt(), SIMULATOR_DEFAULT_SORT, SIMULATOR_ORDERS, pageable.getSort())
+                .map(list -> page(list, pageable).map(ResponseCopies::copySimulator));
+    }
+
+    /**
+     * Buscar simuladores activos por texto
+     *
+     * Igual que la consulta JPQL: primero por título y después por el orden pedido.
+     */
+    public Optional<Page<SimulatorResponse>> searchSimulators(String searchText, Pageable pageable) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        String needle = normalize(searchText);
+        return sorted(current.simulatorsByCreatedAt(), SIMULATOR_DEFAULT_SORT, SIMULATOR_ORDERS, pageable.getSort())
+                .map(list -> page(list.stream()
+                        .filter(simulator -> current.simulatorSearchKeys().get(simulator.getId()).matches(needle))
+                        .sorted(SIMULATOR_ORDERS.get("title"))
+                        .collect(Collectors.toList()), pageable).map(ResponseCopies::copySimulator));
+    }
+
+    /**
+     * Página de simuladores activos a partir del ranking del índice de búsqueda
+     * @param simulatorIds ids ordenados por relevancia
+     */
+    public Optional<Page<SimulatorResponse>> rankedSimulators(List<Long> simulatorIds, Pageable pageable) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return ranked(simulatorIds, current.simulatorsById(), SIMULATOR_ORDERS, pageable)
+                .map(page -> page.map(ResponseCopies::copySimulator));
+    }
+
+    public Optional<SimulatorResponse> simulator(Long simulatorId) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.simulatorsById().get(simulatorId))
+                .map(ResponseCopies::copySimulator);
+    }
+
+    // ============================================================================
+    // FAQs ACTIVAS
+    // ============================================================================
+
+    public Optional<Page<FAQResponse>> activeFaqs(Pageable pageable) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return sorted(current.faqsByCreatedAt(), FAQ_DEFAULT_SORT, FAQ_ORDERS, pageable.getSort())
+                .map(list -> page(list, pageable).map(ResponseCopies::copyFaq));
+    }
+
+    public Optional<Page<FAQResponse>> faqsByTopic(String topic, Pageable pageable) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        List<FAQResponse> faqs = current.faqsByTopic().getOrDefault(topic, List.of());
+        return sorted(faqs, FAQ_DEFAULT_SORT, FAQ_ORDERS, pageable.getSort())
+                .map(list -> page(list, pageable).map(ResponseCopies::copyFaq));
+    }
+
+    /**
+     * Página de FAQs activas a partir del ranking del índice de búsqueda
+     * @param faqIds ids ordenados por relevancia
+     */
+    public Optional<Page<FAQResponse>> rankedFaqs(List<Long> faqIds, Pageable pageable) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return ranked(faqIds, current.faqsById(), FAQ_ORDERS, pageable)
+                .map(page -> page.map(ResponseCopies::copyFaq));
+    }
+
+    /**
+     * Versión del listado de FAQs activas (huella de ids y versiones)
+     */
+    public Optional<ResourceVersion> activeFaqsVersion() {
+        CatalogSnapshot current = current();
+        return current != null ? Optional.of(current.faqsVersion()) : Optional.empty();
+    }
+
+    public Optional<List<String>> faqTopics() {
+        CatalogSnapshot current = current();
+        return current != null ? Optional.of(current.faqTopics()) : Optional.empty();
+    }
+
+    public Optional<FAQResponse> faq(Long faqId) {
+        CatalogSnapshot current = current();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.faqsById().get(faqId))
+                .map(ResponseCopies::copyFaq);
+    }
+
+    // ============================================================================
+    // RECONSTRUCCIÓN
+    // ============================================================================
+
+    /**
+     * Pedir una reconstrucción: si ya hay una en cola, esa incluirá este commit
+     */
+    private void requestRebuild() {
+        requestedGeneration.incrementAndGet();
+        if (rebuildPending.compareAndSet(false, true)) {
+            try {
+                rebuilder.execute(() -> {
+                    rebuildPending.set(false);
+                    rebuild();
+                });
+            } catch (RejectedExecutionException e) {
+                // Aplicación parándose
+                rebuildPending.set(false);
+            }
+        }
+    }
+
+    private void rebuild() {
+        synchronized (rebuildLock) {
+            // Se lee antes de consultar: los commits posteriores piden otra reconstrucción
+            long target = requestedGeneration.get();
+            long start = System.nanoTime();
+            try {
+                CatalogSnapshot built = transactionTemplate.execute(status -> build(lastVersion + 1));
+                snapshot = built;
+                lastVersion = built.version();
+                builtGeneration = target;
+                latencyMetrics.record("catalog.rebuild", System.nanoTime() - start);
+                logger.info("Catálogo v{} construido: {} categorías, {} lecciones, {} simuladores, {} FAQs",
+                        built.version(), built.categoriesById().size(), built.lessonsById().size(),
+                        built.simulatorsById().size(), built.faqsById().size());
+            } catch (RuntimeException e) {
+                // Mejor ir a la base de datos que servir un catálogo que ya no es válido
+                snapshot = null;
+                logger.error("Error construyendo el catálogo en memoria: {}", e.getMessage());
+            }
+            // Las búsquedas guardadas se calcularon con el catálogo anterior
+            searchResultCache.invalidateAll();
+        }
+    }
+
+    private CatalogSnapshot build(long version) {
+        CatalogSnapshot previous = snapshot;
+        List<Lesson> lessons = lessonRepository.findPublishedForCatalog();
+        Set<Long> categoryIdsWithLessons = new HashSet<>(lessonRepository.findCategoryIdsWithLessons());
+
+        // Lecciones
+        Map<Long, LessonResponse> lessonsById = new HashMap<>();
+        Map<Long, PreSerializedBody> lessonBodies = new ConcurrentHashMap<>();
+        Map<Long, LessonSummaryResponse> lessonSummariesById = new HashMap<>();
+        Map<Long, ResourceVersion> lessonVersions = new HashMap<>();
+        Map<Long, SearchKey> lessonSearchKeys = new HashMap<>();
+        Map<Long, Integer> publishedByCategory = new HashMap<>();
+        for (Lesson lesson : lessons) {
+            LessonResponse response = toLessonResponse(lesson);
+            if (previous != null) {
+                // Sin cambios en la lección ni en sus pasos: se conservan el DTO y sus bytes
+                LessonResponse unchanged = previous.lessonsById().get(lesson.getId());
+                if (response.equals(unchanged)) {
+                    response = unchanged;
+                    PreSerializedBody body = previous.lessonBodies().get(lesson.getId());
+                    if (body != null) {
+                        lessonBodies.put(lesson.getId(), body);
+                    }
+                }
+            }
+            lessonsById.put(lesson.getId(), response);
+            lessonVersions.put(lesson.getId(), ResourceVersion.lesson(lesson.getId(), lesson.getVersion(),
+                    lesson.getStepsVersion(), lesson.getCategory().getVersion(), lesson.getUpdatedAt()));
+            lessonSummariesById.put(lesson.getId(), toLessonSummary(lesson));
+            lessonSearchKeys.put(lesson.getId(), new SearchKey(lesson.getTitle(), lesson.getDescription()));
+            publishedByCategory.merge(lesson.getCategory().getId(), 1, Integer::sum);
+        }
+        List<LessonSummaryResponse> lessonsByCreatedAt = lessonSummariesById.values().stream()
+                .sorted(LESSON_DEFAULT_ORDER)
+                .toList();
+        List<LessonSummaryResponse> lessonsWithSimulator = lessonsByCreatedAt.stream()
+                .filter(lesson -> lesson.getRelatedSimulatorId() != null)
+                .toList();
+        Map<Long, List<LessonSummaryResponse>> lessonsByCategory = lessonSummariesById.values().stream()
+                .sorted(LESSON_IN_CATEGORY_DEFAULT_ORDER)
+                .collect(Collectors.groupingBy(LessonSummaryResponse::getCategoryId,
+                        Collectors.toUnmodifiableList()));
+
+        // Categorías
+        List<Category> categories = categoryRepository.findAll();
+        List<CategoryResponse> categoriesByName = categories.stream()
+                .map(category -> toCategoryResponse(category, publishedByCategory.getOrDefault(category.getId(), 0)))
+                .sorted(CATEGORY_DEFAULT_ORDER)
+                .toList();
+        ResourceVersion categoriesVersion = ResourceVersion.collection("categories", fingerprint(categories.stream()
+                .map(category -> category.getId() + ":" + category.getVersion() + ":"
+                        + publishedByCategory.getOrDefault(category.getId(), 0))));
+        List<CategoryResponse> categoriesWithLessons = categoriesByName.stream()
+                .filter(category -> categoryIdsWithLessons.contains(category.getId()))
+                .toList();
+
+        // Simuladores
+        List<Simulator> simulators = simulatorRepository.findActiveForCatalog();
+        Map<Long, SearchKey> simulatorSearchKeys = new HashMap<>();
+        for (Simulator simulator : simulators) {
+            simulatorSearchKeys.put(simulator.getId(), new SearchKey(simulator.getTitle(), simulator.getDescription()));
+        }
+        List<SimulatorResponse> simulatorsByCreatedAt = simulators.stream()
+                .map(this::toSimulatorResponse)
+                .sorted(SIMULATOR_DEFAULT_ORDER)
+                .toList();
+
+        // FAQs
+        List<FAQ> faqs = faqRepository.findActiveForCatalog();
+        List<FAQResponse> faqsByCreatedAt = faqs.stream()
+                .map(this::toFAQResponse)
+                .sorted(FAQ_DEFAULT_ORDER)
+                .toList();
+        ResourceVersion faqsVersion = ResourceVersion.collection("faqs", fingerprint(faqs.stream()
+                .map(faq -> faq.getId() + ":" + faq.getVersion())));
+        Map<String, List<FAQResponse>> faqsByTopic = faqsByCreatedAt.stream()
+                .filter(faq -> faq.getTopic() != null)
+                .collect(Collectors.groupingBy(FAQResponse::getTopic, Collectors.toUnmodifiableList()));
+        List<String> faqTopics = List.copyOf(faqRepository.findDistinctTopicOrderByTopic());
+
+        return new CatalogSnapshot(
+                version,
+                categoriesByName,
+                indexById(categoriesByName, CategoryResponse::getId),
+                categoriesWithLessons,
+                categoriesVersion,
+                lessonsByCreatedAt,
+                lessonsWithSimulator,
+                Collections.unmodifiableMap(lessonsByCategory),
+                Collections.unmodifiableMap(lessonSummariesById),
+                Collections.unmodifiableMap(lessonsById),
+                Collections.unmodifiableMap(lessonVersions),
+                lessonBodies,
+                Collections.unmodifiableMap(lessonSearchKeys),
+                simulatorsByCreatedAt,
+                indexById(simulatorsByCreatedAt, SimulatorResponse::getId),
+                Collections.unmodifiableMap(simulatorSearchKeys),
+                faqsByCreatedAt,
+                Collections.unmodifiableMap(faqsByTopic),
+                indexById(faqsByCreatedAt, FAQResponse::getId),
+                faqsVersion,
+                faqTopics);
+    }
+
+    // ============================================================================
+    // CONVERSIÓN A DTO (mismos campos que los convertToResponse de cada servicio)
+    // ============================================================================
+
+    private CategoryResponse toCategoryResponse(Category category, int publishedLessons) {
+        return new CategoryResponse(
+                category.getId(),
+                category.getName(),
+                category.getDescription(),
+                category.getCreatedAt(),
+                publishedLessons);
+    }
+
+    private LessonResponse toLessonResponse(Lesson lesson) {
+        List<StepResponse> steps = lesson.getSteps().stream()
+                .sorted(Comparator.comparing(Step::getStepOrder))
+                .map(step -> StepResponse.builder()
+                        .id(step.getId())
+                        .stepOrder(step.getStepOrder())
+                        .title(step.getTitle())
+                        .content(step.getContent())
+                        .imageUrl(step.getImageUrl())
+                        .videoUrl(step.getVideoUrl())
+                        .createdAt(step.getCreatedAt())
+                        .updatedAt(step.getUpdatedAt())
+                        .build())
+                .toList();
+
+        return LessonResponse.builder()
+                .id(lesson.getId())
+                .title(lesson.getTitle())
+                .description(lesson.getDescription())
+                .categoryId(lesson.getCategory().getId())
+                .categoryName(lesson.getCategory().getName())
+                .lessonOrder(lesson.getLessonOrder())
+                .isPublished(lesson.getIsPublished())
+                .relatedSimulatorId(lesson.getRelatedSimulator() != null ? lesson.getRelatedSimulator().getId() : null)
+                .createdAt(lesson.getCreatedAt())
+                .updatedAt(lesson.getUpdatedAt())
+                .createdBy(toUserResponse(lesson.getCreatedBy()))
+                .updatedBy(toUserResponse(lesson.getUpdatedBy()))
+                .steps(steps)
+                .build();
+    }
+
+    private LessonSummaryResponse toLessonSummary(Lesson lesson) {
+        return LessonSummaryResponse.builder()
+                .id(lesson.getId())
+                .title(lesson.getTitle())
+                .description(lesson.getDescription())
+                .categoryId(lesson.getCategory().getId())
+                .categoryName(lesson.getCategory().getName())
+                .lessonOrder(lesson.getLessonOrder())
+                .isPublished(lesson.getIsPublished())
+                .relatedSimulatorId(lesson.getRelatedSimulator() != null ? lesson.getRelatedSimulator().getId() : null)
+                .createdAt(lesson.getCreatedAt())
+                .updatedAt(lesson.getUpdatedAt())
+                .stepCount((long) lesson.getSteps().size())
+                .createdById(lesson.getCreatedBy() != null ? lesson.getCreatedBy().getId() : null)
+                .updatedById(lesson.getUpdatedBy() != null ? lesson.getUpdatedBy().getId() : null)
+                .createdBy(toAuthorSummary(lesson.getCreatedBy()))
+                .updatedBy(toAuthorSummary(lesson.getUpdatedBy()))
+                .build();
+    }
+
+    private SimulatorResponse toSimulatorResponse(Simulator simulator) {
+        return SimulatorResponse.builder()
+                .id(simulator.getId())
+                .title(simulator.getTitle())
+                .description(simulator.getDescription())
+                .feedback(simulator.getFeedback())
+                .isActive(simulator.getIsActive())
+                .lessonId(simulator.getLesson() != null ? simulator.getLesson().getId() : null)
+                .createdAt(simulator.getCreatedAt())
+                .updatedAt(simulator.getUpdatedAt())
+                .createdBy(toUserResponse(simulator.getCreatedBy()))
+                .updatedBy(toUserResponse(simulator.getUpdatedBy()))
+                .build();
+    }
+
+    private FAQResponse toFAQResponse(FAQ faq) {
+        return new FAQResponse(
+                faq.getId(),
+                faq.getQuestion(),
+                faq.getAnswer(),
+                faq.getTopic(),
+                faq.getIsActive(),
+                faq.getCreatedAt(),
+                faq.getUpdatedAt(),
+                toUserResponse(faq.getCreatedBy()),
+                toUserResponse(faq.getUpdatedBy()));
+    }
+
+    private UserResponse toUserResponse(User user) {
+        return user != null ? userService.convertToResponse(user) : null;
+    }
+
+    private AuthorSummaryResponse toAuthorSummary(User user) {
+        return user != null ? new AuthorSummaryResponse(user.getId(), user.getUsername()) : null;
+    }
+
+    // ============================================================================
+    // ORDEN Y PAGINACIÓN EN MEMORIA
+    // ============================================================================
+
+    /**
+     * Lista en el orden pedido
+     *
+     * El orden por defecto (o sin orden) usa la lista precalculada; otro orden
+     * sobre propiedades conocidas se calcula sobre una copia. Con alguna
+     * propiedad desconocida se devuelve vacío para que responda la base de datos.
+     */
+    private static <T> Optional<List<T>> sorted(List<T> defaultOrder, Sort defaultSort,
+                                                Map<String, Comparator<T>> orders, Sort sort) {
+        if (sort.isUnsorted() || sort.equals(defaultSort)) {
+            return Optional.of(defaultOrder);
+        }
+
+        Comparator<T> comparator = null;
+        for (Sort.Order order : sort) {
+            Comparator<T> next = orders.get(order.getProperty());
+            if (next == null) {
+                return Optional.empty();
+            }
+            next = order.isAscending() ? next : next.reversed();
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+
+        List<T> copy = new ArrayList<>(defaultOrder);
+        copy.sort(comparator);
+        return Optional.of(copy);
+    }
+
+    /**
+     * Página de un ranking: los ids que no están en el catálogo se omiten
+     */
+    private static <T> Optional<Page<T>> ranked(List<Long> ids, Map<Long, T> byId,
+                                                Map<String, Comparator<T>> orders, Pageable pageable) {
+        List<T> hits = ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (SearchIndexService.isRelevance(pageable.getSort())) {
+            return Optional.of(page(hits, pageable));
+        }
+        return sorted(hits, Sort.unsorted(), orders, pageable.getSort())
+                .map(list -> page(list, pageable));
+    }
+
+    private static <T> Page<T> page(List<T> items, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(items);
+        }
+        int from = (int) Math.min(pageable.getOffset(), items.size());
+        int to = Math.min(from + pageable.getPageSize(), items.size());
+        return new PageImpl<>(items.subList(from, to), pageable, items.size());
+    }
+
+    // Como en H2: los nulos van primero en orden ascendente y al final en descendente
+    private static <T, U extends Comparable<? super U>> Comparator<T> nullsFirst(Function<T, U> key) {
+        return Comparator.comparing(key, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    private static <T> Map<Long, T> indexById(List<T> items, Function<T, Long> id) {
+        Map<Long, T> index = new LinkedHashMap<>();
+        for (T item : items) {
+            index.put(id.apply(item), item);
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * Huella de un listado: SHA-256 de sus elementos ordenados, truncado a 16 caracteres hexadecimales
+     */
+    private static String fingerprint(Stream<String> entries) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            entries.sorted().forEach(entry -> {
+                digest.update(entry.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) '\n');
+            });
+            return HexFormat.of().formatHex(digest.digest(), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Título y descripción en minúsculas, para la búsqueda por texto
+     */
+    private record SearchKey(String title, String description) {
+
+        SearchKey {
+            title = normalize(title);
+            description = normalize(description);
+        }
+
+        boolean matches(String needle) {
+            return title.contains(needle) || description.contains(needle);
+        }
+    }
+
+    private record CatalogSnapshot(
+            long version,
+            List<CategoryResponse> categoriesByName,
+            Map<Long, CategoryResponse> categoriesById,
+            List<CategoryResponse> categoriesWithLessons,
+            ResourceVersion categoriesVersion,
+            List<LessonSummaryResponse> lessonsByCreatedAt,
+            List<LessonSummaryResponse> lessonsWithSimulator,
+            Map<Long, List<LessonSummaryResponse>> lessonsByCategory,
+            Map<Long, LessonSummaryResponse> lessonSummariesById,
+            Map<Long, LessonResponse> lessonsById,
+            Map<Long, ResourceVersion> lessonVersions,
+            Map<Long, PreSerializedBody> lessonBodies,
+            Map<Long, SearchKey> lessonSearchKeys,
+            List<SimulatorResponse> simulatorsByCreatedAt,
+            Map<Long, SimulatorResponse> simulatorsById,
+            Map<Long, SearchKey> simulatorSearchKeys,
+            List<FAQResponse> faqsByCreatedAt,
+            Map<String, List<FAQResponse>> faqsByTopic,
+            Map<Long, FAQResponse> faqsById,
+            ResourceVersion faqsVersion,
+            List<String> faqTopics) {
+    }
+}
@@ -42,6 +42,12 @@ public class CategoryService {
     @Autowired
     private LessonRepository lessonRepository;
 
+    @Autowired
+    private PublishedLessonTotals publishedLessonTotals;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
     /**
      * Crear nueva categoría
      * @param createCategoryRequest datos de la categoría
@@ -62,6 +68,8 @@ public class CategoryService {
         category.setDescription(createCategoryRequest.getDescription());
 
         Category saved = categoryRepository.save(category);
+        publishedLessonTotals.invalidate();
+        catalogSnapshotService.refresh();
         logger.info("Categoría creada exitosamente: {}", saved.getId());
         return saved;
     }
@@ -95,6 +103,35 @@ public class CategoryService {
         return categoryRepository.findAll(pageable);
     }
 
+    /**
+     * Listar categorías como DTO, desde el catálogo en memoria
+     * @param pageable paginación y orden
+     * @return página de categorías con su número de lecciones publicadas
+     */
+    public Page<CategoryResponse> listCategoryResponses(Pageable pageable) {
+        return catalogSnapshotService.categories(pageable)
+                .orElseGet(() -> listAllCategories(pageable).map(this::convertToResponse));
+    }
+
+    /**
+     * Obtener la versión del listado de categorías, para las peticiones condicionales
+     * @return versión del listado, o vacío si el catálogo en memoria no está cargado
+     */
+    public Optional<ResourceVersion> getCategoriesVersion() {
+        return catalogSnapshotService.categoriesVersion();
+    }
+
+    /**
+     * Obtener una categoría como DTO, desde el catálogo en memoria
+     * @param categoryId id de la categoría
+     * @return DTO de la categoría
+     * @throws ResourceNotFoundException si no existe
+     */
+    public CategoryResponse getCategoryResponse(Long categoryId) {
+        return catalogSnapshotService.category(categoryId)
+                .orElseGet(() -> convertToResponse(findById(categoryId)));
+    }
+
     /**
      * Obtener todas las categorías (sin paginación)
      * @return lista de todas las categorías
@@ -114,6 +151,17 @@ public class CategoryService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Obtener categorías con lecciones como DTO, desde el catálogo en memoria
+     * @return lista de categorías con lecciones
+     */
+    public List<CategoryResponse> getCategoryResponsesWithLessons() {
+        return catalogSnapshotService.categoriesWithLessons()
+                .orElseGet(() -> getCategoriesWithLessons().stream()
+                        .map(this::convertToResponse)
+                        .collect(Collectors.toList()));
+    }
+
     /**
      * Actualizar categoría
      * @param categoryId id de la categoría
@@ -136,6 +184,8 @@ public class CategoryService {
         category.setDescription(description);
 
         Category updated = categoryRepository.save(category);
+        publishedLessonTotals.invalidate();
+        catalogSnapshotService.refresh();
         logger.info("Categoría actualizada: {}", categoryId);
         return updated;
     }
@@ -157,6 +207,8 @@ public class CategoryService {
         }
 
         categoryRepository.deleteById(categoryId);
+        publishedLessonTotals.invalidate();
+        catalogSnapshotService.refresh();
         logger.info("Categoría eliminada: {}", categoryId);
     }
 
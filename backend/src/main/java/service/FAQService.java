@@ -4,6 +4,7 @@ import model.FAQ;
 import model.User;
 import repository.FAQRepository;
 import repository.UserRepository;
+import search.SearchType;
 import dto.request.CreateFAQRequest;
 import dto.response.FAQResponse;
 import exception.ResourceNotFoundException;
@@ -17,6 +18,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -43,6 +45,15 @@ public class FAQService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
     /**
      * Crear nueva FAQ
      * @param createFAQRequest datos de la FAQ
@@ -66,6 +77,8 @@ public class FAQService {
         faq.setIsActive(true);
 
         FAQ saved = faqRepository.save(faq);
+        catalogSnapshotService.refresh();
+        searchIndexService.faqChanged(saved.getId());
         logger.info("FAQ creada: {}", saved.getId());
         return saved;
     }
@@ -110,6 +123,49 @@ public class FAQService {
         return faqRepository.findByTopicAndIsActiveTrueOrderByCreatedAtDesc(topic, pageable);
     }
 
+    /**
+     * Listar FAQs activas como DTO, desde el catálogo en memoria
+     * @param pageable paginación
+     * @return página de FAQs activas ordenadas por fecha
+     */
+    public Page<FAQResponse> listActiveFAQResponses(Pageable pageable) {
+        return catalogSnapshotService.activeFaqs(pageable)
+                .orElseGet(() -> listActiveFAQs(pageable).map(this::convertToResponse));
+    }
+
+    /**
+     * Obtener la versión del listado de FAQs activas, para las peticiones condicionales
+     * @return versión del listado, o vacío si el catálogo en memoria no está cargado
+     */
+    public Optional<ResourceVersion> getActiveFAQsVersion() {
+        return catalogSnapshotService.activeFaqsVersion();
+    }
+
+    /**
+     * Obtener FAQs activas de un tema como DTO, desde el catálogo en memoria
+     * @param topic tema/categoría
+     * @param pageable paginación
+     * @return página de FAQs activas del tema
+     */
+    public Page<FAQResponse> getFAQResponsesByTopic(String topic, Pageable pageable) {
+        return catalogSnapshotService.faqsByTopic(topic, pageable)
+                .orElseGet(() -> getFAQsByTopic(topic, pageable).map(this::convertToResponse));
+    }
+
+    /**
+     * Obtener una FAQ como DTO
+     *
+     * Las activas se sirven desde el catálogo en memoria; el resto se consulta
+     * en la base de datos.
+     * @param faqId id de la FAQ
+     * @return DTO de la FAQ
+     * @throws ResourceNotFoundException si no existe
+     */
+    public FAQResponse getFAQResponse(Long faqId) {
+        return catalogSnapshotService.faq(faqId)
+                .orElseGet(() -> convertToResponse(findById(faqId)));
+    }
+
     /**
      * Buscar FAQs activas por texto (pregunta o respuesta)
      * @param searchText texto a buscar
@@ -120,12 +176,32 @@ public class FAQService {
         return faqRepository.searchActiveFAQ(searchText, pageable);
     }
 
+    /**
+     * Buscar FAQs activas por texto como DTO
+     *
+     * Con el índice de búsqueda cargado, por relevancia en pregunta y respuesta;
+     * si no, por subcadena en la base de datos. Las páginas se guardan en
+     * {@link SearchResultCache} hasta el siguiente cambio del catálogo.
+     * @param searchText texto a buscar
+     * @param pageable paginación y orden (la propiedad "relevance" ordena por relevancia)
+     * @return página de FAQs que coincidan
+     */
+    public Page<FAQResponse> searchActiveFAQResponses(String searchText, Pageable pageable) {
+        return searchResultCache.get("faqs", searchText, pageable, () -> {
+            Pageable fallback = SearchIndexService.withoutRelevance(pageable);
+            return searchIndexService.search(searchText, SearchType.FAQ)
+                    .flatMap(ids -> catalogSnapshotService.rankedFaqs(ids, pageable))
+                    .orElseGet(() -> searchActiveFAQs(searchText, fallback).map(this::convertToResponse));
+        }).map(ResponseCopies::copyFaq);
+    }
+
     /**
      * Obtener todos los temas disponibles
      * @return lista de temas únicos
      */
     public List<String> getAllTopics() {
-        return faqRepository.findDistinctTopicOrderByTopic();
+        return catalogSnapshotService.faqTopics()
+                .orElseGet(faqRepository::findDistinctTopicOrderByTopic);
     }
 
     /**
@@ -168,12 +244,18 @@ public class FAQService {
             throw new ForbiddenException("editar FAQ", "no eres el creador");
         }
 
+        // Los temas se listan también con FAQs inactivas
+        boolean topicChanged = !Objects.equals(faq.getTopic(), topic);
         faq.setQuestion(question);
         faq.setAnswer(answer);
         faq.setTopic(topic);
         faq.setUpdatedBy(userRepository.findById(adminId).orElseThrow());
 
         FAQ updated = faqRepository.save(faq);
+        if (Boolean.TRUE.equals(faq.getIsActive()) || topicChanged) {
+            catalogSnapshotService.refresh();
+        }
+        searchIndexService.faqChanged(faqId);
         logger.info("FAQ actualizada: {}", faqId);
         return updated;
     }
@@ -196,6 +278,8 @@ public class FAQService {
 
         faq.setIsActive(true);
         FAQ activated = faqRepository.save(faq);
+        catalogSnapshotService.refresh();
+        searchIndexService.faqChanged(faqId);
         logger.info("FAQ activada: {}", faqId);
         return activated;
     }
@@ -218,6 +302,8 @@ public class FAQService {
 
         faq.setIsActive(false);
         FAQ deactivated = faqRepository.save(faq);
+        catalogSnapshotService.refresh();
+        searchIndexService.faqChanged(faqId);
         logger.info("FAQ desactivada: {}", faqId);
         return deactivated;
     }
@@ -240,6 +326,10 @@ public class FAQService {
         }
 
         faqRepository.deleteById(faqId);
+        if (Boolean.TRUE.equals(faq.getIsActive()) || faq.getTopic() != null) {
+            catalogSnapshotService.refresh();
+        }
+        searchIndexService.faqChanged(faqId);
         logger.info("FAQ eliminada: {}", faqId);
     }
 
@@ -0,0 +1,108 @@
+package service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas de latencia por etapa
+ *
+ * Registra la duración de etapas concretas de una petición (espera en cola,
+ * cifrado de contraseña, acceso a base de datos...) para poder distinguirlas:
+ * - Contador, media y máximo por etapa
+ * - Histograma en potencias de 2 (ms) para percentiles aproximados
+ *
+ * El registro no bloquea ni asigna memoria tras la primera muestra de cada etapa.
+ */
+@Component
+public class LatencyMetrics {
+
+    // Límites superiores de los cubos del histograma en milisegundos: 1, 2, 4 ... 16384
+    private static final int HISTOGRAM_BUCKETS = 15;
+
+    private final ConcurrentHashMap<String, StageStats> stages = new ConcurrentHashMap<>();
+
+    /**
+     * Registrar la duración de una etapa
+     *
+     * @param stage Nombre de la etapa (ej: "auth.hash.compute")
+     * @param nanos Duración en nanosegundos
+     */
+    public void record(String stage, long nanos) {
+        stages.computeIfAbsent(stage, key -> new StageStats()).record(Math.max(0, nanos));
+    }
+
+    /**
+     * Obtener un resumen de todas las etapas registradas
+     *
+     * @return Mapa etapa -> {count, avgMs, maxMs, p50Ms, p95Ms, p99Ms}
+     */
+    public Map<String, Object> getSnapshot() {
+        Map<String, Object> snapshot = new TreeMap<>();
+        stages.forEach((stage, stats) -> snapshot.put(stage, stats.toMap()));
+        return snapshot;
+    }
+
+    /**
+     * Acumuladores de una etapa
+     */
+    private static final class StageStats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder[] histogram = new LongAdder[HISTOGRAM_BUCKETS];
+
+        private StageStats() {
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                histogram[i] = new LongAdder();
+            }
+        }
+
+        private void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = millis <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(millis - 1);
+            histogram[Math.min(bucket, HISTOGRAM_BUCKETS - 1)].increment();
+        }
+
+        private Map<String, Object> toMap() {
+            long samples = count.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", samples);
+            map.put("avgMs", samples > 0 ? totalNanos.sum() / 1e6 / samples : 0.0);
+            map.put("maxMs", maxNanos.get() / 1e6);
+            map.put("p50Ms", percentile(samples, 0.50));
+            map.put("p95Ms", percentile(samples, 0.95));
+            map.put("p99Ms", percentile(samples, 0.99));
+            return map;
+        }
+
+        /**
+         * Percentil aproximado: límite superior del cubo que lo contiene
+         */
+        private long percentile(long samples, double quantile) {
+            if (samples == 0) {
+                return 0;
+            }
+            long target = (long) Math.ceil(samples * quantile);
+            long cumulative = 0;
+            for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+                cumulative += histogram[i].sum();
+                if (cumulative >= target) {
+                    return 1L << i;
+                }
+            }
+            return 1L << (HISTOGRAM_BUCKETS - 1);
+        }
+    }
+}
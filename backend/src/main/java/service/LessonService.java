@@ -8,8 +8,11 @@ import repository.LessonRepository;
 import repository.CategoryRepository;
 import repository.UserRepository;
 import repository.StepRepository;
+import search.SearchType;
 import dto.request.CreateLessonRequest;
+import dto.response.AuthorSummaryResponse;
 import dto.response.LessonResponse;
+import dto.response.LessonSummaryResponse;
 import dto.response.StepResponse;
 import dto.response.UserResponse;
 import exception.ResourceNotFoundException;
@@ -17,14 +20,26 @@ import exception.ForbiddenException;
 import exception.UnprocessableEntityException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -32,6 +47,7 @@ import java.util.stream.Collectors;
  *
  * Gestiona todas las operaciones relacionadas con lecciones:
  * - Crear, actualizar, eliminar lecciones
+ * - Orden de las lecciones dentro de su categoría (claves con huecos)
  * - Búsqueda y filtrado de lecciones
  * - Gestión de pasos
  * - Publicación de lecciones
@@ -43,6 +59,17 @@ public class LessonService {
 
     private static final Logger logger = LoggerFactory.getLogger(LessonService.class);
 
+    /**
+     * Separación entre claves de orden consecutivas de una categoría
+     *
+     * Deja sitio para unas diez inserciones seguidas en el mismo hueco antes de
+     * tener que renumerar la categoría.
+     */
+    static final int ORDER_GAP = 1024;
+
+    private static final String UPDATE_ORDER_SQL =
+            "UPDATE lessons SET lesson_order = ?, version = version + 1, updated_at = ? WHERE id = ?";
+
     @Autowired
     private LessonRepository lessonRepository;
 
@@ -58,6 +85,27 @@ public class LessonService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ProgressSummaryService progressSummaryService;
+
+    @Autowired
+    private PublishedLessonTotals publishedLessonTotals;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     /**
      * Crear nueva lección
      * @param createLessonRequest datos de la lección
@@ -65,17 +113,19 @@ public class LessonService {
      * @return lección creada
      */
     public Lesson createLesson(CreateLessonRequest createLessonRequest, Long adminId) {
-        // Validar categoría existe
-        Category category = categoryRepository.findById(createLessonRequest.getCategoryId())
+        // Validar categoría existe y bloquearla: el orden se calcula a partir del máximo de la categoría
+        Category category = categoryRepository.findByIdForUpdate(createLessonRequest.getCategoryId())
                 .orElseThrow(() -> new IllegalArgumentException("Categoría no encontrada"));
 
         // Validar usuario admin existe
         User admin = userRepository.findById(adminId)
                 .orElseThrow(() -> new IllegalArgumentException("Administrador no encontrado"));
 
-        // Obtener siguiente número de orden en la categoría
-        Integer maxOrder = lessonRepository.getMaxLessonOrderByCategory(createLessonRequest.getCategoryId());
-        Integer newOrder = (maxOrder != null ? maxOrder : 0) + 1;
+        // Sin publicar solo cambia el catálogo público si la categoría pasa a tener lecciones
+        boolean firstInCategory = lessonRepository.countByCategory_Id(category.getId()) == 0;
+
+        // Siguiente clave de orden en la categoría, dejando hueco para insertar después
+        Integer newOrder = nextOrderKey(category.getId());
 
         Lesson lesson = new Lesson();
         lesson.setTitle(createLessonRequest.getTitle());
@@ -91,7 +141,11 @@ public class LessonService {
             // Validación de simulador será hecha en SimulatorService
         }
 
-        return lessonRepository.save(lesson);
+        Lesson saved = lessonRepository.save(lesson);
+        if (firstInCategory) {
+            catalogSnapshotService.refresh();
+        }
+        return saved;
     }
 
     /**
@@ -105,6 +159,48 @@ public class LessonService {
                 .orElseThrow(() -> new ResourceNotFoundException("Lesson", "id", lessonId));
     }
 
+    /**
+     * Obtener el detalle de una lección con sus pasos
+     *
+     * Las lecciones publicadas se sirven desde el catálogo en memoria; el resto
+     * se consulta en la base de datos.
+     * @param lessonId id de la lección
+     * @return DTO de la lección con sus pasos ordenados
+     * @throws ResourceNotFoundException si no existe
+     */
+    public LessonResponse getLessonResponse(Long lessonId) {
+        return catalogSnapshotService.lesson(lessonId)
+                .orElseGet(() -> convertToResponse(findById(lessonId)));
+    }
+
+    /**
+     * Obtener la versión del detalle de una lección, para las peticiones condicionales
+     *
+     * Combina las versiones de la lección, de sus pasos y de su categoría. Las
+     * lecciones publicadas la toman del catálogo en memoria (la misma instantánea
+     * que sirve el detalle); el resto, de una proyección sin cargar la entidad.
+     * @param lessonId id de la lección
+     * @return versión de la lección, o vacío si no existe
+     */
+    public Optional<ResourceVersion> getLessonVersion(Long lessonId) {
+        return catalogSnapshotService.lessonVersion(lessonId)
+                .or(() -> lessonRepository.findVersionById(lessonId)
+                        .map(v -> ResourceVersion.lesson(v.getId(), v.getVersion(), v.getStepsVersion(),
+                                v.getCategoryVersion(), v.getUpdatedAt())));
+    }
+
+    /**
+     * Obtener el detalle de una lección publicada ya serializado
+     *
+     * Evita volver a serializar los pasos en cada petición; el DTO equivalente
+     * es el de {@link #getLessonResponse(Long)}.
+     * @param lessonId id de la lección
+     * @return JSON y gzip de la lección, o vacío si no está en el catálogo en memoria
+     */
+    public Optional<PreSerializedBody> getLessonBody(Long lessonId) {
+        return catalogSnapshotService.lessonBody(lessonId);
+    }
+
     /**
      * Listar lecciones por categoría
      * @param categoryId id de la categoría
@@ -135,12 +231,116 @@ public class LessonService {
     }
 
     /**
-     * Obtener lecciones trending/más accedidas
+     * Obtener lecciones trending
+     *
+     * El ranking sale de {@link TrendingService} (en memoria, como máximo K
+     * lecciones) y los resúmenes del catálogo en memoria; si aún no está
+     * cargado, se consultan solo los resúmenes de las lecciones de la página.
+     * @param categoryId categoría (null para el ranking global)
      * @param pageable paginación
-     * @return página de lecciones ordenadas por popularidad
+     * @return página de resúmenes ordenados por puntuación trending
+     */
+    public Page<LessonSummaryResponse> getTrendingLessons(Long categoryId, Pageable pageable) {
+        List<Long> ranking = trendingService.topLessons(categoryId);
+        int from = (int) Math.min(pageable.getOffset(), ranking.size());
+        int to = Math.min(from + pageable.getPageSize(), ranking.size());
+        List<Long> pageIds = ranking.subList(from, to);
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ranking.size());
+        }
+
+        Optional<List<LessonSummaryResponse>> cached = catalogSnapshotService.lessonSummaries(pageIds);
+        if (cached.isPresent()) {
+            return new PageImpl<>(cached.get(), pageable, ranking.size());
+        }
+
+        Map<Long, LessonSummaryResponse> summaries = lessonRepository.findSummariesByIds(pageIds).stream()
+                .collect(Collectors.toMap(LessonSummaryResponse::getId, Function.identity()));
+        List<LessonSummaryResponse> content = pageIds.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PageImpl<>(withAuthors(content), pageable, ranking.size());
+    }
+
+    /**
+     * Listar lecciones publicadas (resumen sin pasos)
+     * @param pageable paginación y orden
+     * @return página de resúmenes
      */
-    public Page<Lesson> getTrendingLessons(Pageable pageable) {
-        return lessonRepository.findMostAccessedLessons(pageable);
+    public Page<LessonSummaryResponse> getPublishedLessonSummaries(Pageable pageable) {
+        return catalogSnapshotService.publishedLessons(pageable)
+                .orElseGet(() -> withAuthors(lessonRepository.findPublishedSummaries(pageable)));
+    }
+
+    /**
+     * Listar lecciones publicadas por cursor, en el orden por defecto (más recientes primero)
+     *
+     * Del catálogo en memoria (búsqueda binaria de la posición) o, si no está
+     * cargado, de la base de datos con la condición "después de" en lugar de OFFSET.
+     * @param after posición de la última lección de la página anterior (vacío para la primera)
+     * @param size tamaño de página
+     * @return porción de resúmenes, sin total
+     */
+    public Slice<LessonSummaryResponse> getPublishedLessonSummariesAfter(Optional<PageCursor> after, int size) {
+        return catalogSnapshotService.publishedLessonsAfter(after, size)
+                .orElseGet(() -> {
+                    Pageable pageable = PageRequest.of(0, size);
+                    Slice<LessonSummaryResponse> slice = after
+                            .map(cursor -> lessonRepository.findPublishedSummariesAfter(cursor.key(), cursor.id(), pageable))
+                            .orElseGet(() -> lessonRepository.findPublishedSummariesFirst(pageable));
+                    withAuthors(slice.getContent());
+                    return slice;
+                });
+    }
+
+    /**
+     * Posición de una lección en el listado por cursor
+     */
+    public static PageCursor cursorOf(LessonSummaryResponse lesson) {
+        return new PageCursor(lesson.getCreatedAt(), lesson.getId());
+    }
+
+    /**
+     * Listar lecciones publicadas de una categoría (resumen sin pasos)
+     * @param categoryId id de la categoría
+     * @param pageable paginación y orden
+     * @return página de resúmenes
+     */
+    public Page<LessonSummaryResponse> getLessonSummariesByCategory(Long categoryId, Pageable pageable) {
+        return catalogSnapshotService.lessonsByCategory(categoryId, pageable)
+                .orElseGet(() -> withAuthors(lessonRepository.findPublishedSummariesByCategory(categoryId, pageable)));
+    }
+
+    /**
+     * Buscar lecciones publicadas por texto (resumen sin pasos)
+     *
+     * Con el índice de búsqueda cargado se busca en título, descripción y pasos
+     * por relevancia (sin tildes y con singulares y plurales); si no, por
+     * subcadena en título o descripción. Las páginas se guardan en
+     * {@link SearchResultCache} hasta el siguiente cambio del catálogo.
+     * @param searchText texto a buscar
+     * @param pageable paginación y orden (la propiedad "relevance" ordena por relevancia)
+     * @return página de resúmenes
+     */
+    public Page<LessonSummaryResponse> searchLessonSummaries(String searchText, Pageable pageable) {
+        return searchResultCache.get("lessons", searchText, pageable, () -> {
+            Pageable fallback = SearchIndexService.withoutRelevance(pageable);
+            return searchIndexService.search(searchText, SearchType.LESSON)
+                    .flatMap(ids -> catalogSnapshotService.rankedLessons(ids, pageable))
+                    .or(() -> catalogSnapshotService.searchLessons(searchText, fallback))
+                    .orElseGet(() -> withAuthors(lessonRepository.searchPublishedSummaries(searchText, fallback)));
+        }).map(ResponseCopies::copyLessonSummary);
+    }
+
+    /**
+     * Listar lecciones publicadas con simulador asociado (resumen sin pasos)
+     * @param pageable paginación y orden
+     * @return página de resúmenes
+     */
+    public Page<LessonSummaryResponse> getLessonSummariesWithSimulator(Pageable pageable) {
+        return catalogSnapshotService.lessonsWithSimulator(pageable)
+                .orElseGet(() -> withAuthors(lessonRepository.findSummariesWithSimulator(pageable)));
     }
 
     /**
@@ -187,6 +387,10 @@ public class LessonService {
         lesson.setUpdatedBy(userRepository.findById(adminId).orElseThrow());
 
         Lesson updated = lessonRepository.save(lesson);
+        if (Boolean.TRUE.equals(lesson.getIsPublished())) {
+            catalogSnapshotService.refresh();
+        }
+        searchIndexService.lessonChanged(lessonId);
         logger.info("Lección actualizada: {}", lessonId);
         return updated;
     }
@@ -223,6 +427,12 @@ public class LessonService {
         lesson.setUpdatedBy(userRepository.findById(adminId).orElseThrow());
 
         Lesson published = lessonRepository.save(lesson);
+        searchIndexService.lessonChanged(lessonId);
+        trendingService.lessonPublished(lessonId, lesson.getCategory().getId());
+        // Cambia el total de lecciones publicadas de todos los resúmenes
+        publishedLessonTotals.invalidate();
+        progressSummaryService.requestRebuild();
+        catalogSnapshotService.refresh();
         logger.info("Lección publicada: {}", lessonId);
         return published;
     }
@@ -245,6 +455,11 @@ public class LessonService {
 
         lesson.setIsPublished(false);
         Lesson unpublished = lessonRepository.save(lesson);
+        searchIndexService.lessonChanged(lessonId);
+        trendingService.lessonUnpublished(lessonId, lesson.getCategory().getId());
+        publishedLessonTotals.invalidate();
+        progressSummaryService.requestRebuild();
+        catalogSnapshotService.refresh();
         logger.info("Lección despublicada: {}", lessonId);
         return unpublished;
     }
@@ -272,6 +487,15 @@ public class LessonService {
 
         // Eliminar lección
         lessonRepository.deleteById(lessonId);
+        searchIndexService.lessonChanged(lessonId);
+        trendingService.lessonDeleted(lessonId);
+        publishedLessonTotals.invalidate();
+        progressSummaryService.requestRebuild();
+        // Cambia el catálogo público si estaba publicada o si la categoría se queda sin lecciones
+        if (Boolean.TRUE.equals(lesson.getIsPublished())
+                || lessonRepository.countByCategory_Id(lesson.getCategory().getId()) == 0) {
+            catalogSnapshotService.refresh();
+        }
         logger.info("Lección eliminada: {}", lessonId);
     }
 
@@ -291,7 +515,117 @@ public class LessonService {
      */
     public Integer getNextLessonOrder(Long categoryId) {
         Integer maxOrder = lessonRepository.getMaxLessonOrderByCategory(categoryId);
-        return (maxOrder != null ? maxOrder : 0) + 1;
+        return (maxOrder != null ? maxOrder : 0) + ORDER_GAP;
+    }
+
+    /**
+     * Mover una lección a otra posición dentro de su categoría
+     *
+     * La lección recibe una clave de orden entre las de sus nuevas vecinas, así
+     * que solo se escribe su fila. Si entre las vecinas ya no queda hueco, antes
+     * se renumera la categoría entera con separación ORDER_GAP. La categoría
+     * queda bloqueada hasta el commit.
+     * @param lessonId id de la lección
+     * @param position nueva posición en la categoría (1 = primera)
+     * @param adminId id del admin que reordena
+     * @return lección con su nuevo orden
+     * @throws ResourceNotFoundException si la lección no existe
+     * @throws ForbiddenException si el admin no es el creador
+     * @throws IllegalArgumentException si la posición está fuera de rango
+     */
+    public Lesson moveLesson(Long lessonId, Integer position, Long adminId) {
+        Lesson lesson = findById(lessonId);
+
+        // Validar que el admin sea el creador
+        if (!lesson.getCreatedBy().getId().equals(adminId)) {
+            logger.warn("Intento de reordenar lección ajena: usuario {}", adminId);
+            throw new ForbiddenException("reordenar lección", "no eres el creador");
+        }
+
+        Long categoryId = lesson.getCategory().getId();
+        categoryRepository.findByIdForUpdate(categoryId)
+                .orElseThrow(() -> new ResourceNotFoundException("Category", "id", categoryId));
+
+        // Resto de lecciones de la categoría, leídas ya con la categoría bloqueada
+        List<LessonRepository.LessonPosition> others = lessonRepository.findPositionsByCategory(categoryId).stream()
+                .filter(p -> !p.getId().equals(lessonId))
+                .toList();
+        if (position == null || position < 1 || position > others.size() + 1) {
+            throw new IllegalArgumentException("La nueva posición es inválida");
+        }
+
+        int[] keys = others.stream().mapToInt(LessonRepository.LessonPosition::getLessonOrder).toArray();
+        Integer newOrder = orderKeyBefore(keys, position - 1);
+        if (newOrder == null) {
+            keys = renumberCategory(categoryId, others);
+            newOrder = orderKeyBefore(keys, position - 1);
+        }
+
+        lesson.setLessonOrder(newOrder);
+        Lesson moved = lessonRepository.save(lesson);
+        if (Boolean.TRUE.equals(lesson.getIsPublished())) {
+            catalogSnapshotService.refresh();
+        }
+        logger.info("Lección {} movida a la posición {} (orden {})", lessonId, position, newOrder);
+        return moved;
+    }
+
+    /**
+     * Siguiente clave de orden al final de una categoría
+     *
+     * Requiere la categoría bloqueada. Si la clave se saliera de rango, antes
+     * se renumera la categoría.
+     */
+    private Integer nextOrderKey(Long categoryId) {
+        Integer maxOrder = lessonRepository.getMaxLessonOrderByCategory(categoryId);
+        long next = (long) (maxOrder != null ? maxOrder : 0) + ORDER_GAP;
+        if (next > Integer.MAX_VALUE) {
+            int[] keys = renumberCategory(categoryId, lessonRepository.findPositionsByCategory(categoryId));
+            next = (long) (keys.length > 0 ? keys[keys.length - 1] : 0) + ORDER_GAP;
+        }
+        return (int) next;
+    }
+
+    /**
+     * Clave de orden para insertar delante de keys[index] (o al final si index == keys.length)
+     * @return clave intermedia, o null si no queda hueco entre las vecinas
+     */
+    private static Integer orderKeyBefore(int[] keys, int index) {
+        long previous = index > 0 ? keys[index - 1] : 0;
+        if (index == keys.length) {
+            long next = previous + ORDER_GAP;
+            return next <= Integer.MAX_VALUE ? (int) next : null;
+        }
+        long next = keys[index];
+        return next - previous >= 2 ? (int) (previous + (next - previous) / 2) : null;
+    }
+
+    /**
+     * Renumerar las lecciones de una categoría con separación ORDER_GAP, conservando su orden
+     *
+     * Solo se escriben las filas cuya clave cambia, en un único batch JDBC.
+     * Requiere la categoría bloqueada.
+     * @param categoryId id de la categoría
+     * @param positions lecciones a renumerar, en su orden actual
+     * @return nuevas claves, en el mismo orden
+     */
+    private int[] renumberCategory(Long categoryId, List<LessonRepository.LessonPosition> positions) {
+        int[] keys = new int[positions.size()];
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < positions.size(); i++) {
+            keys[i] = (i + 1) * ORDER_GAP;
+            if (!positions.get(i).getLessonOrder().equals(keys[i])) {
+                batch.add(new Object[] { keys[i], now, positions.get(i).getId() });
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_ORDER_SQL, batch);
+            // Puede cambiar el orden de lecciones publicadas
+            catalogSnapshotService.refresh();
+        }
+        logger.info("Categoría {} renumerada: {} de {} lecciones", categoryId, batch.size(), positions.size());
+        return keys;
     }
 
     /**
@@ -303,6 +637,35 @@ public class LessonService {
         return lessonRepository.existsById(lessonId);
     }
 
+    /**
+     * Rellenar los autores de una página de resúmenes con una sola consulta
+     * @param page página de resúmenes
+     * @return la misma página con createdBy y updatedBy
+     */
+    private Page<LessonSummaryResponse> withAuthors(Page<LessonSummaryResponse> page) {
+        withAuthors(page.getContent());
+        return page;
+    }
+
+    private List<LessonSummaryResponse> withAuthors(List<LessonSummaryResponse> summaries) {
+        Set<Long> authorIds = new HashSet<>();
+        for (LessonSummaryResponse summary : summaries) {
+            authorIds.add(summary.getCreatedById());
+            authorIds.add(summary.getUpdatedById());
+        }
+        if (authorIds.isEmpty()) {
+            return summaries;
+        }
+
+        Map<Long, AuthorSummaryResponse> authors = userRepository.findAuthorSummaries(authorIds).stream()
+                .collect(Collectors.toMap(AuthorSummaryResponse::getId, Function.identity()));
+        for (LessonSummaryResponse summary : summaries) {
+            summary.setCreatedBy(authors.get(summary.getCreatedById()));
+            summary.setUpdatedBy(authors.get(summary.getUpdatedById()));
+        }
+        return summaries;
+    }
+
     /**
      * Convertir entidad Lesson a DTO LessonResponse
      * @param lesson entidad Lesson
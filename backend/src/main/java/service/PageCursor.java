@@ -0,0 +1,103 @@
+package service;
+
+import dto.response.CursorPageResponse;
+import org.springframework.data.domain.Slice;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Posición en un listado paginado por cursor (keyset)
+ *
+ * Guarda la clave de orden y el id del último elemento devuelto; la página
+ * siguiente se pide con "después de esta posición" en lugar de con un OFFSET,
+ * así que cuesta lo mismo a cualquier profundidad y no necesita COUNT.
+ * Al cliente se le da como un token opaco (Base64 URL).
+ *
+ * @param key clave de orden del último elemento (null si el listado se ordena solo por id)
+ * @param id id del último elemento, para desempatar
+ */
+public record PageCursor(LocalDateTime key, long id) {
+
+    /**
+     * Tamaño máximo de página de los listados por cursor
+     */
+    public static final int MAX_SIZE = 100;
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Token opaco para la respuesta
+     */
+    public String encode() {
+        String raw = (key != null ? key.toString() : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Leer el token recibido
+     * @param token token de una respuesta anterior, o vacío para la primera página
+     * @return posición, o vacío para empezar por el principio
+     * @throws IllegalArgumentException si el token no es válido
+     */
+    public static Optional<PageCursor> decode(String token) {
+        if (token == null || token.isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Cursor no válido");
+            }
+            String key = raw.substring(0, separator);
+            return Optional.of(new PageCursor(key.isEmpty() ? null : LocalDateTime.parse(key),
+                    Long.parseLong(raw.substring(separator + 1))));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor no válido");
+        }
+    }
+
+    /**
+     * Leer el token de un listado ordenado por clave (fecha) e id
+     * @param token token de una respuesta anterior, o vacío para la primera página
+     * @return posición, o vacío para empezar por el principio
+     * @throws IllegalArgumentException si el token no es válido o no lleva clave
+     */
+    public static Optional<PageCursor> decodeKeyed(String token) {
+        Optional<PageCursor> cursor = decode(token);
+        if (cursor.isPresent() && cursor.get().key() == null) {
+            throw new IllegalArgumentException("Cursor no válido");
+        }
+        return cursor;
+    }
+
+    /**
+     * Tamaño de página pedido, entre 1 y {@link #MAX_SIZE}
+     */
+    public static int size(int requested) {
+        return Math.max(1, Math.min(requested, MAX_SIZE));
+    }
+
+    /**
+     * Respuesta de una página con el cursor de la siguiente
+     * @param slice página leída (sin total)
+     * @param position posición de un elemento en el orden del listado
+     * @return contenido y cursor de la página siguiente (null si es la última)
+     */
+    public static <T> CursorPageResponse<T> page(Slice<T> slice, Function<T, PageCursor> position) {
+        String next = slice.hasNext() && slice.hasContent()
+                ? position.apply(slice.getContent().get(slice.getNumberOfElements() - 1)).encode()
+                : null;
+        return CursorPageResponse.<T>builder()
+                .content(slice.getContent())
+                .size(slice.getSize())
+                .hasNext(next != null)
+                .nextCursor(next)
+                .build();
+    }
+}
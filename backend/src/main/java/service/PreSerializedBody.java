@@ -0,0 +1,81 @@
+package service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cuerpo de respuesta ya serializado a JSON y comprimido con gzip
+ *
+ * Se calcula una vez por versión del recurso y se escribe tal cual en cada
+ * respuesta (ByteArrayHttpMessageConverter), sin pasar de nuevo por Jackson
+ * ni por el compresor. Como se comprime una sola vez, se usa el nivel máximo.
+ *
+ * Los arrays no se copian: no deben modificarse.
+ */
+public record PreSerializedBody(byte[] json, byte[] gzip) {
+
+    /**
+     * Serializar y comprimir un DTO
+     * @param objectMapper el mismo ObjectMapper que usa Spring MVC
+     * @param value DTO a serializar
+     * @return cuerpo en JSON y en gzip
+     */
+    public static PreSerializedBody of(ObjectMapper objectMapper, Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            return new PreSerializedBody(json, gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la respuesta", e);
+        }
+    }
+
+    /**
+     * Indica si la cabecera Accept-Encoding admite gzip (y no lo excluye con q=0)
+     * @param acceptEncoding valor de la cabecera, puede ser null
+     * @return true si se puede responder con gzip
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            boolean rejected = false;
+            for (int i = 1; i < tokens.length; i++) {
+                if (tokens[i].replace(" ", "").matches("(?i)q=0(\\.0{0,3})?")) {
+                    rejected = true;
+                }
+            }
+            // Una mención explícita de gzip prevalece sobre el comodín
+            if (coding.equalsIgnoreCase("gzip")) {
+                return !rejected;
+            }
+            if (coding.equals("*")) {
+                wildcard = !rejected;
+            }
+        }
+        return wildcard;
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,249 @@
+package service;
+
+import repository.LessonRepository;
+import repository.UserLessonProgressRepository.ProgressFlags;
+import repository.UserProgressSummaryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio de resúmenes de progreso
+ *
+ * Mantiene la tabla user_progress_summary (el progreso por categoría se calcula
+ * con una consulta agrupada, ver {@link UserLessonProgressService}):
+ * - Cada cambio de completada/favorita aplica su variación en la misma transacción
+ * - Solo cuentan como completadas las lecciones publicadas
+ * - Al publicar, despublicar o eliminar una lección se reconstruyen todos los
+ *   resúmenes por tramos de usuarios en paralelo, corrigiendo los totales
+ * - También se reconstruyen al arrancar y periódicamente, para corregir cualquier
+ *   desviación (por ejemplo una transición que coincidió con una reconstrucción)
+ */
+@Service
+@Transactional
+public class ProgressSummaryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProgressSummaryService.class);
+
+    private static final String REBUILD_SUMMARY_SQL =
+            "MERGE INTO user_progress_summary s " +
+            "USING (SELECT u.id AS user_id, " +
+            "         (SELECT COUNT(*) FROM user_lesson_progress p JOIN lessons l ON l.id = p.lesson_id " +
+            "           WHERE p.user_id = u.id AND p.is_completed = TRUE AND l.is_published = TRUE) AS completed_count, " +
+            "         (SELECT COUNT(*) FROM user_lesson_progress p " +
+            "           WHERE p.user_id = u.id AND p.is_favorite = TRUE) AS favorites_count, " +
+            "         (SELECT MAX(p.completed_at) FROM user_lesson_progress p " +
+            "           WHERE p.user_id = u.id) AS last_activity_at " +
+            "       FROM users u WHERE u.id BETWEEN ? AND ?) src " +
+            "ON s.user_id = src.user_id " +
+            "WHEN MATCHED THEN UPDATE SET completed_count = src.completed_count, " +
+            "  favorites_count = src.favorites_count, published_total = ? " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, completed_count, favorites_count, published_total, last_activity_at) " +
+            "  VALUES (src.user_id, src.completed_count, src.favorites_count, ?, src.last_activity_at)";
+
+    @Autowired
+    private UserProgressSummaryRepository userProgressSummaryRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LatencyMetrics latencyMetrics;
+
+    @Value("${progress-summary.rebuild.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${progress-summary.rebuild.threads:4}")
+    private int rebuildThreads;
+
+    private TransactionTemplate transactionTemplate;
+
+    // Coordinador de un solo hilo: las peticiones de reconstrucción se agrupan en una
+    private ExecutorService coordinator;
+    private ExecutorService chunkExecutor;
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        coordinator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "progress-summary-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        chunkExecutor = Executors.newFixedThreadPool(Math.max(1, rebuildThreads), runnable -> {
+            Thread thread = new Thread(runnable, "progress-summary-chunk-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+        chunkExecutor.shutdownNow();
+    }
+
+    /**
+     * Aplicar al resumen el efecto de una transición de progreso
+     *
+     * Debe llamarse dentro de la transacción que modifica user_lesson_progress,
+     * con los flags leídos (y bloqueados) antes de modificarla.
+     * @param userId id del usuario
+     * @param lessonId id de la lección
+     * @param before flags anteriores (null si la fila no existía)
+     * @param setCompleted si la transición modifica completada
+     * @param completed nuevo valor de completada
+     * @param setFavorite si la transición modifica favorita
+     * @param favorite nuevo valor de favorita
+     * @param now instante de la transición
+     */
+    public void applyTransition(Long userId, Long lessonId, ProgressFlags before,
+                                boolean setCompleted, boolean completed,
+                                boolean setFavorite, boolean favorite,
+                                LocalDateTime now) {
+        boolean wasCompleted = before != null && Boolean.TRUE.equals(before.getIsCompleted());
+        boolean wasFavorite = before != null && Boolean.TRUE.equals(before.getIsFavorite());
+
+        int completedChange = setCompleted ? Boolean.compare(completed, wasCompleted) : 0;
+        int favoriteDelta = setFavorite ? Boolean.compare(favorite, wasFavorite) : 0;
+        if (completedChange == 0 && favoriteDelta == 0) {
+            return;
+        }
+
+        int completedDelta = 0;
+        if (completedChange != 0) {
+            LessonRepository.LessonPublication lesson = lessonRepository.findPublicationById(lessonId).orElse(null);
+            if (lesson != null && Boolean.TRUE.equals(lesson.getIsPublished())) {
+                completedDelta = completedChange;
+            }
+        }
+
+        userProgressSummaryRepository.applyDelta(userId, completedDelta, favoriteDelta, now);
+    }
+
+    /**
+     * Eliminar el resumen de un usuario
+     * @param userId id del usuario
+     */
+    public void deleteUserSummary(Long userId) {
+        userProgressSummaryRepository.deleteByUserId(userId);
+    }
+
+    /**
+     * Solicitar una reconstrucción tras el commit de la transacción actual
+     *
+     * Se usa al publicar, despublicar o eliminar lecciones, que cambian los totales.
+     */
+    public void requestRebuild() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleRebuild();
+                }
+            });
+        } else {
+            scheduleRebuild();
+        }
+    }
+
+    /**
+     * Reconstruir los resúmenes al arrancar (cubre datos anteriores a las tablas de resumen)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        scheduleRebuild();
+    }
+
+    /**
+     * Reconstrucción periódica de reconciliación
+     */
+    @Scheduled(initialDelayString = "${progress-summary.rebuild.interval-ms:21600000}",
+               fixedDelayString = "${progress-summary.rebuild.interval-ms:21600000}")
+    public void scheduledRebuild() {
+        scheduleRebuild();
+    }
+
+    private void scheduleRebuild() {
+        // Si ya hay una pendiente (aún no empezada) esta petición queda incluida en ella
+        if (rebuildPending.compareAndSet(false, true)) {
+            coordinator.submit(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuildAll();
+                } catch (Exception e) {
+                    logger.error("Error reconstruyendo los resúmenes de progreso: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Reconstruir todos los resúmenes por tramos de ids de usuario, en paralelo
+     *
+     * @return número de tramos procesados
+     */
+    int rebuildAll() throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+
+        Map<String, Object> range = jdbcTemplate.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM users");
+        Number minId = (Number) range.get("min_id");
+        Number maxId = (Number) range.get("max_id");
+        if (minId == null || maxId == null) {
+            return 0;
+        }
+
+        long publishedTotal = lessonRepository.countByIsPublishedTrue();
+
+        List<Future<?>> chunks = new ArrayList<>();
+        for (long low = minId.longValue(); low <= maxId.longValue(); low += chunkSize) {
+            long from = low;
+            long to = Math.min(low + chunkSize - 1, maxId.longValue());
+            chunks.add(chunkExecutor.submit(() -> transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.update(REBUILD_SUMMARY_SQL, from, to, publishedTotal, publishedTotal))));
+        }
+
+        for (Future<?> chunk : chunks) {
+            chunk.get();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        latencyMetrics.record("progress-summary.rebuild", elapsed);
+        logger.info("Resúmenes de progreso reconstruidos: {} tramos en {} ms", chunks.size(), elapsed / 1_000_000);
+        return chunks.size();
+    }
+}
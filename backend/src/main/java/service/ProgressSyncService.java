@@ -0,0 +1,337 @@
+package service;
+
+import dto.request.ProgressSyncRequest;
+import dto.request.ProgressSyncRequest.ProgressEvent;
+import dto.response.ProgressSyncResponse;
+import dto.response.ProgressSyncResponse.EventResult;
+import dto.response.ProgressSyncResponse.EventStatus;
+import exception.ResourceNotFoundException;
+import repository.LessonRepository;
+import repository.UserLessonProgressRepository.ProgressFlags;
+import repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Servicio de sincronización de progreso
+ *
+ * Aplica en bloque los eventos que los clientes registran sin conexión:
+ * - Una sola transacción por petición: se bloquean las filas afectadas,
+ *   se resuelven los eventos en memoria y se escriben con un batch JDBC
+ * - Último en escribir gana, por campo: un evento solo se aplica si su fecha
+ *   no es anterior al último cambio de ese campo (completada o favorita)
+ * - Las fechas futuras se limitan a la hora del servidor, para que un reloj
+ *   adelantado no bloquee los cambios posteriores
+ * - Solo los eventos de acceso suman al contador de accesos
+ * - Los resúmenes de progreso se actualizan una vez por lección, con el
+ *   estado final, en la misma transacción
+ */
+@Service
+@Transactional
+public class ProgressSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProgressSyncService.class);
+
+    // Un reintento basta: tras el conflicto las filas ya existen y el MERGE las actualiza
+    private static final int MAX_SYNC_ATTEMPTS = 2;
+
+    private static final String LOCK_SQL =
+            "SELECT lesson_id, is_completed, is_favorite, completed_at, completed_updated_at, favorite_updated_at " +
+            "FROM user_lesson_progress WHERE user_id = :userId AND lesson_id IN (:lessonIds) FOR UPDATE";
+
+    private static final String MERGE_SQL =
+            "MERGE INTO user_lesson_progress p " +
+            "USING (SELECT CAST(? AS BIGINT) AS user_id, CAST(? AS BIGINT) AS lesson_id) src " +
+            "ON p.user_id = src.user_id AND p.lesson_id = src.lesson_id " +
+            "WHEN MATCHED THEN UPDATE SET is_completed = ?, completed_at = ?, completed_updated_at = ?, " +
+            "  is_favorite = ?, favorite_updated_at = ?, access_count = p.access_count + ? " +
+            "WHEN NOT MATCHED THEN INSERT (user_id, lesson_id, is_completed, completed_at, completed_updated_at, " +
+            "  is_favorite, favorite_updated_at, access_count) " +
+            "  VALUES (src.user_id, src.lesson_id, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private ProgressSummaryService progressSummaryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LatencyMetrics latencyMetrics;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Sincronizar una lista ordenada de eventos de progreso
+     * @param userId id del usuario
+     * @param request eventos en el orden en que se registraron
+     * @return resultado de cada evento
+     * @throws ResourceNotFoundException si el usuario no existe
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ProgressSyncResponse sync(Long userId, ProgressSyncRequest request) {
+        long start = System.nanoTime();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                ProgressSyncResponse response = transactionTemplate.execute(status -> apply(userId, request.getEvents()));
+                latencyMetrics.record("progress.sync", System.nanoTime() - start);
+                logger.info("Sincronización de progreso usuario {}: {} aplicados, {} superados, {} rechazados",
+                        userId, response.getApplied(), response.getSuperseded(), response.getRejected());
+                return response;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_SYNC_ATTEMPTS || TransactionSynchronizationManager.isActualTransactionActive()) {
+                    throw e;
+                }
+                logger.debug("Conflicto sincronizando progreso usuario {}, reintentando", userId);
+            }
+        }
+    }
+
+    private ProgressSyncResponse apply(Long userId, List<ProgressEvent> events) {
+        // Bloquear el usuario serializa la creación de filas que aún no existen y no se pueden bloquear
+        if (userRepository.lockById(userId).isEmpty()) {
+            throw new ResourceNotFoundException("Usuario", "id", userId);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+
+        Set<Long> requestedIds = new LinkedHashSet<>();
+        for (ProgressEvent event : events) {
+            requestedIds.add(event.getLessonId());
+        }
+        Set<Long> existingIds = new HashSet<>(lessonRepository.findExistingIds(requestedIds));
+        Map<Long, LessonState> states = lockStates(userId, existingIds);
+
+        // Resolver los eventos en memoria, en el orden recibido
+        List<EventResult> results = new ArrayList<>(events.size());
+        int applied = 0;
+        int superseded = 0;
+        int rejected = 0;
+        for (int i = 0; i < events.size(); i++) {
+            ProgressEvent event = events.get(i);
+            EventResult.EventResultBuilder result = EventResult.builder()
+                    .index(i)
+                    .lessonId(event.getLessonId())
+                    .type(event.getType());
+
+            if (!existingIds.contains(event.getLessonId())) {
+                rejected++;
+                results.add(result.status(EventStatus.REJECTED).message("Lección no encontrada").build());
+                continue;
+            }
+
+            LocalDateTime timestamp = event.getClientTimestamp().isAfter(now) ? now : event.getClientTimestamp();
+            LessonState state = states.computeIfAbsent(event.getLessonId(), LessonState::new);
+            if (state.apply(event, timestamp)) {
+                applied++;
+                results.add(result.status(EventStatus.APPLIED).build());
+            } else {
+                superseded++;
+                results.add(result.status(EventStatus.SUPERSEDED)
+                        .message("Existe un cambio posterior del mismo campo").build());
+            }
+        }
+
+        write(userId, states);
+
+        return ProgressSyncResponse.builder()
+                .userId(userId)
+                .applied(applied)
+                .superseded(superseded)
+                .rejected(rejected)
+                .results(results)
+                .build();
+    }
+
+    /**
+     * Leer y bloquear (SELECT ... FOR UPDATE) el progreso actual de las lecciones afectadas
+     */
+    private Map<Long, LessonState> lockStates(Long userId, Set<Long> lessonIds) {
+        Map<Long, LessonState> states = new LinkedHashMap<>();
+        if (lessonIds.isEmpty()) {
+            return states;
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("lessonIds", lessonIds);
+        namedParameterJdbcTemplate.query(LOCK_SQL, params, rs -> {
+            LessonState state = new LessonState(rs.getLong("lesson_id"));
+            state.before = new Flags(rs.getBoolean("is_completed"), rs.getBoolean("is_favorite"));
+            state.completed = state.before.isCompleted();
+            state.favorite = state.before.isFavorite();
+            state.completedAt = toLocalDateTime(rs.getTimestamp("completed_at"));
+            // Filas anteriores a la sincronización: el último cambio conocido es la fecha de completado
+            LocalDateTime completedUpdatedAt = toLocalDateTime(rs.getTimestamp("completed_updated_at"));
+            state.completedUpdatedAt = completedUpdatedAt != null ? completedUpdatedAt : state.completedAt;
+            state.favoriteUpdatedAt = toLocalDateTime(rs.getTimestamp("favorite_updated_at"));
+            states.put(state.lessonId, state);
+        });
+        return states;
+    }
+
+    /**
+     * Escribir el estado final de cada lección con eventos en un único batch
+     * y actualizar los resúmenes con las transiciones resultantes
+     */
+    private void write(Long userId, Map<Long, LessonState> states) {
+        List<Object[]> batch = new ArrayList<>();
+        for (LessonState state : states.values()) {
+            if (state.events == 0) {
+                continue;
+            }
+            Timestamp completedAt = toTimestamp(state.completedAt);
+            Timestamp completedUpdatedAt = toTimestamp(state.completedUpdatedAt);
+            Timestamp favoriteUpdatedAt = toTimestamp(state.favoriteUpdatedAt);
+            batch.add(new Object[] {
+                    userId, state.lessonId,
+                    state.completed, completedAt, completedUpdatedAt, state.favorite, favoriteUpdatedAt, state.accesses,
+                    state.completed, completedAt, completedUpdatedAt, state.favorite, favoriteUpdatedAt, state.accesses
+            });
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(MERGE_SQL, batch);
+
+        for (LessonState state : states.values()) {
+            if (state.events > 0 && state.changed()) {
+                progressSummaryService.applyTransition(userId, state.lessonId, state.before,
+                        true, state.completed, true, state.favorite, state.lastEventAt);
+            }
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+    }
+
+    /**
+     * Flags de una fila antes de la sincronización
+     */
+    private record Flags(boolean isCompleted, boolean isFavorite) implements ProgressFlags {
+
+        @Override
+        public Boolean getIsCompleted() {
+            return isCompleted;
+        }
+
+        @Override
+        public Boolean getIsFavorite() {
+            return isFavorite;
+        }
+    }
+
+    /**
+     * Estado de progreso de una lección mientras se resuelven los eventos
+     */
+    private static final class LessonState {
+
+        private final Long lessonId;
+        // null si la fila no existía
+        private Flags before;
+        private boolean completed;
+        private boolean favorite;
+        private LocalDateTime completedAt;
+        private LocalDateTime completedUpdatedAt;
+        private LocalDateTime favoriteUpdatedAt;
+        private LocalDateTime lastEventAt;
+        private int events;
+        private int accesses;
+
+        private LessonState(Long lessonId) {
+            this.lessonId = lessonId;
+        }
+
+        /**
+         * @return false si el campo ya tiene un cambio posterior
+         */
+        private boolean apply(ProgressEvent event, LocalDateTime timestamp) {
+            events++;
+            if (lastEventAt == null || timestamp.isAfter(lastEventAt)) {
+                lastEventAt = timestamp;
+            }
+
+            switch (event.getType()) {
+                case COMPLETE, UNCOMPLETE -> {
+                    // A igualdad de fecha gana el último evento de la lista
+                    if (completedUpdatedAt != null && timestamp.isBefore(completedUpdatedAt)) {
+                        return false;
+                    }
+                    boolean wasCompleted = completed;
+                    completed = event.getType() == ProgressSyncRequest.ProgressEventType.COMPLETE;
+                    if (!completed) {
+                        completedAt = null;
+                    } else if (!wasCompleted || completedAt == null) {
+                        // Completar de nuevo una lección completada conserva la fecha original
+                        completedAt = timestamp;
+                    }
+                    completedUpdatedAt = timestamp;
+                    return true;
+                }
+                case FAVORITE, UNFAVORITE -> {
+                    if (favoriteUpdatedAt != null && timestamp.isBefore(favoriteUpdatedAt)) {
+                        return false;
+                    }
+                    favorite = event.getType() == ProgressSyncRequest.ProgressEventType.FAVORITE;
+                    favoriteUpdatedAt = timestamp;
+                    return true;
+                }
+                case ACCESS -> {
+                    accesses++;
+                    return true;
+                }
+                default -> throw new IllegalStateException("Tipo de evento desconocido: " + event.getType());
+            }
+        }
+
+        private boolean changed() {
+            boolean wasCompleted = before != null && before.isCompleted();
+            boolean wasFavorite = before != null && before.isFavorite();
+            return completed != wasCompleted || favorite != wasFavorite;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package service;
+
+import repository.LessonRepository;
+import repository.LessonRepository.CategoryPublishedTotal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Caché en memoria de lecciones publicadas por categoría
+ *
+ * Es el denominador de todos los porcentajes de progreso:
+ * - Se carga con una única consulta agrupada la primera vez que se necesita
+ * - Se invalida tras el commit de cualquier cambio del catálogo (publicar,
+ *   despublicar o eliminar lecciones; crear, renombrar o eliminar categorías)
+ * - Cada invalidación incrementa una generación; una carga que empezó antes
+ *   de la invalidación no sobrescribe la caché con datos antiguos
+ */
+@Component
+public class PublishedLessonTotals {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublishedLessonTotals.class);
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    /**
+     * Totales de todas las categorías, ordenados por nombre de categoría
+     * @return mapa inmutable id de categoría → total
+     */
+    public Map<Long, CategoryTotal> byCategory() {
+        return current().categories();
+    }
+
+    /**
+     * Total de lecciones publicadas de una categoría
+     * @param categoryId id de la categoría
+     * @return número de lecciones publicadas (0 si la categoría no existe)
+     */
+    public long forCategory(Long categoryId) {
+        CategoryTotal total = current().categories().get(categoryId);
+        return total != null ? total.publishedLessons() : 0;
+    }
+
+    /**
+     * Total de lecciones publicadas en la plataforma
+     * @return número de lecciones publicadas
+     */
+    public long total() {
+        return current().total();
+    }
+
+    /**
+     * Invalidar la caché tras el commit de la transacción actual
+     *
+     * Fuera de una transacción se invalida inmediatamente.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow();
+                }
+            });
+        } else {
+            invalidateNow();
+        }
+    }
+
+    private void invalidateNow() {
+        generation.incrementAndGet();
+        snapshot.set(null);
+    }
+
+    private Snapshot current() {
+        Snapshot cached = snapshot.get();
+        if (cached != null) {
+            return cached;
+        }
+
+        long loadGeneration = generation.get();
+        Snapshot loaded = load(loadGeneration);
+
+        // Solo se publica si no hubo invalidaciones durante la carga
+        if (generation.get() == loadGeneration) {
+            snapshot.compareAndSet(null, loaded);
+        }
+        return loaded;
+    }
+
+    private Snapshot load(long loadGeneration) {
+        List<CategoryPublishedTotal> rows = lessonRepository.countPublishedByCategory();
+
+        Map<Long, CategoryTotal> categories = new LinkedHashMap<>();
+        long total = 0;
+        for (CategoryPublishedTotal row : rows) {
+            categories.put(row.getCategoryId(),
+                    new CategoryTotal(row.getCategoryId(), row.getCategoryName(), row.getPublishedLessons()));
+            total += row.getPublishedLessons();
+        }
+
+        logger.debug("Totales de lecciones publicadas cargados: {} categorías (generación {})",
+                categories.size(), loadGeneration);
+        return new Snapshot(Collections.unmodifiableMap(categories), total);
+    }
+
+    /**
+     * Lecciones publicadas de una categoría
+     */
+    public record CategoryTotal(Long categoryId, String categoryName, long publishedLessons) {
+    }
+
+    private record Snapshot(Map<Long, CategoryTotal> categories, long total) {
+    }
+}
@@ -0,0 +1,61 @@
+package service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Versión de un recurso para las peticiones GET condicionales
+ *
+ * El ETag es fuerte: se construye con los contadores de versión de todas las
+ * entidades que forman la respuesta, así que cambia siempre que cambia el
+ * contenido publicado. Se obtiene sin cargar ni serializar el recurso.
+ *
+ * @param etag ETag entre comillas, listo para la cabecera
+ * @param lastModified fecha de última modificación (null si no se conoce)
+ */
+public record ResourceVersion(String etag, LocalDateTime lastModified) {
+
+    /**
+     * Lección con sus pasos: versión de la lección, de sus pasos y de su categoría (nombre)
+     */
+    public static ResourceVersion lesson(Long lessonId, Long version, Long stepsVersion, Long categoryVersion,
+                                         LocalDateTime updatedAt) {
+        return new ResourceVersion(
+                "\"lesson-" + lessonId + "-" + version + "." + stepsVersion + "." + categoryVersion + "\"",
+                updatedAt);
+    }
+
+    /**
+     * Pasos de una lección
+     *
+     * La fecha de la lección se actualiza con cada cambio en sus pasos.
+     */
+    public static ResourceVersion steps(Long lessonId, Long stepsVersion, LocalDateTime lessonUpdatedAt) {
+        return new ResourceVersion("\"steps-" + lessonId + "-" + stepsVersion + "\"", lessonUpdatedAt);
+    }
+
+    /**
+     * Listado completo a partir de la huella de sus elementos
+     */
+    public static ResourceVersion collection(String name, String fingerprint) {
+        return new ResourceVersion("\"" + name + "-" + fingerprint + "\"", null);
+    }
+
+    /**
+     * Variante del ETag para la representación comprimida con gzip
+     *
+     * Un ETag fuerte identifica los bytes exactos, así que la versión en gzip
+     * necesita uno distinto.
+     */
+    public ResourceVersion gzipVariant() {
+        return new ResourceVersion(etag.substring(0, etag.length() - 1) + "-gzip\"", lastModified);
+    }
+
+    /**
+     * Fecha de última modificación en milisegundos, como espera WebRequest.checkNotModified
+     * @return milisegundos desde epoch, o -1 si no se conoce
+     */
+    public long lastModifiedMillis() {
+        return lastModified != null ? lastModified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+    }
+}
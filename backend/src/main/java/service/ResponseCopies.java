@@ -0,0 +1,109 @@
+package service;
+
+import dto.response.AuthorSummaryResponse;
+import dto.response.CategoryResponse;
+import dto.response.FAQResponse;
+import dto.response.LessonResponse;
+import dto.response.LessonSummaryResponse;
+import dto.response.SearchFacetResponse;
+import dto.response.SearchResponse;
+import dto.response.SearchResultResponse;
+import dto.response.SimulatorResponse;
+import dto.response.StepResponse;
+import dto.response.UserResponse;
+
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * Copias de los DTOs compartidos entre peticiones
+ *
+ * El catálogo en memoria y la caché de búsquedas guardan DTOs que se sirven a
+ * muchas peticiones. Los DTOs son mutables (@Data), así que cada lectura
+ * devuelve una copia: si el llamante la modifica no altera lo que ven las
+ * demás. Los objetos anidados (autores, pasos) también se copian.
+ */
+final class ResponseCopies {
+
+    private ResponseCopies() {
+    }
+
+    static CategoryResponse copyCategory(CategoryResponse category) {
+        return category != null ? category.toBuilder().build() : null;
+    }
+
+    static LessonResponse copyLesson(LessonResponse lesson) {
+        if (lesson == null) {
+            return null;
+        }
+        return lesson.toBuilder()
+                .createdBy(copyUser(lesson.getCreatedBy()))
+                .updatedBy(copyUser(lesson.getUpdatedBy()))
+                .steps(lesson.getSteps() != null
+                        ? lesson.getSteps().stream().map(ResponseCopies::copyStep).toList()
+                        : null)
+                .build();
+    }
+
+    static LessonSummaryResponse copyLessonSummary(LessonSummaryResponse lesson) {
+        if (lesson == null) {
+            return null;
+        }
+        return lesson.toBuilder()
+                .createdBy(copyAuthor(lesson.getCreatedBy()))
+                .updatedBy(copyAuthor(lesson.getUpdatedBy()))
+                .build();
+    }
+
+    static SimulatorResponse copySimulator(SimulatorResponse simulator) {
+        if (simulator == null) {
+            return null;
+        }
+        return simulator.toBuilder()
+                .createdBy(copyUser(simulator.getCreatedBy()))
+                .updatedBy(copyUser(simulator.getUpdatedBy()))
+                .build();
+    }
+
+    static FAQResponse copyFaq(FAQResponse faq) {
+        if (faq == null) {
+            return null;
+        }
+        return faq.toBuilder()
+                .createdBy(copyUser(faq.getCreatedBy()))
+                .updatedBy(copyUser(faq.getUpdatedBy()))
+                .build();
+    }
+
+    static SearchResponse copySearch(SearchResponse search) {
+        if (search == null) {
+            return null;
+        }
+        return search.toBuilder()
+                .content(search.getContent().stream().map(ResponseCopies::copySearchResult).toList())
+                .typeCounts(new EnumMap<>(search.getTypeCounts()))
+                .categoryCounts(search.getCategoryCounts().stream().map(ResponseCopies::copyFacet).toList())
+                .skippedTypes(List.copyOf(search.getSkippedTypes()))
+                .build();
+    }
+
+    static SearchResultResponse copySearchResult(SearchResultResponse result) {
+        return result != null ? result.toBuilder().build() : null;
+    }
+
+    static SearchFacetResponse copyFacet(SearchFacetResponse facet) {
+        return facet != null ? facet.toBuilder().build() : null;
+    }
+
+    static StepResponse copyStep(StepResponse step) {
+        return step != null ? step.toBuilder().build() : null;
+    }
+
+    static UserResponse copyUser(UserResponse user) {
+        return user != null ? user.toBuilder().build() : null;
+    }
+
+    static AuthorSummaryResponse copyAuthor(AuthorSummaryResponse author) {
+        return author != null ? author.toBuilder().build() : null;
+    }
+}
@@ -0,0 +1,446 @@
+package service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import model.FAQ;
+import model.Lesson;
+import model.Simulator;
+import model.Step;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import repository.ContentStamp;
+import repository.FAQRepository;
+import repository.LessonRepository;
+import repository.SimulatorRepository;
+import search.InvertedIndex;
+import search.SearchHit;
+import search.SearchType;
+import search.SpanishAnalyzer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Índice de búsqueda de texto completo del contenido público
+ *
+ * Indexa las lecciones publicadas (título, descripción y pasos), las FAQs
+ * activas (pregunta y respuesta) y los simuladores activos (título y
+ * descripción) en un {@link InvertedIndex} en memoria:
+ * - Los servicios de administración avisan de cada cambio y el documento se
+ *   reindexa tras el commit, leyendo solo esa entidad
+ * - Si hay ruta configurada, el índice se guarda en disco periódicamente y al
+ *   parar; al arrancar se carga y solo se reindexan los documentos cuya
+ *   versión ha cambiado desde entonces
+ *
+ * Mientras el índice no está cargado, {@link #search} devuelve vacío y los
+ * servicios usan la búsqueda por subcadena de siempre. Cada cambio se pasa
+ * también a {@link SuggestionService} con el título del documento e invalida
+ * {@link SearchResultCache}.
+ */
+@Service
+public class SearchIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchIndexService.class);
+
+    /**
+     * Propiedad de orden que pide los resultados por relevancia
+     */
+    public static final String RELEVANCE = "relevance";
+
+    /**
+     * Máximo de resultados de una búsqueda (las páginas se sirven de esta lista)
+     */
+    static final int MAX_HITS = 1000;
+
+    // Lecciones que se cargan por consulta al poner el índice al día
+    private static final int REINDEX_BATCH = 200;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private FAQRepository faqRepository;
+
+    @Autowired
+    private SimulatorRepository simulatorRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private LatencyMetrics latencyMetrics;
+
+    @Value("${search.index.snapshot-path:}")
+    private String snapshotPath;
+
+    private TransactionTemplate transactionTemplate;
+
+    private volatile InvertedIndex index;
+
+    // Serializa la carga inicial y las reindexaciones: cada una lee de la base
+    // de datos y escribe en el índice sin que otra se cuele con datos más viejos
+    private final Object indexLock = new Object();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    @PostConstruct
+    void init() {
+        // Se ejecuta en afterCommit, con la transacción que escribió ya cerrada
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Cargar el índice al arrancar: desde disco si se puede y después al día con la base de datos
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        long start = System.nanoTime();
+        synchronized (indexLock) {
+            InvertedIndex loaded = readSnapshot().orElseGet(InvertedIndex::new);
+            int reindexed = transactionTemplate.execute(status -> catchUp(loaded));
+            index = loaded;
+            searchResultCache.invalidateAll();
+            if (reindexed > 0) {
+                dirty.set(true);
+            }
+            logger.info("Índice de búsqueda cargado: {} documentos, {} reindexados", loaded.size(), reindexed);
+        }
+        latencyMetrics.record("search.index.load", System.nanoTime() - start);
+    }
+
+    /**
+     * Buscar contenido público de un tipo
+     * @param text texto de la consulta
+     * @param type tipo de contenido
+     * @return ids ordenados por relevancia (como mucho {@link #MAX_HITS}), o vacío si el
+     *         índice no está cargado o la consulta no tiene términos indexables
+     */
+    public Optional<List<Long>> search(String text, SearchType type) {
+        return searchHits(text, EnumSet.of(type), MAX_HITS)
+                .map(hits -> hits.stream().map(SearchHit::id).toList());
+    }
+
+    /**
+     * Buscar contenido público de varios tipos a la vez
+     * @param text texto de la consulta
+     * @param types tipos de contenido
+     * @param limit máximo de resultados
+     * @return resultados con su puntuación BM25, o vacío si el índice no está
+     *         cargado o la consulta no tiene términos indexables
+     */
+    public Optional<List<SearchHit>> searchHits(String text, EnumSet<SearchType> types, int limit) {
+        InvertedIndex current = index;
+        if (current == null || text == null || SpanishAnalyzer.analyze(text).isEmpty()) {
+            return Optional.empty();
+        }
+        long start = System.nanoTime();
+        List<SearchHit> hits = current.search(text, types, limit);
+        latencyMetrics.record("search.query", System.nanoTime() - start);
+        return Optional.of(hits);
+    }
+
+    /**
+     * Indicar que una lección (o alguno de sus pasos) ha cambiado; se reindexa tras el commit
+     * @param lessonId id de la lección
+     */
+    public void lessonChanged(Long lessonId) {
+        afterCommit(() -> reindex(SearchType.LESSON, lessonId));
+    }
+
+    /**
+     * Indicar que una FAQ ha cambiado; se reindexa tras el commit
+     * @param faqId id de la FAQ
+     */
+    public void faqChanged(Long faqId) {
+        afterCommit(() -> reindex(SearchType.FAQ, faqId));
+    }
+
+    /**
+     * Indicar que un simulador ha cambiado; se reindexa tras el commit
+     * @param simulatorId id del simulador
+     */
+    public void simulatorChanged(Long simulatorId) {
+        afterCommit(() -> reindex(SearchType.SIMULATOR, simulatorId));
+    }
+
+    /**
+     * Guardar el índice en disco si ha cambiado desde la última vez
+     */
+    @Scheduled(initialDelayString = "${search.index.snapshot-interval-ms:60000}",
+               fixedDelayString = "${search.index.snapshot-interval-ms:60000}")
+    public void saveSnapshot() {
+        InvertedIndex current = index;
+        if (current == null || snapshotPath.isBlank() || !dirty.getAndSet(false)) {
+            return;
+        }
+        long start = System.nanoTime();
+        Path target = Paths.get(snapshotPath);
+        try {
+            Path parent = target.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            // Se escribe aparte y se sustituye de una vez: nunca queda un fichero a medias
+            Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                    current.writeTo(out);
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            latencyMetrics.record("search.index.save", System.nanoTime() - start);
+        } catch (IOException e) {
+            dirty.set(true);
+            logger.error("No se pudo guardar el índice de búsqueda en {}: {}", target, e.getMessage());
+        }
+    }
+
+    /**
+     * Guardar el índice al parar la aplicación de forma ordenada
+     */
+    @PreDestroy
+    void saveOnShutdown() {
+        saveSnapshot();
+    }
+
+    /**
+     * Obtener el estado del índice
+     * @return Mapa con si está cargado y el número de documentos
+     */
+    public Map<String, Object> getStatistics() {
+        InvertedIndex current = index;
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("loaded", current != null);
+        stats.put("documents", current != null ? current.size() : 0);
+        return stats;
+    }
+
+    /**
+     * Saber si un orden pide relevancia (o no pide ninguno)
+     * @param sort orden pedido
+     * @return true si los resultados deben ir por relevancia
+     */
+    public static boolean isRelevance(Sort sort) {
+        return sort.isUnsorted() || sort.getOrderFor(RELEVANCE) != null;
+    }
+
+    /**
+     * Paginación sin el orden por relevancia, para las consultas a la base de datos
+     * @param pageable paginación pedida
+     * @return la misma paginación sin orden si pedía relevancia; si no, la misma
+     */
+    public static Pageable withoutRelevance(Pageable pageable) {
+        if (pageable.isUnpaged() || pageable.getSort().getOrderFor(RELEVANCE) == null) {
+            return pageable;
+        }
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+    }
+
+    // ============================================================================
+    // INDEXACIÓN
+    // ============================================================================
+
+    private void reindex(SearchType type, Long id) {
+        synchronized (indexLock) {
+            try {
+                Optional<Document> document = transactionTemplate.execute(status -> load(type, id));
+                // Lo que aún no está cargado se salta: la carga inicial leerá la base de datos ya con este cambio
+                InvertedIndex current = index;
+                if (document.isPresent()) {
+                    if (current != null) {
+                        document.get().putInto(current);
+                    }
+                    suggestionService.put(type, id, document.get().title());
+                } else {
+                    if (current != null) {
+                        current.remove(type, id);
+                    }
+                    suggestionService.remove(type, id);
+                }
+                if (current != null) {
+                    dirty.set(true);
+                }
+                searchResultCache.invalidateAll();
+            } catch (Exception e) {
+                logger.error("No se pudo reindexar {} {}: {}", type, id, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Documento de una entidad si es pública (lección publicada, FAQ o simulador activo)
+     */
+    private Optional<Document> load(SearchType type, Long id) {
+        return switch (type) {
+            case LESSON -> lessonRepository.findWithStepsByIds(List.of(id)).stream()
+                    .filter(lesson -> Boolean.TRUE.equals(lesson.getIsPublished()))
+                    .findFirst()
+                    .map(SearchIndexService::document);
+            case FAQ -> faqRepository.findById(id)
+                    .filter(faq -> Boolean.TRUE.equals(faq.getIsActive()))
+                    .map(SearchIndexService::document);
+            case SIMULATOR -> simulatorRepository.findById(id)
+                    .filter(simulator -> Boolean.TRUE.equals(simulator.getIsActive()))
+                    .map(SearchIndexService::document);
+        };
+    }
+
+    /**
+     * Poner al día un índice con la base de datos: reindexar lo que ha cambiado y quitar lo que ya no es público
+     * @return número de documentos reindexados
+     */
+    private int catchUp(InvertedIndex target) {
+        int reindexed = 0;
+
+        List<Long> lessonIds = stale(target, SearchType.LESSON, lessonRepository.findPublishedStamps());
+        for (int from = 0; from < lessonIds.size(); from += REINDEX_BATCH) {
+            List<Long> batch = lessonIds.subList(from, Math.min(from + REINDEX_BATCH, lessonIds.size()));
+            for (Lesson lesson : lessonRepository.findWithStepsByIds(batch)) {
+                document(lesson).putInto(target);
+            }
+        }
+        reindexed += lessonIds.size();
+
+        List<Long> faqIds = stale(target, SearchType.FAQ, faqRepository.findActiveStamps());
+        for (FAQ faq : faqRepository.findAllById(faqIds)) {
+            document(faq).putInto(target);
+        }
+        reindexed += faqIds.size();
+
+        List<Long> simulatorIds = stale(target, SearchType.SIMULATOR, simulatorRepository.findActiveStamps());
+        for (Simulator simulator : simulatorRepository.findAllById(simulatorIds)) {
+            document(simulator).putInto(target);
+        }
+        reindexed += simulatorIds.size();
+
+        return reindexed;
+    }
+
+    /**
+     * Comparar las versiones indexadas de un tipo con las de la base de datos
+     *
+     * Los documentos que ya no son públicos se quitan del índice.
+     * @return ids de los que faltan en el índice o tienen otra versión
+     */
+    private static List<Long> stale(InvertedIndex target, SearchType type, List<ContentStamp> current) {
+        Map<Long, String> indexed = target.stamps(type);
+        List<Long> stale = new ArrayList<>();
+        for (ContentStamp entry : current) {
+            String stamp = indexed.remove(entry.getId());
+            if (!stamp(entry.getVersion(), entry.getUpdatedAt()).equals(stamp)) {
+                stale.add(entry.getId());
+            }
+        }
+        indexed.keySet().forEach(id -> target.remove(type, id));
+        return stale;
+    }
+
+    private static Document document(Lesson lesson) {
+        StringBuilder body = new StringBuilder();
+        append(body, lesson.getDescription());
+        lesson.getSteps().stream()
+                .sorted(Comparator.comparing(Step::getStepOrder, Comparator.nullsLast(Comparator.naturalOrder())))
+                .forEach(step -> {
+                    append(body, step.getTitle());
+                    append(body, step.getContent());
+                });
+        return new Document(SearchType.LESSON, lesson.getId(), stamp(lesson.getVersion(), lesson.getUpdatedAt()),
+                lesson.getTitle(), body.toString());
+    }
+
+    private static Document document(FAQ faq) {
+        return new Document(SearchType.FAQ, faq.getId(), stamp(faq.getVersion(), faq.getUpdatedAt()),
+                faq.getQuestion(), faq.getAnswer());
+    }
+
+    private static Document document(Simulator simulator) {
+        return new Document(SearchType.SIMULATOR, simulator.getId(),
+                stamp(simulator.getVersion(), simulator.getUpdatedAt()), simulator.getTitle(), simulator.getDescription());
+    }
+
+    private static void append(StringBuilder body, String text) {
+        if (text != null) {
+            body.append(text).append('\n');
+        }
+    }
+
+    private static String stamp(Long version, LocalDateTime updatedAt) {
+        return version + "@" + updatedAt;
+    }
+
+    private Optional<InvertedIndex> readSnapshot() {
+        if (snapshotPath.isBlank()) {
+            return Optional.empty();
+        }
+        Path source = Paths.get(snapshotPath);
+        if (!Files.exists(source)) {
+            return Optional.empty();
+        }
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(source))) {
+            return Optional.of(InvertedIndex.readFrom(in));
+        } catch (IOException e) {
+            logger.warn("Índice de búsqueda en {} descartado, se reindexa todo: {}", source, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Texto de una entidad tal como se indexa
+     */
+    private record Document(SearchType type, long id, String stamp, String title, String body) {
+
+        void putInto(InvertedIndex target) {
+            target.put(type, id, stamp, title, body);
+        }
+    }
+}
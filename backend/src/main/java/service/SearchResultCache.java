@@ -0,0 +1,165 @@
+package service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Caché de páginas de resultados de búsqueda
+ *
+ * Las búsquedas populares se repiten mucho y cada una recorre el índice, el
+ * catálogo o la base de datos:
+ * - LRU con tamaño máximo; la clave es la búsqueda (tipo, texto en
+ *   minúsculas y paginación) más la versión del catálogo
+ * - Cualquier cambio visible en las búsquedas (catálogo en memoria
+ *   reconstruido o documento reindexado) incrementa la versión: las entradas
+ *   anteriores dejan de encontrarse sin recorrer la caché y el LRU las
+ *   expulsa con el tiempo
+ * - Fallos concurrentes de la misma clave se agrupan: solo uno ejecuta la
+ *   búsqueda y el resto espera su resultado
+ *
+ * La versión se lee antes de buscar: un resultado calculado mientras llega un
+ * cambio se guarda con la versión vieja y nunca se sirve.
+ */
+@Component
+public class SearchResultCache {
+
+    @Value("${search.cache.max-size:2000}")
+    private int maxSize;
+
+    private final AtomicLong catalogVersion = new AtomicLong();
+
+    // Orden de acceso: el primero es el menos usado recientemente
+    private final LinkedHashMap<Key, Object> entries = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final ConcurrentHashMap<Key, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Obtener una página de resultados, buscándola si no está en caché
+     * @param source búsqueda de la que se trata (lecciones, FAQs...)
+     * @param text texto buscado
+     * @param request resto de parámetros de la búsqueda (paginación, filtros); debe implementar equals
+     * @param search búsqueda a ejecutar si no está en caché
+     * @return resultado, compartido entre peticiones: los llamantes devuelven copias (ResponseCopies)
+     */
+    public <T> T get(String source, String text, Object request, Supplier<T> search) {
+        return get(source, text, request, search, result -> true);
+    }
+
+    /**
+     * Obtener una página de resultados, guardándola solo si cumple una condición
+     * @param cacheable si el resultado se puede guardar (por ejemplo, si está completo)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String source, String text, Object request, Supplier<T> search, Predicate<T> cacheable) {
+        Key key = new Key(source, normalize(text), request, catalogVersion.get());
+        synchronized (entries) {
+            Object cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return (T) cached;
+            }
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        misses.increment();
+        try {
+            T result = search.get();
+            if (result != null && cacheable.test(result)) {
+                put(key, result);
+            }
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Indicar que el catálogo ha cambiado: las entradas guardadas dejan de valer
+     */
+    public void invalidateAll() {
+        catalogVersion.incrementAndGet();
+    }
+
+    /**
+     * Obtener estadísticas de la caché
+     * @return Mapa con tamaño, versión del catálogo, aciertos, fallos, esperas agrupadas y expulsiones
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("maxSize", maxSize);
+        stats.put("catalogVersion", catalogVersion.get());
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    /**
+     * Vaciar la caché (solo para testing)
+     */
+    public void clear() {
+        catalogVersion.incrementAndGet();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private void put(Key key, Object result) {
+        synchronized (entries) {
+            entries.put(key, result);
+            if (entries.size() > maxSize) {
+                Iterator<Key> eldest = entries.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Texto en minúsculas: las búsquedas no distinguen mayúsculas, pero sí espacios y tildes
+     * (el último espacio decide si la última palabra se completa como prefijo)
+     */
+    static String normalize(String text) {
+        return text != null ? text.toLowerCase(Locale.ROOT) : "";
+    }
+
+    private record Key(String source, String text, Object request, long version) {
+    }
+}
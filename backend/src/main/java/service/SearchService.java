@@ -0,0 +1,329 @@
+package service;
+
+import dto.response.FAQResponse;
+import dto.response.LessonSummaryResponse;
+import dto.response.SearchFacetResponse;
+import dto.response.SearchResponse;
+import dto.response.SearchResultResponse;
+import dto.response.SimulatorResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import search.SearchHit;
+import search.SearchType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Buscador unificado de lecciones, FAQs y simuladores
+ *
+ * Cada tipo de contenido es una fuente que se consulta en su propio hilo
+ * virtual, todas a la vez:
+ * - Cada fuente devuelve como mucho {@link #MAX_RESULTS_PER_SOURCE}
+ *   resultados por relevancia, con la misma búsqueda que su endpoint propio
+ *   (índice, catálogo en memoria o base de datos)
+ * - Las puntuaciones BM25 se dividen por la mejor de la fuente; sin índice se
+ *   usa la posición en el ranking. Así las tres listas se pueden mezclar
+ * - Una fuente que no responde antes del plazo se cancela y se omite: la
+ *   respuesta sale con el resto y la indica en skippedTypes
+ */
+@Service
+public class SearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchService.class);
+
+    /**
+     * Máximo de resultados que aporta cada fuente a la mezcla
+     */
+    public static final int MAX_RESULTS_PER_SOURCE = 200;
+
+    // Mismo orden para la misma puntuación en todas las respuestas
+    private static final Comparator<SearchResultResponse> BEST_FIRST =
+            Comparator.comparing(SearchResultResponse::getScore, Comparator.reverseOrder())
+                    .thenComparing(SearchResultResponse::getType)
+                    .thenComparing(SearchResultResponse::getId);
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private LessonService lessonService;
+
+    @Autowired
+    private FAQService faqService;
+
+    @Autowired
+    private SimulatorService simulatorService;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
+    @Autowired
+    private LatencyMetrics latencyMetrics;
+
+    @Value("${search.unified.source-timeout-ms:500}")
+    private long sourceTimeoutMs;
+
+    private ExecutorService executor;
+
+    private final Map<SearchType, LongAdder> skipped = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("search-source-", 0).factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Buscar en varios tipos de contenido a la vez
+     * @param text texto de la consulta
+     * @param types tipos en los que buscar (vacío para todos)
+     * @param categoryId categoría por la que filtrar la página (null para todas)
+     * @param pageable paginación (el orden es siempre por relevancia)
+     * @return página de resultados mezclados con los recuentos por tipo y categoría
+     */
+    public SearchResponse search(String text, Set<SearchType> types, Long categoryId, Pageable pageable) {
+        EnumSet<SearchType> requested = types == null || types.isEmpty()
+                ? EnumSet.allOf(SearchType.class) : EnumSet.copyOf(types);
+        // Solo se guardan las respuestas completas: sin fuentes omitidas por lentas
+        SearchResponse cached = searchResultCache.get("unified", text, new Request(requested, categoryId, pageable),
+                () -> searchNow(text, requested, categoryId, pageable),
+                response -> response.getSkippedTypes().isEmpty());
+        return ResponseCopies.copySearch(cached);
+    }
+
+    private SearchResponse searchNow(String text, EnumSet<SearchType> requested, Long categoryId, Pageable pageable) {
+        long start = System.nanoTime();
+
+        Map<SearchType, Future<List<SearchResultResponse>>> futures = new EnumMap<>(SearchType.class);
+        if (text != null && !text.isBlank()) {
+            for (SearchType type : requested) {
+                futures.put(type, executor.submit(() -> timedSource(type, text)));
+            }
+        }
+
+        // Un solo plazo para todas: las fuentes corren en paralelo
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(sourceTimeoutMs);
+        List<SearchResultResponse> merged = new ArrayList<>();
+        List<SearchType> skippedTypes = new ArrayList<>();
+        List<SearchType> pending = new ArrayList<>(futures.keySet());
+        for (int i = 0; i < pending.size(); i++) {
+            SearchType type = pending.get(i);
+            Future<List<SearchResultResponse>> future = futures.get(type);
+            try {
+                merged.addAll(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                skip(type, skippedTypes);
+                logger.warn("Búsqueda en {} omitida: no respondió en {} ms", type, sourceTimeoutMs);
+            } catch (ExecutionException e) {
+                skip(type, skippedTypes);
+                logger.error("Búsqueda en {} omitida: {}", type, e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                // No se espera a ninguna más: esta y las que faltan se omiten (y la respuesta no se guarda)
+                for (SearchType unfinished : pending.subList(i, pending.size())) {
+                    futures.get(unfinished).cancel(true);
+                    skip(unfinished, skippedTypes);
+                }
+                break;
+            }
+        }
+        merged.sort(BEST_FIRST);
+
+        Map<SearchType, Long> typeCounts = new EnumMap<>(SearchType.class);
+        for (SearchType type : requested) {
+            typeCounts.put(type, 0L);
+        }
+        merged.forEach(result -> typeCounts.merge(result.getType(), 1L, Long::sum));
+        List<SearchFacetResponse> categoryCounts = categoryCounts(merged);
+
+        List<SearchResultResponse> filtered = categoryId == null ? merged : merged.stream()
+                .filter(result -> categoryId.equals(result.getCategoryId()))
+                .collect(Collectors.toList());
+        int from = (int) Math.min(pageable.getOffset(), filtered.size());
+        int to = Math.min(from + pageable.getPageSize(), filtered.size());
+
+        latencyMetrics.record("search.unified", System.nanoTime() - start);
+        return SearchResponse.builder()
+                .content(new ArrayList<>(filtered.subList(from, to)))
+                .page(pageable.getPageNumber())
+                .size(pageable.getPageSize())
+                .totalElements((long) filtered.size())
+                .totalPages((filtered.size() + pageable.getPageSize() - 1) / pageable.getPageSize())
+                .typeCounts(typeCounts)
+                .categoryCounts(categoryCounts)
+                .skippedTypes(skippedTypes)
+                .build();
+    }
+
+    /**
+     * Obtener el número de fuentes omitidas por tipo
+     * @return Mapa con el plazo por fuente y las omisiones de cada tipo
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("sourceTimeoutMs", sourceTimeoutMs);
+        Map<String, Long> skippedByType = new LinkedHashMap<>();
+        for (SearchType type : SearchType.values()) {
+            LongAdder count = skipped.get(type);
+            skippedByType.put(type.name(), count != null ? count.sum() : 0L);
+        }
+        stats.put("skipped", skippedByType);
+        return stats;
+    }
+
+    // ============================================================================
+    // FUENTES
+    // ============================================================================
+
+    private List<SearchResultResponse> timedSource(SearchType type, String text) {
+        long start = System.nanoTime();
+        List<SearchResultResponse> results = switch (type) {
+            case LESSON -> source(type, text, catalogSnapshotService::rankedLessons,
+                    lessonService::searchLessonSummaries, SearchService::lessonResult);
+            case FAQ -> source(type, text, catalogSnapshotService::rankedFaqs,
+                    faqService::searchActiveFAQResponses, SearchService::faqResult);
+            case SIMULATOR -> source(type, text, catalogSnapshotService::rankedSimulators,
+                    simulatorService::searchActiveSimulatorResponses, this::simulatorResult);
+        };
+        latencyMetrics.record("search.unified." + type.name().toLowerCase(), System.nanoTime() - start);
+        return results;
+    }
+
+    /**
+     * Resultados de una fuente con la puntuación normalizada
+     *
+     * Con índice, la página sale del catálogo en memoria con el ranking del
+     * índice; si falta alguno de los dos, de la búsqueda del servicio.
+     * @param ranked página del catálogo a partir de los ids ordenados
+     * @param search búsqueda completa del servicio
+     * @param toResult conversión a resultado (sin puntuación)
+     */
+    private <T> List<SearchResultResponse> source(SearchType type, String text,
+                                                  BiFunction<List<Long>, Pageable, Optional<Page<T>>> ranked,
+                                                  BiFunction<String, Pageable, Page<T>> search,
+                                                  Function<T, SearchResultResponse> toResult) {
+        Pageable first = PageRequest.of(0, MAX_RESULTS_PER_SOURCE);
+        Optional<List<SearchHit>> hits = searchIndexService.searchHits(text, EnumSet.of(type), MAX_RESULTS_PER_SOURCE);
+        List<T> items = hits
+                .flatMap(list -> ranked.apply(list.stream().map(SearchHit::id).toList(), first))
+                .orElseGet(() -> search.apply(text, first))
+                .getContent();
+
+        Map<Long, Double> scores = hits
+                .map(list -> list.stream().collect(Collectors.toMap(SearchHit::id, SearchHit::score, (a, b) -> a)))
+                .orElse(Map.of());
+        double best = scores.values().stream().mapToDouble(Double::doubleValue).max().orElse(0);
+
+        List<SearchResultResponse> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            SearchResultResponse result = toResult.apply(items.get(i));
+            Double score = scores.get(result.getId());
+            // Sin puntuación del índice, la posición: 1 para el primero y bajando hasta casi 0
+            result.setScore(score != null && best > 0 ? score / best : 1.0 - (double) i / items.size());
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static SearchResultResponse lessonResult(LessonSummaryResponse lesson) {
+        return SearchResultResponse.builder()
+                .type(SearchType.LESSON)
+                .id(lesson.getId())
+                .title(lesson.getTitle())
+                .description(lesson.getDescription())
+                .categoryId(lesson.getCategoryId())
+                .categoryName(lesson.getCategoryName())
+                .build();
+    }
+
+    private static SearchResultResponse faqResult(FAQResponse faq) {
+        return SearchResultResponse.builder()
+                .type(SearchType.FAQ)
+                .id(faq.getId())
+                .title(faq.getQuestion())
+                .description(faq.getAnswer())
+                .build();
+    }
+
+    /**
+     * Resultado de un simulador, con la categoría de su lección si está publicada
+     */
+    private SearchResultResponse simulatorResult(SimulatorResponse simulator) {
+        Optional<LessonSummaryResponse> lesson = Optional.ofNullable(simulator.getLessonId())
+                .flatMap(lessonId -> catalogSnapshotService.lessonSummaries(List.of(lessonId)))
+                .flatMap(lessons -> lessons.stream().findFirst());
+        return SearchResultResponse.builder()
+                .type(SearchType.SIMULATOR)
+                .id(simulator.getId())
+                .title(simulator.getTitle())
+                .description(simulator.getDescription())
+                .categoryId(lesson.map(LessonSummaryResponse::getCategoryId).orElse(null))
+                .categoryName(lesson.map(LessonSummaryResponse::getCategoryName).orElse(null))
+                .build();
+    }
+
+    /**
+     * Recuento de resultados por categoría, de más a menos
+     */
+    private static List<SearchFacetResponse> categoryCounts(List<SearchResultResponse> results) {
+        Map<Long, SearchFacetResponse> byCategory = new LinkedHashMap<>();
+        for (SearchResultResponse result : results) {
+            if (result.getCategoryId() != null) {
+                SearchFacetResponse facet = byCategory.computeIfAbsent(result.getCategoryId(),
+                        id -> new SearchFacetResponse(id, result.getCategoryName(), 0L));
+                facet.setCount(facet.getCount() + 1);
+            }
+        }
+        List<SearchFacetResponse> facets = new ArrayList<>(byCategory.values());
+        facets.sort(Comparator.comparing(SearchFacetResponse::getCount, Comparator.reverseOrder())
+                .thenComparing(SearchFacetResponse::getId));
+        return facets;
+    }
+
+    private void skip(SearchType type, List<SearchType> skippedTypes) {
+        skippedTypes.add(type);
+        skipped.computeIfAbsent(type, key -> new LongAdder()).increment();
+    }
+
+    /**
+     * Parámetros de una búsqueda, como parte de la clave de la caché
+     */
+    private record Request(EnumSet<SearchType> types, Long categoryId, Pageable pageable) {
+    }
+}
@@ -3,12 +3,13 @@ package service;
 import model.Simulator;
 import model.Lesson;
 import model.User;
-import model.UserSimulatorInteraction;
 import repository.SimulatorRepository;
 import repository.LessonRepository;
 import repository.UserRepository;
 import repository.UserSimulatorInteractionRepository;
+import search.SearchType;
 import dto.request.CreateSimulatorRequest;
+import dto.response.SimulatorInteractionResponse;
 import dto.response.SimulatorResponse;
 import exception.ResourceNotFoundException;
 import exception.ForbiddenException;
@@ -56,6 +57,18 @@ public class SimulatorService {
     @Autowired
     private UserSimulatorInteractionRepository userSimulatorInteractionRepository;
 
+    @Autowired
+    private AccessCounterBuffer accessCounterBuffer;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private SearchResultCache searchResultCache;
+
     /**
      * Crear nuevo simulador
      * @param createSimulatorRequest datos del simulador
@@ -86,6 +99,8 @@ public class SimulatorService {
         }
 
         Simulator saved = simulatorRepository.save(simulator);
+        catalogSnapshotService.refresh();
+        searchIndexService.simulatorChanged(saved.getId());
         logger.info("Simulador creado: {}", saved.getId());
         return saved;
     }
@@ -123,6 +138,51 @@ public class SimulatorService {
         return simulatorRepository.findByIsActiveTrueOrderByCreatedAtDesc(pageable);
     }
 
+    /**
+     * Listar simuladores activos como DTO, desde el catálogo en memoria
+     * @param pageable paginación y orden
+     * @return página de simuladores activos
+     */
+    public Page<SimulatorResponse> listActiveSimulatorResponses(Pageable pageable) {
+        return catalogSnapshotService.activeSimulators(pageable)
+                .orElseGet(() -> listActiveSimulators(pageable).map(this::convertToResponse));
+    }
+
+    /**
+     * Buscar simuladores activos por texto como DTO
+     *
+     * Con el índice de búsqueda cargado, por relevancia en título y descripción;
+     * si no, por subcadena desde el catálogo en memoria o la base de datos.
+     * Las páginas se guardan en {@link SearchResultCache} hasta el siguiente
+     * cambio del catálogo.
+     * @param searchText texto a buscar
+     * @param pageable paginación y orden (la propiedad "relevance" ordena por relevancia)
+     * @return página de simuladores que coincidan
+     */
+    public Page<SimulatorResponse> searchActiveSimulatorResponses(String searchText, Pageable pageable) {
+        return searchResultCache.get("simulators", searchText, pageable, () -> {
+            Pageable fallback = SearchIndexService.withoutRelevance(pageable);
+            return searchIndexService.search(searchText, SearchType.SIMULATOR)
+                    .flatMap(ids -> catalogSnapshotService.rankedSimulators(ids, pageable))
+                    .or(() -> catalogSnapshotService.searchSimulators(searchText, fallback))
+                    .orElseGet(() -> searchActiveSimulators(searchText, fallback).map(this::convertToResponse));
+        }).map(ResponseCopies::copySimulator);
+    }
+
+    /**
+     * Obtener un simulador como DTO
+     *
+     * Los activos se sirven desde el catálogo en memoria; el resto se consulta
+     * en la base de datos.
+     * @param simulatorId id del simulador
+     * @return DTO del simulador
+     * @throws ResourceNotFoundException si no existe
+     */
+    public SimulatorResponse getSimulatorResponse(Long simulatorId) {
+        return catalogSnapshotService.simulator(simulatorId)
+                .orElseGet(() -> convertToResponse(findById(simulatorId)));
+    }
+
     /**
      * Buscar simuladores activos por texto
      * @param searchText texto a buscar
@@ -202,6 +262,11 @@ public class SimulatorService {
         simulator.setUpdatedBy(userRepository.findById(adminId).orElseThrow());
 
         Simulator updated = simulatorRepository.save(simulator);
+        // Un simulador inactivo no está en el catálogo público
+        if (Boolean.TRUE.equals(simulator.getIsActive())) {
+            catalogSnapshotService.refresh();
+        }
+        searchIndexService.simulatorChanged(simulatorId);
         logger.info("Simulador actualizado: {}", simulatorId);
         return updated;
     }
@@ -224,6 +289,8 @@ public class SimulatorService {
 
         simulator.setIsActive(true);
         Simulator activated = simulatorRepository.save(simulator);
+        catalogSnapshotService.refresh();
+        searchIndexService.simulatorChanged(simulatorId);
         logger.info("Simulador activado: {}", simulatorId);
         return activated;
     }
@@ -246,6 +313,8 @@ public class SimulatorService {
 
         simulator.setIsActive(false);
         Simulator deactivated = simulatorRepository.save(simulator);
+        catalogSnapshotService.refresh();
+        searchIndexService.simulatorChanged(simulatorId);
         logger.info("Simulador desactivado: {}", simulatorId);
         return deactivated;
     }
@@ -268,6 +337,11 @@ public class SimulatorService {
         }
 
         simulatorRepository.deleteById(simulatorId);
+        // Inactivo y sin lección, no aparecía en el catálogo público
+        if (Boolean.TRUE.equals(simulator.getIsActive()) || simulator.getLesson() != null) {
+            catalogSnapshotService.refresh();
+        }
+        searchIndexService.simulatorChanged(simulatorId);
         logger.info("Simulador eliminado: {}", simulatorId);
     }
 
@@ -302,29 +376,31 @@ public class SimulatorService {
 
     /**
      * Registrar interacción de un usuario con un simulador
+     *
+     * El acceso se acumula en memoria y se vuelca por lotes; la respuesta ya
+     * incluye los accesos pendientes de volcar.
      * @param simulatorId id del simulador
      * @param userId id del usuario
-     * @return UserSimulatorInteraction registrada
+     * @return interacción con el contador de accesos actualizado
      */
-    public UserSimulatorInteraction recordInteraction(Long simulatorId, Long userId) {
-        Simulator simulator = simulatorRepository.findById(simulatorId)
+    @Transactional(readOnly = true)
+    public SimulatorInteractionResponse recordInteraction(Long simulatorId, Long userId) {
+        String simulatorTitle = simulatorRepository.findTitleById(simulatorId)
                 .orElseThrow(() -> new ResourceNotFoundException("Simulator", "id", simulatorId));
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
-
-        Optional<UserSimulatorInteraction> existing = userSimulatorInteractionRepository.findByUser_IdAndSimulator_Id(userId, simulatorId);
-        UserSimulatorInteraction interaction;
-        if (existing.isPresent()) {
-            interaction = existing.get();
-            interaction.setAccessedAt(LocalDateTime.now());
-            interaction.setAccessCount(interaction.getAccessCount() + 1);
-        } else {
-            interaction = new UserSimulatorInteraction();
-            interaction.setUser(user);
-            interaction.setSimulator(simulator);
-            interaction.setAccessedAt(LocalDateTime.now());
-            interaction.setAccessCount(1);
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
         }
-        return userSimulatorInteractionRepository.save(interaction);
+
+        accessCounterBuffer.recordSimulatorAccess(userId, simulatorId);
+
+        long accessCount = userSimulatorInteractionRepository.sumAccessCount(userId, simulatorId)
+                + accessCounterBuffer.pendingSimulatorAccesses(userId, simulatorId);
+        return SimulatorInteractionResponse.builder()
+                .userId(userId)
+                .simulatorId(simulatorId)
+                .simulatorTitle(simulatorTitle)
+                .accessedAt(LocalDateTime.now())
+                .accessCount((int) accessCount)
+                .build();
     }
-}
\ No newline at end of file
+}
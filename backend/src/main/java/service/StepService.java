@@ -11,12 +11,19 @@ import dto.response.StepResponse;
 import exception.ResourceNotFoundException;
 import exception.ForbiddenException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -25,7 +32,7 @@ import java.util.stream.Collectors;
  *
  * Gestiona todas las operaciones relacionadas con pasos:
  * - Crear, actualizar, eliminar pasos
- * - Ordenamiento secuencial de pasos
+ * - Ordenamiento secuencial de pasos (desplazamientos masivos, con la lección bloqueada)
  * - Validaciones de pertenencia a lección
  * - Conversión a DTOs
  */
@@ -35,6 +42,9 @@ public class StepService {
 
     private static final Logger logger = LoggerFactory.getLogger(StepService.class);
 
+    private static final String UPDATE_ORDER_SQL =
+            "UPDATE steps SET step_order = ?, version = version + 1, updated_at = ? WHERE id = ?";
+
     @Autowired
     private StepRepository stepRepository;
 
@@ -44,6 +54,15 @@ public class StepService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     /**
      * Crear nuevo paso en una lección
      * @param lessonId id de la lección
@@ -56,8 +75,8 @@ public class StepService {
     public Step createStep(Long lessonId, CreateStepRequest createStepRequest, Long adminId) {
         logger.info("Creando paso en lección: {}", lessonId);
 
-        // Validar que la lección existe
-        Lesson lesson = lessonRepository.findById(lessonId)
+        // Validar que la lección existe y bloquearla: el siguiente orden se calcula a partir del máximo
+        Lesson lesson = lessonRepository.findByIdForUpdate(lessonId)
                 .orElseThrow(() -> new ResourceNotFoundException("Lesson", "id", lessonId));
 
         // Validar que el admin sea el creador de la lección
@@ -79,6 +98,7 @@ public class StepService {
         step.setLesson(lesson);
 
         Step saved = stepRepository.save(step);
+        markStepsChanged(lesson);
         logger.info("Paso creado: {}", saved.getId());
         return saved;
     }
@@ -113,6 +133,18 @@ public class StepService {
         return stepRepository.findStepsByLessonOrderedByNumber(lessonId);
     }
 
+    /**
+     * Obtener la versión de los pasos de una lección, para las peticiones condicionales
+     *
+     * Se lee de una proyección de la lección, sin cargar los pasos.
+     * @param lessonId id de la lección
+     * @return versión de los pasos, o vacío si la lección no existe
+     */
+    public Optional<ResourceVersion> getStepsVersion(Long lessonId) {
+        return lessonRepository.findVersionById(lessonId)
+                .map(v -> ResourceVersion.steps(v.getId(), v.getStepsVersion(), v.getUpdatedAt()));
+    }
+
     /**
      * Obtener pasos de una lección con multimedia
      * @param lessonId id de la lección
@@ -155,19 +187,25 @@ public class StepService {
         step.setVideoUrl(videoUrl);
 
         Step updated = stepRepository.save(step);
+        markStepsChanged(lesson);
         logger.info("Paso actualizado: {}", stepId);
         return updated;
     }
 
     /**
      * Reordenar pasos dentro de una lección
+     *
+     * Desplaza el rango de pasos afectado con una sola sentencia y mueve el paso
+     * con otra, sin cargar el contenido de ningún paso. La lección queda
+     * bloqueada hasta el commit para que dos reordenaciones concurrentes no
+     * dejen órdenes duplicados.
      * @param lessonId id de la lección
      * @param stepId id del paso a mover
      * @param newOrder nuevo número de orden
      * @param adminId id del admin que reordena
      */
     public void reorderStep(Long lessonId, Long stepId, Integer newOrder, Long adminId) {
-        Lesson lesson = lessonRepository.findById(lessonId)
+        Lesson lesson = lessonRepository.findByIdForUpdate(lessonId)
                 .orElseThrow(() -> new IllegalArgumentException("Lección no encontrada"));
 
         // Validar que el admin sea el creador
@@ -175,45 +213,81 @@ public class StepService {
             throw new IllegalArgumentException("No tienes permiso para reordenar pasos de esta lección");
         }
 
-        Step step = stepRepository.findById(stepId)
+        StepRepository.StepPosition step = stepRepository.findPositionById(stepId)
                 .orElseThrow(() -> new IllegalArgumentException("Paso no encontrado"));
 
         // Validar que el paso pertenece a la lección
-        if (!step.getLesson().getId().equals(lessonId)) {
+        if (!step.getLessonId().equals(lessonId)) {
             throw new IllegalArgumentException("El paso no pertenece a esta lección");
         }
 
         // Obtener máximo orden
         Integer maxOrder = stepRepository.getMaxStepOrderByLesson(lessonId);
-        if (newOrder > maxOrder) {
+        if (newOrder < 1 || newOrder > maxOrder) {
             throw new IllegalArgumentException("El nuevo orden es inválido");
         }
 
-        List<Step> allSteps = stepRepository.findStepsByLessonOrderedByNumber(lessonId);
-
-        // Reordenar todos los pasos
         int currentOrder = step.getStepOrder();
+        if (newOrder == currentOrder) {
+            return;
+        }
 
+        LocalDateTime now = LocalDateTime.now();
         if (newOrder < currentOrder) {
-            // Mover hacia arriba
-            for (Step s : allSteps) {
-                if (s.getStepOrder() >= newOrder && s.getStepOrder() < currentOrder) {
-                    s.setStepOrder(s.getStepOrder() + 1);
-                    stepRepository.save(s);
-                }
-            }
-        } else if (newOrder > currentOrder) {
-            // Mover hacia abajo
-            for (Step s : allSteps) {
-                if (s.getStepOrder() <= newOrder && s.getStepOrder() > currentOrder) {
-                    s.setStepOrder(s.getStepOrder() - 1);
-                    stepRepository.save(s);
-                }
+            // Mover hacia arriba: los pasos [newOrder, currentOrder) bajan una posición
+            stepRepository.shiftStepOrders(lessonId, newOrder, currentOrder - 1, 1, now);
+        } else {
+            // Mover hacia abajo: los pasos (currentOrder, newOrder] suben una posición
+            stepRepository.shiftStepOrders(lessonId, currentOrder + 1, newOrder, -1, now);
+        }
+        stepRepository.updateStepOrder(stepId, newOrder, now);
+        markStepsChanged(lesson);
+    }
+
+    /**
+     * Reordenar de una vez todos los pasos de una lección
+     *
+     * Recibe la ordenación completa y numera los pasos de 1 a N en ese orden.
+     * Solo se escriben los pasos cuyo número cambia, en un único batch JDBC.
+     * @param lessonId id de la lección
+     * @param stepIds ids de todos los pasos de la lección en el nuevo orden
+     * @param adminId id del admin que reordena
+     * @throws ResourceNotFoundException si la lección no existe
+     * @throws ForbiddenException si el admin no es el creador
+     * @throws IllegalArgumentException si la lista no contiene cada paso de la lección exactamente una vez
+     */
+    public void reorderSteps(Long lessonId, List<Long> stepIds, Long adminId) {
+        Lesson lesson = lessonRepository.findByIdForUpdate(lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException("Lesson", "id", lessonId));
+
+        if (!lesson.getCreatedBy().getId().equals(adminId)) {
+            logger.warn("Intento de reordenar pasos de lección ajena: usuario {}", adminId);
+            throw new ForbiddenException("reordenar pasos", "no eres el creador de la lección");
+        }
+
+        Map<Long, Integer> currentOrders = new HashMap<>();
+        for (StepRepository.StepPosition position : stepRepository.findPositionsByLesson(lessonId)) {
+            currentOrders.put(position.getId(), position.getStepOrder());
+        }
+        if (stepIds.size() != currentOrders.size() || !currentOrders.keySet().equals(new HashSet<>(stepIds))) {
+            throw new IllegalArgumentException("El nuevo orden debe incluir cada paso de la lección exactamente una vez");
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>();
+        for (int i = 0; i < stepIds.size(); i++) {
+            int newOrder = i + 1;
+            if (currentOrders.get(stepIds.get(i)) != newOrder) {
+                batch.add(new Object[] { newOrder, now, stepIds.get(i) });
             }
         }
+        if (batch.isEmpty()) {
+            return;
+        }
 
-        step.setStepOrder(newOrder);
-        stepRepository.save(step);
+        jdbcTemplate.batchUpdate(UPDATE_ORDER_SQL, batch);
+        markStepsChanged(lesson);
+        logger.info("Pasos reordenados en lección {}: {} de {} movidos", lessonId, batch.size(), stepIds.size());
     }
 
     /**
@@ -225,9 +299,12 @@ public class StepService {
      * @throws ForbiddenException si admin no es creador de la lección
      */
     public void deleteStep(Long stepId, Long adminId) {
-        Step step = findById(stepId);
+        Long lessonId = stepRepository.findPositionById(stepId)
+                .orElseThrow(() -> new ResourceNotFoundException("Step", "id", stepId))
+                .getLessonId();
 
-        Lesson lesson = step.getLesson();
+        Lesson lesson = lessonRepository.findByIdForUpdate(lessonId)
+                .orElseThrow(() -> new ResourceNotFoundException("Lesson", "id", lessonId));
 
         // Validar que el admin sea el creador
         if (!lesson.getCreatedBy().getId().equals(adminId)) {
@@ -235,21 +312,36 @@ public class StepService {
             throw new ForbiddenException("eliminar pasos", "no eres el creador de la lección");
         }
 
-        // Reordenar los pasos siguientes
-        Integer currentOrder = step.getStepOrder();
-        List<Step> subsequentSteps = stepRepository.findStepsByLessonOrderedByNumber(lesson.getId()).stream()
-                .filter(s -> s.getStepOrder() > currentOrder)
-                .collect(Collectors.toList());
-
-        for (Step s : subsequentSteps) {
-            s.setStepOrder(s.getStepOrder() - 1);
-            stepRepository.save(s);
-        }
+        // Releer el orden con la lección ya bloqueada: una reordenación concurrente pudo moverlo
+        Integer currentOrder = stepRepository.findPositionById(stepId)
+                .orElseThrow(() -> new ResourceNotFoundException("Step", "id", stepId))
+                .getStepOrder();
 
-        stepRepository.deleteById(stepId);
+        // Eliminar y subir una posición los pasos siguientes, sin cargarlos
+        stepRepository.deleteStepById(stepId);
+        stepRepository.shiftStepOrders(lessonId, currentOrder + 1, Integer.MAX_VALUE, -1, LocalDateTime.now());
+        markStepsChanged(lesson);
         logger.info("Paso eliminado: {}", stepId);
     }
 
+    /**
+     * Registrar un cambio en los pasos de una lección
+     *
+     * Incrementa la versión de los pasos (la lección queda modificada y su
+     * @PreUpdate actualiza también su versión y fecha, que respaldan el ETag) y
+     * reconstruye el catálogo en memoria y reindexa la lección tras el commit si
+     * la lección es pública.
+     * Los pasos de las lecciones sin publicar no forman parte del catálogo.
+     * @param lesson lección del paso modificado
+     */
+    private void markStepsChanged(Lesson lesson) {
+        lesson.setStepsVersion((lesson.getStepsVersion() != null ? lesson.getStepsVersion() : 0L) + 1);
+        if (Boolean.TRUE.equals(lesson.getIsPublished())) {
+            catalogSnapshotService.refresh();
+            searchIndexService.lessonChanged(lesson.getId());
+        }
+    }
+
     /**
      * Contar pasos en una lección
      * @param lessonId id de la lección
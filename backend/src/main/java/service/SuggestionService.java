@@ -0,0 +1,213 @@
+package service;
+
+import dto.response.SuggestionResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import search.SearchType;
+import search.Suggestion;
+import search.SuggestionTrie;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sugerencias de títulos mientras se escribe en el buscador
+ *
+ * Mantiene un {@link SuggestionTrie} con los títulos de las lecciones
+ * publicadas, las FAQs activas (su pregunta) y los simuladores activos:
+ * - La popularidad de cada título es la suma de los accesos de los usuarios
+ *   (las FAQs no tienen accesos y pesan 0); se recalcula periódicamente
+ * - {@link SearchIndexService} avisa de cada cambio del catálogo tras el commit
+ *   y el árbol se actualiza copiando solo los caminos de ese título
+ * - Las consultas leen la versión publicada del árbol sin bloqueos
+ *
+ * Además del tiempo de cada consulta se mide la memoria que reserva, para
+ * vigilar que teclear no genere basura de más.
+ */
+@Service
+public class SuggestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SuggestionService.class);
+
+    public static final int DEFAULT_LIMIT = 8;
+    public static final int MAX_LIMIT = 20;
+
+    private static final String LESSONS_SQL =
+            "SELECT l.id, l.title, COALESCE(SUM(p.access_count), 0) AS weight FROM lessons l " +
+            "LEFT JOIN user_lesson_progress p ON p.lesson_id = l.id " +
+            "WHERE l.is_published = TRUE GROUP BY l.id, l.title";
+
+    private static final String FAQS_SQL = "SELECT id, question AS title, 0 AS weight FROM faq WHERE is_active = TRUE";
+
+    private static final String SIMULATORS_SQL =
+            "SELECT s.id, s.title, COALESCE(SUM(i.access_count), 0) AS weight FROM simulators s " +
+            "LEFT JOIN user_simulator_interaction i ON i.simulator_id = s.id " +
+            "WHERE s.is_active = TRUE GROUP BY s.id, s.title";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LatencyMetrics latencyMetrics;
+
+    // Null hasta la primera carga: los avisos anteriores se ignoran (la carga ya los ve)
+    private volatile SuggestionTrie trie;
+
+    // Sugerencia vigente de cada entidad, para quitarla del árbol con las mismas palabras
+    private final Map<Key, Suggestion> entries = new HashMap<>();
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAccumulator maxAllocatedBytes = new LongAccumulator(Math::max, 0);
+
+    private final com.sun.management.ThreadMXBean threads = allocationBean();
+
+    /**
+     * Cargar los títulos al arrancar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruir el árbol con la popularidad actual
+     */
+    @Scheduled(initialDelayString = "${search.suggest.popularity-refresh-ms:600000}",
+               fixedDelayString = "${search.suggest.popularity-refresh-ms:600000}")
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        Map<Key, Suggestion> loaded = new HashMap<>();
+        load(loaded, SearchType.LESSON, LESSONS_SQL);
+        load(loaded, SearchType.FAQ, FAQS_SQL);
+        load(loaded, SearchType.SIMULATOR, SIMULATORS_SQL);
+        entries.clear();
+        entries.putAll(loaded);
+        trie = SuggestionTrie.build(loaded.values());
+        latencyMetrics.record("search.suggest.build", System.nanoTime() - start);
+        logger.info("Sugerencias cargadas: {} títulos", loaded.size());
+    }
+
+    /**
+     * Añadir o actualizar el título de una entidad pública (conserva su popularidad)
+     * @param type tipo de contenido
+     * @param id id de la entidad
+     * @param title título actual
+     */
+    public synchronized void put(SearchType type, Long id, String title) {
+        SuggestionTrie current = trie;
+        if (current == null) {
+            return;
+        }
+        Key key = new Key(type, id);
+        Suggestion previous = entries.get(key);
+        Suggestion suggestion = Suggestion.of(type, id, title, previous != null ? previous.weight() : 0);
+        if (previous != null) {
+            if (previous.title().equals(suggestion.title())) {
+                return;
+            }
+            current = current.without(previous);
+        }
+        entries.put(key, suggestion);
+        trie = current.with(suggestion);
+    }
+
+    /**
+     * Quitar una entidad que ha dejado de ser pública
+     * @param type tipo de contenido
+     * @param id id de la entidad
+     */
+    public synchronized void remove(SearchType type, Long id) {
+        SuggestionTrie current = trie;
+        if (current == null) {
+            return;
+        }
+        Suggestion previous = entries.remove(new Key(type, id));
+        if (previous != null) {
+            trie = current.without(previous);
+        }
+    }
+
+    /**
+     * Sugerir títulos para lo que el usuario lleva escrito
+     * @param query texto escrito (admite errores y sin tildes)
+     * @param limit máximo de sugerencias (entre 1 y {@link #MAX_LIMIT})
+     * @return sugerencias, vacío si aún no están cargadas
+     */
+    public List<SuggestionResponse> suggest(String query, int limit) {
+        SuggestionTrie current = trie;
+        if (current == null || query == null) {
+            return List.of();
+        }
+        long start = System.nanoTime();
+        long allocatedBefore = allocatedBytes();
+        List<Suggestion> suggestions = current.suggest(query, Math.max(1, Math.min(limit, MAX_LIMIT)));
+        long allocated = allocatedBytes() - allocatedBefore;
+        latencyMetrics.record("search.suggest", System.nanoTime() - start);
+
+        queries.increment();
+        if (allocatedBefore >= 0) {
+            allocatedBytes.add(allocated);
+            maxAllocatedBytes.accumulate(allocated);
+        }
+        return suggestions.stream()
+                .map(suggestion -> SuggestionResponse.builder()
+                        .type(suggestion.type())
+                        .id(suggestion.id())
+                        .title(suggestion.title())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Obtener el estado de las sugerencias
+     * @return Mapa con títulos cargados, consultas y memoria reservada por consulta
+     */
+    public Map<String, Object> getStatistics() {
+        SuggestionTrie current = trie;
+        long count = queries.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("loaded", current != null);
+        stats.put("titles", current != null ? current.size() : 0);
+        stats.put("queries", count);
+        stats.put("allocationMeasured", threads != null);
+        stats.put("avgAllocatedBytes", count > 0 ? allocatedBytes.sum() / count : 0);
+        stats.put("maxAllocatedBytes", maxAllocatedBytes.get());
+        return stats;
+    }
+
+    private void load(Map<Key, Suggestion> target, SearchType type, String sql) {
+        jdbcTemplate.query(sql, rs -> {
+            long id = rs.getLong("id");
+            target.put(new Key(type, id), Suggestion.of(type, id, rs.getString("title"), rs.getLong("weight")));
+        });
+    }
+
+    /**
+     * Bytes reservados hasta ahora por el hilo actual, o -1 si la JVM no lo mide
+     */
+    private long allocatedBytes() {
+        return threads != null ? threads.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+            return bean;
+        }
+        return null;
+    }
+
+    private record Key(SearchType type, long id) {
+    }
+}
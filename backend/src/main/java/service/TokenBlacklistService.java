@@ -1,19 +1,64 @@
 package security;
 
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Servicio de blacklist de tokens en memoria
  * Mantiene un registro de tokens revocados (logout, refresh, etc.)
- * Limpieza automática cuando expiran (opcional)
+ *
+ * - Filtro de Bloom rotativo delante del mapa: la inmensa mayoría de tokens
+ *   no están revocados y se descartan con unas pocas lecturas de bits
+ * - Consultas sin bloqueo en O(1) sobre un ConcurrentHashMap
+ * - Expiración mediante una cola ordenada por fecha de caducidad que
+ *   vacía una tarea en segundo plano, sin recorrer todo el mapa
  */
 @Service
 public class TokenBlacklistService {
 
+    @Value("${jwt.expiration:900000}")
+    private long tokenLifetimeMs;
+
+    @Value("${blacklist.bloom.bucket-width-ms:3600000}")
+    private long bloomBucketWidthMs;
+
+    @Value("${blacklist.bloom.expected-insertions:10000}")
+    private int bloomExpectedInsertions;
+
+    @Value("${blacklist.bloom.fpp:0.01}")
+    private double bloomFpp;
+
+    private RevokedTokenBloomFilter bloomFilter;
+
+    private final LongAdder bloomNegatives = new LongAdder();
+    private final LongAdder bloomPositives = new LongAdder();
+    private final LongAdder bloomFalsePositives = new LongAdder();
+
     // Mapa de JTI -> timestamp de expiración
-    private final Map<String, Long> blacklist = new HashMap<>();
+    private final Map<String, Long> blacklist = new ConcurrentHashMap<>();
+
+    // Cola de expiración: solo la tocan logout y la tarea de limpieza
+    private final DelayQueue<ExpiringToken> expiryQueue = new DelayQueue<>();
+
+    /**
+     * Construir el filtro de Bloom con la configuración actual
+     */
+    @PostConstruct
+    void init() {
+        bloomFilter = new RevokedTokenBloomFilter(tokenLifetimeMs, bloomBucketWidthMs,
+                bloomExpectedInsertions, bloomFpp);
+    }
 
     /**
      * Añadir un token a la blacklist
@@ -21,8 +66,14 @@ public class TokenBlacklistService {
      * @param expirationTime timestamp de expiración del token
      */
     public void addToBlacklist(String jti, long expirationTime) {
-        blacklist.put(jti, expirationTime);
-        cleanExpiredTokens();
+        if (jti == null) {
+            return;
+        }
+        Long previous = blacklist.put(jti, expirationTime);
+        if (!Objects.equals(previous, expirationTime)) {
+            expiryQueue.offer(new ExpiringToken(jti, expirationTime));
+            bloomFilter.put(jti, expirationTime, System.currentTimeMillis());
+        }
     }
 
     /**
@@ -31,14 +82,26 @@ public class TokenBlacklistService {
      * @return true si está en la blacklist, false si no
      */
     public boolean isBlacklisted(String jti) {
-        if (!blacklist.containsKey(jti)) {
+        if (jti == null) {
             return false;
         }
 
-        // Verificar si ya ha expirado
+        long now = System.currentTimeMillis();
+        if (!bloomFilter.mightContain(jti, now)) {
+            bloomNegatives.increment();
+            return false;
+        }
+        bloomPositives.increment();
+
         Long expirationTime = blacklist.get(jti);
-        if (System.currentTimeMillis() > expirationTime) {
-            blacklist.remove(jti);
+        if (expirationTime == null) {
+            bloomFalsePositives.increment();
+            return false;
+        }
+
+        // Un token ya expirado deja de estar revocado aunque la limpieza no haya pasado
+        if (now > expirationTime) {
+            blacklist.remove(jti, expirationTime);
             return false;
         }
 
@@ -47,10 +110,14 @@ public class TokenBlacklistService {
 
     /**
      * Limpiar tokens expirados de la blacklist
+     * Solo extrae de la cola los que ya han caducado, sin recorrer el mapa
      */
-    private void cleanExpiredTokens() {
-        long currentTime = System.currentTimeMillis();
-        blacklist.entrySet().removeIf(entry -> currentTime > entry.getValue());
+    @Scheduled(fixedDelayString = "${blacklist.sweep-interval-ms:30000}")
+    public void cleanExpiredTokens() {
+        ExpiringToken expired;
+        while ((expired = expiryQueue.poll()) != null) {
+            blacklist.remove(expired.jti, expired.expirationTime);
+        }
     }
 
     /**
@@ -61,12 +128,53 @@ public class TokenBlacklistService {
         return blacklist.size();
     }
 
+    /**
+     * Obtener métricas de la blacklist y de su filtro de Bloom
+     * @return Mapa con tamaño, aciertos del filtro y falsos positivos observados
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", getSize());
+        stats.put("bloomNegatives", bloomNegatives.sum());
+        stats.put("bloomPositives", bloomPositives.sum());
+        stats.put("bloomFalsePositives", bloomFalsePositives.sum());
+        stats.put("bloomFilter", bloomFilter.getStatistics(System.currentTimeMillis()));
+        return stats;
+    }
+
     /**
      * Limpiar toda la blacklist (solo para testing)
      */
     public void clear() {
+        expiryQueue.clear();
         blacklist.clear();
+        bloomFilter.clear();
     }
-}
 
+    /**
+     * Entrada de la cola de expiración
+     */
+    private static final class ExpiringToken implements Delayed {
+
+        private final String jti;
+        private final long expirationTime;
 
+        private ExpiringToken(String jti, long expirationTime) {
+            this.jti = jti;
+            this.expirationTime = expirationTime;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expirationTime - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            if (other instanceof ExpiringToken token) {
+                return Long.compare(expirationTime, token.expirationTime);
+            }
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), other.getDelay(TimeUnit.MILLISECONDS));
+        }
+    }
+}
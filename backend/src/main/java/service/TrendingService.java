@@ -0,0 +1,452 @@
+package service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Motor de lecciones trending
+ *
+ * Cada acceso a una lección publicada suma a su puntuación, que decae
+ * exponencialmente con la vida media configurada:
+ * - Decaimiento hacia delante: cada acceso suma exp(λ·(t - referencia)), así
+ *   que las puntuaciones no hay que decaerlas con el paso del tiempo y el orden
+ *   relativo entre lecciones no cambia si no hay accesos
+ * - Top-K global y por categoría; como una puntuación solo puede subir, basta
+ *   compararla con el mínimo del top al recibir cada acceso
+ * - El ranking de cada top se publica como lista inmutable y se lee en O(K)
+ * - Las puntuaciones se guardan periódicamente en lesson_trending_scores y se
+ *   recuperan al arrancar
+ *
+ * Las actualizaciones se serializan en este objeto: cada una cuesta O(log K + K).
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    // Al superar este exponente se cambia el instante de referencia para no desbordar el double
+    private static final double MAX_EXPONENT = 50.0;
+
+    private static final String LOAD_LESSONS_SQL = "SELECT id, category_id, is_published FROM lessons";
+
+    private static final String LOAD_CHECKPOINT_SQL = "SELECT lesson_id, score, scored_at FROM lesson_trending_scores";
+
+    // Sin puntos de control: se parte del número de usuarios que han abierto cada lección
+    private static final String SEED_SQL =
+            "SELECT lesson_id, COUNT(*) AS accesses FROM user_lesson_progress GROUP BY lesson_id";
+
+    private static final String CHECKPOINT_SQL =
+            "MERGE INTO lesson_trending_scores t " +
+            "USING (SELECT CAST(? AS BIGINT) AS lesson_id) src ON t.lesson_id = src.lesson_id " +
+            "WHEN MATCHED THEN UPDATE SET score = ?, scored_at = ? " +
+            "WHEN NOT MATCHED THEN INSERT (lesson_id, score, scored_at) VALUES (src.lesson_id, ?, ?)";
+
+    private static final String DELETE_ORPHAN_CHECKPOINTS_SQL =
+            "DELETE FROM lesson_trending_scores WHERE lesson_id NOT IN (SELECT id FROM lessons)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LatencyMetrics latencyMetrics;
+
+    @Value("${trending.top-k:50}")
+    private int topK;
+
+    @Value("${trending.half-life-hours:24}")
+    private double halfLifeHours;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<Long, TopK> byCategory = new ConcurrentHashMap<>();
+    private volatile TopK global;
+
+    // λ por milisegundo e instante de referencia del decaimiento hacia delante
+    private double lambda;
+    private long landmarkMillis;
+    private volatile boolean loaded;
+
+    /**
+     * Cargar lecciones y puntuaciones al arrancar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        load(System.currentTimeMillis());
+    }
+
+    synchronized void load(long nowMillis) {
+        long start = System.nanoTime();
+        lambda = Math.log(2) / (halfLifeHours * 3_600_000.0);
+        landmarkMillis = nowMillis;
+        entries.clear();
+        byCategory.clear();
+        global = new TopK(topK);
+
+        jdbcTemplate.query(LOAD_LESSONS_SQL, rs -> {
+            Entry entry = new Entry(rs.getLong("id"), rs.getLong("category_id"));
+            entry.published = rs.getBoolean("is_published");
+            entries.put(entry.lessonId, entry);
+        });
+
+        int[] checkpoints = {0};
+        jdbcTemplate.query(LOAD_CHECKPOINT_SQL, rs -> {
+            Entry entry = entries.get(rs.getLong("lesson_id"));
+            if (entry != null) {
+                long scoredAt = rs.getTimestamp("scored_at").getTime();
+                entry.score = rs.getDouble("score") * Math.exp(lambda * (scoredAt - landmarkMillis));
+                checkpoints[0]++;
+            }
+        });
+        if (checkpoints[0] == 0) {
+            jdbcTemplate.query(SEED_SQL, rs -> {
+                Entry entry = entries.get(rs.getLong("lesson_id"));
+                if (entry != null) {
+                    entry.score = rs.getLong("accesses");
+                }
+            });
+        }
+
+        rebuildRankings();
+        loaded = true;
+        latencyMetrics.record("trending.load", System.nanoTime() - start);
+        logger.info("Motor trending cargado: {} lecciones, {} puntos de control", entries.size(), checkpoints[0]);
+    }
+
+    /**
+     * Registrar un acceso a una lección
+     * @param lessonId id de la lección
+     */
+    public void recordAccess(Long lessonId) {
+        recordAccess(lessonId, System.currentTimeMillis());
+    }
+
+    synchronized void recordAccess(Long lessonId, long nowMillis) {
+        Entry entry = entries.get(lessonId);
+        if (entry == null || !entry.published) {
+            // Lección desconocida o no publicada: no entra en el trending
+            return;
+        }
+
+        if (lambda * (nowMillis - landmarkMillis) > MAX_EXPONENT) {
+            renormalize(nowMillis);
+        }
+
+        TopK categoryTop = categoryTop(entry.categoryId);
+        // Sacar la entrada antes de cambiar su puntuación: el orden del TreeSet depende de ella
+        boolean inGlobal = global.remove(entry);
+        boolean inCategory = categoryTop.remove(entry);
+
+        entry.score += Math.exp(lambda * (nowMillis - landmarkMillis));
+
+        if (global.offer(entry) || inGlobal) {
+            global.publish();
+        }
+        if (categoryTop.offer(entry) || inCategory) {
+            categoryTop.publish();
+        }
+    }
+
+    /**
+     * Lecciones trending, de mayor a menor puntuación
+     * @param categoryId categoría (null para el ranking global)
+     * @return ids de como máximo K lecciones
+     */
+    public List<Long> topLessons(Long categoryId) {
+        if (categoryId == null) {
+            TopK top = global;
+            return top != null ? top.ranking : Collections.emptyList();
+        }
+        TopK top = byCategory.get(categoryId);
+        return top != null ? top.ranking : Collections.emptyList();
+    }
+
+    /**
+     * Puntuación actual (ya decaída) de una lección
+     * @param lessonId id de la lección
+     * @return puntuación, 0 si la lección no se sigue
+     */
+    public synchronized double currentScore(Long lessonId) {
+        return currentScore(lessonId, System.currentTimeMillis());
+    }
+
+    synchronized double currentScore(Long lessonId, long nowMillis) {
+        Entry entry = entries.get(lessonId);
+        return entry != null ? entry.score * Math.exp(-lambda * (nowMillis - landmarkMillis)) : 0.0;
+    }
+
+    /**
+     * Indicar que una lección se ha publicado (tras el commit de la transacción actual)
+     * @param lessonId id de la lección
+     * @param categoryId id de su categoría
+     */
+    public void lessonPublished(Long lessonId, Long categoryId) {
+        afterCommit(() -> setPublished(lessonId, categoryId, true));
+    }
+
+    /**
+     * Indicar que una lección se ha despublicado; conserva su puntuación
+     * @param lessonId id de la lección
+     * @param categoryId id de su categoría
+     */
+    public void lessonUnpublished(Long lessonId, Long categoryId) {
+        afterCommit(() -> setPublished(lessonId, categoryId, false));
+    }
+
+    /**
+     * Indicar que una lección se ha eliminado
+     * @param lessonId id de la lección
+     */
+    public void lessonDeleted(Long lessonId) {
+        afterCommit(() -> remove(lessonId));
+    }
+
+    /**
+     * Guardar las puntuaciones en la base de datos
+     */
+    @Scheduled(initialDelayString = "${trending.checkpoint-interval-ms:60000}",
+               fixedDelayString = "${trending.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        if (!loaded) {
+            return;
+        }
+        long start = System.nanoTime();
+        long now = System.currentTimeMillis();
+        Timestamp scoredAt = new Timestamp(now);
+
+        List<Object[]> batch = new ArrayList<>();
+        synchronized (this) {
+            for (Entry entry : entries.values()) {
+                if (entry.score > 0) {
+                    double score = entry.score * Math.exp(-lambda * (now - landmarkMillis));
+                    batch.add(new Object[] {entry.lessonId, score, scoredAt, score, scoredAt});
+                }
+            }
+        }
+
+        try {
+            if (!batch.isEmpty()) {
+                jdbcTemplate.batchUpdate(CHECKPOINT_SQL, batch);
+            }
+            jdbcTemplate.update(DELETE_ORPHAN_CHECKPOINTS_SQL);
+            latencyMetrics.record("trending.checkpoint", System.nanoTime() - start);
+        } catch (Exception e) {
+            logger.error("No se pudieron guardar las puntuaciones trending: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Guardar las puntuaciones al parar la aplicación de forma ordenada
+     */
+    @PreDestroy
+    void checkpointOnShutdown() {
+        checkpoint();
+    }
+
+    /**
+     * Obtener el estado del motor
+     *
+     * @return Mapa con lecciones seguidas, categorías y tamaño del top global
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("trackedLessons", entries.size());
+        stats.put("categories", byCategory.size());
+        stats.put("globalTop", topLessons(null).size());
+        stats.put("topK", topK);
+        stats.put("halfLifeHours", halfLifeHours);
+        return stats;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private synchronized void setPublished(Long lessonId, Long categoryId, boolean published) {
+        if (!loaded) {
+            return;
+        }
+        Entry entry = entries.computeIfAbsent(lessonId, id -> new Entry(id, categoryId));
+        if (entry.published == published) {
+            return;
+        }
+
+        entry.published = published;
+        TopK categoryTop = categoryTop(entry.categoryId);
+        if (published) {
+            if (global.offer(entry)) {
+                global.publish();
+            }
+            if (categoryTop.offer(entry)) {
+                categoryTop.publish();
+            }
+        } else {
+            dropFromRankings(entry);
+        }
+    }
+
+    private synchronized void remove(Long lessonId) {
+        Entry entry = entries.remove(lessonId);
+        if (entry != null && loaded) {
+            dropFromRankings(entry);
+        }
+    }
+
+    /**
+     * Quitar una entrada de sus tops y rellenar el hueco con la mejor candidata
+     * (recorrido completo, solo al despublicar o eliminar)
+     */
+    private void dropFromRankings(Entry entry) {
+        TopK categoryTop = categoryTop(entry.categoryId);
+        if (global.remove(entry)) {
+            refill(global, null);
+        }
+        if (categoryTop.remove(entry)) {
+            refill(categoryTop, entry.categoryId);
+        }
+    }
+
+    private void refill(TopK top, Long categoryId) {
+        Entry best = null;
+        for (Entry candidate : entries.values()) {
+            if (candidate.published
+                    && (categoryId == null || candidate.categoryId == categoryId)
+                    && !top.contains(candidate)
+                    && (best == null || TopK.ORDER.compare(candidate, best) > 0)) {
+                best = candidate;
+            }
+        }
+        if (best != null) {
+            top.offer(best);
+        }
+        top.publish();
+    }
+
+    /**
+     * Cambiar el instante de referencia reescalando todas las puntuaciones
+     */
+    private void renormalize(long nowMillis) {
+        double factor = Math.exp(-lambda * (nowMillis - landmarkMillis));
+        for (Entry entry : entries.values()) {
+            entry.score *= factor;
+        }
+        landmarkMillis = nowMillis;
+        // El reescalado conserva el orden, pero se reconstruye por si el redondeo genera empates
+        rebuildRankings();
+        logger.debug("Puntuaciones trending renormalizadas");
+    }
+
+    private void rebuildRankings() {
+        global = new TopK(topK);
+        byCategory.clear();
+        for (Entry entry : entries.values()) {
+            if (entry.published) {
+                global.offer(entry);
+                categoryTop(entry.categoryId).offer(entry);
+            }
+        }
+        global.publish();
+        byCategory.values().forEach(TopK::publish);
+    }
+
+    private TopK categoryTop(long categoryId) {
+        return byCategory.computeIfAbsent(categoryId, id -> new TopK(topK));
+    }
+
+    /**
+     * Lección seguida por el motor; la puntuación está en unidades de la referencia actual
+     */
+    private static final class Entry {
+
+        private final long lessonId;
+        private final long categoryId;
+        private boolean published;
+        private double score;
+
+        private Entry(long lessonId, long categoryId) {
+            this.lessonId = lessonId;
+            this.categoryId = categoryId;
+        }
+    }
+
+    /**
+     * Las K lecciones con mayor puntuación
+     *
+     * El TreeSet actúa de montículo de mínimos (first() es la peor del top) y
+     * ranking es la copia inmutable, de mayor a menor, que leen las peticiones.
+     */
+    private static final class TopK {
+
+        // A igualdad de puntuación gana la lección más antigua (id menor)
+        private static final Comparator<Entry> ORDER = Comparator
+                .comparingDouble((Entry e) -> e.score)
+                .thenComparing((Entry e) -> e.lessonId, Comparator.reverseOrder());
+
+        private final int k;
+        private final TreeSet<Entry> heap = new TreeSet<>(ORDER);
+        private volatile List<Long> ranking = Collections.emptyList();
+
+        private TopK(int k) {
+            this.k = k;
+        }
+
+        /**
+         * @return true si la entrada ha entrado en el top
+         */
+        private boolean offer(Entry entry) {
+            if (heap.size() < k) {
+                return heap.add(entry);
+            }
+            if (ORDER.compare(entry, heap.first()) <= 0) {
+                return false;
+            }
+            heap.pollFirst();
+            return heap.add(entry);
+        }
+
+        private boolean remove(Entry entry) {
+            return heap.remove(entry);
+        }
+
+        private boolean contains(Entry entry) {
+            return heap.contains(entry);
+        }
+
+        private void publish() {
+            List<Long> ids = new ArrayList<>(heap.size());
+            Iterator<Entry> descending = heap.descendingIterator();
+            while (descending.hasNext()) {
+                ids.add(descending.next().lessonId);
+            }
+            ranking = Collections.unmodifiableList(ids);
+        }
+    }
+}
@@ -2,16 +2,28 @@ package service;
 
 import model.UserLessonProgress;
 import model.User;
-import model.Lesson;
+import model.UserProgressSummary;
+import exception.ResourceNotFoundException;
 import repository.UserLessonProgressRepository;
+import repository.UserLessonProgressRepository.ProgressFlags;
+import repository.UserProgressSummaryRepository;
 import repository.UserRepository;
 import repository.LessonRepository;
+import dto.response.CategoryProgressResponse;
 import dto.response.ProgressResponse;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -29,6 +41,14 @@ import java.util.stream.Collectors;
  * - Gestionar favoritos
  * - Calcular progreso por categoría y global
  * - Rastrear accesos a lecciones
+ *
+ * Las transiciones (completar, favorito) se aplican con un único MERGE por
+ * llamada, sin cargar entidades. Los accesos se acumulan en {@link AccessCounterBuffer}.
+ *
+ * Los contadores y el porcentaje global se leen del resumen que mantiene
+ * {@link ProgressSummaryService}; si el usuario aún no tiene resumen se calculan
+ * desde user_lesson_progress. El progreso por categoría (una o todas) sale
+ * siempre de user_lesson_progress y de los totales de {@link PublishedLessonTotals}.
  */
 @Service
 @Transactional
@@ -36,6 +56,9 @@ public class UserLessonProgressService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserLessonProgressService.class);
 
+    // Un reintento basta: tras el conflicto la fila ya existe y el MERGE la actualiza
+    private static final int MAX_UPSERT_ATTEMPTS = 2;
+
     @Autowired
     private UserLessonProgressRepository userLessonProgressRepository;
 
@@ -45,37 +68,67 @@ public class UserLessonProgressService {
     @Autowired
     private LessonRepository lessonRepository;
 
+    @Autowired
+    private AccessCounterBuffer accessCounterBuffer;
+
+    @Autowired
+    private ProgressSummaryService progressSummaryService;
+
+    @Autowired
+    private PublishedLessonTotals publishedLessonTotals;
+
+    @Autowired
+    private TrendingService trendingService;
+
+    @Autowired
+    private UserProgressSummaryRepository userProgressSummaryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
     /**
-     * Obtener o crear progreso de usuario en una lección
+     * Registrar un acceso del usuario a una lección
+     *
+     * El incremento se acumula en memoria y se vuelca por lotes; la respuesta ya
+     * incluye los accesos pendientes de volcar.
      * @param userId id del usuario
      * @param lessonId id de la lección
-     * @return progreso existente o nuevo
+     * @return progreso con el contador de accesos actualizado
      */
-    public UserLessonProgress getOrCreateProgress(Long userId, Long lessonId) {
-        Optional<UserLessonProgress> existing = userLessonProgressRepository.findByUser_IdAndLesson_Id(userId, lessonId);
-
-        if (existing.isPresent()) {
-            UserLessonProgress progress = existing.get();
-            // Incrementar contador de accesos
-            progress.setAccessCount(progress.getAccessCount() + 1);
-            return userLessonProgressRepository.save(progress);
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ProgressResponse registerAccess(Long userId, Long lessonId) {
+        Optional<ProgressResponse> persisted = userLessonProgressRepository.findResponseByUserAndLesson(userId, lessonId);
+
+        ProgressResponse progress;
+        if (persisted.isPresent()) {
+            progress = persisted.get();
+        } else {
+            // Primer acceso: la fila se creará en el próximo volcado
+            if (!userRepository.existsById(userId)) {
+                throw new ResourceNotFoundException("Usuario", "id", userId);
+            }
+            String lessonTitle = lessonRepository.findTitleById(lessonId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Lección", "id", lessonId));
+            progress = ProgressResponse.builder()
+                    .userId(userId)
+                    .lessonId(lessonId)
+                    .lessonTitle(lessonTitle)
+                    .isCompleted(false)
+                    .isFavorite(false)
+                    .accessCount(0)
+                    .build();
         }
 
-        // Crear nuevo progreso
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("Usuario no encontrado"));
-
-        Lesson lesson = lessonRepository.findById(lessonId)
-                .orElseThrow(() -> new IllegalArgumentException("Lección no encontrada"));
-
-        UserLessonProgress newProgress = new UserLessonProgress();
-        newProgress.setUser(user);
-        newProgress.setLesson(lesson);
-        newProgress.setIsCompleted(false);
-        newProgress.setIsFavorite(false);
-        newProgress.setAccessCount(1);
-
-        return userLessonProgressRepository.save(newProgress);
+        accessCounterBuffer.recordLessonAccess(userId, lessonId);
+        trendingService.recordAccess(lessonId);
+        return withPendingAccesses(progress);
     }
 
     /**
@@ -84,14 +137,11 @@ public class UserLessonProgressService {
      * @param lessonId id de la lección
      * @return progreso actualizado
      */
-    public UserLessonProgress markAsCompleted(Long userId, Long lessonId) {
-        UserLessonProgress progress = getOrCreateProgress(userId, lessonId);
-
-        progress.setIsCompleted(true);
-        progress.setCompletedAt(LocalDateTime.now());
-
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ProgressResponse markAsCompleted(Long userId, Long lessonId) {
+        ProgressResponse progress = upsert(userId, lessonId, true, true, false, false);
         logger.info("Lección marcada como completada: usuario {} - lección {}", userId, lessonId);
-        return userLessonProgressRepository.save(progress);
+        return progress;
     }
 
     /**
@@ -100,14 +150,11 @@ public class UserLessonProgressService {
      * @param lessonId id de la lección
      * @return progreso actualizado
      */
-    public UserLessonProgress markAsNotCompleted(Long userId, Long lessonId) {
-        UserLessonProgress progress = getOrCreateProgress(userId, lessonId);
-
-        progress.setIsCompleted(false);
-        progress.setCompletedAt(null);
-
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ProgressResponse markAsNotCompleted(Long userId, Long lessonId) {
+        ProgressResponse progress = upsert(userId, lessonId, true, false, false, false);
         logger.info("Lección desmarcada como completada: usuario {} - lección {}", userId, lessonId);
-        return userLessonProgressRepository.save(progress);
+        return progress;
     }
 
     /**
@@ -116,11 +163,11 @@ public class UserLessonProgressService {
      * @param lessonId id de la lección
      * @return progreso actualizado
      */
-    public UserLessonProgress addToFavorites(Long userId, Long lessonId) {
-        UserLessonProgress progress = getOrCreateProgress(userId, lessonId);
-        progress.setIsFavorite(true);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ProgressResponse addToFavorites(Long userId, Long lessonId) {
+        ProgressResponse progress = upsert(userId, lessonId, false, false, true, true);
         logger.info("Lección agregada a favoritos: usuario {} - lección {}", userId, lessonId);
-        return userLessonProgressRepository.save(progress);
+        return progress;
     }
 
     /**
@@ -129,11 +176,77 @@ public class UserLessonProgressService {
      * @param lessonId id de la lección
      * @return progreso actualizado
      */
-    public UserLessonProgress removeFromFavorites(Long userId, Long lessonId) {
-        UserLessonProgress progress = getOrCreateProgress(userId, lessonId);
-        progress.setIsFavorite(false);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public ProgressResponse removeFromFavorites(Long userId, Long lessonId) {
+        ProgressResponse progress = upsert(userId, lessonId, false, false, true, false);
         logger.info("Lección removida de favoritos: usuario {} - lección {}", userId, lessonId);
-        return userLessonProgressRepository.save(progress);
+        return progress;
+    }
+
+    /**
+     * Aplicar una transición de progreso con un único MERGE y devolver el resultado
+     *
+     * Los flags anteriores se leen con bloqueo para actualizar el resumen del
+     * usuario con la variación real dentro de la misma transacción. Si la fila
+     * aún no existe se bloquea antes el usuario: otra transacción puede estar
+     * creándola y, al esperar su commit, el MERGE la actualizaría sobre flags
+     * que no se han leído.
+     *
+     * Sin transacción previa cada intento va en su propia transacción: si dos
+     * peticiones crean a la vez la misma fila, la perdedora choca con uk_user_lesson
+     * y al reintentar ya encuentra la fila y la actualiza, sin perder incrementos.
+     * Dentro de una transacción existente se une a ella y el conflicto se propaga.
+     */
+    private ProgressResponse upsert(Long userId, Long lessonId,
+                                    boolean setCompleted, boolean completed,
+                                    boolean setFavorite, boolean favorite) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    ProgressFlags before = userLessonProgressRepository.lockFlags(userId, lessonId).orElse(null);
+                    if (before == null) {
+                        if (userRepository.lockById(userId).isEmpty()) {
+                            throw new ResourceNotFoundException("Usuario", "id", userId);
+                        }
+                        before = userLessonProgressRepository.lockFlags(userId, lessonId).orElse(null);
+                    }
+                    int updated = userLessonProgressRepository.upsertProgress(
+                            userId, lessonId, setCompleted, completed, setFavorite, favorite, now);
+                    if (updated == 0) {
+                        throw notFound(userId, lessonId);
+                    }
+                    progressSummaryService.applyTransition(
+                            userId, lessonId, before, setCompleted, completed, setFavorite, favorite, now);
+                    return userLessonProgressRepository.findResponseByUserAndLesson(userId, lessonId)
+                            .map(this::withPendingAccesses)
+                            .orElseThrow(() -> notFound(userId, lessonId));
+                });
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_UPSERT_ATTEMPTS || TransactionSynchronizationManager.isActualTransactionActive()) {
+                    throw e;
+                }
+                logger.debug("Conflicto creando progreso usuario {} - lección {}, reintentando", userId, lessonId);
+            }
+        }
+    }
+
+    /**
+     * Sumar al contador persistido los accesos aún no volcados
+     */
+    private ProgressResponse withPendingAccesses(ProgressResponse progress) {
+        long pending = accessCounterBuffer.pendingLessonAccesses(progress.getUserId(), progress.getLessonId());
+        if (pending > 0) {
+            progress.setAccessCount((int) (progress.getAccessCount() + pending));
+        }
+        return progress;
+    }
+
+    private ResourceNotFoundException notFound(Long userId, Long lessonId) {
+        if (!userRepository.existsById(userId)) {
+            return new ResourceNotFoundException("Usuario", "id", userId);
+        }
+        return new ResourceNotFoundException("Lección", "id", lessonId);
     }
 
     /**
@@ -156,6 +269,19 @@ public class UserLessonProgressService {
         return userLessonProgressRepository.findByUser_Id(userId, pageable);
     }
 
+    /**
+     * Obtener el progreso de un usuario por cursor (por id, sin OFFSET ni COUNT)
+     * @param userId id del usuario
+     * @param after posición del último registro de la página anterior (vacío para la primera)
+     * @param size tamaño de página
+     * @return porción de progreso
+     */
+    public Slice<UserLessonProgress> getUserProgressAfter(Long userId, Optional<PageCursor> after, int size) {
+        long afterId = after.map(PageCursor::id).orElse(0L);
+        return userLessonProgressRepository.findByUser_IdAndIdGreaterThanOrderByIdAsc(userId, afterId,
+                PageRequest.of(0, size));
+    }
+
     /**
      * Obtener lecciones completadas por usuario
      * @param userId id del usuario
@@ -222,15 +348,10 @@ public class UserLessonProgressService {
      * @param categoryId id de la categoría
      * @return porcentaje de progreso (0-100)
      */
+    @Transactional(readOnly = true)
     public double calculateCategoryProgress(Long userId, Long categoryId) {
         long completed = userLessonProgressRepository.countCompletedInCategory(userId, categoryId);
-        long total = userLessonProgressRepository.countTotalInCategory(categoryId);
-
-        if (total == 0) {
-            return 0.0;
-        }
-
-        return (completed * 100.0) / total;
+        return percentage(completed, publishedLessonTotals.forCategory(categoryId));
     }
 
     /**
@@ -238,15 +359,23 @@ public class UserLessonProgressService {
      * @param userId id del usuario
      * @return porcentaje de progreso global (0-100)
      */
+    @Transactional(readOnly = true)
     public double calculateGlobalProgress(Long userId) {
-        long completed = userLessonProgressRepository.countByUser_IdAndIsCompletedTrue(userId);
-        long total = lessonRepository.countByIsPublishedTrue();
+        Optional<UserProgressSummary> summary = userProgressSummaryRepository.findById(userId);
+        if (summary.isPresent()) {
+            return percentage(summary.get().getCompletedCount(), summary.get().getPublishedTotal());
+        }
+
+        // Resumen aún no construido: calcular desde las tablas de origen
+        long completed = userLessonProgressRepository.countCompletedPublishedByUser(userId);
+        return percentage(completed, publishedLessonTotals.total());
+    }
 
+    private static double percentage(long completed, long total) {
         if (total == 0) {
             return 0.0;
         }
-
-        return (completed * 100.0) / total;
+        return Math.min(100.0, (completed * 100.0) / total);
     }
 
     /**
@@ -254,16 +383,19 @@ public class UserLessonProgressService {
      * @return número de lecciones publicadas
      */
     public long countTotalPublishedLessons() {
-        return lessonRepository.countByIsPublishedTrue();
+        return publishedLessonTotals.total();
     }
 
     /**
-     * Contar lecciones completadas por usuario
+     * Contar lecciones publicadas completadas por usuario
      * @param userId id del usuario
-     * @return número de lecciones completadas
+     * @return número de lecciones publicadas completadas
      */
+    @Transactional(readOnly = true)
     public long countCompletedLessons(Long userId) {
-        return userLessonProgressRepository.countByUser_IdAndIsCompletedTrue(userId);
+        return userProgressSummaryRepository.findById(userId)
+                .map(summary -> (long) summary.getCompletedCount())
+                .orElseGet(() -> userLessonProgressRepository.countCompletedPublishedByUser(userId));
     }
 
     /**
@@ -271,8 +403,11 @@ public class UserLessonProgressService {
      * @param userId id del usuario
      * @return número de lecciones favoritas
      */
+    @Transactional(readOnly = true)
     public long countFavoriteLessons(Long userId) {
-        return userLessonProgressRepository.findByUser_IdAndIsFavoriteTrue(userId).size();
+        return userProgressSummaryRepository.findById(userId)
+                .map(summary -> (long) summary.getFavoritesCount())
+                .orElseGet(() -> userLessonProgressRepository.countByUser_IdAndIsFavoriteTrue(userId));
     }
 
     /**
@@ -299,17 +434,45 @@ public class UserLessonProgressService {
      */
     public void deleteUserProgress(Long userId) {
         userLessonProgressRepository.deleteByUser_Id(userId);
+        progressSummaryService.deleteUserSummary(userId);
     }
 
     /**
      * Calcular progreso por categoría para un usuario
+     *
+     * Una única consulta agrupada obtiene las completadas de todas las categorías;
+     * los totales de publicadas salen de {@link PublishedLessonTotals}.
      * @param userId id del usuario
-     * @return mapa con progreso por categoría
+     * @return mapa con el progreso de todas las categorías y la última actividad
      */
+    @Transactional(readOnly = true)
     public Map<String, Object> calculateProgressByCategory(Long userId) {
-        // Este método debería implementarse consultando las lecciones completadas por categoría
-        // Por ahora retornamos un mapa vacío como placeholder
-        return new java.util.HashMap<>();
+        Map<Long, Long> completedByCategory = new java.util.HashMap<>();
+        for (UserLessonProgressRepository.CategoryCompletedCount row
+                : userLessonProgressRepository.countCompletedByCategory(userId)) {
+            completedByCategory.put(row.getCategoryId(), row.getCompletedLessons());
+        }
+
+        List<CategoryProgressResponse> categories = publishedLessonTotals.byCategory().values()
+                .stream()
+                .map(total -> {
+                    long completed = completedByCategory.getOrDefault(total.categoryId(), 0L);
+                    return CategoryProgressResponse.builder()
+                            .categoryId(total.categoryId())
+                            .categoryName(total.categoryName())
+                            .completedLessons((int) completed)
+                            .totalLessons((int) total.publishedLessons())
+                            .progress(percentage(completed, total.publishedLessons()))
+                            .build();
+                })
+                .collect(Collectors.toList());
+
+        Map<String, Object> result = new java.util.HashMap<>();
+        result.put("categories", categories);
+        result.put("lastActivityAt", userProgressSummaryRepository.findById(userId)
+                .map(UserProgressSummary::getLastActivityAt)
+                .orElse(null));
+        return result;
     }
 
     /**
@@ -389,7 +552,8 @@ public class UserLessonProgressService {
                 .isCompleted(progress.getIsCompleted())
                 .isFavorite(progress.getIsFavorite())
                 .completedAt(progress.getCompletedAt())
-                .accessCount(progress.getAccessCount())
+                .accessCount((int) (progress.getAccessCount()
+                        + accessCounterBuffer.pendingLessonAccesses(progress.getUserId(), progress.getLessonId())))
                 .build();
     }
 }
\ No newline at end of file
@@ -15,7 +15,6 @@ import exception.ForbiddenException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
@@ -41,11 +40,20 @@ public class UserService {
     private AuditLogService auditLogService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private security.PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private LatencyMetrics latencyMetrics;
 
     @Autowired
     private security.TokenBlacklistService tokenBlacklistService;
 
+    @Autowired
+    private security.PrincipalCache principalCache;
+
+    @Autowired
+    private security.AccountVersionRegistry accountVersionRegistry;
+
     /**
      * Registrar nuevo usuario
      * @param registerRequest datos del usuario a registrar
@@ -54,6 +62,7 @@ public class UserService {
      */
     public User registerUser(RegisterRequest registerRequest) {
         logger.info("Registrando nuevo usuario: {}", registerRequest.getUsername());
+        long dbStart = System.nanoTime();
 
         // Validar que no exista usuario
         if (userRepository.existsByUsername(registerRequest.getUsername())) {
@@ -73,15 +82,19 @@ public class UserService {
             throw new IllegalArgumentException("Las contraseñas no coinciden");
         }
 
-        // Crear nuevo usuario
+        long dbNanos = System.nanoTime() - dbStart;
+
+        // Crear nuevo usuario (el hash se calcula en el pool de cifrado)
         User user = new User();
         user.setUsername(registerRequest.getUsername());
         user.setEmail(registerRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+        user.setPassword(passwordHashingService.encode(registerRequest.getPassword()));
         user.setRole(UserRole.USER);
         user.setIsActive(true);
 
+        dbStart = System.nanoTime();
         User savedUser = userRepository.save(user);
+        latencyMetrics.record("auth.register.db", dbNanos + System.nanoTime() - dbStart);
         logger.info("Usuario registrado exitosamente: {}", savedUser.getId());
 
         // Registrar en auditoría
@@ -237,10 +250,13 @@ public class UserService {
         user.setEmail(email);
 
         if (newPassword != null && !newPassword.isEmpty()) {
-            user.setPassword(passwordEncoder.encode(newPassword));
+            user.setPassword(passwordHashingService.encode(newPassword));
+            // Un cambio de contraseña obliga a volver a autenticarse en todas las sesiones
+            bumpAccountVersion(user);
         }
 
         User updatedUser = userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
         logger.info("Perfil de usuario actualizado: {}", userId);
 
         // Registrar en auditoría
@@ -259,7 +275,9 @@ public class UserService {
         User user = findById(userId);  // Lanza ResourceNotFoundException si no existe
 
         user.setIsActive(false);
+        bumpAccountVersion(user);
         User deactivatedUser = userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
         logger.info("Cuenta de usuario desactivada: {}", userId);
 
         // Registrar en auditoría
@@ -278,10 +296,50 @@ public class UserService {
         User user = findById(userId);  // Lanza ResourceNotFoundException si no existe
         user.setIsActive(true);
         User reactivated = userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
         logger.info("Cuenta de usuario reactivada: {}", userId);
         return reactivated;
     }
 
+    /**
+     * Cambiar el rol de un usuario (solo admin)
+     * Incrementa la versión de la cuenta para invalidar los tokens con el rol anterior
+     * @param userId id del usuario
+     * @param role nuevo rol
+     * @return usuario actualizado
+     * @throws ResourceNotFoundException si el usuario no existe
+     */
+    public User changeUserRole(Long userId, UserRole role) {
+        User user = findById(userId);  // Lanza ResourceNotFoundException si no existe
+
+        UserRole previousRole = user.getRole();
+        if (previousRole == role) {
+            return user;
+        }
+
+        user.setRole(role);
+        bumpAccountVersion(user);
+        User updated = userRepository.save(user);
+        principalCache.invalidate(user.getUsername());
+        logger.info("Rol de usuario {} cambiado de {} a {}", userId, previousRole, role);
+
+        // Registrar en auditoría
+        recordAudit(AuditAction.UPDATE, AuditEntityType.USER, userId, previousRole, role);
+
+        return updated;
+    }
+
+    /**
+     * Incrementar la versión de la cuenta
+     * Los tokens de acceso y refresh tokens emitidos con la versión anterior dejan de ser válidos
+     * @param user usuario a modificar
+     */
+    private void bumpAccountVersion(User user) {
+        long version = (user.getAccountVersion() != null ? user.getAccountVersion() : 0L) + 1;
+        user.setAccountVersion(version);
+        accountVersionRegistry.recordVersion(user.getId(), version);
+    }
+
     /**
      * Convertir entidad User a DTO UserResponse
      * @param user entidad User
@@ -323,12 +381,14 @@ public class UserService {
 
     /**
      * Validar contraseña contra el hash almacenado con BCrypt
+     * Se ejecuta en el pool acotado de cifrado, no en el hilo de la petición
      * @param rawPassword contraseña sin encriptar
      * @param hashedPassword contraseña hasheada con BCrypt
      * @return true si coincide, false si no
+     * @throws exception.ServiceUnavailableException si el pool de cifrado está saturado
      */
     public boolean validatePassword(String rawPassword, String hashedPassword) {
-        return passwordEncoder.matches(rawPassword, hashedPassword);
+        return passwordHashingService.matches(rawPassword, hashedPassword);
     }
 
     /**
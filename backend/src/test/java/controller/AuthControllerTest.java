@@ -3,8 +3,10 @@ package controller;
 import model.User;
 import service.UserService;
 import security.JwtTokenProvider;
+import security.RefreshTokenService;
 import dto.request.RegisterRequest;
 import exception.DuplicateResourceException;
+import exception.UnauthorizedException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -49,6 +51,9 @@ class AuthControllerTest {
     @MockBean
     private JwtTokenProvider jwtTokenProvider;
 
+    @MockBean
+    private RefreshTokenService refreshTokenService;
+
     private User testUser;
 
     @BeforeEach
@@ -250,14 +255,13 @@ class AuthControllerTest {
     // ============================================================================
 
     @Test
-    @DisplayName("POST /api/auth/refresh - Debe renovar token válido")
+    @DisplayName("POST /api/auth/refresh - Debe rotar un refresh token válido")
     void testRefreshTokenSuccess() throws Exception {
         // Arrange
-        String refreshRequest = "{\"token\":\"oldtoken123\"}";
+        String refreshRequest = "{\"refreshToken\":\"refresh123\"}";
 
-        when(jwtTokenProvider.validateToken("oldtoken123")).thenReturn(true);
-        when(jwtTokenProvider.getUsernameFromToken("oldtoken123")).thenReturn("testuser");
-        when(userService.findByUsername("testuser")).thenReturn(Optional.of(testUser));
+        when(refreshTokenService.rotate("refresh123"))
+                .thenReturn(new RefreshTokenService.Rotation(testUser, "refresh456"));
         when(jwtTokenProvider.generateToken(testUser)).thenReturn("newtoken123");
 
         // Act & Assert
@@ -266,16 +270,18 @@ class AuthControllerTest {
                 .content(refreshRequest))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.token").value("newtoken123"))
+                .andExpect(jsonPath("$.refreshToken").value("refresh456"))
                 .andExpect(jsonPath("$.tokenType").value("Bearer"));
     }
 
     @Test
-    @DisplayName("POST /api/auth/refresh - Debe rechazar token expirado")
+    @DisplayName("POST /api/auth/refresh - Debe rechazar refresh token expirado o reutilizado")
     void testRefreshTokenExpired() throws Exception {
         // Arrange
-        String refreshRequest = "{\"token\":\"expiredtoken\"}";
+        String refreshRequest = "{\"refreshToken\":\"expiredtoken\"}";
 
-        when(jwtTokenProvider.validateToken("expiredtoken")).thenReturn(false);
+        when(refreshTokenService.rotate("expiredtoken"))
+                .thenThrow(new UnauthorizedException("Refresh token expirado. Inicie sesión de nuevo"));
 
         // Act & Assert
         mockMvc.perform(post("/api/auth/refresh")
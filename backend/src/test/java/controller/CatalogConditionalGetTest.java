@@ -0,0 +1,95 @@
+package controller;
+
+import dto.request.CreateFAQRequest;
+import model.Category;
+import model.FAQ;
+import model.User;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import service.FAQService;
+import service.IntegrationTestSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Tests de integración de las peticiones condicionales a los listados del catálogo
+ *
+ * Cubre:
+ * - GET /api/categories y GET /api/faq: 304 con el ETag actual
+ * - 200 con un ETag obsoleto
+ * - ETag nuevo tras editar una categoría o una FAQ
+ */
+@AutoConfigureMockMvc
+@WithMockUser
+@DisplayName("Listados del catálogo - GET condicional")
+class CatalogConditionalGetTest extends IntegrationTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FAQService faqService;
+
+    @Test
+    @DisplayName("Debe responder 304 al listado de categorías hasta que cambia una categoría")
+    void testCategories() throws Exception {
+        // Arrange
+        Category category = createCategory("Condicional");
+        awaitCatalog();
+        String etag = getOk("/api/categories", "\"categories-obsoleto\"");
+
+        // Act & Assert
+        assertEquals(304, request("/api/categories", etag).getStatus());
+
+        categoryService.updateCategory(category.getId(), "Editada " + suffix, "Categoría editada");
+        awaitCatalog();
+        String edited = getOk("/api/categories", etag);
+        assertNotEquals(etag, edited);
+        assertEquals(304, request("/api/categories", edited).getStatus());
+    }
+
+    @Test
+    @DisplayName("Debe responder 304 al listado de FAQs hasta que cambia una FAQ")
+    void testFaqs() throws Exception {
+        // Arrange
+        User admin = createUser("faqetag");
+        CreateFAQRequest request = new CreateFAQRequest();
+        request.setQuestion("¿Qué es un ETag " + suffix + "?");
+        request.setAnswer("Una versión del recurso");
+        request.setTopic("General");
+        FAQ faq = faqService.createFAQ(request, admin.getId());
+        awaitCatalog();
+        String etag = getOk("/api/faq", "\"faqs-obsoleto\"");
+
+        // Act & Assert
+        assertEquals(304, request("/api/faq", etag).getStatus());
+
+        faqService.updateFAQ(faq.getId(), faq.getQuestion(), "Respuesta editada", "General", admin.getId());
+        awaitCatalog();
+        String edited = getOk("/api/faq", etag);
+        assertNotEquals(etag, edited);
+        assertEquals(304, request("/api/faq", edited).getStatus());
+    }
+
+    /**
+     * Pedir el listado con un ETag que no coincide y devolver el ETag actual
+     */
+    private String getOk(String path, String staleEtag) throws Exception {
+        MockHttpServletResponse response = request(path, staleEtag);
+        assertEquals(200, response.getStatus());
+        assertNotNull(response.getHeader(HttpHeaders.ETAG));
+        return response.getHeader(HttpHeaders.ETAG);
+    }
+
+    private MockHttpServletResponse request(String path, String ifNoneMatch) throws Exception {
+        return mockMvc.perform(get(path)
+                .header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch)).andReturn().getResponse();
+    }
+}
@@ -23,6 +23,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  *
  * Cubre:
  * - Listar categorías (público)
+ * - Peticiones condicionales con ETag (304)
  * - Obtener categoría por ID (público)
  * - Crear categoría (ADMIN)
  * - Actualizar categoría (ADMIN)
@@ -69,6 +70,23 @@ public class CategoryControllerTest {
                 .andExpect(jsonPath("$.totalElements", isA(Number.class)));
     }
 
+    @Test
+    @DisplayName("GET /api/categories - If-None-Match con el ETag actual (304 Not Modified)")
+    public void testGetAllCategoriesNotModified() throws Exception {
+        String etag = mockMvc.perform(get("/api/categories"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/categories").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/api/categories").header("If-None-Match", "\"categories-obsoleto\""))
+                .andExpect(status().isOk());
+    }
+
     @Test
     @DisplayName("GET /api/categories/{id} - Obtener categoría por ID (200 OK)")
     public void testGetCategoryById() throws Exception {
@@ -0,0 +1,117 @@
+package controller;
+
+import dto.request.CreateStepRequest;
+import model.Category;
+import model.Lesson;
+import model.User;
+import service.IntegrationTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Benchmark del detalle de lección preserializado
+ *
+ * Una lección publicada con 40 pasos largos. Compara peticiones por segundo a
+ * GET /api/lessons/{id} sirviendo los bytes preserializados (JSON y gzip) con
+ * la serialización Jackson en cada petición.
+ *
+ * Sin el log DEBUG de Spring MVC ni el volcado de MockMvc: ambos formatean el
+ * cuerpo entero en cada petición y se medirían a sí mismos.
+ *
+ * No se ejecuta por defecto:
+ *   mvn test -Dtest=LessonBodyBenchmarkTest -Dbenchmark=true
+ */
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+@TestPropertySource(properties = "logging.level.org.springframework.web=INFO")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Benchmark detalle de lección preserializado")
+class LessonBodyBenchmarkTest extends IntegrationTestSupport {
+
+    private static final int STEPS = 40;
+    private static final int STEP_PARAGRAPHS = 30;
+    private static final int WARMUP_REQUESTS = 500;
+    private static final int MEASURED_REQUESTS = 5_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private Long lessonId;
+
+    @BeforeEach
+    void seed() {
+        User admin = createUser("benchbody");
+        Category category = createCategory("bench-body");
+        Lesson lesson = createLesson(category, "Lección larga " + suffix, admin);
+
+        String paragraph = "Pulse el botón verde de la parte inferior de la pantalla para continuar con el siguiente paso. ";
+        for (int i = 1; i <= STEPS; i++) {
+            CreateStepRequest step = new CreateStepRequest();
+            step.setTitle("Paso " + i);
+            step.setContent(paragraph.repeat(STEP_PARAGRAPHS));
+            step.setImageUrl("https://example.org/pasos/" + i + ".png");
+            stepService.createStep(lesson.getId(), step, admin.getId());
+        }
+        lessonService.publishLesson(lesson.getId(), admin.getId());
+        lessonId = lesson.getId();
+        // Sin esperar, las primeras peticiones saldrían de la base de datos
+        awaitCatalog();
+    }
+
+    @Test
+    @DisplayName("Los bytes preserializados deben servir más peticiones por segundo que Jackson")
+    @WithMockUser
+    void benchmarkPreSerializedVersusJackson() throws Exception {
+        ReflectionTestUtils.setField(catalogSnapshotService, "responseCacheEnabled", false);
+        double jackson;
+        try {
+            jackson = requestsPerSecond(null);
+        } finally {
+            ReflectionTestUtils.setField(catalogSnapshotService, "responseCacheEnabled", true);
+        }
+        double cachedJson = requestsPerSecond(null);
+        double cachedGzip = requestsPerSecond("gzip");
+
+        byte[] json = catalogSnapshotService.lessonBody(lessonId).orElseThrow().json();
+        byte[] gzip = catalogSnapshotService.lessonBody(lessonId).orElseThrow().gzip();
+        System.out.printf("Detalle de lección (%d pasos, %d bytes JSON, %d bytes gzip): Jackson %.0f req/s, " +
+                        "preserializado %.0f req/s, preserializado gzip %.0f req/s%n",
+                STEPS, json.length, gzip.length, jackson, cachedJson, cachedGzip);
+
+        assertTrue(gzip.length < json.length);
+        assertTrue(cachedJson > jackson);
+    }
+
+    private double requestsPerSecond(String acceptEncoding) throws Exception {
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            request(acceptEncoding);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            request(acceptEncoding);
+        }
+        return MEASURED_REQUESTS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private void request(String acceptEncoding) throws Exception {
+        if (acceptEncoding == null) {
+            mockMvc.perform(get("/api/lessons/{id}", lessonId)).andExpect(status().isOk());
+        } else {
+            mockMvc.perform(get("/api/lessons/{id}", lessonId).header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding))
+                    .andExpect(status().isOk());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package controller;
+
+import model.Category;
+import model.Lesson;
+import model.User;
+import service.IntegrationTestSupport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Tests de integración de las peticiones condicionales a GET /api/lessons/{id}
+ *
+ * Cubre:
+ * - ETag de la variante gzip solo cuando se envían los bytes en gzip
+ * - Vary: Accept-Encoding en las respuestas 200 y 304
+ */
+@AutoConfigureMockMvc
+@WithMockUser
+@DisplayName("LessonController - GET condicional")
+class LessonConditionalGetTest extends IntegrationTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private User admin;
+    private Category category;
+
+    @BeforeEach
+    void setUp() {
+        admin = createUser("etag");
+        category = createCategory("ETag");
+    }
+
+    @Test
+    @DisplayName("Debe usar el ETag gzip con los bytes en gzip y responder 304 con Vary")
+    void testPublishedLessonGzip() throws Exception {
+        // Arrange
+        Lesson lesson = createPublishedLesson(category, "Publicada " + suffix, admin);
+        awaitCatalog();
+
+        // Act
+        MockHttpServletResponse response = mockMvc.perform(get("/api/lessons/{id}", lesson.getId())
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")).andReturn().getResponse();
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        assertTrue(etag.endsWith("-gzip\""));
+        assertTrue(response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+
+        MockHttpServletResponse notModified = mockMvc.perform(get("/api/lessons/{id}", lesson.getId())
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, etag)).andReturn().getResponse();
+        assertEquals(304, notModified.getStatus());
+        assertTrue(notModified.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Test
+    @DisplayName("Sin cuerpo preserializado debe usar el ETag JSON aunque el cliente acepte gzip")
+    void testLessonWithoutPreSerializedBody() throws Exception {
+        // Arrange: sin publicar, fuera del catálogo en memoria
+        Lesson draft = createLesson(category, "Borrador " + suffix, admin);
+
+        // Act
+        MockHttpServletResponse response = mockMvc.perform(get("/api/lessons/{id}", draft.getId())
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")).andReturn().getResponse();
+
+        // Assert
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertFalse(response.getHeader(HttpHeaders.ETAG).contains("-gzip"));
+        assertTrue(response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING));
+    }
+}
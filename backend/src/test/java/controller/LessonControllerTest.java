@@ -4,7 +4,9 @@ import model.Lesson;
 import model.Category;
 import model.User;
 import service.LessonService;
+import dto.response.AuthorSummaryResponse;
 import dto.response.LessonResponse;
+import dto.response.LessonSummaryResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -20,7 +22,6 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.security.test.context.support.WithMockUser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import java.util.ArrayList;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
@@ -32,7 +33,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Tests de integración para LessonController
  *
  * Cubre:
- * - Listar lecciones publicadas
+ * - Listar lecciones publicadas (resumen sin pasos)
  * - Buscar lecciones
  * - Crear lecciones (solo admin)
  * - Actualizar lecciones (solo creador)
@@ -56,6 +57,21 @@ class LessonControllerTest {
     private User testAdmin;
     private Category testCategory;
 
+    private Page<LessonSummaryResponse> summaryPage() {
+        LessonSummaryResponse summary = LessonSummaryResponse.builder()
+                .id(1L)
+                .title("Cómo usar WhatsApp")
+                .description("Tutorial de WhatsApp")
+                .categoryId(1L)
+                .categoryName("Test Category")
+                .isPublished(true)
+                .stepCount(3L)
+                .createdById(1L)
+                .createdBy(new AuthorSummaryResponse(1L, "admin"))
+                .build();
+        return new PageImpl<>(List.of(summary), PageRequest.of(0, 20), 1);
+    }
+
     @BeforeEach
     void setUp() {
         testAdmin = new User();
@@ -84,28 +100,23 @@ class LessonControllerTest {
     @DisplayName("GET /api/lessons - Debe listar lecciones publicadas")
     void testListLessonsSuccess() throws Exception {
         // Arrange
-        List<Lesson> lessons = new ArrayList<>();
-        lessons.add(testLesson);
-        Page<Lesson> page = new PageImpl<>(lessons, PageRequest.of(0, 20), 1);
-
-        when(lessonService.getAllPublishedLessons(any())).thenReturn(page);
-        when(lessonService.convertToResponse(testLesson)).thenReturn(
-                new LessonResponse(1L, "Cómo usar WhatsApp", "Tutorial de WhatsApp",
-                        1L, "Test Category", true, null)
-        );
+        when(lessonService.getPublishedLessonSummaries(any())).thenReturn(summaryPage());
 
-        // Act & Assert
+        // Act & Assert: el listado lleva el número de pasos, no los pasos
         mockMvc.perform(get("/api/lessons"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content[0].title").value("Cómo usar WhatsApp"));
+                .andExpect(jsonPath("$.content[0].title").value("Cómo usar WhatsApp"))
+                .andExpect(jsonPath("$.content[0].stepCount").value(3))
+                .andExpect(jsonPath("$.content[0].createdBy.username").value("admin"))
+                .andExpect(jsonPath("$.content[0].steps").doesNotExist());
+        verify(lessonService, never()).convertToResponse(any());
     }
 
     @Test
     @DisplayName("GET /api/lessons/{id} - Debe obtener lección por ID")
     void testGetLessonByIdSuccess() throws Exception {
         // Arrange
-        when(lessonService.findById(1L)).thenReturn(testLesson);
-        when(lessonService.convertToResponse(testLesson)).thenReturn(
+        when(lessonService.getLessonResponse(1L)).thenReturn(
                 new LessonResponse(1L, "Cómo usar WhatsApp", "Tutorial de WhatsApp",
                         1L, "Test Category", true, null)
         );
@@ -121,15 +132,7 @@ class LessonControllerTest {
     @DisplayName("GET /api/lessons/search?text=WhatsApp - Debe buscar lecciones")
     void testSearchLessonsSuccess() throws Exception {
         // Arrange
-        List<Lesson> lessons = new ArrayList<>();
-        lessons.add(testLesson);
-        Page<Lesson> page = new PageImpl<>(lessons, PageRequest.of(0, 20), 1);
-
-        when(lessonService.searchLessons("WhatsApp", PageRequest.of(0, 20))).thenReturn(page);
-        when(lessonService.convertToResponse(testLesson)).thenReturn(
-                new LessonResponse(1L, "Cómo usar WhatsApp", "Tutorial de WhatsApp",
-                        1L, "Test Category", true, null)
-        );
+        when(lessonService.searchLessonSummaries(eq("WhatsApp"), any())).thenReturn(summaryPage());
 
         // Act & Assert
         mockMvc.perform(get("/api/lessons/search?text=WhatsApp"))
@@ -141,15 +144,7 @@ class LessonControllerTest {
     @DisplayName("GET /api/lessons/category/{categoryId} - Debe obtener lecciones por categoría")
     void testGetLessonsByCategorySuccess() throws Exception {
         // Arrange
-        List<Lesson> lessons = new ArrayList<>();
-        lessons.add(testLesson);
-        Page<Lesson> page = new PageImpl<>(lessons, PageRequest.of(0, 20), 1);
-
-        when(lessonService.getLessonsByCategory(1L, PageRequest.of(0, 20))).thenReturn(page);
-        when(lessonService.convertToResponse(testLesson)).thenReturn(
-                new LessonResponse(1L, "Cómo usar WhatsApp", "Tutorial de WhatsApp",
-                        1L, "Test Category", true, null)
-        );
+        when(lessonService.getLessonSummariesByCategory(eq(1L), any())).thenReturn(summaryPage());
 
         // Act & Assert
         mockMvc.perform(get("/api/lessons/category/1"))
@@ -274,7 +269,7 @@ class LessonControllerTest {
     @DisplayName("GET /api/lessons/999 - Debe retornar 404 si lección no existe")
     void testGetLessonNotFound() throws Exception {
         // Arrange
-        when(lessonService.findById(999L))
+        when(lessonService.getLessonResponse(999L))
                 .thenThrow(new RuntimeException("Lección no encontrada"));
 
         // Act & Assert
@@ -0,0 +1,100 @@
+package controller;
+
+import model.Category;
+import model.Lesson;
+import model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import repository.UserRepository;
+import service.CatalogSnapshotService;
+import service.IntegrationTestSupport;
+
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de integración del listado de lecciones resumidas (GET /api/lessons)
+ *
+ * Sin catálogo en memoria, el listado sale de la base de datos: una consulta
+ * de resúmenes con el número de pasos y otra para los autores de la página.
+ *
+ * Cubre:
+ * - Una sola consulta de autores por página
+ * - Número de pasos en lugar de los pasos en el JSON
+ */
+@AutoConfigureMockMvc
+@WithMockUser
+@DisplayName("LessonController - listado resumido")
+class LessonSummaryListTest extends IntegrationTestSupport {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UserRepository countingUsers;
+
+    private Lesson twoSteps;
+    private Lesson oneStep;
+
+    @BeforeEach
+    void setUp() {
+        User admin = createUser("resumen");
+        User editor = createUser("editor");
+        Category category = createCategory("Resumen");
+        twoSteps = createPublishedLesson(category, "Dos pasos " + suffix, admin);
+        stepService.createStep(twoSteps.getId(), stepRequest("Segundo paso"), admin.getId());
+        oneStep = createPublishedLesson(category, "Un paso " + suffix, editor);
+
+        // El servicio lee de la base de datos (sin catálogo) y se cuentan las consultas de autores
+        CatalogSnapshotService noCatalog = mock(CatalogSnapshotService.class);
+        when(noCatalog.publishedLessons(any())).thenReturn(Optional.empty());
+        countingUsers = mock(UserRepository.class, delegatesTo(userRepository));
+        ReflectionTestUtils.setField(lessonService, "catalogSnapshotService", noCatalog);
+        ReflectionTestUtils.setField(lessonService, "userRepository", countingUsers);
+    }
+
+    @AfterEach
+    void restore() {
+        ReflectionTestUtils.setField(lessonService, "catalogSnapshotService", catalogSnapshotService);
+        ReflectionTestUtils.setField(lessonService, "userRepository", userRepository);
+    }
+
+    @Test
+    @DisplayName("Debe listar desde la base de datos con los autores en una consulta y sin los pasos")
+    void testListFromDatabase() throws Exception {
+        // Act & Assert: las dos lecciones más recientes son las de este test
+        mockMvc.perform(get("/api/lessons").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id").value(containsInAnyOrder(
+                        twoSteps.getId().intValue(), oneStep.getId().intValue())))
+                .andExpect(jsonPath("$.content[?(@.id == %d)].stepCount", twoSteps.getId()).value(contains(2)))
+                .andExpect(jsonPath("$.content[?(@.id == %d)].stepCount", oneStep.getId()).value(contains(1)))
+                .andExpect(jsonPath("$.content[?(@.id == %d)].createdBy.username", twoSteps.getId())
+                        .value(contains("resumen" + suffix)))
+                .andExpect(jsonPath("$.content[?(@.id == %d)].createdBy.username", oneStep.getId())
+                        .value(contains("editor" + suffix)))
+                .andExpect(jsonPath("$.content[0].steps").doesNotExist())
+                .andExpect(jsonPath("$.content[1].steps").doesNotExist());
+
+        verify(countingUsers, times(1)).findAuthorSummaries(anyCollection());
+        verify(countingUsers, never()).findById(any());
+    }
+}
@@ -0,0 +1,150 @@
+package search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para SpanishAnalyzer e InvertedIndex
+ *
+ * Cubre:
+ * - Normalización (tildes, ñ, mayúsculas), palabras vacías y stemming ligero
+ * - Ranking BM25 con más peso para el título
+ * - Búsqueda por prefijo de la última palabra
+ * - Filtro por tipo de contenido, reindexación y bajas
+ * - Guardado y carga del índice
+ */
+@DisplayName("InvertedIndex Tests")
+class InvertedIndexTest {
+
+    private static final Set<SearchType> LESSONS = EnumSet.of(SearchType.LESSON);
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.put(SearchType.LESSON, 1L, "v1", "Cómo hacer videollamadas",
+                "Usa la cámara del móvil para ver a tu familia");
+        index.put(SearchType.LESSON, 2L, "v1", "Enviar fotos por WhatsApp",
+                "Elige la foto y pulsa enviar");
+        index.put(SearchType.LESSON, 3L, "v1", "Correo electrónico",
+                "Puedes recibir avisos del correo también en WhatsApp");
+        index.put(SearchType.FAQ, 10L, "v1", "¿Olvidé mi contraseña?",
+                "Pulsa en recuperar contraseña en la pantalla de inicio");
+    }
+
+    // ============================================================================
+    // TESTS DEL ANALIZADOR
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe quitar tildes y palabras vacías y reducir plurales")
+    void testAnalyze() {
+        assertEquals(List.of("envi", "fot"), SpanishAnalyzer.analyze("¿Cómo envío una FOTO?"));
+        assertEquals(SpanishAnalyzer.analyze("contraseña"), SpanishAnalyzer.analyze("Contrasenas"));
+        assertEquals(SpanishAnalyzer.analyze("luz"), SpanishAnalyzer.analyze("luces"));
+        assertEquals(SpanishAnalyzer.analyze("mes"), SpanishAnalyzer.analyze("meses"));
+        assertTrue(SpanishAnalyzer.analyze("de la en").isEmpty());
+    }
+
+    // ============================================================================
+    // TESTS DE BÚSQUEDA
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe encontrar sin tildes y en singular o plural")
+    void testAccentAndPluralInsensitive() {
+        assertEquals(List.of(1L), ids(index.search("videollamada camara ", LESSONS, 10)));
+        assertEquals(List.of(10L), ids(index.search("contrasenas ", EnumSet.of(SearchType.FAQ), 10)));
+    }
+
+    @Test
+    @DisplayName("Debe puntuar más una coincidencia en el título que en el cuerpo")
+    void testTitleRanksHigher() {
+        // Act
+        List<SearchHit> hits = index.search("whatsapp ", LESSONS, 10);
+
+        // Assert
+        assertEquals(List.of(2L, 3L), ids(hits));
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    @DisplayName("Debe completar la última palabra como prefijo")
+    void testPrefix() {
+        assertEquals(List.of(2L, 3L), ids(index.search("whats", LESSONS, 10)));
+        assertEquals(List.of(1L), ids(index.search("videolla", LESSONS, 10)));
+        // Con separador al final la palabra se considera completa
+        assertTrue(index.search("videolla ", LESSONS, 10).isEmpty());
+        // También si la última palabra es vacía: no convierte en prefijo a la anterior
+        assertTrue(index.search("videolla de", LESSONS, 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("videollamadas de", LESSONS, 10)));
+    }
+
+    @Test
+    @DisplayName("Debe limitar los resultados y filtrar por tipo")
+    void testLimitAndTypes() {
+        assertEquals(List.of(2L), ids(index.search("whatsapp ", LESSONS, 1)));
+        assertTrue(index.search("contraseña", LESSONS, 10).isEmpty());
+        assertEquals(Set.of(2L, 10L), Set.copyOf(ids(index.search("pulsa", EnumSet.allOf(SearchType.class), 10))));
+    }
+
+    @Test
+    @DisplayName("Debe reemplazar un documento reindexado y olvidar los eliminados")
+    void testReindexAndRemove() {
+        // Act
+        index.put(SearchType.LESSON, 2L, "v2", "Enviar audios por Telegram", "Mantén pulsado el micrófono");
+
+        // Assert
+        assertEquals(List.of(3L), ids(index.search("whatsapp ", LESSONS, 10)));
+        assertEquals(List.of(2L), ids(index.search("telegram ", LESSONS, 10)));
+        assertEquals("v2", index.stamps(SearchType.LESSON).get(2L));
+
+        assertTrue(index.remove(SearchType.LESSON, 2L));
+        assertFalse(index.remove(SearchType.LESSON, 2L));
+        assertTrue(index.search("telegram ", LESSONS, 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    // ============================================================================
+    // TESTS DE GUARDADO
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe cargar un índice guardado con las mismas marcas y resultados")
+    void testSnapshotRoundTrip() throws IOException {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        index.writeTo(out);
+
+        // Act
+        InvertedIndex loaded = InvertedIndex.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        // Assert
+        assertEquals(index.size(), loaded.size());
+        assertEquals(Map.of(1L, "v1", 2L, "v1", 3L, "v1"), loaded.stamps(SearchType.LESSON));
+        assertEquals(index.search("whatsapp camara", LESSONS, 10), loaded.search("whatsapp camara", LESSONS, 10));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un fichero que no es un índice")
+    void testSnapshotRejectsGarbage() {
+        byte[] garbage = "no es un índice".getBytes();
+        assertThrows(IOException.class, () -> InvertedIndex.readFrom(new ByteArrayInputStream(garbage)));
+    }
+
+    private static List<Long> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::id).toList();
+    }
+}
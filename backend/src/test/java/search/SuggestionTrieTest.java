@@ -0,0 +1,228 @@
+package search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para SuggestionTrie
+ *
+ * Cubre:
+ * - Prefijos sin tildes ni mayúsculas
+ * - Errores de tecleo según la longitud de la palabra
+ * - Orden por número de errores y después por popularidad
+ * - Varias palabras en la consulta
+ * - Altas, bajas y cambios de título sin reconstruir el árbol
+ *
+ * El benchmark de latencia y memoria por consulta solo se ejecuta con:
+ *   mvn test -Dtest=SuggestionTrieTest -Dbenchmark=true
+ */
+@DisplayName("SuggestionTrie Tests")
+class SuggestionTrieTest {
+
+    private static final Suggestion VIDEOCALLS = Suggestion.of(SearchType.LESSON, 1L, "Cómo hacer videollamadas", 10);
+    private static final Suggestion PHOTOS = Suggestion.of(SearchType.LESSON, 2L, "Enviar fotos por WhatsApp", 50);
+    private static final Suggestion EMAIL = Suggestion.of(SearchType.LESSON, 3L, "Correo electrónico", 5);
+    private static final Suggestion PASSWORD = Suggestion.of(SearchType.FAQ, 4L, "¿Olvidé mi contraseña?", 0);
+    private static final Suggestion WHATSAPP = Suggestion.of(SearchType.SIMULATOR, 5L, "Simulador de WhatsApp", 100);
+
+    private SuggestionTrie trie;
+
+    @BeforeEach
+    void setUp() {
+        trie = SuggestionTrie.build(List.of(VIDEOCALLS, PHOTOS, EMAIL, PASSWORD, WHATSAPP));
+    }
+
+    // ============================================================================
+    // TESTS DE BÚSQUEDA
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe completar prefijos sin tildes y con los más populares primero")
+    void testPrefixAndPopularity() {
+        assertEquals(List.of(WHATSAPP, PHOTOS), trie.suggest("WHATS", 10));
+        assertEquals(List.of(WHATSAPP), trie.suggest("whats", 1));
+        assertEquals(List.of(EMAIL), trie.suggest("electronico", 10));
+        assertEquals(List.of(PASSWORD), trie.suggest("contrasena", 10));
+    }
+
+    @Test
+    @DisplayName("Debe admitir errores de tecleo solo en palabras de más de 3 letras")
+    void testTypos() {
+        assertEquals(List.of(VIDEOCALLS), trie.suggest("videolamadas", 10));
+        assertEquals(List.of(EMAIL), trie.suggest("corro", 10));
+        assertEquals(List.of(WHATSAPP, PHOTOS), trie.suggest("wahtsapp", 10));
+        assertTrue(trie.suggest("wjs", 10).isEmpty());
+        assertTrue(trie.suggest("de", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debe poner las coincidencias exactas antes que las más populares con errores")
+    void testDistanceBeforePopularity() {
+        // Arrange
+        Suggestion bank = Suggestion.of(SearchType.LESSON, 1L, "Banco", 100);
+        Suggestion white = Suggestion.of(SearchType.LESSON, 2L, "Blanco", 1);
+        SuggestionTrie small = SuggestionTrie.build(List.of(bank, white));
+
+        // Act & Assert
+        assertEquals(List.of(white, bank), small.suggest("blanc", 10));
+    }
+
+    @Test
+    @DisplayName("Debe filtrar por las palabras anteriores y sugerir cada título una sola vez")
+    void testMultipleWords() {
+        assertEquals(List.of(PHOTOS), trie.suggest("enviar what", 10));
+        assertEquals(List.of(WHATSAPP), trie.suggest("simulador whatsap", 10));
+        assertTrue(trie.suggest("correo what", 10).isEmpty());
+
+        Suggestion videos = Suggestion.of(SearchType.LESSON, 6L, "Ver vídeos y videollamadas", 1);
+        assertEquals(List.of(VIDEOCALLS, videos), trie.with(videos).suggest("vide", 10));
+    }
+
+    @Test
+    @DisplayName("Debe encontrar con varias palabras títulos fuera de los más populares del prefijo")
+    void testMultipleWordsBeyondTopK() {
+        // Arrange: más títulos populares que TOP_K con el mismo prefijo y sin la primera palabra
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (int i = 0; i < SuggestionTrie.TOP_K + 4; i++) {
+            suggestions.add(Suggestion.of(SearchType.LESSON, 100L + i, "WhatsApp avanzado " + i, 1_000 + i));
+        }
+        suggestions.addAll(List.of(PHOTOS, WHATSAPP));
+        SuggestionTrie crowded = SuggestionTrie.build(suggestions);
+
+        // Act & Assert
+        assertEquals(List.of(PHOTOS), crowded.suggest("enviar what", 10));
+        assertEquals(List.of(WHATSAPP), crowded.suggest("simulador whats", 10));
+        assertEquals(List.of(PHOTOS), SuggestionTrie.EMPTY.with(PHOTOS).with(WHATSAPP)
+                .with(suggestions.get(0)).suggest("fotos wahtsapp", 10));
+    }
+
+    // ============================================================================
+    // TESTS DE ALTAS Y BAJAS
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe dar lo mismo añadir una a una que construir de una vez")
+    void testIncrementalMatchesBuild() {
+        // Arrange
+        SuggestionTrie incremental = SuggestionTrie.EMPTY;
+        for (Suggestion suggestion : List.of(WHATSAPP, EMAIL, PHOTOS, PASSWORD, VIDEOCALLS)) {
+            incremental = incremental.with(suggestion);
+        }
+
+        // Act & Assert
+        assertEquals(trie.size(), incremental.size());
+        for (String query : List.of("whats", "wahtsapp", "corro", "contrasena", "enviar what", "v")) {
+            assertEquals(trie.suggest(query, 10), incremental.suggest(query, 10), query);
+        }
+    }
+
+    @Test
+    @DisplayName("Debe quitar títulos y cambiarlos sin tocar el árbol anterior")
+    void testRemoveAndRename() {
+        // Act
+        SuggestionTrie removed = trie.without(PHOTOS);
+        Suggestion renamed = Suggestion.of(SearchType.LESSON, 2L, "Enviar fotos por Telegram", 50);
+        SuggestionTrie updated = removed.with(renamed);
+
+        // Assert
+        assertEquals(List.of(WHATSAPP), removed.suggest("whats", 10));
+        assertTrue(removed.suggest("enviar", 10).isEmpty());
+        assertEquals(4, removed.size());
+        assertEquals(List.of(renamed), updated.suggest("telegram", 10));
+        assertEquals(5, updated.size());
+        // El árbol original sigue igual
+        assertEquals(List.of(WHATSAPP, PHOTOS), trie.suggest("whats", 10));
+        assertEquals(List.of(), SuggestionTrie.EMPTY.with(PHOTOS).without(PHOTOS).suggest("e", 10));
+    }
+
+    @Test
+    @DisplayName("Debe calcular la distancia de edición con un máximo")
+    void testEditDistance() {
+        assertEquals(1, SuggestionTrie.editDistance("corro", "correo", 2));
+        assertEquals(2, SuggestionTrie.editDistance("wahtsapp", "whatsapp", 2));
+        assertEquals(3, SuggestionTrie.editDistance("abc", "xyzw", 2));
+        assertEquals(0, SuggestionTrie.maxDistance(3));
+        assertEquals(1, SuggestionTrie.maxDistance(6));
+        assertEquals(2, SuggestionTrie.maxDistance(7));
+    }
+
+    // ============================================================================
+    // BENCHMARK
+    // ============================================================================
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: p99 por pulsación por debajo de 5 ms con 20.000 títulos")
+    void benchmarkKeystrokes() {
+        // Arrange: títulos de 4 palabras a partir de un vocabulario de 2.000
+        Random random = new Random(42);
+        String[] vocabulary = new String[2_000];
+        for (int i = 0; i < vocabulary.length; i++) {
+            vocabulary[i] = randomWord(random, 4 + random.nextInt(8));
+        }
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            String title = String.join(" ", vocabulary[random.nextInt(vocabulary.length)],
+                    vocabulary[random.nextInt(vocabulary.length)], vocabulary[random.nextInt(vocabulary.length)],
+                    vocabulary[random.nextInt(vocabulary.length)]);
+            suggestions.add(Suggestion.of(SearchType.LESSON, i, title, random.nextInt(1_000)));
+        }
+        long buildStart = System.nanoTime();
+        SuggestionTrie big = SuggestionTrie.build(suggestions);
+        long buildNanos = System.nanoTime() - buildStart;
+
+        // Cada pulsación de cada palabra, con una letra cambiada en la mitad de las consultas
+        List<String> keystrokes = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String word = vocabulary[random.nextInt(vocabulary.length)];
+            if (i % 2 == 0) {
+                char[] typo = word.toCharArray();
+                typo[1 + random.nextInt(typo.length - 1)] = (char) ('a' + random.nextInt(26));
+                word = new String(typo);
+            }
+            for (int length = 1; length <= word.length(); length++) {
+                keystrokes.add(word.substring(0, length));
+            }
+        }
+        for (String query : keystrokes) {
+            big.suggest(query, 8);
+        }
+
+        // Act
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+        long[] nanos = new long[keystrokes.size()];
+        for (int i = 0; i < nanos.length; i++) {
+            long start = System.nanoTime();
+            big.suggest(keystrokes.get(i), 8);
+            nanos[i] = System.nanoTime() - start;
+        }
+        long allocatedPerQuery = (threads.getCurrentThreadAllocatedBytes() - allocatedBefore) / nanos.length;
+
+        // Assert
+        Arrays.sort(nanos);
+        long p50 = nanos[nanos.length / 2];
+        long p99 = nanos[(int) (nanos.length * 0.99)];
+        System.out.printf("Sugerencias: %d títulos, construcción %d ms, %d consultas, p50 %d µs, p99 %d µs, %d bytes/consulta%n",
+                big.size(), buildNanos / 1_000_000, nanos.length, p50 / 1_000, p99 / 1_000, allocatedPerQuery);
+        assertTrue(p99 < 5_000_000, "p99 por encima de 5 ms: " + p99 / 1_000 + " µs");
+    }
+
+    private static String randomWord(Random random, int length) {
+        char[] letters = new char[length];
+        for (int i = 0; i < length; i++) {
+            letters[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(letters);
+    }
+}
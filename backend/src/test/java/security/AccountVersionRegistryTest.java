@@ -0,0 +1,143 @@
+package security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para AccountVersionRegistry
+ *
+ * Cubre:
+ * - Tokens con una versión de cuenta anterior a la mínima rechazados
+ * - La versión mínima nunca baja
+ * - Cambios hechos en otro nodo aplicados al seguir la tabla de usuarios
+ * - Carga de los cambios recientes al arrancar y purga de los antiguos
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AccountVersionRegistry Tests")
+class AccountVersionRegistryTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PrincipalCache principalCache;
+
+    @InjectMocks
+    private AccountVersionRegistry accountVersionRegistry;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(accountVersionRegistry, "accessTokenLifetimeMs", 900_000L);
+        ReflectionTestUtils.setField(accountVersionRegistry, "overlapMs", 10_000L);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar las versiones anteriores a la mínima registrada")
+    void testOlderVersionIsRejected() {
+        // Act
+        accountVersionRegistry.recordVersion(1L, 2L);
+
+        // Assert
+        assertFalse(accountVersionRegistry.isCurrent(1L, 0L));
+        assertFalse(accountVersionRegistry.isCurrent(1L, 1L));
+        assertTrue(accountVersionRegistry.isCurrent(1L, 2L));
+        assertTrue(accountVersionRegistry.isCurrent(2L, 0L));
+    }
+
+    @Test
+    @DisplayName("La versión mínima no debe bajar")
+    void testMinimumNeverDecreases() {
+        // Act
+        accountVersionRegistry.recordVersion(1L, 3L);
+        accountVersionRegistry.recordVersion(1L, 1L);
+
+        // Assert
+        assertFalse(accountVersionRegistry.isCurrent(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Debe aplicar los cambios de versión hechos en otro nodo")
+    void testPollAppliesOtherNodeVersions() {
+        // Arrange
+        when(userRepository.findAccountVersionsUpdatedAfter(any(LocalDateTime.class)))
+                .thenReturn(List.of(accountVersion(5L, "ana", 3L)));
+
+        // Act
+        accountVersionRegistry.pollVersions();
+        accountVersionRegistry.pollVersions();
+
+        // Assert: el solape relee el cambio, pero solo invalida la primera vez
+        assertFalse(accountVersionRegistry.isCurrent(5L, 2L));
+        assertTrue(accountVersionRegistry.isCurrent(5L, 3L));
+        verify(principalCache, times(1)).invalidate("ana");
+    }
+
+    @Test
+    @DisplayName("Debe cargar al arrancar los cambios que aún afectan a tokens vigentes")
+    void testReplayOnStartup() {
+        // Arrange
+        when(userRepository.findAccountVersionsUpdatedAfter(any(LocalDateTime.class)))
+                .thenReturn(List.of(accountVersion(7L, "luis", 1L)));
+        LocalDateTime before = LocalDateTime.now();
+
+        // Act
+        accountVersionRegistry.afterSingletonsInstantiated();
+
+        // Assert: ventana = vida del token de acceso + solape
+        ArgumentCaptor<LocalDateTime> since = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(userRepository).findAccountVersionsUpdatedAfter(since.capture());
+        assertFalse(since.getValue().isBefore(before.minusSeconds(910)));
+        assertTrue(since.getValue().isBefore(LocalDateTime.now().minusSeconds(909)));
+        assertFalse(accountVersionRegistry.isCurrent(7L, 0L));
+    }
+
+    @Test
+    @DisplayName("Debe olvidar los cambios más antiguos que un token de acceso")
+    void testPurgeStale() {
+        // Arrange
+        accountVersionRegistry.recordVersion(1L, 2L);
+        accountVersionRegistry.purgeStale();
+        assertFalse(accountVersionRegistry.isCurrent(1L, 0L));
+
+        // Act: ningún token emitido antes del cambio sigue vigente
+        ReflectionTestUtils.setField(accountVersionRegistry, "accessTokenLifetimeMs", -1_000L);
+        accountVersionRegistry.purgeStale();
+
+        // Assert
+        assertTrue(accountVersionRegistry.isCurrent(1L, 0L));
+    }
+
+    private static UserRepository.AccountVersion accountVersion(Long id, String username, Long version) {
+        return new UserRepository.AccountVersion() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public Long getAccountVersion() {
+                return version;
+            }
+        };
+    }
+}
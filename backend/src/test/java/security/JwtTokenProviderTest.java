@@ -0,0 +1,220 @@
+package security;
+
+import model.User;
+import model.UserRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests unitarios para JwtTokenProvider y su caché de tokens verificados
+ *
+ * Cubre:
+ * - Aciertos y fallos de la caché al verificar el mismo token
+ * - Expiración de las entradas junto con el token y tamaño acotado
+ * - Tokens manipulados rechazados aunque el original esté en caché
+ * - Tokens revocados rechazados por el filtro aunque estén en caché
+ */
+@DisplayName("JwtTokenProvider Tests")
+class JwtTokenProviderTest {
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenProvider = newProvider(900_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // ============================================================================
+    // TESTS DE VERIFICACIÓN
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe verificar una vez y servir desde caché las siguientes")
+    void testCacheHitAndMiss() {
+        // Arrange
+        String token = jwtTokenProvider.generateToken(user(1L));
+
+        // Act
+        VerifiedToken first = jwtTokenProvider.verify(token);
+        VerifiedToken second = jwtTokenProvider.verify(token);
+
+        // Assert
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals("user1", first.username());
+        assertEquals("USER", first.role());
+        assertEquals(1L, jwtTokenProvider.getVerifiedCacheStatistics().get("hits"));
+        assertEquals(1L, jwtTokenProvider.getVerifiedCacheStatistics().get("misses"));
+        assertEquals(1, jwtTokenProvider.getVerifiedCacheStatistics().get("size"));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un token manipulado aunque el original esté en caché")
+    void testTamperedTokenIsNotServedFromCache() {
+        // Arrange
+        String token = jwtTokenProvider.generateToken(user(1L));
+        assertNotNull(jwtTokenProvider.verify(token));
+        String[] parts = token.split("\\.");
+        String otherPayload = jwtTokenProvider.generateToken(user(2L)).split("\\.")[1];
+
+        // Act & Assert: payload de otro usuario con la firma original
+        String tampered = parts[0] + "." + otherPayload + "." + parts[2];
+        assertNull(jwtTokenProvider.verify(tampered));
+        assertNull(jwtTokenProvider.verify(tampered));
+
+        // Firma alterada
+        int at = token.lastIndexOf('.') + 5;
+        char flipped = token.charAt(at) == 'A' ? 'B' : 'A';
+        assertNull(jwtTokenProvider.verify(token.substring(0, at) + flipped + token.substring(at + 1)));
+
+        // Los rechazos no entran en la caché
+        assertEquals(1, jwtTokenProvider.getVerifiedCacheStatistics().get("size"));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar tokens expirados sin guardarlos")
+    void testExpiredTokenIsRejected() {
+        // Arrange
+        JwtTokenProvider expiring = newProvider(-1_000L);
+        String token = expiring.generateToken(user(1L));
+
+        // Act & Assert
+        assertNull(expiring.verify(token));
+        assertNull(expiring.verify(null));
+        assertNull(expiring.verify(" "));
+        assertEquals(0, expiring.getVerifiedCacheStatistics().get("size"));
+    }
+
+    @Test
+    @DisplayName("Un token revocado no debe autenticar aunque esté en caché")
+    void testRevokedTokenIsNotAuthenticatedFromCache() throws Exception {
+        // Arrange
+        TokenBlacklistService tokenBlacklistService = new TokenBlacklistService();
+        ReflectionTestUtils.setField(tokenBlacklistService, "tokenLifetimeMs", 86_400_000L);
+        ReflectionTestUtils.setField(tokenBlacklistService, "bloomBucketWidthMs", 3_600_000L);
+        ReflectionTestUtils.setField(tokenBlacklistService, "bloomExpectedInsertions", 1_000);
+        ReflectionTestUtils.setField(tokenBlacklistService, "bloomFpp", 0.01);
+        tokenBlacklistService.init();
+        AccountVersionRegistry accountVersionRegistry = mock(AccountVersionRegistry.class);
+        when(accountVersionRegistry.isCurrent(1L, 0L)).thenReturn(true);
+
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtTokenProvider", jwtTokenProvider);
+        ReflectionTestUtils.setField(filter, "tokenBlacklistService", tokenBlacklistService);
+        ReflectionTestUtils.setField(filter, "accountVersionRegistry", accountVersionRegistry);
+        ReflectionTestUtils.setField(filter, "principalCache", mock(PrincipalCache.class));
+
+        String token = jwtTokenProvider.generateToken(user(1L));
+
+        // Act & Assert: antes de revocar autentica (y el token queda en caché)
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+        assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+
+        // Tras revocar, el acierto de caché no basta
+        VerifiedToken verified = jwtTokenProvider.verify(token);
+        tokenBlacklistService.addToBlacklist(verified.jti(), verified.expiration());
+        filter.doFilter(request(token), new MockHttpServletResponse(), new MockFilterChain());
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+        assertTrue((Long) jwtTokenProvider.getVerifiedCacheStatistics().get("hits") >= 2);
+    }
+
+    // ============================================================================
+    // TESTS DE LA CACHÉ
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe expulsar las entradas cuando expira su token")
+    void testCacheEntryExpiresWithToken() {
+        // Arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        String key = cache.digest("token");
+
+        // Act
+        cache.put(key, verifiedToken(1_000L), 0L);
+
+        // Assert
+        assertNotNull(cache.get(key, 999L));
+        assertNull(cache.get(key, 1_000L));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        // Un token ya expirado no se guarda
+        cache.put(key, verifiedToken(1_000L), 2_000L);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Debe purgar primero las entradas expiradas al llenarse")
+    void testCacheIsBounded() {
+        // Arrange
+        VerifiedTokenCache cache = new VerifiedTokenCache(10);
+        for (int i = 0; i < 5; i++) {
+            cache.put(cache.digest("expira-" + i), verifiedToken(1_000L), 0L);
+        }
+        for (int i = 0; i < 5; i++) {
+            cache.put(cache.digest("vigente-" + i), verifiedToken(10_000L), 0L);
+        }
+
+        // Act: llena, con las cinco primeras ya expiradas
+        cache.put(cache.digest("nuevo"), verifiedToken(10_000L), 5_000L);
+
+        // Assert
+        assertEquals(6, cache.size());
+        assertNotNull(cache.get(cache.digest("vigente-0"), 5_000L));
+        assertNotNull(cache.get(cache.digest("nuevo"), 5_000L));
+
+        // Sin expirados, se descartan entradas hasta quedar por debajo del máximo
+        for (int i = 0; i < 20; i++) {
+            cache.put(cache.digest("extra-" + i), verifiedToken(10_000L), 5_000L);
+        }
+        assertTrue(cache.size() <= 10);
+    }
+
+    private static JwtTokenProvider newProvider(long expirationMs) {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(provider, "jwtSecret",
+                "secret-key-for-jwt-token-generation-secure-key-12345678-extra-long-key");
+        ReflectionTestUtils.setField(provider, "jwtExpiration", expirationMs);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxSize", 100);
+        provider.init();
+        return provider;
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setEmail("user" + id + "@test.com");
+        user.setRole(UserRole.USER);
+        user.setAccountVersion(0L);
+        return user;
+    }
+
+    private static VerifiedToken verifiedToken(long expiration) {
+        return new VerifiedToken("user", "jti", 1L, "user@test.com", null, "USER", 0L, 0L, expiration);
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/lessons");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,207 @@
+package security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para RateLimiter
+ *
+ * Cubre:
+ * - Ráfaga permitida y rechazo con tiempo de espera
+ * - Recarga de tokens con el paso del tiempo
+ * - Aislamiento entre clientes
+ * - Eliminación de cubos inactivos
+ * - Consumo concurrente sin conceder tokens de más
+ *
+ * El benchmark del coste por comprobación solo se ejecuta con:
+ *   mvn test -Dtest=RateLimiterTest -Dbenchmark=true
+ */
+@DisplayName("RateLimiter Tests")
+class RateLimiterTest {
+
+    private static final long START = 1_000_000_000L;
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    // ============================================================================
+    // TESTS DE RÁFAGA Y RECARGA
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe permitir la ráfaga configurada y rechazar la siguiente petición")
+    void testBurstThenReject() {
+        // Arrange: 3 peticiones en ráfaga, 60 por minuto (una por segundo)
+        RateLimiter.Policy policy = new RateLimiter.Policy("test", 3, 60);
+
+        // Act & Assert
+        assertEquals(0, policy.tryAcquire("ip:1", START));
+        assertEquals(0, policy.tryAcquire("ip:1", START));
+        assertEquals(0, policy.tryAcquire("ip:1", START));
+
+        long wait = policy.tryAcquire("ip:1", START);
+        assertEquals(ONE_SECOND, wait);
+    }
+
+    @Test
+    @DisplayName("Debe recuperar tokens al ritmo configurado")
+    void testRefill() {
+        // Arrange
+        RateLimiter.Policy policy = new RateLimiter.Policy("test", 2, 60);
+        policy.tryAcquire("ip:1", START);
+        policy.tryAcquire("ip:1", START);
+        assertTrue(policy.tryAcquire("ip:1", START) > 0);
+
+        // Act & Assert: tras un segundo hay exactamente un token
+        assertEquals(0, policy.tryAcquire("ip:1", START + ONE_SECOND));
+        assertTrue(policy.tryAcquire("ip:1", START + ONE_SECOND) > 0);
+
+        // Tras mucho tiempo el cubo no supera su capacidad
+        long later = START + 100 * ONE_SECOND;
+        assertEquals(0, policy.tryAcquire("ip:1", later));
+        assertEquals(0, policy.tryAcquire("ip:1", later));
+        assertTrue(policy.tryAcquire("ip:1", later) > 0);
+    }
+
+    @Test
+    @DisplayName("Debe mantener cubos independientes por cliente")
+    void testClientsAreIsolated() {
+        // Arrange
+        RateLimiter.Policy policy = new RateLimiter.Policy("test", 1, 60);
+
+        // Act & Assert
+        assertEquals(0, policy.tryAcquire("ip:1", START));
+        assertTrue(policy.tryAcquire("ip:1", START) > 0);
+        assertEquals(0, policy.tryAcquire("ip:2", START));
+        assertEquals(0, policy.tryAcquire("user:ana", START));
+    }
+
+    // ============================================================================
+    // TESTS DE LIMPIEZA
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe eliminar solo los cubos que ya se han llenado de nuevo")
+    void testEvictIdleBuckets() {
+        // Arrange
+        RateLimiter.Policy policy = new RateLimiter.Policy("test", 5, 60);
+        policy.tryAcquire("ip:idle", START);
+        for (int i = 0; i < 5; i++) {
+            policy.tryAcquire("ip:busy", START + 2 * ONE_SECOND);
+        }
+
+        // Act
+        int evicted = policy.evictIdle(START + 2 * ONE_SECOND);
+
+        // Assert
+        assertEquals(1, evicted);
+        assertEquals(1, policy.trackedClients());
+        assertTrue(policy.tryAcquire("ip:busy", START + 2 * ONE_SECOND) > 0);
+    }
+
+    // ============================================================================
+    // TESTS DE CONCURRENCIA
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe conceder exactamente la capacidad bajo contención")
+    void testConcurrentAcquire() throws Exception {
+        // Arrange: sin paso del tiempo solo hay tokens para la ráfaga
+        int capacity = 1_000;
+        int threads = 8;
+        int attemptsPerThread = 10_000;
+        RateLimiter.Policy policy = new RateLimiter.Policy("test", capacity, 1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        // Act
+        try {
+            for (int t = 0; t < threads; t++) {
+                Callable<Integer> task = () -> {
+                    int granted = 0;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        if (policy.tryAcquire("ip:shared", START) == 0) {
+                            granted++;
+                        }
+                    }
+                    return granted;
+                };
+                results.add(executor.submit(task));
+            }
+
+            int totalGranted = 0;
+            for (Future<Integer> result : results) {
+                totalGranted += result.get(30, TimeUnit.SECONDS);
+            }
+
+            // Assert
+            assertEquals(capacity, totalGranted);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // ============================================================================
+    // BENCHMARK
+    // ============================================================================
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: coste por comprobación por debajo de 1 µs con muchos clientes e hilos")
+    void benchmarkTryAcquire() throws Exception {
+        // Arrange: 10.000 clientes; cada uno agota su ráfaga y pasa a recibir rechazos
+        RateLimiter.Policy policy = new RateLimiter.Policy("benchmark", 10, 600);
+        String[] clients = new String[10_000];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = "ip:" + i;
+        }
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int checksPerThread = 2_000_000;
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            tasks.add(() -> {
+                int granted = 0;
+                for (int i = 0; i < checksPerThread; i++) {
+                    if (policy.tryAcquire(clients[(int) ((i * 31L + seed) % clients.length)]) == 0) {
+                        granted++;
+                    }
+                }
+                return granted;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            // Calentamiento
+            executor.invokeAll(tasks);
+
+            // Act
+            long start = System.nanoTime();
+            List<Future<Integer>> results = executor.invokeAll(tasks);
+            long elapsed = System.nanoTime() - start;
+            for (Future<Integer> result : results) {
+                result.get();
+            }
+
+            // Assert
+            long checks = (long) threads * checksPerThread;
+            double nanosPerCheck = (double) elapsed * threads / checks;
+            System.out.printf("Limitador (%d clientes, %d hilos): %.1f M comprobaciones/s, %.0f ns/comprobación por hilo%n",
+                    clients.length, threads, checks / (elapsed / 1e9) / 1e6, nanosPerCheck);
+            assertTrue(nanosPerCheck < 1_000, "Comprobación por encima de 1 µs: " + nanosPerCheck + " ns");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package security;
+
+import exception.UnauthorizedException;
+import model.RefreshToken;
+import model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import repository.RefreshTokenRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para RefreshTokenService
+ *
+ * Cubre:
+ * - Rotación: revoca el token usado y emite otro de la misma familia
+ * - Reutilización de un token rotado: revoca la familia entera
+ * - Rotaciones concurrentes del mismo token
+ * - Tokens de una versión de cuenta anterior, expirados o desconocidos
+ * - Logout: revoca la familia del token
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenService Tests")
+class RefreshTokenServiceTest {
+
+    private static final String RAW_TOKEN = "raw-refresh-token";
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @InjectMocks
+    private RefreshTokenService refreshTokenService;
+
+    private User user;
+    private RefreshToken stored;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(refreshTokenService, "refreshExpiration", 1_209_600_000L);
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("ana");
+        user.setIsActive(true);
+        user.setAccountVersion(0L);
+
+        stored = new RefreshToken();
+        stored.setId(10L);
+        stored.setTokenHash(sha256(RAW_TOKEN));
+        stored.setFamilyId("familia-1");
+        stored.setUser(user);
+        stored.setAccountVersion(0L);
+        stored.setExpiresAt(LocalDateTime.now().plusDays(1));
+    }
+
+    // ============================================================================
+    // TESTS DE ROTACIÓN
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe rotar: revocar el token usado y emitir otro de la misma familia")
+    void testRotate() {
+        // Arrange
+        when(refreshTokenRepository.findByTokenHash(sha256(RAW_TOKEN))).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.revokeIfActive(eq(10L), any(LocalDateTime.class))).thenReturn(1);
+
+        // Act
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(RAW_TOKEN);
+
+        // Assert
+        assertSame(user, rotation.user());
+        assertNotEquals(RAW_TOKEN, rotation.refreshToken());
+
+        ArgumentCaptor<RefreshToken> issued = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(issued.capture());
+        assertEquals("familia-1", issued.getValue().getFamilyId());
+        assertEquals(sha256(rotation.refreshToken()), issued.getValue().getTokenHash());
+        assertEquals(0L, issued.getValue().getAccountVersion());
+        verify(refreshTokenRepository, never()).revokeFamily(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Debe revocar la familia entera al reutilizar un token ya rotado")
+    void testReuseRevokesFamily() {
+        // Arrange
+        stored.setRevokedAt(LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHash(sha256(RAW_TOKEN))).thenReturn(Optional.of(stored));
+
+        // Act & Assert
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate(RAW_TOKEN));
+        verify(refreshTokenRepository).revokeFamily(eq("familia-1"), any(LocalDateTime.class));
+        verify(refreshTokenRepository, never()).revokeIfActive(anyLong(), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Debe revocar la familia si otra rotación concurrente ganó")
+    void testConcurrentRotationRevokesFamily() {
+        // Arrange
+        when(refreshTokenRepository.findByTokenHash(sha256(RAW_TOKEN))).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.revokeIfActive(eq(10L), any(LocalDateTime.class))).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate(RAW_TOKEN));
+        verify(refreshTokenRepository).revokeFamily(eq("familia-1"), any(LocalDateTime.class));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar y revocar los tokens de una versión de cuenta anterior")
+    void testOlderAccountVersionIsRejected() {
+        // Arrange: la cuenta cambió de rol o contraseña después de emitir el token
+        user.setAccountVersion(1L);
+        when(refreshTokenRepository.findByTokenHash(sha256(RAW_TOKEN))).thenReturn(Optional.of(stored));
+
+        // Act & Assert
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate(RAW_TOKEN));
+        verify(refreshTokenRepository).revokeFamily(eq("familia-1"), any(LocalDateTime.class));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar y revocar los tokens de una cuenta desactivada")
+    void testInactiveAccountIsRejected() {
+        // Arrange
+        user.setIsActive(false);
+        when(refreshTokenRepository.findByTokenHash(sha256(RAW_TOKEN))).thenReturn(Optional.of(stored));
+
+        // Act & Assert
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate(RAW_TOKEN));
+        verify(refreshTokenRepository).revokeFamily(eq("familia-1"), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar tokens expirados o desconocidos")
+    void testExpiredOrUnknownIsRejected() {
+        // Arrange
+        stored.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        when(refreshTokenRepository.findByTokenHash(sha256(RAW_TOKEN))).thenReturn(Optional.of(stored));
+        when(refreshTokenRepository.findByTokenHash(sha256("desconocido"))).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate(RAW_TOKEN));
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate("desconocido"));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    // ============================================================================
+    // TESTS DE EMISIÓN Y LOGOUT
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe guardar solo el hash del token emitido, en una familia nueva")
+    void testIssue() {
+        // Act
+        String raw = refreshTokenService.issue(user);
+
+        // Assert
+        ArgumentCaptor<RefreshToken> issued = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(issued.capture());
+        assertEquals(sha256(raw), issued.getValue().getTokenHash());
+        assertNotNull(issued.getValue().getFamilyId());
+        assertTrue(issued.getValue().getExpiresAt().isAfter(LocalDateTime.now().plusDays(13)));
+    }
+
+    @Test
+    @DisplayName("Debe revocar la familia del token al cerrar sesión")
+    void testRevoke() {
+        // Arrange
+        when(refreshTokenRepository.findByTokenHash(sha256(RAW_TOKEN))).thenReturn(Optional.of(stored));
+
+        // Act
+        refreshTokenService.revoke(RAW_TOKEN);
+
+        // Assert
+        verify(refreshTokenRepository).revokeFamily(eq("familia-1"), any(LocalDateTime.class));
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para TokenBlacklistService
+ *
+ * Cubre:
+ * - Revocación y consulta de tokens
+ * - Expiración mediante la cola de limpieza
+ * - Filtro de Bloom sin falsos negativos
+ * - Consultas concurrentes con 100k tokens revocados
+ *
+ * El benchmark de consultas por segundo bajo contención solo se ejecuta con:
+ *   mvn test -Dtest=TokenBlacklistServiceTest -Dbenchmark=true
+ */
+@DisplayName("TokenBlacklistService Tests")
+class TokenBlacklistServiceTest {
+
+    private static final int REVOKED_TOKENS = 100_000;
+
+    private TokenBlacklistService tokenBlacklistService;
+
+    @BeforeEach
+    void setUp() {
+        tokenBlacklistService = new TokenBlacklistService();
+        ReflectionTestUtils.setField(tokenBlacklistService, "tokenLifetimeMs", 86_400_000L);
+        ReflectionTestUtils.setField(tokenBlacklistService, "bloomBucketWidthMs", 3_600_000L);
+        ReflectionTestUtils.setField(tokenBlacklistService, "bloomExpectedInsertions", 10_000);
+        ReflectionTestUtils.setField(tokenBlacklistService, "bloomFpp", 0.01);
+        tokenBlacklistService.init();
+    }
+
+    // ============================================================================
+    // TESTS DE REVOCACIÓN
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe detectar un token revocado vigente")
+    void testBlacklistedToken() {
+        // Arrange
+        long expiration = System.currentTimeMillis() + 60_000;
+
+        // Act
+        tokenBlacklistService.addToBlacklist("jti-1", expiration);
+
+        // Assert
+        assertTrue(tokenBlacklistService.isBlacklisted("jti-1"));
+        assertFalse(tokenBlacklistService.isBlacklisted("jti-2"));
+        assertFalse(tokenBlacklistService.isBlacklisted(null));
+    }
+
+    @Test
+    @DisplayName("Debe eliminar tokens expirados sin recorrer el mapa")
+    void testExpiredTokensAreSwept() {
+        // Arrange
+        long now = System.currentTimeMillis();
+        tokenBlacklistService.addToBlacklist("expired", now - 1_000);
+        tokenBlacklistService.addToBlacklist("valid", now + 60_000);
+
+        // Act
+        tokenBlacklistService.cleanExpiredTokens();
+
+        // Assert
+        assertEquals(1, tokenBlacklistService.getSize());
+        assertFalse(tokenBlacklistService.isBlacklisted("expired"));
+        assertTrue(tokenBlacklistService.isBlacklisted("valid"));
+    }
+
+    @Test
+    @DisplayName("El filtro de Bloom no debe producir falsos negativos")
+    void testBloomFilterHasNoFalseNegatives() {
+        // Arrange
+        long expiration = System.currentTimeMillis() + 7_200_000;
+        for (int i = 0; i < 5_000; i++) {
+            tokenBlacklistService.addToBlacklist("bloom-" + i, expiration);
+        }
+
+        // Act & Assert
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(tokenBlacklistService.isBlacklisted("bloom-" + i));
+        }
+        for (int i = 0; i < 5_000; i++) {
+            tokenBlacklistService.isBlacklisted("clean-" + i);
+        }
+        Map<String, Object> stats = tokenBlacklistService.getStatistics();
+        long falsePositives = (long) stats.get("bloomFalsePositives");
+        assertTrue(falsePositives < 500, "Tasa de falsos positivos demasiado alta: " + falsePositives);
+    }
+
+    // ============================================================================
+    // TESTS DE CONCURRENCIA
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe responder correctamente bajo contención con 100k tokens revocados")
+    void testConcurrentLookups() throws Exception {
+        // Arrange
+        long expiration = System.currentTimeMillis() + 3_600_000;
+        for (int i = 0; i < REVOKED_TOKENS; i++) {
+            tokenBlacklistService.addToBlacklist("revoked-" + i, expiration);
+        }
+
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int lookupsPerThread = 200_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+
+        // Act: lecturas concurrentes mientras otro hilo sigue revocando tokens
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            tasks.add(() -> {
+                int found = 0;
+                for (int i = 0; i < lookupsPerThread; i++) {
+                    int n = (i * 31 + seed) % (REVOKED_TOKENS * 2);
+                    if (tokenBlacklistService.isBlacklisted("revoked-" + n)) {
+                        found++;
+                    }
+                }
+                return found;
+            });
+        }
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                tokenBlacklistService.addToBlacklist("late-" + i, expiration);
+            }
+        });
+
+        List<Future<Integer>> results = executor.invokeAll(tasks);
+        writer.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert: la mitad de las claves consultadas están revocadas
+        for (Future<Integer> result : results) {
+            int found = result.get();
+            assertTrue(found > lookupsPerThread / 3 && found < lookupsPerThread * 2 / 3);
+        }
+        assertEquals(REVOKED_TOKENS + 10_000, tokenBlacklistService.getSize());
+    }
+
+    // ============================================================================
+    // BENCHMARK
+    // ============================================================================
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    @DisplayName("Benchmark: consultas por segundo bajo contención con 100k tokens revocados")
+    void benchmarkConcurrentLookups() throws Exception {
+        // Arrange: la mitad de las claves consultadas están revocadas; un hilo sigue revocando
+        long expiration = System.currentTimeMillis() + 3_600_000;
+        for (int i = 0; i < REVOKED_TOKENS; i++) {
+            tokenBlacklistService.addToBlacklist("revoked-" + i, expiration);
+        }
+        String[] keys = new String[REVOKED_TOKENS * 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "revoked-" + i;
+        }
+        int threads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int lookupsPerThread = 2_000_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            tasks.add(() -> {
+                int found = 0;
+                for (int i = 0; i < lookupsPerThread; i++) {
+                    if (tokenBlacklistService.isBlacklisted(keys[(int) ((i * 31L + seed) % keys.length)])) {
+                        found++;
+                    }
+                }
+                return found;
+            });
+        }
+        // Calentamiento
+        executor.invokeAll(tasks);
+
+        // Act
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < 10_000; i++) {
+                tokenBlacklistService.addToBlacklist("late-" + i, expiration);
+            }
+        });
+        long start = System.nanoTime();
+        List<Future<Integer>> results = executor.invokeAll(tasks);
+        long elapsed = System.nanoTime() - start;
+        writer.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // Assert
+        for (Future<Integer> result : results) {
+            assertTrue(result.get() > 0);
+        }
+        long lookups = (long) threads * lookupsPerThread;
+        System.out.printf("Blacklist (%d revocados, %d hilos y un escritor): %.1f M consultas/s, %.0f ns/consulta por hilo%n",
+                REVOKED_TOKENS, threads, lookups / (elapsed / 1e9) / 1e6, (double) elapsed * threads / lookups);
+    }
+}
@@ -0,0 +1,160 @@
+package security;
+
+import exception.ServiceUnavailableException;
+import model.RevokedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import repository.RevokedTokenRepository;
+import service.IntegrationTestSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests de integración del log de revocaciones compartido entre nodos
+ *
+ * El nodo local es el de la aplicación; el otro nodo se simula con su propia
+ * blacklist en memoria y el mismo repositorio (la base de datos compartida).
+ *
+ * Cubre:
+ * - Revocación en un nodo aplicada por el otro al seguir el log
+ * - Reproducción de las revocaciones vigentes al arrancar un nodo
+ * - Purga de las revocaciones de tokens expirados
+ * - Error si la revocación no se puede registrar
+ */
+@DisplayName("TokenRevocationLog Tests")
+class TokenRevocationLogTest extends IntegrationTestSupport {
+
+    @Autowired
+    private TokenRevocationLog tokenRevocationLog;
+
+    @Autowired
+    private TokenBlacklistService tokenBlacklistService;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private long expiration;
+
+    @BeforeEach
+    void setUp() {
+        expiration = System.currentTimeMillis() + 600_000;
+    }
+
+    @Test
+    @DisplayName("Debe aplicar en otro nodo una revocación registrada en este")
+    void testRevocationIsSeenByOtherNode() {
+        // Arrange
+        TokenBlacklistService otherBlacklist = newBlacklist();
+        TokenRevocationLog otherNode = newNode(otherBlacklist);
+        String jti = "jti-" + suffix;
+
+        // Act
+        tokenRevocationLog.revoke(jti, expiration);
+
+        // Assert: local al momento, en el otro nodo tras seguir el log
+        assertTrue(tokenBlacklistService.isBlacklisted(jti));
+        assertFalse(otherBlacklist.isBlacklisted(jti));
+        otherNode.pollRevocations();
+        assertTrue(otherBlacklist.isBlacklisted(jti));
+    }
+
+    @Test
+    @DisplayName("Debe reproducir al arrancar solo las revocaciones vigentes")
+    void testReplayOnStartup() {
+        // Arrange
+        String active = "activo-" + suffix;
+        String expired = "expirado-" + suffix;
+        tokenRevocationLog.revoke(active, expiration);
+        revokedTokenRepository.save(revokedToken(expired, System.currentTimeMillis() - 1_000));
+
+        // Act
+        TokenBlacklistService startedBlacklist = newBlacklist();
+        newNode(startedBlacklist);
+
+        // Assert
+        assertTrue(startedBlacklist.isBlacklisted(active));
+        assertFalse(startedBlacklist.isBlacklisted(expired));
+    }
+
+    @Test
+    @DisplayName("Debe purgar del log las revocaciones de tokens expirados")
+    void testPurgeExpired() {
+        // Arrange
+        String active = "activo-" + suffix;
+        String expired = "expirado-" + suffix;
+        tokenRevocationLog.revoke(active, expiration);
+        revokedTokenRepository.save(revokedToken(expired, System.currentTimeMillis() - 1_000));
+
+        // Act
+        tokenRevocationLog.purgeExpired();
+
+        // Assert
+        assertTrue(revokedTokenRepository.findAll().stream().anyMatch(token -> token.getJti().equals(active)));
+        assertTrue(revokedTokenRepository.findAll().stream().noneMatch(token -> token.getJti().equals(expired)));
+    }
+
+    @Test
+    @DisplayName("Debe tolerar una revocación repetida")
+    void testRepeatedRevocation() {
+        // Arrange
+        String jti = "repetido-" + suffix;
+
+        // Act
+        tokenRevocationLog.revoke(jti, expiration);
+        tokenRevocationLog.revoke(jti, expiration);
+
+        // Assert
+        assertEquals(1, revokedTokenRepository.findAll().stream().filter(token -> token.getJti().equals(jti)).count());
+        assertTrue(tokenBlacklistService.isBlacklisted(jti));
+    }
+
+    @Test
+    @DisplayName("Debe fallar si no se puede registrar la revocación")
+    void testRevocationNotStoredFails() {
+        // Arrange: la base de datos compartida no responde
+        RevokedTokenRepository unavailable = mock(RevokedTokenRepository.class);
+        when(unavailable.save(any())).thenThrow(new DataAccessResourceFailureException("Conexión rechazada"));
+        TokenRevocationLog node = newNode(newBlacklist());
+        ReflectionTestUtils.setField(node, "revokedTokenRepository", unavailable);
+
+        // Act & Assert
+        ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                () -> node.revoke("caida-" + suffix, expiration));
+        assertEquals("REVOCATION_FAILED", exception.getErrorCode());
+    }
+
+    /**
+     * Otro nodo: su propia blacklist en memoria sobre la base de datos compartida
+     */
+    private TokenRevocationLog newNode(TokenBlacklistService blacklist) {
+        TokenRevocationLog node = new TokenRevocationLog();
+        ReflectionTestUtils.setField(node, "revokedTokenRepository", revokedTokenRepository);
+        ReflectionTestUtils.setField(node, "tokenBlacklistService", blacklist);
+        ReflectionTestUtils.setField(node, "overlapMs", 10_000L);
+        node.afterSingletonsInstantiated();
+        return node;
+    }
+
+    private static TokenBlacklistService newBlacklist() {
+        TokenBlacklistService blacklist = new TokenBlacklistService();
+        ReflectionTestUtils.setField(blacklist, "tokenLifetimeMs", 86_400_000L);
+        ReflectionTestUtils.setField(blacklist, "bloomBucketWidthMs", 3_600_000L);
+        ReflectionTestUtils.setField(blacklist, "bloomExpectedInsertions", 1_000);
+        ReflectionTestUtils.setField(blacklist, "bloomFpp", 0.01);
+        blacklist.init();
+        return blacklist;
+    }
+
+    private static RevokedToken revokedToken(String jti, long expirationTime) {
+        RevokedToken token = new RevokedToken();
+        token.setJti(jti);
+        token.setExpirationTime(expirationTime);
+        return token;
+    }
+}
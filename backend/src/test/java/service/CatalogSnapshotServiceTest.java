@@ -0,0 +1,319 @@
+package service;
+
+import dto.response.CategoryResponse;
+import dto.response.LessonResponse;
+import dto.response.LessonSummaryResponse;
+import model.Category;
+import model.Lesson;
+import model.Step;
+import model.User;
+import repository.LessonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración para CatalogSnapshotService
+ *
+ * Cubre:
+ * - Reconstrucción tras el commit de las escrituras de administración
+ * - Cambios que no se publican sin reconstrucción
+ * - Copias de los DTOs en cada lectura
+ * - Lecciones sin publicar fuera del catálogo, servidas desde la base de datos
+ * - Orden por lección dentro de la categoría y número de lecciones publicadas
+ * - Órdenes no soportados delegados a la base de datos
+ * - Cuerpos preserializados conservados o invalidados según cambie la lección
+ * - Versiones (ETag) de lecciones, pasos y listados
+ * - Paginación por cursor coherente con el orden por defecto
+ */
+@DisplayName("CatalogSnapshotService Tests")
+class CatalogSnapshotServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    private User testAdmin;
+    private Category testCategory;
+
+    @BeforeEach
+    void setUp() {
+        testAdmin = createUser("catalog");
+        testCategory = createCategory("Catálogo");
+    }
+
+    @Test
+    @DisplayName("Debe incluir la lección al publicarla y retirarla al despublicarla")
+    void testPublishAndUnpublish() {
+        // Arrange
+        Lesson lesson = createLessonWithStep("Lección");
+        awaitCatalog();
+        long versionBefore = catalogSnapshotService.version();
+
+        // Sin publicar: fuera del catálogo, pero el detalle sigue saliendo de la base de datos
+        assertTrue(catalogSnapshotService.lesson(lesson.getId()).isEmpty());
+        assertEquals(lesson.getId(), lessonService.getLessonResponse(lesson.getId()).getId());
+
+        // Act
+        lessonService.publishLesson(lesson.getId(), testAdmin.getId());
+        awaitCatalog();
+
+        // Assert
+        assertTrue(catalogSnapshotService.version() > versionBefore);
+        LessonResponse cached = catalogSnapshotService.lesson(lesson.getId()).orElseThrow();
+        assertEquals(1, cached.getSteps().size());
+        assertEquals(1, catalogSnapshotService.category(testCategory.getId()).orElseThrow().getLessonCount());
+
+        lessonService.unpublishLesson(lesson.getId(), testAdmin.getId());
+        awaitCatalog();
+        assertTrue(catalogSnapshotService.lesson(lesson.getId()).isEmpty());
+        assertEquals(0, catalogSnapshotService.category(testCategory.getId()).orElseThrow().getLessonCount());
+    }
+
+    @Test
+    @DisplayName("Debe reflejar los cambios de pasos de una lección publicada")
+    void testStepChangesRefreshCatalog() {
+        // Arrange
+        Lesson lesson = createLessonWithStep("Lección");
+        lessonService.publishLesson(lesson.getId(), testAdmin.getId());
+
+        // Act
+        Step second = stepService.createStep(lesson.getId(), stepRequest("Segundo paso"), testAdmin.getId());
+        stepService.updateStep(second.getId(), "Paso editado", "Contenido", null, null, testAdmin.getId());
+        awaitCatalog();
+
+        // Assert
+        LessonResponse cached = catalogSnapshotService.lesson(lesson.getId()).orElseThrow();
+        assertEquals(2, cached.getSteps().size());
+        assertEquals("Paso editado", cached.getSteps().get(1).getTitle());
+    }
+
+    @Test
+    @DisplayName("Debe listar las lecciones de una categoría por orden de lección")
+    void testLessonsByCategoryOrder() {
+        // Arrange
+        Lesson first = createLessonWithStep("Primera");
+        Lesson second = createLessonWithStep("Segunda");
+        lessonService.publishLesson(second.getId(), testAdmin.getId());
+        lessonService.publishLesson(first.getId(), testAdmin.getId());
+        awaitCatalog();
+
+        // Act
+        Page<LessonSummaryResponse> page = catalogSnapshotService.lessonsByCategory(testCategory.getId(),
+                PageRequest.of(0, 20, Sort.by("lessonOrder").ascending())).orElseThrow();
+
+        // Assert
+        assertEquals(List.of(first.getId(), second.getId()),
+                page.getContent().stream().map(LessonSummaryResponse::getId).toList());
+        assertEquals(1L, page.getContent().get(0).getStepCount());
+        assertEquals(testAdmin.getUsername(), page.getContent().get(0).getCreatedBy().getUsername());
+
+        Page<LessonSummaryResponse> reversed = catalogSnapshotService.lessonsByCategory(testCategory.getId(),
+                PageRequest.of(0, 1, Sort.by("lessonOrder").descending())).orElseThrow();
+        assertEquals(second.getId(), reversed.getContent().get(0).getId());
+        assertEquals(2, reversed.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Debe delegar en la base de datos los órdenes no soportados")
+    void testUnsupportedSortFallsBack() {
+        // Act & Assert
+        assertTrue(catalogSnapshotService.categories(PageRequest.of(0, 20, Sort.by("description"))).isEmpty());
+
+        Page<CategoryResponse> fromDatabase = categoryService.listCategoryResponses(
+                PageRequest.of(0, 1000, Sort.by("description")));
+        assertTrue(fromDatabase.getContent().stream().anyMatch(c -> c.getId().equals(testCategory.getId())));
+    }
+
+    @Test
+    @DisplayName("Debe conservar los bytes de las lecciones sin cambios y regenerar los de las modificadas")
+    void testPreSerializedBodies() throws IOException {
+        // Arrange
+        Lesson edited = createLessonWithStep("Editada");
+        Lesson untouched = createLessonWithStep("Intacta");
+        lessonService.publishLesson(edited.getId(), testAdmin.getId());
+        lessonService.publishLesson(untouched.getId(), testAdmin.getId());
+        awaitCatalog();
+
+        PreSerializedBody editedBefore = catalogSnapshotService.lessonBody(edited.getId()).orElseThrow();
+        PreSerializedBody untouchedBefore = catalogSnapshotService.lessonBody(untouched.getId()).orElseThrow();
+
+        // El JSON es el mismo que produciría Jackson y el gzip se descomprime a él
+        assertArrayEquals(objectMapper.writeValueAsBytes(lessonService.getLessonResponse(edited.getId())),
+                editedBefore.json());
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(editedBefore.gzip()))) {
+            assertArrayEquals(editedBefore.json(), gzip.readAllBytes());
+        }
+
+        // Act
+        lessonService.updateLesson(edited.getId(), "Título nuevo " + suffix, "Descripción nueva", testAdmin.getId());
+        awaitCatalog();
+
+        // Assert
+        PreSerializedBody editedAfter = catalogSnapshotService.lessonBody(edited.getId()).orElseThrow();
+        assertNotSame(editedBefore, editedAfter);
+        assertTrue(new String(editedAfter.json()).contains("Título nuevo " + suffix));
+        assertSame(untouchedBefore, catalogSnapshotService.lessonBody(untouched.getId()).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Debe cambiar el ETag solo de los recursos modificados")
+    void testResourceVersions() {
+        // Arrange
+        Lesson edited = createLessonWithStep("Editada");
+        Lesson untouched = createLessonWithStep("Intacta");
+        lessonService.publishLesson(edited.getId(), testAdmin.getId());
+        lessonService.publishLesson(untouched.getId(), testAdmin.getId());
+        awaitCatalog();
+
+        String editedBefore = lessonService.getLessonVersion(edited.getId()).orElseThrow().etag();
+        String untouchedBefore = lessonService.getLessonVersion(untouched.getId()).orElseThrow().etag();
+        String stepsBefore = stepService.getStepsVersion(edited.getId()).orElseThrow().etag();
+        String categoriesBefore = categoryService.getCategoriesVersion().orElseThrow().etag();
+
+        // Act: un paso nuevo cambia la versión de la lección y la de sus pasos
+        stepService.createStep(edited.getId(), stepRequest("Segundo paso"), testAdmin.getId());
+        awaitCatalog();
+
+        // Assert
+        assertNotEquals(editedBefore, lessonService.getLessonVersion(edited.getId()).orElseThrow().etag());
+        assertNotEquals(stepsBefore, stepService.getStepsVersion(edited.getId()).orElseThrow().etag());
+        assertEquals(untouchedBefore, lessonService.getLessonVersion(untouched.getId()).orElseThrow().etag());
+        assertEquals(categoriesBefore, categoryService.getCategoriesVersion().orElseThrow().etag());
+
+        // Renombrar la categoría cambia el listado y el detalle de sus lecciones
+        categoryService.updateCategory(testCategory.getId(), "Renombrada " + suffix, "Categoría de prueba");
+        awaitCatalog();
+        assertNotEquals(categoriesBefore, categoryService.getCategoriesVersion().orElseThrow().etag());
+        assertNotEquals(untouchedBefore, lessonService.getLessonVersion(untouched.getId()).orElseThrow().etag());
+
+        // Las lecciones sin publicar toman la versión de la base de datos
+        Lesson draft = createLessonWithStep("Borrador");
+        assertTrue(catalogSnapshotService.lessonVersion(draft.getId()).isEmpty());
+        assertTrue(lessonService.getLessonVersion(draft.getId()).isPresent());
+    }
+
+    @Test
+    @DisplayName("Debe recorrer por cursor las mismas lecciones en memoria y en la base de datos")
+    void testPublishedLessonsByCursor() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            Lesson lesson = createLessonWithStep("Cursor " + i);
+            lessonService.publishLesson(lesson.getId(), testAdmin.getId());
+        }
+        awaitCatalog();
+        List<Long> expected = catalogSnapshotService.publishedLessons(PageRequest.of(0, 10000)).orElseThrow()
+                .getContent().stream().map(LessonSummaryResponse::getId).toList();
+
+        // Act
+        List<Long> fromSnapshot = new ArrayList<>();
+        Optional<PageCursor> after = Optional.empty();
+        Slice<LessonSummaryResponse> slice;
+        do {
+            slice = catalogSnapshotService.publishedLessonsAfter(after, 2).orElseThrow();
+            slice.getContent().forEach(l -> fromSnapshot.add(l.getId()));
+            after = slice.getContent().isEmpty() ? Optional.empty()
+                    : Optional.of(LessonService.cursorOf(slice.getContent().get(slice.getNumberOfElements() - 1)));
+        } while (slice.hasNext());
+
+        List<Long> fromDatabase = new ArrayList<>();
+        slice = lessonRepository.findPublishedSummariesFirst(PageRequest.of(0, 2));
+        while (true) {
+            slice.getContent().forEach(l -> fromDatabase.add(l.getId()));
+            if (!slice.hasNext()) {
+                break;
+            }
+            PageCursor last = LessonService.cursorOf(slice.getContent().get(slice.getNumberOfElements() - 1));
+            slice = lessonRepository.findPublishedSummariesAfter(last.key(), last.id(), PageRequest.of(0, 2));
+        }
+
+        // Assert
+        assertEquals(expected, fromSnapshot);
+        assertEquals(expected, fromDatabase);
+
+        PageCursor cursor = LessonService.cursorOf(catalogSnapshotService.publishedLessons(PageRequest.of(0, 1))
+                .orElseThrow().getContent().get(0));
+        assertEquals(cursor, PageCursor.decode(cursor.encode()).orElseThrow());
+        assertTrue(PageCursor.decode("").isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("no-es-un-cursor"));
+    }
+
+    @Test
+    @DisplayName("No debe reconstruir el catálogo por cambios que no se publican")
+    void testUnpublishedChangesDoNotRebuild() {
+        // Arrange: la primera lección sí cuenta, la categoría pasa a tener lecciones
+        Lesson draft = createLessonWithStep("Borrador");
+        awaitCatalog();
+        long versionBefore = catalogSnapshotService.version();
+
+        // Act
+        Lesson another = createLessonWithStep("Otro borrador");
+        lessonService.updateLesson(draft.getId(), "Borrador editado " + suffix, "Descripción", testAdmin.getId());
+        lessonService.moveLesson(another.getId(), 1, testAdmin.getId());
+
+        // Assert: sin reconstrucción pendiente, se sigue sirviendo la misma instantánea
+        assertEquals(versionBefore, catalogSnapshotService.version());
+        assertTrue(catalogSnapshotService.categoriesWithLessons().orElseThrow().stream()
+                .anyMatch(category -> category.getId().equals(testCategory.getId())));
+    }
+
+    @Test
+    @DisplayName("Debe devolver copias: modificar un DTO no altera el catálogo")
+    void testReadsReturnCopies() {
+        // Arrange
+        Lesson lesson = createLessonWithStep("Copia");
+        lessonService.publishLesson(lesson.getId(), testAdmin.getId());
+        awaitCatalog();
+
+        // Act
+        LessonResponse detail = catalogSnapshotService.lesson(lesson.getId()).orElseThrow();
+        detail.setTitle("Modificado");
+        detail.getCreatedBy().setUsername("modificado");
+        LessonSummaryResponse summary = catalogSnapshotService.lessonsByCategory(testCategory.getId(),
+                PageRequest.of(0, 20)).orElseThrow().getContent().get(0);
+        summary.getCreatedBy().setUsername("modificado");
+        catalogSnapshotService.category(testCategory.getId()).orElseThrow().setLessonCount(99);
+
+        // Assert
+        LessonResponse again = catalogSnapshotService.lesson(lesson.getId()).orElseThrow();
+        assertEquals("Copia " + suffix, again.getTitle());
+        assertEquals(testAdmin.getUsername(), again.getCreatedBy().getUsername());
+        assertEquals(testAdmin.getUsername(), catalogSnapshotService.lessonsByCategory(testCategory.getId(),
+                PageRequest.of(0, 20)).orElseThrow().getContent().get(0).getCreatedBy().getUsername());
+        assertEquals(1, catalogSnapshotService.category(testCategory.getId()).orElseThrow().getLessonCount());
+        assertThrows(UnsupportedOperationException.class, () -> again.getSteps().clear());
+    }
+
+    @Test
+    @DisplayName("Debe interpretar Accept-Encoding")
+    void testAcceptsGzip() {
+        assertTrue(PreSerializedBody.acceptsGzip("gzip, deflate, br"));
+        assertTrue(PreSerializedBody.acceptsGzip("br;q=1.0, *;q=0.5"));
+        assertFalse(PreSerializedBody.acceptsGzip(null));
+        assertFalse(PreSerializedBody.acceptsGzip("identity"));
+        assertFalse(PreSerializedBody.acceptsGzip("gzip;q=0, *"));
+    }
+
+    private Lesson createLessonWithStep(String title) {
+        Lesson lesson = createLesson(testCategory, title + " " + suffix, testAdmin);
+        stepService.createStep(lesson.getId(), stepRequest("Primer paso"), testAdmin.getId());
+        return lesson;
+    }
+}
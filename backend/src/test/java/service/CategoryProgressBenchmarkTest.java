@@ -0,0 +1,142 @@
+package service;
+
+import dto.response.CategoryProgressResponse;
+import repository.UserLessonProgressRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark del progreso por categoría
+ *
+ * 50 categorías, 1000 lecciones publicadas, 1000 usuarios y 1M filas de progreso.
+ * Compara la consulta agrupada con el cálculo anterior de dos COUNT por categoría.
+ *
+ * No se ejecuta por defecto:
+ *   mvn test -Dtest=CategoryProgressBenchmarkTest -Dbenchmark=true
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("Benchmark progreso por categoría")
+class CategoryProgressBenchmarkTest extends IntegrationTestSupport {
+
+    private static final int CATEGORIES = 50;
+    private static final int LESSONS_PER_CATEGORY = 20;
+    private static final int USERS = 1_000;
+    private static final int MEASURED_USERS = 100;
+    private static final int WARMUP_USERS = 20;
+    private static final int CLEANUP_USERS_PER_BATCH = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserLessonProgressService progressService;
+
+    @Autowired
+    private UserLessonProgressRepository userLessonProgressRepository;
+
+    @Autowired
+    private PublishedLessonTotals publishedLessonTotals;
+
+    private List<Long> userIds;
+    private List<Long> categoryIds;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (username, email, password, role, is_active, account_version, created_at, updated_at) " +
+                "SELECT 'bench' || x, 'bench' || x || '@test.com', 'x', 'USER', TRUE, 0, NOW(), NOW() " +
+                "FROM SYSTEM_RANGE(1, ?)", USERS);
+        jdbcTemplate.update("INSERT INTO categories (name, description, created_at) " +
+                "SELECT 'bench-cat-' || x, 'benchmark', NOW() FROM SYSTEM_RANGE(1, ?)", CATEGORIES);
+
+        Long authorId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users WHERE username LIKE 'bench%'", Long.class);
+        jdbcTemplate.update("INSERT INTO lessons (title, description, lesson_order, is_published, created_at, updated_at, " +
+                "category_id, created_by, updated_by) " +
+                "SELECT 'bench-lesson-' || c.id || '-' || x, 'benchmark', x, TRUE, NOW(), NOW(), c.id, ?, ? " +
+                "FROM categories c, SYSTEM_RANGE(1, ?) WHERE c.name LIKE 'bench-cat-%'",
+                authorId, authorId, LESSONS_PER_CATEGORY);
+
+        // 1000 usuarios x 1000 lecciones = 1M filas, un tercio completadas
+        jdbcTemplate.update("INSERT INTO user_lesson_progress (user_id, lesson_id, is_completed, is_favorite, access_count) " +
+                "SELECT u.id, l.id, MOD(u.id + l.id, 3) = 0, FALSE, 1 " +
+                "FROM users u, lessons l WHERE u.username LIKE 'bench%' AND l.title LIKE 'bench-lesson-%'");
+
+        userIds = jdbcTemplate.queryForList("SELECT id FROM users WHERE username LIKE 'bench%' ORDER BY id", Long.class);
+        categoryIds = jdbcTemplate.queryForList("SELECT id FROM categories WHERE name LIKE 'bench-cat-%'", Long.class);
+        publishedLessonTotals.invalidate();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        // Por tramos de usuarios: un único DELETE de 1M filas agota la memoria de H2
+        for (int i = 0; i < userIds.size(); i += CLEANUP_USERS_PER_BATCH) {
+            jdbcTemplate.update("DELETE FROM user_lesson_progress WHERE user_id BETWEEN ? AND ?",
+                    userIds.get(i), userIds.get(Math.min(i + CLEANUP_USERS_PER_BATCH, userIds.size()) - 1));
+        }
+        jdbcTemplate.update("DELETE FROM lessons WHERE title LIKE 'bench-lesson-%'");
+        jdbcTemplate.update("DELETE FROM categories WHERE name LIKE 'bench-cat-%'");
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE 'bench%'");
+        publishedLessonTotals.invalidate();
+    }
+
+    @Test
+    @DisplayName("La consulta agrupada debe dar los mismos resultados y ser más rápida que dos COUNT por categoría")
+    @SuppressWarnings("unchecked")
+    void benchmarkGroupedVersusPerCategory() {
+        // Calentamiento
+        for (int i = 0; i < WARMUP_USERS; i++) {
+            perCategory(userIds.get(i));
+            progressService.calculateProgressByCategory(userIds.get(i));
+        }
+
+        long naiveStart = System.nanoTime();
+        for (int i = 0; i < MEASURED_USERS; i++) {
+            perCategory(userIds.get(i));
+        }
+        long naiveNanos = System.nanoTime() - naiveStart;
+
+        long groupedStart = System.nanoTime();
+        for (int i = 0; i < MEASURED_USERS; i++) {
+            progressService.calculateProgressByCategory(userIds.get(i));
+        }
+        long groupedNanos = System.nanoTime() - groupedStart;
+
+        System.out.printf("Progreso por categoría (%d usuarios, %d categorías): 2 COUNT por categoría %.2f ms/usuario, " +
+                        "consulta agrupada %.2f ms/usuario%n",
+                MEASURED_USERS, CATEGORIES,
+                naiveNanos / 1e6 / MEASURED_USERS, groupedNanos / 1e6 / MEASURED_USERS);
+
+        // Mismos resultados
+        Long userId = userIds.get(0);
+        Map<Long, Long> expected = perCategory(userId);
+        List<CategoryProgressResponse> categories =
+                (List<CategoryProgressResponse>) progressService.calculateProgressByCategory(userId).get("categories");
+        for (CategoryProgressResponse category : categories) {
+            if (expected.containsKey(category.getCategoryId())) {
+                assertEquals(expected.get(category.getCategoryId()).intValue(), category.getCompletedLessons());
+                assertEquals(LESSONS_PER_CATEGORY, category.getTotalLessons());
+            }
+        }
+        assertTrue(groupedNanos < naiveNanos);
+    }
+
+    private Map<Long, Long> perCategory(Long userId) {
+        Map<Long, Long> completed = new java.util.HashMap<>();
+        for (Long categoryId : categoryIds) {
+            completed.put(categoryId, userLessonProgressRepository.countCompletedInCategory(userId, categoryId));
+            userLessonProgressRepository.countTotalInCategory(categoryId);
+        }
+        return completed;
+    }
+}
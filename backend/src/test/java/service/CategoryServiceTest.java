@@ -45,6 +45,12 @@ class CategoryServiceTest {
     @Mock
     private LessonRepository lessonRepository;
 
+    @Mock
+    private PublishedLessonTotals publishedLessonTotals;
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
     @InjectMocks
     private CategoryService categoryService;
 
@@ -80,6 +86,7 @@ class CategoryServiceTest {
         assertNotNull(result);
         assertEquals("Redes Sociales", result.getName());
         verify(categoryRepository, times(1)).save(any(Category.class));
+        verify(catalogSnapshotService).refresh();
     }
 
     @Test
@@ -239,6 +246,7 @@ class CategoryServiceTest {
 
         // Assert
         verify(categoryRepository, times(1)).deleteById(1L);
+        verify(publishedLessonTotals, times(1)).invalidate();
     }
 
     @Test
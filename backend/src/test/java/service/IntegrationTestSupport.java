@@ -0,0 +1,127 @@
+package service;
+
+import com.example.backend.AplicacionEducativa;
+import dto.request.CreateCategoryRequest;
+import dto.request.CreateLessonRequest;
+import dto.request.CreateStepRequest;
+import dto.request.RegisterRequest;
+import model.Category;
+import model.Lesson;
+import model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Base de los tests de integración
+ *
+ * Arranca la aplicación completa (H2 en memoria) y crea los datos de prueba a
+ * través de los servicios. Todos los tests comparten el mismo contexto y la
+ * misma base de datos, así que los nombres llevan un sufijo único por test.
+ *
+ * El volcado periódico de contadores de acceso queda desactivado en la práctica:
+ * los tests vuelcan de forma explícita para no competir con el planificador.
+ * El índice de búsqueda no se guarda en disco: cada contexto parte de la base
+ * de datos vacía y no debe cargar el índice de otra ejecución.
+ * El catálogo en memoria se reconstruye en segundo plano: los tests que lo
+ * leen directamente esperan antes con awaitCatalog().
+ */
+@SpringBootTest(classes = AplicacionEducativa.class, properties = {
+        "access-counters.flush-interval-ms=86400000",
+        "search.index.snapshot-path="})
+public abstract class IntegrationTestSupport {
+
+    @Autowired
+    protected UserService userService;
+
+    @Autowired
+    protected CategoryService categoryService;
+
+    @Autowired
+    protected LessonService lessonService;
+
+    @Autowired
+    protected StepService stepService;
+
+    @Autowired
+    protected CatalogSnapshotService catalogSnapshotService;
+
+    /**
+     * Sufijo único del test en curso
+     */
+    protected String suffix;
+
+    @BeforeEach
+    void newSuffix() {
+        suffix = Long.toString(System.nanoTime(), 36);
+    }
+
+    /**
+     * Registrar un usuario con nombre y email únicos
+     * @param prefix prefijo del nombre de usuario
+     */
+    protected User createUser(String prefix) {
+        RegisterRequest request = new RegisterRequest();
+        request.setUsername(prefix + suffix);
+        request.setEmail(prefix + suffix + "@test.com");
+        request.setPassword("password123");
+        request.setConfirmPassword("password123");
+        return userService.registerUser(request);
+    }
+
+    /**
+     * Crear una categoría con nombre único
+     * @param name nombre (se le añade el sufijo)
+     */
+    protected Category createCategory(String name) {
+        CreateCategoryRequest request = new CreateCategoryRequest();
+        request.setName(name + " " + suffix);
+        request.setDescription("Categoría de prueba");
+        return categoryService.createCategory(request);
+    }
+
+    /**
+     * Crear una lección sin publicar
+     * @param category categoría
+     * @param title título completo
+     * @param author usuario creador
+     */
+    protected Lesson createLesson(Category category, String title, User author) {
+        CreateLessonRequest request = new CreateLessonRequest();
+        request.setTitle(title);
+        request.setDescription("Lección de prueba");
+        request.setCategoryId(category.getId());
+        return lessonService.createLesson(request, author.getId());
+    }
+
+    /**
+     * Crear una lección con un paso y publicarla
+     */
+    protected Lesson createPublishedLesson(Category category, String title, User author) {
+        Lesson lesson = createLesson(category, title, author);
+        stepService.createStep(lesson.getId(), stepRequest("Primer paso"), author.getId());
+        return lessonService.publishLesson(lesson.getId(), author.getId());
+    }
+
+    /**
+     * Esperar a que el catálogo en memoria incluya todas las escrituras anteriores
+     */
+    protected void awaitCatalog() {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (catalogSnapshotService.categoriesVersion().isEmpty()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("El catálogo no se reconstruyó a tiempo");
+            }
+            LockSupport.parkNanos(1_000_000);
+        }
+    }
+
+    protected static CreateStepRequest stepRequest(String title) {
+        CreateStepRequest request = new CreateStepRequest();
+        request.setTitle(title);
+        request.setContent("Contenido del paso");
+        return request;
+    }
+}
@@ -0,0 +1,170 @@
+package service;
+
+import exception.ForbiddenException;
+import model.Category;
+import model.Lesson;
+import model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import repository.LessonRepository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración del orden de las lecciones dentro de su categoría
+ *
+ * Cubre:
+ * - Claves de orden con huecos al crear
+ * - Mover una lección al principio, en medio y al final
+ * - Renumeración cuando se agota el hueco entre dos lecciones
+ * - Creación concurrente sin órdenes duplicados
+ */
+@DisplayName("LessonService - Orden de lecciones")
+class LessonOrderingTest extends IntegrationTestSupport {
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    private User testAdmin;
+    private Category testCategory;
+
+    @BeforeEach
+    void setUp() {
+        testAdmin = createUser("order");
+        testCategory = createCategory("Orden");
+    }
+
+    @Test
+    @DisplayName("Debe crear las lecciones con huecos entre sus claves de orden")
+    void testCreateLeavesGaps() {
+        // Act
+        Lesson first = createLesson("A");
+        Lesson second = createLesson("B");
+
+        // Assert
+        assertEquals(LessonService.ORDER_GAP, first.getLessonOrder());
+        assertEquals(2 * LessonService.ORDER_GAP, second.getLessonOrder());
+    }
+
+    @Test
+    @DisplayName("Debe mover una lección escribiendo solo su clave de orden")
+    void testMoveLesson() {
+        // Arrange
+        List<Long> ids = createLessons("A", "B", "C", "D");
+
+        // Act & Assert: D al principio
+        lessonService.moveLesson(ids.get(3), 1, testAdmin.getId());
+        assertEquals(List.of(ids.get(3), ids.get(0), ids.get(1), ids.get(2)), orderedIds());
+
+        // A entre B y C
+        Lesson moved = lessonService.moveLesson(ids.get(0), 3, testAdmin.getId());
+        assertEquals(List.of(ids.get(3), ids.get(1), ids.get(0), ids.get(2)), orderedIds());
+        assertEquals((2 * LessonService.ORDER_GAP + 3 * LessonService.ORDER_GAP) / 2, moved.getLessonOrder());
+
+        // D al final
+        lessonService.moveLesson(ids.get(3), 4, testAdmin.getId());
+        assertEquals(List.of(ids.get(1), ids.get(0), ids.get(2), ids.get(3)), orderedIds());
+    }
+
+    @Test
+    @DisplayName("Debe renumerar la categoría cuando no queda hueco entre dos lecciones")
+    void testRenumberWhenGapIsExhausted() {
+        // Arrange
+        List<Long> ids = createLessons("A", "B");
+        List<Long> expected = new ArrayList<>(ids);
+
+        // Act: cada lección nueva se mete justo detrás de A, partiendo el hueco por la mitad
+        for (int i = 0; i < 15; i++) {
+            Lesson lesson = createLesson("N" + i);
+            lessonService.moveLesson(lesson.getId(), 2, testAdmin.getId());
+            expected.add(1, lesson.getId());
+        }
+
+        // Assert: el orden relativo se conserva y las claves no se repiten
+        assertEquals(expected, orderedIds());
+        List<Integer> keys = lessonRepository.findPositionsByCategory(testCategory.getId()).stream()
+                .map(LessonRepository.LessonPosition::getLessonOrder)
+                .toList();
+        assertEquals(keys.size(), new HashSet<>(keys).size());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar posiciones fuera de rango y lecciones ajenas")
+    void testMoveValidation() {
+        // Arrange
+        List<Long> ids = createLessons("A", "B");
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> lessonService.moveLesson(ids.get(0), 0, testAdmin.getId()));
+        assertThrows(IllegalArgumentException.class, () -> lessonService.moveLesson(ids.get(0), 3, testAdmin.getId()));
+        assertThrows(ForbiddenException.class, () -> lessonService.moveLesson(ids.get(0), 2, testAdmin.getId() + 1000));
+        assertEquals(ids, orderedIds());
+    }
+
+    @Test
+    @DisplayName("Debe asignar claves de orden distintas a las lecciones creadas en paralelo")
+    void testConcurrentCreatesKeepOrdersUnique() throws Exception {
+        // Arrange
+        int threads = 8;
+        int lessonsPerThread = 10;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+
+        // Act
+        try {
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < lessonsPerThread; i++) {
+                        createLesson("Paralela " + thread + "-" + i);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        List<Integer> keys = lessonRepository.findPositionsByCategory(testCategory.getId()).stream()
+                .map(LessonRepository.LessonPosition::getLessonOrder)
+                .toList();
+        assertEquals(threads * lessonsPerThread, keys.size());
+        assertEquals(keys.size(), new HashSet<>(keys).size());
+    }
+
+    private List<Long> createLessons(String... titles) {
+        List<Long> ids = new ArrayList<>();
+        for (String title : titles) {
+            ids.add(createLesson(title).getId());
+        }
+        return ids;
+    }
+
+    private Lesson createLesson(String title) {
+        return createLesson(testCategory, title + " " + suffix, testAdmin);
+    }
+
+    private List<Long> orderedIds() {
+        return lessonRepository.findPositionsByCategory(testCategory.getId()).stream()
+                .map(LessonRepository.LessonPosition::getId)
+                .toList();
+    }
+}
@@ -7,6 +7,8 @@ import repository.LessonRepository;
 import repository.StepRepository;
 import repository.UserRepository;
 import dto.request.CreateLessonRequest;
+import dto.response.AuthorSummaryResponse;
+import dto.response.LessonSummaryResponse;
 import exception.ForbiddenException;
 import exception.ResourceNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
@@ -50,6 +52,24 @@ class LessonServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ProgressSummaryService progressSummaryService;
+
+    @Mock
+    private PublishedLessonTotals publishedLessonTotals;
+
+    @Mock
+    private TrendingService trendingService;
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
     @InjectMocks
     private LessonService lessonService;
 
@@ -200,6 +220,28 @@ class LessonServiceTest {
         assertEquals("WhatsApp", result.getContent().get(0).getTitle());
     }
 
+    @Test
+    @DisplayName("Debe obtener los autores de toda la página en una sola consulta")
+    void testSummariesFetchAuthorsOncePerPage() {
+        // Arrange: dos lecciones del mismo autor, una editada por otro
+        LessonSummaryResponse first = LessonSummaryResponse.builder().id(1L).createdById(1L).updatedById(1L).build();
+        LessonSummaryResponse second = LessonSummaryResponse.builder().id(2L).createdById(1L).updatedById(2L).build();
+        Page<LessonSummaryResponse> page = new PageImpl<>(List.of(first, second), PageRequest.of(0, 10), 2);
+
+        when(lessonRepository.findPublishedSummaries(any(Pageable.class))).thenReturn(page);
+        when(userRepository.findAuthorSummaries(anyCollection())).thenReturn(List.of(
+                new AuthorSummaryResponse(1L, "admin"),
+                new AuthorSummaryResponse(2L, "editor")));
+
+        // Act
+        Page<LessonSummaryResponse> result = lessonService.getPublishedLessonSummaries(PageRequest.of(0, 10));
+
+        // Assert
+        verify(userRepository, times(1)).findAuthorSummaries(anyCollection());
+        assertEquals("admin", result.getContent().get(0).getCreatedBy().getUsername());
+        assertEquals("editor", result.getContent().get(1).getUpdatedBy().getUsername());
+    }
+
     // ============================================================================
     // TESTS DE PUBLICACIÓN
     // ============================================================================
@@ -213,6 +255,7 @@ class LessonServiceTest {
         lesson.setTitle("Test Lesson");
         lesson.setIsPublished(false);
         lesson.setCreatedBy(testAdmin);
+        lesson.setCategory(testCategory);
 
         Lesson publishedLesson = new Lesson();
         publishedLesson.setId(1L);
@@ -228,6 +271,10 @@ class LessonServiceTest {
 
         // Assert
         assertTrue(result.getIsPublished());
+        verify(publishedLessonTotals, times(1)).invalidate();
+        verify(progressSummaryService, times(1)).requestRebuild();
+        verify(trendingService, times(1)).lessonPublished(1L, testCategory.getId());
+        verify(catalogSnapshotService, times(1)).refresh();
     }
 
     @Test
@@ -273,6 +320,7 @@ class LessonServiceTest {
         Lesson lesson = new Lesson();
         lesson.setId(1L);
         lesson.setCreatedBy(testAdmin);
+        lesson.setCategory(testCategory);
 
         when(lessonRepository.findById(1L)).thenReturn(Optional.of(lesson));
 
@@ -282,6 +330,8 @@ class LessonServiceTest {
         // Assert
         verify(stepRepository, times(1)).deleteByLesson_Id(1L);
         verify(lessonRepository, times(1)).deleteById(1L);
+        verify(publishedLessonTotals, times(1)).invalidate();
+        verify(catalogSnapshotService, times(1)).refresh();
     }
 
     @Test
@@ -0,0 +1,97 @@
+package service;
+
+import dto.response.CursorPageResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para PageCursor
+ *
+ * Cubre:
+ * - Codificar y leer el token, con y sin clave
+ * - Tokens no válidos y tokens sin clave en listados ordenados por clave
+ * - Límites del tamaño de página
+ * - Cursor de la página siguiente
+ */
+@DisplayName("PageCursor Tests")
+class PageCursorTest {
+
+    private static final LocalDateTime KEY = LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_000_000);
+
+    @Test
+    @DisplayName("Debe leer el mismo cursor que se codificó")
+    void testRoundTrip() {
+        PageCursor keyed = new PageCursor(KEY, 42L);
+        PageCursor idOnly = new PageCursor(null, 7L);
+
+        assertEquals(Optional.of(keyed), PageCursor.decode(keyed.encode()));
+        assertEquals(Optional.of(keyed), PageCursor.decodeKeyed(keyed.encode()));
+        assertEquals(Optional.of(idOnly), PageCursor.decode(idOnly.encode()));
+        assertFalse(keyed.encode().contains("|"));
+    }
+
+    @Test
+    @DisplayName("Debe empezar por el principio sin token")
+    void testEmptyToken() {
+        assertEquals(Optional.empty(), PageCursor.decode(null));
+        assertEquals(Optional.empty(), PageCursor.decode(" "));
+        assertEquals(Optional.empty(), PageCursor.decodeKeyed(""));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar tokens no válidos")
+    void testInvalidTokens() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("no es base64!"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token("sin separador")));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token("ayer|5")));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(token(KEY + "|cinco")));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un token sin clave en los listados ordenados por clave")
+    void testKeylessTokenInKeyedListing() {
+        String keyless = token("|5");
+
+        assertEquals(Optional.of(new PageCursor(null, 5L)), PageCursor.decode(keyless));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decodeKeyed(keyless));
+    }
+
+    @Test
+    @DisplayName("Debe limitar el tamaño de página entre 1 y el máximo")
+    void testSize() {
+        assertEquals(20, PageCursor.size(20));
+        assertEquals(1, PageCursor.size(0));
+        assertEquals(1, PageCursor.size(-3));
+        assertEquals(PageCursor.MAX_SIZE, PageCursor.size(1_000_000));
+    }
+
+    @Test
+    @DisplayName("Debe dar el cursor del último elemento solo si hay página siguiente")
+    void testPage() {
+        // Act
+        CursorPageResponse<Long> more = PageCursor.page(
+                new SliceImpl<>(List.of(3L, 4L), PageRequest.of(0, 2), true), id -> new PageCursor(null, id));
+        CursorPageResponse<Long> last = PageCursor.page(
+                new SliceImpl<>(List.of(5L), PageRequest.of(0, 2), false), id -> new PageCursor(null, id));
+
+        // Assert
+        assertTrue(more.getHasNext());
+        assertEquals(new PageCursor(null, 4L), PageCursor.decode(more.getNextCursor()).orElseThrow());
+        assertFalse(last.getHasNext());
+        assertNull(last.getNextCursor());
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,200 @@
+package service;
+
+import dto.request.ProgressSyncRequest;
+import dto.request.ProgressSyncRequest.ProgressEvent;
+import dto.request.ProgressSyncRequest.ProgressEventType;
+import dto.response.ProgressResponse;
+import dto.response.ProgressSyncResponse;
+import dto.response.ProgressSyncResponse.EventStatus;
+import exception.ResourceNotFoundException;
+import model.Lesson;
+import model.User;
+import repository.UserLessonProgressRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración para ProgressSyncService
+ *
+ * Cubre:
+ * - Aplicación en orden con último en escribir gana por campo
+ * - Eventos superados por cambios posteriores ya guardados
+ * - Lecciones inexistentes rechazadas sin abortar el resto
+ * - Resúmenes de progreso actualizados con el estado final
+ * - Filas existentes actualizadas por el MERGE sin perder estado
+ * - Solo los eventos de acceso suman al contador de accesos
+ */
+@DisplayName("ProgressSyncService Tests")
+class ProgressSyncServiceTest extends IntegrationTestSupport {
+
+    private static final LocalDateTime BASE = LocalDateTime.now().minusDays(1).withNano(0);
+
+    @Autowired
+    private ProgressSyncService progressSyncService;
+
+    @Autowired
+    private UserLessonProgressService progressService;
+
+    @Autowired
+    private UserLessonProgressRepository userLessonProgressRepository;
+
+    private User testUser;
+    private Lesson testLesson;
+
+    @BeforeEach
+    void setUp() {
+        testUser = createUser("sync");
+        testLesson = createLesson(createCategory("Sincronización"), "Lección " + suffix, testUser);
+    }
+
+    @Test
+    @DisplayName("Debe aplicar los eventos con último en escribir gana")
+    void testLastWriterWins() {
+        // Arrange: el desmarcado tiene fecha anterior al completado aunque llegue después
+        ProgressSyncRequest request = request(
+                event(testLesson.getId(), ProgressEventType.FAVORITE, BASE),
+                event(testLesson.getId(), ProgressEventType.COMPLETE, BASE.plusMinutes(10)),
+                event(testLesson.getId(), ProgressEventType.UNCOMPLETE, BASE.plusMinutes(5)),
+                event(testLesson.getId(), ProgressEventType.UNFAVORITE, BASE.plusMinutes(1)),
+                event(testLesson.getId(), ProgressEventType.ACCESS, BASE.plusMinutes(2)));
+
+        // Act
+        ProgressSyncResponse response = progressSyncService.sync(testUser.getId(), request);
+
+        // Assert
+        assertEquals(4, response.getApplied());
+        assertEquals(1, response.getSuperseded());
+        assertEquals(EventStatus.SUPERSEDED, response.getResults().get(2).getStatus());
+
+        ProgressResponse progress = userLessonProgressRepository
+                .findResponseByUserAndLesson(testUser.getId(), testLesson.getId())
+                .orElseThrow();
+        assertTrue(progress.getIsCompleted());
+        assertFalse(progress.getIsFavorite());
+        assertEquals(BASE.plusMinutes(10), progress.getCompletedAt());
+        // Solo el evento de acceso cuenta como acceso
+        assertEquals(1, progress.getAccessCount());
+    }
+
+    @Test
+    @DisplayName("Debe conservar la fecha de completado al completar de nuevo")
+    void testRepeatedCompleteKeepsCompletedAt() {
+        // Act
+        progressSyncService.sync(testUser.getId(), request(
+                event(testLesson.getId(), ProgressEventType.COMPLETE, BASE),
+                event(testLesson.getId(), ProgressEventType.COMPLETE, BASE.plusMinutes(5))));
+
+        // Assert
+        ProgressResponse progress = userLessonProgressRepository
+                .findResponseByUserAndLesson(testUser.getId(), testLesson.getId())
+                .orElseThrow();
+        assertTrue(progress.getIsCompleted());
+        assertEquals(BASE, progress.getCompletedAt());
+        assertEquals(0, progress.getAccessCount());
+    }
+
+    @Test
+    @DisplayName("Debe actualizar una fila existente sin perder su estado ni sus accesos")
+    void testMergeUpdatesExistingRow() {
+        // Arrange: fila creada online, completada con la hora del servidor
+        ProgressResponse online = progressService.markAsCompleted(testUser.getId(), testLesson.getId());
+
+        // Act: completar de nuevo, marcar favorita y dos accesos
+        ProgressSyncResponse response = progressSyncService.sync(testUser.getId(), request(
+                event(testLesson.getId(), ProgressEventType.ACCESS, BASE),
+                event(testLesson.getId(), ProgressEventType.FAVORITE, BASE),
+                event(testLesson.getId(), ProgressEventType.COMPLETE, LocalDateTime.now().plusDays(1)),
+                event(testLesson.getId(), ProgressEventType.ACCESS, BASE.plusMinutes(1))));
+
+        // Assert: la misma fila, con la fecha de completado original y los accesos sumados
+        assertEquals(4, response.getApplied());
+        ProgressResponse progress = userLessonProgressRepository
+                .findResponseByUserAndLesson(testUser.getId(), testLesson.getId())
+                .orElseThrow();
+        assertEquals(online.getId(), progress.getId());
+        assertTrue(progress.getIsCompleted());
+        assertTrue(progress.getIsFavorite());
+        assertEquals(online.getCompletedAt(), progress.getCompletedAt());
+        assertEquals(online.getAccessCount() + 2, progress.getAccessCount());
+        assertEquals(1, progressService.countFavoriteLessons(testUser.getId()));
+
+        // Un desmarcado antiguo no deshace la completada guardada online
+        response = progressSyncService.sync(testUser.getId(),
+                request(event(testLesson.getId(), ProgressEventType.UNCOMPLETE, BASE)));
+        assertEquals(EventStatus.SUPERSEDED, response.getResults().get(0).getStatus());
+    }
+
+    @Test
+    @DisplayName("Debe ignorar eventos anteriores a un cambio ya guardado")
+    void testEventsOlderThanStoredChangeAreSuperseded() {
+        // Arrange: cambio online con la hora del servidor
+        progressService.addToFavorites(testUser.getId(), testLesson.getId());
+
+        // Act: un evento antiguo del cliente no lo deshace
+        ProgressSyncResponse response = progressSyncService.sync(testUser.getId(),
+                request(event(testLesson.getId(), ProgressEventType.UNFAVORITE, BASE)));
+
+        // Assert
+        assertEquals(EventStatus.SUPERSEDED, response.getResults().get(0).getStatus());
+        assertEquals(1, progressService.countFavoriteLessons(testUser.getId()));
+    }
+
+    @Test
+    @DisplayName("Debe rechazar lecciones inexistentes sin abortar el resto")
+    void testUnknownLessonIsRejected() {
+        // Act
+        ProgressSyncResponse response = progressSyncService.sync(testUser.getId(), request(
+                event(Long.MAX_VALUE, ProgressEventType.COMPLETE, BASE),
+                event(testLesson.getId(), ProgressEventType.FAVORITE, BASE)));
+
+        // Assert
+        assertEquals(1, response.getRejected());
+        assertEquals(1, response.getApplied());
+        assertEquals(EventStatus.REJECTED, response.getResults().get(0).getStatus());
+        assertEquals(1, progressService.countFavoriteLessons(testUser.getId()));
+    }
+
+    @Test
+    @DisplayName("Debe lanzar ResourceNotFoundException si el usuario no existe")
+    void testUnknownUser() {
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> progressSyncService.sync(Long.MAX_VALUE,
+                request(event(testLesson.getId(), ProgressEventType.COMPLETE, BASE))));
+    }
+
+    @Test
+    @DisplayName("Debe sincronizar 500 eventos en una sola llamada")
+    void testLargeBatch() {
+        // Arrange: alternar favorita 500 veces; el último evento la deja marcada
+        List<ProgressEvent> events = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ProgressEventType type = i % 2 == 0 ? ProgressEventType.UNFAVORITE : ProgressEventType.FAVORITE;
+            events.add(event(testLesson.getId(), type, BASE.plusSeconds(i)));
+        }
+
+        // Act
+        ProgressSyncResponse response = progressSyncService.sync(testUser.getId(),
+                ProgressSyncRequest.builder().events(events).build());
+
+        // Assert
+        assertEquals(500, response.getApplied());
+        assertEquals(500, response.getResults().size());
+        assertEquals(1, progressService.countFavoriteLessons(testUser.getId()));
+    }
+
+    private static ProgressSyncRequest request(ProgressEvent... events) {
+        return ProgressSyncRequest.builder().events(List.of(events)).build();
+    }
+
+    private static ProgressEvent event(Long lessonId, ProgressEventType type, LocalDateTime timestamp) {
+        return ProgressEvent.builder().lessonId(lessonId).type(type).clientTimestamp(timestamp).build();
+    }
+}
@@ -0,0 +1,180 @@
+package service;
+
+import dto.request.CreateFAQRequest;
+import dto.request.CreateStepRequest;
+import dto.response.FAQResponse;
+import dto.response.SuggestionResponse;
+import model.Category;
+import model.FAQ;
+import model.Lesson;
+import model.Step;
+import model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import search.SearchType;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración del índice de búsqueda
+ *
+ * Cubre:
+ * - Indexación al publicar y baja al despublicar
+ * - Búsqueda en el contenido de los pasos, sin tildes
+ * - Reindexación al editar un paso
+ * - FAQs activas e inactivas
+ * - Orden por relevancia y por otro campo
+ * - Sugerencias de títulos al publicar y despublicar
+ * - Última palabra vacía: la anterior se busca entera
+ */
+@DisplayName("SearchIndexService Tests")
+class SearchIndexServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private SearchIndexService searchIndexService;
+
+    @Autowired
+    private SuggestionService suggestionService;
+
+    @Autowired
+    private FAQService faqService;
+
+    private User testAdmin;
+    private Category testCategory;
+
+    @BeforeEach
+    void setUp() {
+        testAdmin = createUser("search");
+        testCategory = createCategory("Búsqueda");
+    }
+
+    @Test
+    @DisplayName("Debe indexar una lección al publicarla y quitarla al despublicarla")
+    void testPublishAndUnpublish() {
+        // Arrange: palabra única en el contenido de un paso, con tilde
+        String word = "palabra" + suffix;
+        Lesson lesson = createLessonWithStep("Cámara del móvil", "Pulsa el botón rojo " + word);
+
+        // Act & Assert: sin publicar no aparece
+        assertEquals(List.of(), lessonIds(word));
+        assertEquals(List.of(), suggestedIds("camra movil " + suffix));
+
+        lessonService.publishLesson(lesson.getId(), testAdmin.getId());
+        assertEquals(List.of(lesson.getId()), lessonIds(word));
+        assertEquals(lesson.getId(), lessonIds("camara movil " + word).get(0));
+
+        // La página sale del catálogo en memoria con el ranking del índice
+        awaitCatalog();
+        Long first = lessonService.searchLessonSummaries("BOTON " + word, PageRequest.of(0, 10))
+                .getContent().get(0).getId();
+        assertEquals(lesson.getId(), first);
+        // Sugerencia con un error de tecleo y sin tildes
+        assertEquals(List.of(lesson.getId()), suggestedIds("camra movil " + suffix));
+
+        lessonService.unpublishLesson(lesson.getId(), testAdmin.getId());
+        assertEquals(List.of(), lessonIds(word));
+        assertEquals(List.of(), suggestedIds("camra movil " + suffix));
+    }
+
+    @Test
+    @DisplayName("Debe reindexar la lección al editar uno de sus pasos")
+    void testStepUpdateReindexes() {
+        // Arrange
+        String before = "antes" + suffix;
+        String after = "despues" + suffix;
+        Lesson lesson = createLessonWithStep("Correo", "Abre la aplicación " + before);
+        lessonService.publishLesson(lesson.getId(), testAdmin.getId());
+        Step step = stepService.getStepsByLesson(lesson.getId()).get(0);
+
+        // Act
+        stepService.updateStep(step.getId(), step.getTitle(), "Abre la aplicación " + after,
+                null, null, testAdmin.getId());
+
+        // Assert
+        assertEquals(List.of(), lessonIds(before));
+        assertEquals(List.of(lesson.getId()), lessonIds(after));
+    }
+
+    @Test
+    @DisplayName("Debe buscar FAQs activas por relevancia y ordenar por otro campo si se pide")
+    void testFaqSearch() {
+        // Arrange
+        String word = "clave" + suffix;
+        FAQ inTitle = createFAQ("¿Cómo cambio la contraseña " + word + "?", "Desde tu perfil");
+        FAQ inBody = createFAQ("¿Qué hago si no puedo entrar?", "Recupera la contraseña " + word);
+        awaitCatalog();
+
+        // Act
+        List<Long> byRelevance = faqService.searchActiveFAQResponses(word, PageRequest.of(0, 10))
+                .map(FAQResponse::getId).getContent();
+        // Orden que el catálogo en memoria no conoce: responde la base de datos
+        List<Long> byQuestion = faqService.searchActiveFAQResponses(word,
+                        PageRequest.of(0, 10, Sort.by("question").ascending()))
+                .map(FAQResponse::getId).getContent();
+
+        // Assert: la pregunta pesa más que la respuesta
+        assertEquals(List.of(inTitle.getId(), inBody.getId()), byRelevance);
+        assertEquals(List.of(inTitle.getId(), inBody.getId()), byQuestion);
+
+        faqService.deactivateFAQ(inTitle.getId(), testAdmin.getId());
+        assertEquals(List.of(inBody.getId()), searchIndexService.search(word, SearchType.FAQ).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("No debe completar como prefijo la palabra anterior a una palabra vacía")
+    void testTrailingStopWord() {
+        // Arrange: "banco<sufijo>" y una palabra más larga que empieza igual
+        String word = "banco" + suffix;
+        Lesson exact = createLessonWithStep("Cajero", "Saca dinero del " + word);
+        Lesson longer = createLessonWithStep("Tarjeta", "Pide la tarjeta en " + word + "central");
+        lessonService.publishLesson(exact.getId(), testAdmin.getId());
+        lessonService.publishLesson(longer.getId(), testAdmin.getId());
+
+        // Act & Assert: "banco<sufijo> de" busca la palabra entera
+        assertEquals(List.of(exact.getId()), lessonIds(word + " de"));
+        assertEquals(Set.of(exact.getId(), longer.getId()), Set.copyOf(lessonIds(word)));
+    }
+
+    @Test
+    @DisplayName("Debe devolver vacío para consultas sin términos indexables")
+    void testStopWordsOnly() {
+        assertTrue(searchIndexService.search("de la", SearchType.LESSON).isEmpty());
+        assertTrue(SearchIndexService.isRelevance(Sort.unsorted()));
+        assertTrue(SearchIndexService.isRelevance(Sort.by(SearchIndexService.RELEVANCE)));
+        assertFalse(SearchIndexService.isRelevance(Sort.by("createdAt")));
+    }
+
+    private List<Long> lessonIds(String text) {
+        return searchIndexService.search(text, SearchType.LESSON).orElseThrow();
+    }
+
+    private List<Long> suggestedIds(String text) {
+        return suggestionService.suggest(text, SuggestionService.DEFAULT_LIMIT).stream()
+                .map(SuggestionResponse::getId).toList();
+    }
+
+    private Lesson createLessonWithStep(String title, String stepContent) {
+        Lesson lesson = createLesson(testCategory, title + " " + suffix, testAdmin);
+
+        CreateStepRequest stepRequest = new CreateStepRequest();
+        stepRequest.setTitle("Paso 1");
+        stepRequest.setContent(stepContent);
+        stepService.createStep(lesson.getId(), stepRequest, testAdmin.getId());
+        return lesson;
+    }
+
+    private FAQ createFAQ(String question, String answer) {
+        CreateFAQRequest request = new CreateFAQRequest();
+        request.setQuestion(question);
+        request.setAnswer(answer);
+        request.setTopic("Cuenta");
+        return faqService.createFAQ(request, testAdmin.getId());
+    }
+}
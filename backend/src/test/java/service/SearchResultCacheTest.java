@@ -0,0 +1,159 @@
+package service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para SearchResultCache
+ *
+ * Cubre:
+ * - Aciertos sin distinguir mayúsculas y claves distintas por página
+ * - Invalidación al cambiar la versión del catálogo
+ * - Expulsión del menos usado al superar el tamaño máximo
+ * - Agrupación de fallos concurrentes de la misma búsqueda y sus errores
+ */
+@DisplayName("SearchResultCache Tests")
+class SearchResultCacheTest {
+
+    private SearchResultCache cache;
+    private AtomicInteger searches;
+
+    @BeforeEach
+    void setUp() {
+        cache = new SearchResultCache();
+        ReflectionTestUtils.setField(cache, "maxSize", 3);
+        searches = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("Debe servir de la caché la misma búsqueda aunque cambien las mayúsculas")
+    void testHit() {
+        // Act
+        String first = search("WhatsApp", 0);
+        String second = search("whatsapp", 0);
+        search("whatsapp", 1);
+        search("whatsapp ", 0);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(3, searches.get());
+        assertEquals(1L, cache.getStatistics().get("hits"));
+    }
+
+    @Test
+    @DisplayName("Debe volver a buscar tras un cambio del catálogo")
+    void testInvalidateAll() {
+        // Arrange
+        search("banco", 0);
+
+        // Act
+        cache.invalidateAll();
+        search("banco", 0);
+
+        // Assert
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    @DisplayName("Debe expulsar la búsqueda usada hace más tiempo")
+    void testLruEviction() {
+        // Arrange
+        search("a", 0);
+        search("b", 0);
+        search("c", 0);
+        search("a", 0);
+
+        // Act: "b" es la menos usada recientemente
+        search("d", 0);
+        search("a", 0);
+        search("b", 0);
+
+        // Assert
+        assertEquals(5, searches.get());
+        assertEquals(3, cache.getStatistics().get("size"));
+    }
+
+    @Test
+    @DisplayName("No debe guardar los resultados que no cumplen la condición")
+    void testNotCacheable() {
+        cache.get("unified", "banco", 0, () -> "incompleto-" + searches.incrementAndGet(), result -> false);
+        cache.get("unified", "banco", 0, () -> "incompleto-" + searches.incrementAndGet(), result -> false);
+
+        assertEquals(2, searches.get());
+    }
+
+    @Test
+    @DisplayName("Debe ejecutar una sola búsqueda para fallos concurrentes de la misma clave")
+    void testCoalescing() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("lessons", "videollamada", PageRequest.of(0, 20), () -> {
+                started.countDown();
+                await(release);
+                return "resultado-" + searches.incrementAndGet();
+            })));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // Act: el resto llega mientras la primera búsqueda sigue en marcha
+            for (int i = 0; i < 7; i++) {
+                results.add(executor.submit(() -> search("videollamada", 0)));
+            }
+            long deadline = System.currentTimeMillis() + 5_000;
+            while ((Long) cache.getStatistics().get("coalesced") < 7 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+
+            // Assert
+            for (Future<String> result : results) {
+                assertEquals("resultado-1", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, searches.get());
+            assertEquals(7L, cache.getStatistics().get("coalesced"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Debe propagar el error de la búsqueda y no guardarlo")
+    void testFailure() {
+        assertThrows(IllegalStateException.class, () -> cache.get("lessons", "banco", PageRequest.of(0, 20), () -> {
+            throw new IllegalStateException("fallo");
+        }));
+        assertEquals(0, cache.getStatistics().get("size"));
+
+        assertEquals("resultado-1", search("banco", 0));
+        assertEquals(1, cache.getStatistics().get("size"));
+    }
+
+    private String search(String text, int page) {
+        return cache.get("lessons", text, PageRequest.of(page, 20), () -> "resultado-" + searches.incrementAndGet());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
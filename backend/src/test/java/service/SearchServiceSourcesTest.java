@@ -0,0 +1,166 @@
+package service;
+
+import dto.response.LessonSummaryResponse;
+import dto.response.SearchResponse;
+import dto.response.SearchResultResponse;
+import dto.response.SimulatorResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import search.SearchHit;
+import search.SearchType;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios de las fuentes del buscador unificado
+ *
+ * Cubre:
+ * - Mezcla por puntuación normalizada con la mejor de cada fuente
+ * - Fuente lenta: se omite al vencer el plazo y la respuesta no se guarda en caché
+ * - Hilo interrumpido: se omiten todas las fuentes sin terminar
+ */
+@DisplayName("SearchService - fuentes")
+class SearchServiceSourcesTest {
+
+    @Mock
+    private SearchIndexService searchIndexService;
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Mock
+    private LessonService lessonService;
+
+    @Mock
+    private FAQService faqService;
+
+    @Mock
+    private SimulatorService simulatorService;
+
+    @Mock
+    private SearchResultCache searchResultCache;
+
+    @Mock
+    private LatencyMetrics latencyMetrics;
+
+    @InjectMocks
+    private SearchService searchService;
+
+    // Las fuentes lentas esperan aquí hasta el final del test
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private Boolean cached;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(searchService, "sourceTimeoutMs", 200L);
+        searchService.init();
+
+        // La caché ejecuta siempre la búsqueda y anota si guardaría la respuesta
+        when(searchResultCache.get(anyString(), anyString(), any(), any(), any())).thenAnswer(invocation -> {
+            Object response = ((Supplier<Object>) invocation.getArgument(3)).get();
+            cached = ((Predicate<Object>) invocation.getArgument(4)).test(response);
+            return response;
+        });
+
+        when(searchIndexService.searchHits(eq("banco"), eq(EnumSet.of(SearchType.LESSON)), anyInt()))
+                .thenReturn(Optional.of(List.of(new SearchHit(SearchType.LESSON, 1L, 4.0),
+                        new SearchHit(SearchType.LESSON, 2L, 2.0))));
+        when(catalogSnapshotService.rankedLessons(eq(List.of(1L, 2L)), any()))
+                .thenReturn(Optional.of(new PageImpl<>(List.of(lesson(1L), lesson(2L)))));
+
+        when(searchIndexService.searchHits(eq("banco"), eq(EnumSet.of(SearchType.SIMULATOR)), anyInt()))
+                .thenReturn(Optional.of(List.of(new SearchHit(SearchType.SIMULATOR, 7L, 9.0),
+                        new SearchHit(SearchType.SIMULATOR, 8L, 3.0))));
+        when(catalogSnapshotService.rankedSimulators(eq(List.of(7L, 8L)), any()))
+                .thenReturn(Optional.of(new PageImpl<>(List.of(simulator(7L), simulator(8L)))));
+
+        // Las FAQs no responden antes del plazo
+        when(searchIndexService.searchHits(eq("banco"), eq(EnumSet.of(SearchType.FAQ)), anyInt()))
+                .thenAnswer(invocation -> {
+                    release.await();
+                    return Optional.empty();
+                });
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        searchService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Debe omitir la fuente lenta y mezclar el resto por puntuación normalizada")
+    void testSlowSourceIsSkipped() {
+        // Act
+        SearchResponse response = searchService.search("banco", null, null, PageRequest.of(0, 10));
+
+        // Assert: 4/4 y 9/9 empatan a 1 (van por tipo); después 2/4 y 3/9
+        assertEquals(List.of(1L, 7L, 2L, 8L),
+                response.getContent().stream().map(SearchResultResponse::getId).toList());
+        assertEquals(List.of(1.0, 1.0, 0.5, 3.0 / 9.0),
+                response.getContent().stream().map(SearchResultResponse::getScore).toList());
+        assertEquals(List.of(SearchType.FAQ), response.getSkippedTypes());
+        assertEquals(Map.of(SearchType.LESSON, 2L, SearchType.FAQ, 0L, SearchType.SIMULATOR, 2L),
+                response.getTypeCounts());
+        assertFalse(cached);
+        assertEquals(Map.of("LESSON", 0L, "FAQ", 1L, "SIMULATOR", 0L),
+                searchService.getStatistics().get("skipped"));
+    }
+
+    @Test
+    @DisplayName("Debe omitir todas las fuentes sin terminar si se interrumpe el hilo")
+    void testInterruptSkipsEveryUnfinishedSource() {
+        // Arrange: todas las fuentes tardan
+        when(searchIndexService.searchHits(anyString(), any(), anyInt())).thenAnswer(invocation -> {
+            release.await();
+            return Optional.empty();
+        });
+        Thread.currentThread().interrupt();
+
+        // Act
+        SearchResponse response = searchService.search("banco", null, null, PageRequest.of(0, 10));
+
+        // Assert
+        assertTrue(Thread.interrupted());
+        assertEquals(List.of(SearchType.LESSON, SearchType.FAQ, SearchType.SIMULATOR), response.getSkippedTypes());
+        assertTrue(response.getContent().isEmpty());
+        assertFalse(cached);
+    }
+
+    private static LessonSummaryResponse lesson(Long id) {
+        return LessonSummaryResponse.builder()
+                .id(id)
+                .title("Ir al banco " + id)
+                .categoryId(3L)
+                .categoryName("Banca")
+                .build();
+    }
+
+    private static SimulatorResponse simulator(Long id) {
+        return SimulatorResponse.builder()
+                .id(id)
+                .title("Simulador del banco " + id)
+                .build();
+    }
+}
@@ -0,0 +1,146 @@
+package service;
+
+import dto.request.CreateFAQRequest;
+import dto.request.CreateSimulatorRequest;
+import dto.response.SearchFacetResponse;
+import dto.response.SearchResponse;
+import dto.response.SearchResultResponse;
+import model.Category;
+import model.FAQ;
+import model.Lesson;
+import model.Simulator;
+import model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import search.SearchType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración del buscador unificado
+ *
+ * Cubre:
+ * - Mezcla de lecciones, FAQs y simuladores por puntuación normalizada
+ * - Recuentos por tipo y por categoría (el simulador, con la de su lección)
+ * - Filtro por tipos y por categoría, y paginación
+ * - Copias de los resultados guardados en caché
+ */
+@DisplayName("SearchService Tests")
+class SearchServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private FAQService faqService;
+
+    @Autowired
+    private SimulatorService simulatorService;
+
+    private Category testCategory;
+    private String word;
+
+    private Lesson lesson;
+    private FAQ faq;
+    private Simulator simulator;
+
+    @BeforeEach
+    void setUp() {
+        word = "unificada" + suffix;
+        User testAdmin = createUser("unified");
+        testCategory = createCategory("Unificada");
+        lesson = createPublishedLesson(testCategory, "Lección " + word, testAdmin);
+
+        CreateFAQRequest faqRequest = new CreateFAQRequest();
+        faqRequest.setQuestion("¿Qué es " + word + "?");
+        faqRequest.setAnswer("Una respuesta");
+        faqRequest.setTopic("General");
+        faq = faqService.createFAQ(faqRequest, testAdmin.getId());
+
+        CreateSimulatorRequest simulatorRequest = new CreateSimulatorRequest();
+        simulatorRequest.setTitle("Simulador " + word);
+        simulatorRequest.setDescription("Practica sin miedo");
+        simulatorRequest.setFeedback("¡Muy bien!");
+        simulatorRequest.setLessonId(lesson.getId());
+        simulator = simulatorService.createSimulator(simulatorRequest, testAdmin.getId());
+
+        // La categoría del simulador y las páginas por ranking salen del catálogo en memoria
+        awaitCatalog();
+    }
+
+    @Test
+    @DisplayName("Debe mezclar los tres tipos con recuentos por tipo y categoría")
+    void testMergedResults() {
+        // Act
+        SearchResponse response = searchService.search(word, null, null, PageRequest.of(0, 10));
+
+        // Assert: cada uno es el mejor de su fuente, así que empatan a 1 y van por tipo
+        assertEquals(List.of(SearchType.LESSON, SearchType.FAQ, SearchType.SIMULATOR),
+                response.getContent().stream().map(SearchResultResponse::getType).toList());
+        assertEquals(List.of(lesson.getId(), faq.getId(), simulator.getId()),
+                response.getContent().stream().map(SearchResultResponse::getId).toList());
+        assertTrue(response.getContent().stream().allMatch(result -> result.getScore() == 1.0));
+        assertEquals(Map.of(SearchType.LESSON, 1L, SearchType.FAQ, 1L, SearchType.SIMULATOR, 1L),
+                response.getTypeCounts());
+        assertEquals(List.of(new SearchFacetResponse(testCategory.getId(), testCategory.getName(), 2L)),
+                response.getCategoryCounts());
+        assertEquals(List.of(), response.getSkippedTypes());
+        assertEquals(3L, response.getTotalElements());
+    }
+
+    @Test
+    @DisplayName("Debe filtrar por tipos y por categoría y paginar")
+    void testFiltersAndPaging() {
+        // Act
+        SearchResponse faqsOnly = searchService.search(word, Set.of(SearchType.FAQ), null, PageRequest.of(0, 10));
+        SearchResponse byCategory = searchService.search(word, null, testCategory.getId(), PageRequest.of(0, 10));
+        SearchResponse secondPage = searchService.search(word, null, null, PageRequest.of(1, 2));
+
+        // Assert
+        assertEquals(List.of(faq.getId()), faqsOnly.getContent().stream().map(SearchResultResponse::getId).toList());
+        assertEquals(Map.of(SearchType.FAQ, 1L), faqsOnly.getTypeCounts());
+
+        assertEquals(List.of(lesson.getId(), simulator.getId()),
+                byCategory.getContent().stream().map(SearchResultResponse::getId).toList());
+        assertEquals(3L, byCategory.getTypeCounts().values().stream().mapToLong(Long::longValue).sum());
+
+        assertEquals(List.of(simulator.getId()),
+                secondPage.getContent().stream().map(SearchResultResponse::getId).toList());
+        assertEquals(2, secondPage.getTotalPages());
+    }
+
+    @Test
+    @DisplayName("Debe devolver copias de las búsquedas en caché")
+    void testCachedResultsAreCopies() {
+        // Arrange: la primera búsqueda queda en caché y el llamante la modifica
+        SearchResponse first = searchService.search(word, null, null, PageRequest.of(0, 10));
+        first.getContent().get(0).setTitle("Modificado");
+        first.getCategoryCounts().get(0).setCount(99L);
+        lessonService.searchLessonSummaries(word, PageRequest.of(0, 10)).getContent().get(0).setTitle("Modificado");
+
+        // Act
+        SearchResponse second = searchService.search(word, null, null, PageRequest.of(0, 10));
+        String lessonTitle = lessonService.searchLessonSummaries(word, PageRequest.of(0, 10)).getContent().get(0).getTitle();
+
+        // Assert
+        assertEquals("Lección " + word, second.getContent().get(0).getTitle());
+        assertEquals(2L, second.getCategoryCounts().get(0).getCount());
+        assertEquals("Lección " + word, lessonTitle);
+    }
+
+    @Test
+    @DisplayName("Debe devolver una página vacía para un texto en blanco")
+    void testBlankText() {
+        SearchResponse response = searchService.search("  ", null, null, PageRequest.of(0, 10));
+
+        assertTrue(response.getContent().isEmpty());
+        assertEquals(0L, response.getTotalElements());
+    }
+}
@@ -0,0 +1,171 @@
+package service;
+
+import exception.ForbiddenException;
+import model.Category;
+import model.Lesson;
+import model.Step;
+import model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración para StepService
+ *
+ * Cubre:
+ * - Reordenar un paso hacia arriba y hacia abajo (desplazamiento masivo)
+ * - Eliminar un paso y cerrar el hueco
+ * - Reordenar todos los pasos en una sola llamada
+ * - Validación de la ordenación completa y del creador
+ * - Creación concurrente de pasos sin órdenes duplicados
+ */
+@DisplayName("StepService Tests")
+class StepServiceTest extends IntegrationTestSupport {
+
+    private User testAdmin;
+    private Lesson testLesson;
+    private List<Long> stepIds;
+
+    @BeforeEach
+    void setUp() {
+        testAdmin = createUser("steps");
+        Category category = createCategory("Pasos");
+        testLesson = createLesson(category, "Lección " + suffix, testAdmin);
+
+        // Pasos A, B, C, D, E con órdenes 1..5
+        stepIds = new ArrayList<>();
+        for (String title : List.of("A", "B", "C", "D", "E")) {
+            stepIds.add(stepService.createStep(testLesson.getId(), stepRequest(title), testAdmin.getId()).getId());
+        }
+    }
+
+    @Test
+    @DisplayName("Debe mover un paso hacia arriba desplazando el rango intermedio")
+    void testReorderUp() {
+        // Act: E pasa a ser el primero
+        stepService.reorderStep(testLesson.getId(), stepIds.get(4), 1, testAdmin.getId());
+
+        // Assert
+        assertEquals(List.of("E", "A", "B", "C", "D"), titles());
+        assertEquals(List.of(1, 2, 3, 4, 5), orders());
+    }
+
+    @Test
+    @DisplayName("Debe mover un paso hacia abajo desplazando el rango intermedio")
+    void testReorderDown() {
+        // Act: B pasa a la cuarta posición
+        stepService.reorderStep(testLesson.getId(), stepIds.get(1), 4, testAdmin.getId());
+
+        // Assert
+        assertEquals(List.of("A", "C", "D", "B", "E"), titles());
+        assertEquals(List.of(1, 2, 3, 4, 5), orders());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un orden fuera de rango")
+    void testReorderOutOfRange() {
+        assertThrows(IllegalArgumentException.class,
+                () -> stepService.reorderStep(testLesson.getId(), stepIds.get(0), 6, testAdmin.getId()));
+        assertThrows(IllegalArgumentException.class,
+                () -> stepService.reorderStep(testLesson.getId(), stepIds.get(0), 0, testAdmin.getId()));
+    }
+
+    @Test
+    @DisplayName("Debe cerrar el hueco al eliminar un paso")
+    void testDeleteShiftsFollowingSteps() {
+        // Act
+        stepService.deleteStep(stepIds.get(1), testAdmin.getId());
+
+        // Assert
+        assertEquals(List.of("A", "C", "D", "E"), titles());
+        assertEquals(List.of(1, 2, 3, 4), orders());
+    }
+
+    @Test
+    @DisplayName("Debe aplicar una ordenación completa en una sola llamada")
+    void testBatchReorder() {
+        // Arrange
+        String versionBefore = stepService.getStepsVersion(testLesson.getId()).orElseThrow().etag();
+
+        // Act
+        stepService.reorderSteps(testLesson.getId(),
+                List.of(stepIds.get(2), stepIds.get(0), stepIds.get(1), stepIds.get(4), stepIds.get(3)),
+                testAdmin.getId());
+
+        // Assert
+        assertEquals(List.of("C", "A", "B", "E", "D"), titles());
+        assertEquals(List.of(1, 2, 3, 4, 5), orders());
+        assertNotEquals(versionBefore, stepService.getStepsVersion(testLesson.getId()).orElseThrow().etag());
+    }
+
+    @Test
+    @DisplayName("Debe rechazar ordenaciones incompletas, con duplicados o de otro creador")
+    void testBatchReorderValidation() {
+        Long lessonId = testLesson.getId();
+        Long adminId = testAdmin.getId();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> stepService.reorderSteps(lessonId, stepIds.subList(0, 4), adminId));
+        assertThrows(IllegalArgumentException.class, () -> stepService.reorderSteps(lessonId,
+                List.of(stepIds.get(0), stepIds.get(0), stepIds.get(1), stepIds.get(2), stepIds.get(3)), adminId));
+        assertThrows(ForbiddenException.class, () -> stepService.reorderSteps(lessonId, stepIds, adminId + 1000));
+
+        // Nada ha cambiado
+        assertEquals(List.of("A", "B", "C", "D", "E"), titles());
+    }
+
+    @Test
+    @DisplayName("Debe asignar órdenes distintos a los pasos creados en paralelo")
+    void testConcurrentCreatesKeepOrdersUnique() throws Exception {
+        // Arrange
+        int threads = 8;
+        int stepsPerThread = 5;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+
+        // Act
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < stepsPerThread; i++) {
+                        stepService.createStep(testLesson.getId(), stepRequest("Paralelo"), testAdmin.getId());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert: 5 pasos iniciales más los concurrentes, numerados sin huecos ni repeticiones
+        List<Integer> orders = orders();
+        assertEquals(5 + threads * stepsPerThread, orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            assertEquals(i + 1, orders.get(i));
+        }
+    }
+
+    private List<String> titles() {
+        return stepService.getStepsByLesson(testLesson.getId()).stream().map(Step::getTitle).toList();
+    }
+
+    private List<Integer> orders() {
+        return stepService.getStepsByLesson(testLesson.getId()).stream().map(Step::getStepOrder).toList();
+    }
+}
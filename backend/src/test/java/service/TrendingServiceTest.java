@@ -0,0 +1,155 @@
+package service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Tests unitarios para TrendingService
+ *
+ * Sin base de datos: las lecciones se dan de alta como publicadas y el tiempo
+ * se pasa explícitamente (vida media de 1 hora).
+ *
+ * Cubre:
+ * - Decaimiento exponencial de la puntuación
+ * - Top-K acotado y ordenado, global y por categoría
+ * - Despublicación con relleno del hueco
+ * - Cambio de referencia tras mucho tiempo sin desbordar
+ */
+@DisplayName("TrendingService Tests")
+class TrendingServiceTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long START = 1_000_000_000L;
+
+    private TrendingService trendingService;
+
+    @BeforeEach
+    void setUp() {
+        trendingService = new TrendingService();
+        ReflectionTestUtils.setField(trendingService, "jdbcTemplate", mock(JdbcTemplate.class));
+        ReflectionTestUtils.setField(trendingService, "latencyMetrics", mock(LatencyMetrics.class));
+        ReflectionTestUtils.setField(trendingService, "topK", 3);
+        ReflectionTestUtils.setField(trendingService, "halfLifeHours", 1.0);
+        trendingService.load(START);
+    }
+
+    // ============================================================================
+    // TESTS DE DECAIMIENTO
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe dar más peso a los accesos recientes")
+    void testRecentAccessesWin() {
+        // Arrange
+        trendingService.lessonPublished(1L, 10L);
+        trendingService.lessonPublished(2L, 10L);
+
+        // Act: 10 accesos antiguos frente a 3 accesos dos vidas medias después
+        access(1L, 10, START);
+        access(2L, 3, START + 2 * HOUR);
+
+        // Assert: 10 / 4 = 2.5 < 3
+        assertEquals(List.of(2L, 1L), trendingService.topLessons(null));
+        assertEquals(2.5, trendingService.currentScore(1L, START + 2 * HOUR), 1e-9);
+        assertEquals(1.5, trendingService.currentScore(2L, START + 3 * HOUR), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Debe ignorar los accesos a lecciones no publicadas")
+    void testUnpublishedLessonsAreIgnored() {
+        // Act
+        access(99L, 5, START);
+
+        // Assert
+        assertTrue(trendingService.topLessons(null).isEmpty());
+        assertEquals(0.0, trendingService.currentScore(99L, START));
+    }
+
+    // ============================================================================
+    // TESTS DE TOP-K
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe mantener solo las K mejores, global y por categoría")
+    void testTopKIsBounded() {
+        // Arrange
+        for (long id = 1; id <= 5; id++) {
+            trendingService.lessonPublished(id, id <= 3 ? 10L : 20L);
+        }
+
+        // Act
+        access(1L, 1, START);
+        access(2L, 5, START);
+        access(3L, 2, START);
+        access(4L, 4, START);
+        access(5L, 3, START);
+
+        // Assert
+        assertEquals(List.of(2L, 4L, 5L), trendingService.topLessons(null));
+        assertEquals(List.of(2L, 3L, 1L), trendingService.topLessons(10L));
+        assertEquals(List.of(4L, 5L), trendingService.topLessons(20L));
+
+        // Una lección fuera del top entra al superar a la última
+        access(1L, 3, START);
+        assertEquals(List.of(2L, 1L, 4L), trendingService.topLessons(null));
+    }
+
+    @Test
+    @DisplayName("Debe rellenar el top al despublicar una lección")
+    void testUnpublishRefillsTop() {
+        // Arrange
+        for (long id = 1; id <= 4; id++) {
+            trendingService.lessonPublished(id, 10L);
+            access(id, (int) id, START);
+        }
+        assertEquals(List.of(4L, 3L, 2L), trendingService.topLessons(null));
+
+        // Act
+        trendingService.lessonUnpublished(4L, 10L);
+
+        // Assert
+        assertEquals(List.of(3L, 2L, 1L), trendingService.topLessons(null));
+        assertEquals(List.of(3L, 2L, 1L), trendingService.topLessons(10L));
+
+        // Al volver a publicarla conserva su puntuación
+        trendingService.lessonPublished(4L, 10L);
+        assertEquals(List.of(4L, 3L, 2L), trendingService.topLessons(null));
+    }
+
+    // ============================================================================
+    // TESTS DE RENORMALIZACIÓN
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe seguir funcionando tras cientos de vidas medias")
+    void testRenormalization() {
+        // Arrange
+        trendingService.lessonPublished(1L, 10L);
+        trendingService.lessonPublished(2L, 10L);
+        access(1L, 1, START);
+
+        // Act: exp(λ·Δt) desbordaría el double sin cambiar la referencia
+        long later = START + 2_000 * HOUR;
+        access(2L, 1, later);
+        access(1L, 2, later);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), trendingService.topLessons(null));
+        assertEquals(2.0, trendingService.currentScore(1L, later), 1e-9);
+        assertTrue(Double.isFinite(trendingService.currentScore(2L, later)));
+    }
+
+    private void access(Long lessonId, int times, long nowMillis) {
+        for (int i = 0; i < times; i++) {
+            trendingService.recordAccess(lessonId, nowMillis);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package service;
+
+import dto.response.CategoryProgressResponse;
+import dto.response.ProgressResponse;
+import exception.ResourceNotFoundException;
+import model.Lesson;
+import model.User;
+import repository.UserLessonProgressRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración para UserLessonProgressService
+ *
+ * Sin @Transactional: el MERGE se ejecuta en sus propias transacciones,
+ * igual que en una petición real. Cada test usa datos con nombres únicos.
+ *
+ * Cubre:
+ * - Creación del progreso en el primer acceso
+ * - Transiciones de completada y favorita
+ * - Usuario o lección inexistentes
+ * - Accesos acumulados en memoria y volcados por lotes
+ * - Resúmenes de progreso actualizados en cada transición
+ * - Accesos y transiciones concurrentes sin incrementos perdidos
+ */
+@DisplayName("UserLessonProgressService Tests")
+class UserLessonProgressServiceTest extends IntegrationTestSupport {
+
+    @Autowired
+    private UserLessonProgressService progressService;
+
+    @Autowired
+    private UserLessonProgressRepository userLessonProgressRepository;
+
+    @Autowired
+    private AccessCounterBuffer accessCounterBuffer;
+
+    @Autowired
+    private ProgressSummaryService progressSummaryService;
+
+    private User testUser;
+    private Lesson testLesson;
+
+    @BeforeEach
+    void setUp() {
+        testUser = createUser("ulp");
+        testLesson = createLesson(createCategory("Progreso"), "Lección " + suffix, testUser);
+    }
+
+    // ============================================================================
+    // TESTS DE TRANSICIONES
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe crear el progreso al volcar el primer acceso")
+    void testFirstAccessCreatesProgress() {
+        // Act
+        ProgressResponse progress = progressService.registerAccess(testUser.getId(), testLesson.getId());
+
+        // Assert: la respuesta ya cuenta el acceso pendiente
+        assertEquals(testUser.getId(), progress.getUserId());
+        assertEquals(testLesson.getId(), progress.getLessonId());
+        assertEquals(testLesson.getTitle(), progress.getLessonTitle());
+        assertEquals(1, progress.getAccessCount());
+        assertFalse(progress.getIsCompleted());
+        assertFalse(progress.getIsFavorite());
+        assertNull(progress.getCompletedAt());
+
+        // Tras el volcado la fila existe con el mismo contador
+        accessCounterBuffer.flush();
+        ProgressResponse persisted = userLessonProgressRepository
+                .findResponseByUserAndLesson(testUser.getId(), testLesson.getId())
+                .orElseThrow();
+        assertNotNull(persisted.getId());
+        assertEquals(1, persisted.getAccessCount());
+        assertEquals(0, accessCounterBuffer.pendingLessonAccesses(testUser.getId(), testLesson.getId()));
+    }
+
+    @Test
+    @DisplayName("Debe sumar los accesos pendientes a las transiciones")
+    void testPendingAccessesAreVisible() {
+        // Arrange
+        progressService.registerAccess(testUser.getId(), testLesson.getId());
+        progressService.registerAccess(testUser.getId(), testLesson.getId());
+
+        // Act
+        ProgressResponse progress = progressService.markAsCompleted(testUser.getId(), testLesson.getId());
+
+        // Assert: 1 del MERGE + 2 pendientes
+        assertEquals(3, progress.getAccessCount());
+        assertEquals(2, accessCounterBuffer.pendingLessonAccesses(testUser.getId(), testLesson.getId()));
+
+        // Tras el volcado siguen contando lo mismo, ahora desde la fila
+        accessCounterBuffer.flush();
+        assertEquals(0, accessCounterBuffer.pendingLessonAccesses(testUser.getId(), testLesson.getId()));
+        assertEquals(3, progressService.registerAccess(testUser.getId(), testLesson.getId()).getAccessCount() - 1);
+    }
+
+    @Test
+    @DisplayName("Debe aplicar las transiciones sin perder el resto de estado")
+    void testTransitions() {
+        // Act & Assert
+        ProgressResponse completed = progressService.markAsCompleted(testUser.getId(), testLesson.getId());
+        assertTrue(completed.getIsCompleted());
+        assertNotNull(completed.getCompletedAt());
+        assertEquals(1, completed.getAccessCount());
+
+        ProgressResponse favorite = progressService.addToFavorites(testUser.getId(), testLesson.getId());
+        assertTrue(favorite.getIsFavorite());
+        assertTrue(favorite.getIsCompleted());
+        assertEquals(completed.getCompletedAt(), favorite.getCompletedAt());
+        assertEquals(2, favorite.getAccessCount());
+
+        ProgressResponse notCompleted = progressService.markAsNotCompleted(testUser.getId(), testLesson.getId());
+        assertFalse(notCompleted.getIsCompleted());
+        assertNull(notCompleted.getCompletedAt());
+        assertTrue(notCompleted.getIsFavorite());
+
+        ProgressResponse notFavorite = progressService.removeFromFavorites(testUser.getId(), testLesson.getId());
+        assertFalse(notFavorite.getIsFavorite());
+        assertEquals(4, notFavorite.getAccessCount());
+        assertEquals(completed.getId(), notFavorite.getId());
+    }
+
+    @Test
+    @DisplayName("Debe lanzar ResourceNotFoundException si la lección no existe")
+    void testUnknownLesson() {
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class,
+                () -> progressService.markAsCompleted(testUser.getId(), Long.MAX_VALUE));
+        assertThrows(ResourceNotFoundException.class,
+                () -> progressService.addToFavorites(Long.MAX_VALUE, testLesson.getId()));
+    }
+
+    // ============================================================================
+    // TESTS DE RESÚMENES
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe actualizar el resumen en cada transición sin contar lecciones no publicadas")
+    void testSummaryFollowsTransitions() {
+        // Act: la lección de prueba no está publicada
+        progressService.markAsCompleted(testUser.getId(), testLesson.getId());
+        progressService.addToFavorites(testUser.getId(), testLesson.getId());
+
+        // Assert
+        assertEquals(0, progressService.countCompletedLessons(testUser.getId()));
+        assertEquals(1, progressService.countFavoriteLessons(testUser.getId()));
+        assertEquals(0.0, progressService.calculateCategoryProgress(
+                testUser.getId(), testLesson.getCategory().getId()));
+
+        // Repetir la transición no cambia los contadores
+        progressService.addToFavorites(testUser.getId(), testLesson.getId());
+        assertEquals(1, progressService.countFavoriteLessons(testUser.getId()));
+
+        progressService.removeFromFavorites(testUser.getId(), testLesson.getId());
+        assertEquals(0, progressService.countFavoriteLessons(testUser.getId()));
+    }
+
+    @Test
+    @DisplayName("Debe contar lo mismo con y sin resumen: solo lecciones publicadas")
+    void testCompletedCountMatchesWithoutSummary() {
+        // Arrange: una lección publicada y otra sin publicar, ambas completadas
+        Lesson published = createPublishedLesson(testLesson.getCategory(), "Publicada " + suffix, testUser);
+        progressService.markAsCompleted(testUser.getId(), published.getId());
+        progressService.markAsCompleted(testUser.getId(), testLesson.getId());
+
+        long completed = progressService.countCompletedLessons(testUser.getId());
+        double global = progressService.calculateGlobalProgress(testUser.getId());
+        double category = progressService.calculateCategoryProgress(testUser.getId(), testLesson.getCategory().getId());
+
+        // Act: sin resumen se calcula desde user_lesson_progress
+        progressSummaryService.deleteUserSummary(testUser.getId());
+
+        // Assert
+        assertEquals(1, completed);
+        assertEquals(completed, progressService.countCompletedLessons(testUser.getId()));
+        assertEquals(global, progressService.calculateGlobalProgress(testUser.getId()));
+        assertEquals(category, progressService.calculateCategoryProgress(testUser.getId(), testLesson.getCategory().getId()));
+        assertEquals(100.0, category);
+    }
+
+    @Test
+    @DisplayName("Debe devolver el progreso de todas las categorías, incluidas las que no tienen avance")
+    @SuppressWarnings("unchecked")
+    void testProgressByCategoryIncludesEveryCategory() {
+        // Arrange
+        progressService.markAsCompleted(testUser.getId(), testLesson.getId());
+
+        // Act
+        Map<String, Object> result = progressService.calculateProgressByCategory(testUser.getId());
+
+        // Assert: la categoría de prueba aparece aunque su lección no esté publicada
+        List<CategoryProgressResponse> categories = (List<CategoryProgressResponse>) result.get("categories");
+        CategoryProgressResponse testCategory = categories.stream()
+                .filter(c -> c.getCategoryId().equals(testLesson.getCategory().getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(0, testCategory.getCompletedLessons());
+        assertEquals(0, testCategory.getTotalLessons());
+        assertEquals(0.0, testCategory.getProgress());
+    }
+
+    // ============================================================================
+    // TESTS DE CONCURRENCIA
+    // ============================================================================
+
+    @Test
+    @DisplayName("Debe volcar todos los accesos concurrentes en una única fila")
+    void testConcurrentAccessesAreNotLost() throws Exception {
+        // Arrange
+        int threads = 8;
+        int accessesPerThread = 25;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+
+        // Act
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < accessesPerThread; i++) {
+                        progressService.registerAccess(testUser.getId(), testLesson.getId());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        accessCounterBuffer.flush();
+        ProgressResponse progress = userLessonProgressRepository
+                .findResponseByUserAndLesson(testUser.getId(), testLesson.getId())
+                .orElseThrow();
+        assertEquals(threads * accessesPerThread, progress.getAccessCount());
+    }
+
+    @Test
+    @DisplayName("Debe aplicar todas las transiciones concurrentes sobre la misma fila")
+    void testConcurrentTransitionsAreNotLost() throws Exception {
+        // Arrange: la fila aún no existe, así que las primeras transiciones compiten por crearla
+        int threads = 8;
+        int transitionsPerThread = 10;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> results = new ArrayList<>();
+
+        // Act: la mitad completa y la otra mitad marca como favorita
+        try {
+            for (int t = 0; t < threads; t++) {
+                boolean complete = t % 2 == 0;
+                results.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < transitionsPerThread; i++) {
+                        if (complete) {
+                            progressService.markAsCompleted(testUser.getId(), testLesson.getId());
+                        } else {
+                            progressService.addToFavorites(testUser.getId(), testLesson.getId());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert: una sola fila con ambos flags y un acceso por transición
+        ProgressResponse progress = userLessonProgressRepository
+                .findResponseByUserAndLesson(testUser.getId(), testLesson.getId())
+                .orElseThrow();
+        assertTrue(progress.getIsCompleted());
+        assertTrue(progress.getIsFavorite());
+        assertNotNull(progress.getCompletedAt());
+        assertEquals(threads * transitionsPerThread, progress.getAccessCount());
+        assertEquals(1, progressService.countFavoriteLessons(testUser.getId()));
+    }
+}
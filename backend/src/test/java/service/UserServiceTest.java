@@ -11,7 +11,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import security.PasswordHashingService;
 
 import java.util.Optional;
 
@@ -35,7 +35,16 @@ class UserServiceTest {
     private UserRepository userRepository;
 
     @Mock
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private LatencyMetrics latencyMetrics;
+
+    @Mock
+    private security.PrincipalCache principalCache;
+
+    @Mock
+    private security.AccountVersionRegistry accountVersionRegistry;
 
     @InjectMocks
     private UserService userService;
@@ -69,7 +78,7 @@ class UserServiceTest {
 
         when(userRepository.existsByUsername("testuser")).thenReturn(false);
         when(userRepository.existsByEmail("test@example.com")).thenReturn(false);
-        when(passwordEncoder.encode("password123")).thenReturn("hashedPassword");
+        when(passwordHashingService.encode("password123")).thenReturn("hashedPassword");
         when(userRepository.save(any(User.class))).thenReturn(expectedUser);
 
         // Act
@@ -210,7 +219,7 @@ class UserServiceTest {
         String rawPassword = "password123";
         String hashedPassword = "$2a$10$hashedPassword";
 
-        when(passwordEncoder.matches(rawPassword, hashedPassword)).thenReturn(true);
+        when(passwordHashingService.matches(rawPassword, hashedPassword)).thenReturn(true);
 
         // Act
         boolean result = userService.validatePassword(rawPassword, hashedPassword);
@@ -226,7 +235,7 @@ class UserServiceTest {
         String rawPassword = "wrongpassword";
         String hashedPassword = "$2a$10$hashedPassword";
 
-        when(passwordEncoder.matches(rawPassword, hashedPassword)).thenReturn(false);
+        when(passwordHashingService.matches(rawPassword, hashedPassword)).thenReturn(false);
 
         // Act
         boolean result = userService.validatePassword(rawPassword, hashedPassword);